@@ -0,0 +1,50 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import android.util.Log;
+
+import com.urbanairship.Logger;
+
+import java.util.Locale;
+
+/**
+ * Shared benchmark helpers.
+ */
+final class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Disables SDK logging. The framework log calls are native and not available on the JVM.
+     */
+    static void quietLogs() {
+        Logger.setLogLevel(Log.ASSERT);
+    }
+
+    /**
+     * Builds a remote data response similar to an in-app automation payload.
+     *
+     * @param count The number of schedules.
+     * @return The JSON string.
+     */
+    static String remoteDataPayload(int count) {
+        StringBuilder builder = new StringBuilder("{\"payloads\":[{\"type\":\"in_app_messages\",\"timestamp\":\"2020-11-02T19:21:21.000Z\",\"data\":{\"in_app_messages\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+
+            builder.append(String.format(Locale.US, "{\"created\":\"2020-11-02T19:21:21.000Z\",\"last_updated\":\"2020-11-02T19:21:21.000Z\","
+                    + "\"message\":{\"message_id\":\"message-%d\",\"display_type\":\"banner\",\"display\":{\"body\":{\"text\":\"Hi \\\"there\\\" \\u00e9\","
+                    + "\"color\":\"#000000\",\"size\":16.5},\"duration\":15,\"placement\":\"bottom\"},\"actions\":{\"deep_link_action\":\"app://deeplink/%d\"}},"
+                    + "\"triggers\":[{\"type\":\"app_init\",\"goal\":1.0},{\"type\":\"custom_event_count\",\"goal\":%d,"
+                    + "\"predicate\":{\"and\":[{\"key\":\"event_name\",\"value\":{\"equals\":\"purchase\"}}]}}],"
+                    + "\"limit\":1,\"priority\":%d,\"audience\":{\"new_user\":false,\"tags\":{\"and\":[{\"tag\":\"cool\"}]}}}", i, i, i + 1, i));
+        }
+        builder.append("]}}]}");
+        return builder.toString();
+    }
+
+}
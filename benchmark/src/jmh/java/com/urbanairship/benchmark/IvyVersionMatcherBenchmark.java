@@ -0,0 +1,43 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.util.IvyVersionMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for version constraints used by audience checks.
+ */
+@State(Scope.Thread)
+public class IvyVersionMatcherBenchmark {
+
+    private IvyVersionMatcher rangeMatcher;
+    private IvyVersionMatcher subVersionMatcher;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.quietLogs();
+        rangeMatcher = IvyVersionMatcher.newMatcher("[1.2.0, 14.3.0[");
+        subVersionMatcher = IvyVersionMatcher.newMatcher("14.+");
+    }
+
+    @Benchmark
+    public IvyVersionMatcher newMatcher() {
+        return IvyVersionMatcher.newMatcher("[1.2.0, 14.3.0[");
+    }
+
+    @Benchmark
+    public boolean applyRange() {
+        return rangeMatcher.apply("14.2.1");
+    }
+
+    @Benchmark
+    public boolean applySubVersion() {
+        return subVersionMatcher.apply("14.3.0");
+    }
+
+}
@@ -0,0 +1,39 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for parsing and writing JSON.
+ */
+@State(Scope.Thread)
+public class JsonBenchmark {
+
+    private String json;
+    private JsonValue value;
+
+    @Setup
+    public void setup() throws JsonException {
+        BenchmarkUtils.quietLogs();
+        json = BenchmarkUtils.remoteDataPayload(20);
+        value = JsonValue.parseString(json);
+    }
+
+    @Benchmark
+    public JsonValue parseString() throws JsonException {
+        return JsonValue.parseString(json);
+    }
+
+    @Benchmark
+    public String toJsonString() {
+        return value.toString();
+    }
+
+}
@@ -0,0 +1,51 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonPredicate;
+import com.urbanairship.json.JsonValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for evaluating JSON predicates against event properties.
+ */
+@State(Scope.Thread)
+public class JsonPredicateBenchmark {
+
+    private JsonPredicate predicate;
+    private JsonMap matchingEvent;
+    private JsonMap missingEvent;
+
+    @Setup
+    public void setup() throws JsonException {
+        BenchmarkUtils.quietLogs();
+
+        predicate = JsonPredicate.parse(JsonValue.parseString("{\"and\":["
+                + "{\"key\":\"event_name\",\"value\":{\"equals\":\"purchase\"}},"
+                + "{\"scope\":[\"properties\",\"cart\"],\"key\":\"total\",\"value\":{\"at_least\":10,\"at_most\":100}},"
+                + "{\"or\":[{\"scope\":[\"properties\"],\"key\":\"category\",\"value\":{\"equals\":\"shoes\"}},"
+                + "{\"not\":[{\"scope\":[\"properties\"],\"key\":\"coupon\",\"value\":{\"is_present\":true}}]}]}]}"));
+
+        matchingEvent = JsonValue.parseString("{\"event_name\":\"purchase\",\"properties\":{\"category\":\"shoes\","
+                + "\"cart\":{\"total\":42.5,\"items\":3}}}").optMap();
+
+        missingEvent = JsonValue.parseString("{\"event_name\":\"view\",\"properties\":{}}").optMap();
+    }
+
+    @Benchmark
+    public boolean applyMatching() {
+        return predicate.apply(matchingEvent);
+    }
+
+    @Benchmark
+    public boolean applyMissing() {
+        return predicate.apply(missingEvent);
+    }
+
+}
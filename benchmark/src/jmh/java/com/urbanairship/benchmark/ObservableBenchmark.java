@@ -0,0 +1,88 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.Predicate;
+import com.urbanairship.reactive.Function;
+import com.urbanairship.reactive.Observable;
+import com.urbanairship.reactive.Subject;
+import com.urbanairship.reactive.Subscriber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Benchmarks for pushing events through Observable chains, similar to the trigger event
+ * pipelines in the automation engine. Run with the gc profiler to compare allocation per event.
+ */
+@State(Scope.Thread)
+public class ObservableBenchmark {
+
+    private Subject<Integer> chainSubject;
+    private Subject<Integer> mergeSubject;
+    private Blackhole blackhole;
+    private int next;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        BenchmarkUtils.quietLogs();
+        this.blackhole = blackhole;
+
+        chainSubject = Subject.create();
+        chainSubject.filter(new Predicate<Integer>() {
+            @Override
+            public boolean apply(Integer value) {
+                return value % 4 != 0;
+            }
+        }).map(new Function<Integer, String>() {
+            @NonNull
+            @Override
+            public String apply(@NonNull Integer value) {
+                return value % 2 == 0 ? "even" : "odd";
+            }
+        }).distinctUntilChanged().subscribe(new Subscriber<String>() {
+            @Override
+            public void onNext(@NonNull String value) {
+                ObservableBenchmark.this.blackhole.consume(value);
+            }
+        });
+
+        mergeSubject = Subject.create();
+        List<Observable<Integer>> observables = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int type = i;
+            observables.add(mergeSubject.filter(new Predicate<Integer>() {
+                @Override
+                public boolean apply(Integer value) {
+                    return value % 10 == type;
+                }
+            }));
+        }
+
+        Observable.merge(observables).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onNext(@NonNull Integer value) {
+                ObservableBenchmark.this.blackhole.consume(value);
+            }
+        });
+    }
+
+    @Benchmark
+    public void mapFilterDistinct() {
+        chainSubject.onNext(next++ & 0xFF);
+    }
+
+    @Benchmark
+    public void mergeFiltered() {
+        mergeSubject.onNext(next++ & 0xFF);
+    }
+
+}
@@ -0,0 +1,47 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.actions.ActionValue;
+import com.urbanairship.push.PushMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmarks for parsing push payloads.
+ */
+@State(Scope.Thread)
+public class PushMessageBenchmark {
+
+    private Map<String, String> data;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.quietLogs();
+
+        data = new HashMap<>();
+        data.put(PushMessage.EXTRA_ALERT, "Your order has shipped!");
+        data.put(PushMessage.EXTRA_SEND_ID, "0ddf5d6c-1a4b-4f9d-9b0a-1f1c2a0b7e3d");
+        data.put(PushMessage.EXTRA_METADATA, "eyJ2ZXJzaW9uX2lkIjoxfQ==");
+        data.put(PushMessage.EXTRA_TITLE, "Shipping update");
+        data.put(PushMessage.EXTRA_ACTIONS, "{\"^d\":\"app://orders/1234\",\"add_tags_action\":[\"shipped\",\"customer\"]}");
+        data.put(PushMessage.EXTRA_INTERACTIVE_TYPE, "ua_shop_now_share");
+        data.put(PushMessage.EXTRA_STYLE, "{\"type\":\"big_text\",\"big_text\":\"Track your package\"}");
+        data.put("com.urbanairship.in_app", "{\"display\":{\"alert\":\"Shipped\"}}");
+    }
+
+    @Benchmark
+    public Map<String, ActionValue> parseActions() {
+        PushMessage message = new PushMessage(data);
+        message.getSendId();
+        message.getAlert();
+        return message.getActions();
+    }
+
+}
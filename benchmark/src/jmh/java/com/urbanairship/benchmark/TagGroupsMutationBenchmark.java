@@ -0,0 +1,52 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.channel.TagGroupsMutation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Benchmarks for collapsing pending tag group mutations.
+ */
+@State(Scope.Thread)
+public class TagGroupsMutationBenchmark {
+
+    private List<TagGroupsMutation> mutations;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.quietLogs();
+
+        mutations = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String group = "group-" + (i % 10);
+            HashSet<String> tags = new HashSet<>(Arrays.asList("tag-" + i, "tag-" + (i + 1), "shared"));
+            switch (i % 3) {
+                case 0:
+                    mutations.add(TagGroupsMutation.newAddTagsMutation(group, tags));
+                    break;
+                case 1:
+                    mutations.add(TagGroupsMutation.newRemoveTagsMutation(group, tags));
+                    break;
+                default:
+                    mutations.add(TagGroupsMutation.newSetTagsMutation(group, tags));
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<TagGroupsMutation> collapseMutations() {
+        return TagGroupsMutation.collapseMutations(mutations);
+    }
+
+}
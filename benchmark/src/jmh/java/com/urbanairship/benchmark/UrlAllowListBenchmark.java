@@ -0,0 +1,50 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.benchmark;
+
+import com.urbanairship.js.UrlAllowList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for URL allow list lookups.
+ */
+@State(Scope.Thread)
+public class UrlAllowListBenchmark {
+
+    private UrlAllowList urlAllowList;
+
+    @Setup
+    public void setup() {
+        BenchmarkUtils.quietLogs();
+
+        urlAllowList = new UrlAllowList();
+        urlAllowList.addEntry("https://*.urbanairship.com");
+        urlAllowList.addEntry("https://*.asnapieu.com");
+        urlAllowList.addEntry("sms:*");
+        urlAllowList.addEntry("mailto:*");
+        urlAllowList.addEntry("tel:*");
+        for (int i = 0; i < 50; i++) {
+            urlAllowList.addEntry("https://cdn" + i + ".example.com/assets/*.png");
+        }
+    }
+
+    @Benchmark
+    public boolean allowedSubdomain() {
+        return urlAllowList.isAllowed("https://dl.urbanairship.com/aaa/message/body");
+    }
+
+    @Benchmark
+    public boolean allowedPath() {
+        return urlAllowList.isAllowed("https://cdn42.example.com/assets/hero.png");
+    }
+
+    @Benchmark
+    public boolean rejected() {
+        return urlAllowList.isAllowed("https://evil.example.org/phish");
+    }
+
+}
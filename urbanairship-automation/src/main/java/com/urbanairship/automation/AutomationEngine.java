@@ -4,6 +4,7 @@ package com.urbanairship.automation;
 
 import android.app.Activity;
 import android.content.Context;
+import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
@@ -76,6 +77,16 @@ import androidx.annotation.WorkerThread;
 public class AutomationEngine {
 
     private long SCHEDULE_LIMIT = 1000;
+
+    /**
+     * Max number of schedule IDs per query, below SQLite's bound parameter limit.
+     */
+    private static final int SCHEDULE_ID_QUERY_BATCH_SIZE = 500;
+
+    /**
+     * Max time trigger progress is kept in memory before it is written to the database.
+     */
+    private static final long TRIGGER_PROGRESS_FLUSH_DELAY_MS = 30000;
     private final List<Integer> COMPOUND_TRIGGER_TYPES = Arrays.asList(Trigger.ACTIVE_SESSION, Trigger.VERSION);
 
     /**
@@ -99,10 +110,20 @@ public class AutomationEngine {
     private Handler backgroundHandler;
     private final Handler mainHandler;
     private ScheduleListener scheduleListener;
+    private volatile TriggerListener triggerListener;
     private final AtomicBoolean isPaused = new AtomicBoolean(false);
     private final LegacyDataMigrator legacyDataMigrator;
     private long startTime;
     private final SparseArray<Long> stateChangeTimeStamps = new SparseArray<>();
+    private boolean isTriggerProgressFlushScheduled;
+
+    private final Runnable triggerProgressFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isTriggerProgressFlushScheduled = false;
+            dao.flushTriggerProgress();
+        }
+    };
 
     @VisibleForTesting
     HandlerThread backgroundThread;
@@ -127,6 +148,7 @@ public class AutomationEngine {
         public void onBackground(long time) {
             AutomationEngine.this.onEventAdded(JsonValue.NULL, Trigger.LIFE_CYCLE_BACKGROUND, 1.00);
             onScheduleConditionsChanged();
+            flushTriggerProgress();
         }
     };
 
@@ -203,6 +225,22 @@ public class AutomationEngine {
 
     }
 
+    /**
+     * Trigger listener.
+     */
+    public interface TriggerListener {
+
+        /**
+         * Called when an idle schedule's trigger is one matching event away from its goal.
+         *
+         * @param schedule The schedule.
+         * @param triggerContext The trigger context the schedule would likely be triggered with.
+         */
+        @WorkerThread
+        void onScheduleTriggerNearGoal(@NonNull Schedule<? extends ScheduleData> schedule, @NonNull TriggerContext triggerContext);
+
+    }
+
     AutomationEngine(@NonNull Context context,
                      @NonNull AirshipRuntimeConfig runtimeConfig,
                      @NonNull Analytics analytics,
@@ -294,7 +332,24 @@ public class AutomationEngine {
         activityMonitor.removeApplicationListener(applicationListener);
         analytics.removeAnalyticsListener(analyticsListener);
         cancelAlarms();
-        backgroundThread.quit();
+        backgroundHandler.removeCallbacks(triggerProgressFlushRunnable);
+
+        // Flush after any trigger updates that are already queued
+        final HandlerThread thread = backgroundThread;
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                dao.flushTriggerProgress();
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                    thread.quit();
+                }
+            }
+        });
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            thread.quitSafely();
+        }
+
         backgroundThread = null;
         isStarted = false;
     }
@@ -597,37 +652,108 @@ public class AutomationEngine {
                     return;
                 }
 
-                applyEdits(entry, edits);
+                Long stateChangeTimeStamp = applyScheduleEdits(entry, edits);
+                dao.update(entry);
+
+                if (stateChangeTimeStamp != null) {
+                    subscribeStateObservables(entry, stateChangeTimeStamp);
+                }
+
+                Logger.verbose("Updated schedule: %s", scheduleId);
+                pendingResult.setResult(true);
+            }
+        });
 
-                boolean subscribeForStateChanges = false;
-                long stateChangeTimeStamp = -1;
+        return pendingResult;
+    }
 
-                boolean isOverLimit = isOverLimit(entry);
-                boolean isExpired = isExpired(entry);
+    /**
+     * Inserts new schedules and edits existing schedules in a single transaction.
+     *
+     * @param schedules The schedules to insert.
+     * @param edits The schedule edits, keyed by schedule ID.
+     * @return A pending result. The result will be {@code false} if the new schedules were not
+     * inserted because of the schedule limit.
+     */
+    @NonNull
+    public PendingResult<Boolean> reconcileSchedules(@NonNull final List<Schedule<? extends ScheduleData>> schedules,
+                                                     @NonNull final Map<String, ScheduleEdits<? extends ScheduleData>> edits) {
+        final PendingResult<Boolean> pendingResult = new PendingResult<>();
 
-                // Check if the schedule needs to be rehabilitated or finished due to the edits
-                if (entry.schedule.executionState == ScheduleState.FINISHED && !isOverLimit && !isExpired) {
-                    subscribeForStateChanges = true;
-                    stateChangeTimeStamp = entry.schedule.executionStateChangeDate;
-                    updateExecutionState(entry, ScheduleState.IDLE);
-                } else if (entry.schedule.executionState != ScheduleState.FINISHED && (isOverLimit || isExpired)) {
-                    updateExecutionState(entry, ScheduleState.FINISHED);
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                cleanSchedules();
 
-                    if (isOverLimit) {
-                        notifyScheduleLimitReached(entry);
+                List<FullSchedule> inserts = Collections.emptyList();
+                boolean result = true;
+                if (!schedules.isEmpty()) {
+                    if (dao.getScheduleCount() + schedules.size() > SCHEDULE_LIMIT) {
+                        Logger.error("AutomationEngine - Unable to insert schedules due to schedule exceeded limit.");
+                        result = false;
                     } else {
-                        notifyExpiredSchedules(Collections.singleton(entry));
+                        inserts = ScheduleConverters.convertSchedules(schedules);
                     }
                 }
 
-                dao.update(entry);
+                List<FullSchedule> updates = new ArrayList<>();
+                Map<FullSchedule, Long> stateChangeTimeStamps = new HashMap<>();
 
-                if (subscribeForStateChanges) {
-                    subscribeStateObservables(entry, stateChangeTimeStamp);
+                List<String> scheduleIds = new ArrayList<>(edits.keySet());
+                for (int i = 0; i < scheduleIds.size(); i += SCHEDULE_ID_QUERY_BATCH_SIZE) {
+                    List<String> batch = scheduleIds.subList(i, Math.min(i + SCHEDULE_ID_QUERY_BATCH_SIZE, scheduleIds.size()));
+                    for (FullSchedule entry : dao.getSchedules(batch)) {
+                        Long stateChangeTimeStamp = applyScheduleEdits(entry, edits.get(entry.schedule.scheduleId));
+                        if (stateChangeTimeStamp != null) {
+                            stateChangeTimeStamps.put(entry, stateChangeTimeStamp);
+                        }
+                        updates.add(entry);
+                    }
                 }
 
-                Logger.verbose("Updated schedule: %s", scheduleId);
-                pendingResult.setResult(true);
+                if (updates.size() != scheduleIds.size()) {
+                    Logger.debug("AutomationEngine - Unable to edit %s schedules that no longer exist.", scheduleIds.size() - updates.size());
+                }
+
+                if (updates.isEmpty() && inserts.isEmpty()) {
+                    pendingResult.setResult(result);
+                    return;
+                }
+
+                dao.updateAndInsert(updates, inserts);
+
+                for (Map.Entry<FullSchedule, Long> entry : stateChangeTimeStamps.entrySet()) {
+                    subscribeStateObservables(entry.getKey(), entry.getValue());
+                }
+
+                if (!inserts.isEmpty()) {
+                    subscribeStateObservables(inserts);
+                    notifyNewSchedule(convertSchedulesUnknownTypes(inserts));
+                }
+
+                Logger.verbose("Reconciled schedules. Inserted: %s, updated: %s", inserts.size(), updates.size());
+                pendingResult.setResult(result);
+            }
+        });
+
+        return pendingResult;
+    }
+
+    /**
+     * Gets the IDs of schedules whose metadata marks them as remote-data schedules, or of in-app
+     * message schedules from the given message source.
+     *
+     * @param messageSource The in-app message source.
+     * @return A pending result.
+     */
+    @NonNull
+    public PendingResult<Set<String>> getRemoteScheduleIds(@NonNull final String messageSource) {
+        final PendingResult<Set<String>> pendingResult = new PendingResult<>();
+
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                pendingResult.setResult(new HashSet<>(dao.getRemoteScheduleIds(messageSource)));
             }
         });
 
@@ -673,6 +799,15 @@ public class AutomationEngine {
         }
     }
 
+    /**
+     * Sets the trigger listener.
+     *
+     * @param triggerListener The listener.
+     */
+    public void setTriggerListener(@Nullable TriggerListener triggerListener) {
+        this.triggerListener = triggerListener;
+    }
+
     /**
      * Creates an event observables for compound triggers.
      *
@@ -1041,11 +1176,14 @@ public class AutomationEngine {
             @Override
             public void run() {
                 Logger.debug("Updating triggers with type: %s", type);
-                List<TriggerEntity> triggerEntities = dao.getActiveTriggers(type);
+
+                // Convert once instead of once per trigger predicate
+                JsonValue event = json.toJsonValue();
+                List<TriggerEntity> triggerEntities = dao.getActiveTriggers(type, event);
                 if (triggerEntities.isEmpty()) {
                     return;
                 }
-                updateTriggers(triggerEntities, json, value);
+                updateTriggers(triggerEntities, event, value);
             }
         });
     }
@@ -1070,8 +1208,10 @@ public class AutomationEngine {
                 Set<String> triggeredSchedules = new HashSet<>();
                 Set<String> cancelledSchedules = new HashSet<>();
                 Map<String, TriggerContext> triggerContextMap = new HashMap<>();
+                Map<String, TriggerContext> nearGoalContextMap = new HashMap<>();
 
                 List<TriggerEntity> triggersToUpdate = new ArrayList<>();
+                boolean checkNearGoal = triggerListener != null;
 
                 for (TriggerEntity trigger : triggerEntities) {
                     if (trigger.jsonPredicate != null && !trigger.jsonPredicate.apply(json)) {
@@ -1091,10 +1231,18 @@ public class AutomationEngine {
                             triggeredSchedules.add(trigger.parentScheduleId);
                             triggerContextMap.put(trigger.parentScheduleId, new TriggerContext(ScheduleConverters.convert(trigger), json.toJsonValue()));
                         }
+                    } else if (checkNearGoal && !trigger.isCancellation && trigger.progress + value >= trigger.goal) {
+                        nearGoalContextMap.put(trigger.parentScheduleId, new TriggerContext(ScheduleConverters.convert(trigger), json.toJsonValue()));
                     }
                 }
 
-                dao.updateTriggers(triggersToUpdate);
+                if (cancelledSchedules.isEmpty() && triggeredSchedules.isEmpty()) {
+                    // Progress only matters once a goal is reached, write it behind
+                    dao.updateTriggerProgress(triggersToUpdate);
+                    scheduleTriggerProgressFlush();
+                } else {
+                    dao.updateTriggers(triggersToUpdate);
+                }
 
                 if (!cancelledSchedules.isEmpty()) {
                     handleCancelledSchedules(dao.getSchedules(cancelledSchedules));
@@ -1103,6 +1251,68 @@ public class AutomationEngine {
                 if (!triggeredSchedules.isEmpty()) {
                     handleTriggeredSchedules(dao.getSchedules(triggeredSchedules), triggerContextMap);
                 }
+
+                nearGoalContextMap.keySet().removeAll(triggeredSchedules);
+                nearGoalContextMap.keySet().removeAll(cancelledSchedules);
+                if (!nearGoalContextMap.isEmpty()) {
+                    notifyTriggersNearGoal(nearGoalContextMap);
+                }
+            }
+        });
+    }
+
+    /**
+     * Notifies the trigger listener of idle schedules that are likely to be triggered by the next
+     * matching event.
+     *
+     * @param triggerContextMap The likely trigger context for each schedule.
+     */
+    @WorkerThread
+    private void notifyTriggersNearGoal(@NonNull Map<String, TriggerContext> triggerContextMap) {
+        TriggerListener listener = this.triggerListener;
+        if (listener == null) {
+            return;
+        }
+
+        for (FullSchedule entry : dao.getSchedules(triggerContextMap.keySet())) {
+            if (entry.schedule.executionState != ScheduleState.IDLE || isExpired(entry)) {
+                continue;
+            }
+
+            Schedule<? extends ScheduleData> schedule = convert(entry);
+            if (schedule != null) {
+                listener.onScheduleTriggerNearGoal(schedule, triggerContextMap.get(entry.schedule.scheduleId));
+            }
+        }
+    }
+
+    /**
+     * Schedules a write of any in-memory trigger progress if one is not already scheduled.
+     */
+    @WorkerThread
+    private void scheduleTriggerProgressFlush() {
+        if (!isTriggerProgressFlushScheduled) {
+            isTriggerProgressFlushScheduled = true;
+            backgroundHandler.postDelayed(triggerProgressFlushRunnable, TRIGGER_PROGRESS_FLUSH_DELAY_MS);
+        }
+    }
+
+    /**
+     * Writes any in-memory trigger progress once the pending trigger updates are processed.
+     */
+    private void flushTriggerProgress() {
+        // Events post their trigger updates from the background thread, so post twice to
+        // run after any updates for events that were added before this call.
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                backgroundHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        backgroundHandler.removeCallbacks(triggerProgressFlushRunnable);
+                        triggerProgressFlushRunnable.run();
+                    }
+                });
             }
         });
     }
@@ -1740,6 +1950,41 @@ public class AutomationEngine {
         scheduleEntity.audience = edits.getAudience() == null ? scheduleEntity.audience : edits.getAudience();
         scheduleEntity.campaigns = edits.getCampaigns() == null ? scheduleEntity.campaigns : edits.getCampaigns();
         scheduleEntity.frequencyConstraintIds = edits.getFrequencyConstraintIds() == null ? scheduleEntity.frequencyConstraintIds : edits.getFrequencyConstraintIds();
+        scheduleEntity.updateIndexedColumns();
+    }
+
+    /**
+     * Applies edits to the schedule entry and updates its execution state if the edits finish or
+     * rehabilitate the schedule. The entry is not saved.
+     *
+     * @param entry The schedule entry.
+     * @param edits The schedule edits.
+     * @return The previous state change time stamp if the schedule was rehabilitated and needs to
+     * subscribe for state changes, otherwise {@code null}.
+     */
+    @Nullable
+    private Long applyScheduleEdits(@NonNull FullSchedule entry, @NonNull ScheduleEdits<? extends ScheduleData> edits) {
+        applyEdits(entry, edits);
+
+        boolean isOverLimit = isOverLimit(entry);
+        boolean isExpired = isExpired(entry);
+
+        // Check if the schedule needs to be rehabilitated or finished due to the edits
+        if (entry.schedule.executionState == ScheduleState.FINISHED && !isOverLimit && !isExpired) {
+            long stateChangeTimeStamp = entry.schedule.executionStateChangeDate;
+            updateExecutionState(entry, ScheduleState.IDLE);
+            return stateChangeTimeStamp;
+        } else if (entry.schedule.executionState != ScheduleState.FINISHED && (isOverLimit || isExpired)) {
+            updateExecutionState(entry, ScheduleState.FINISHED);
+
+            if (isOverLimit) {
+                notifyScheduleLimitReached(entry);
+            } else {
+                notifyExpiredSchedules(Collections.singleton(entry));
+            }
+        }
+
+        return null;
     }
 
     private boolean isExpired(@NonNull FullSchedule entry) {
@@ -8,6 +8,7 @@ import android.os.Looper;
 
 import com.urbanairship.AirshipComponent;
 import com.urbanairship.AirshipComponentGroups;
+import com.urbanairship.AirshipExecutors;
 import com.urbanairship.AirshipLoopers;
 import com.urbanairship.Logger;
 import com.urbanairship.PendingResult;
@@ -18,6 +19,7 @@ import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.automation.auth.AuthException;
 import com.urbanairship.automation.auth.AuthManager;
 import com.urbanairship.automation.deferred.Deferred;
+import com.urbanairship.automation.deferred.DeferredResultCache;
 import com.urbanairship.automation.deferred.DeferredScheduleClient;
 import com.urbanairship.automation.limits.FrequencyChecker;
 import com.urbanairship.automation.limits.FrequencyConstraint;
@@ -35,6 +37,7 @@ import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageManager;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.remotedata.RemoteData;
+import com.urbanairship.util.PrioritizedExecutor;
 import com.urbanairship.util.RetryingExecutor;
 
 import java.util.Collection;
@@ -43,8 +46,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.MainThread;
@@ -69,6 +75,11 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
      */
     private final static String PAUSE_KEY = "com.urbanairship.iam.paused";
 
+    /**
+     * Preference key for enabling/disabling deferred schedule prefetching.
+     */
+    private final static String DEFERRED_PREFETCH_ENABLE_KEY = "com.urbanairship.iam.deferred_prefetch_enabled";
+
     // State
     private final InAppRemoteDataObserver remoteDataSubscriber;
     private final Handler backgroundHandler;
@@ -78,6 +89,15 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
     private final AudienceManager audienceManager;
     private final RetryingExecutor retryingExecutor;
     private final DeferredScheduleClient deferredScheduleClient;
+    private final DeferredResultCache deferredResultCache;
+    private final Executor prefetchExecutor;
+
+    private final AutomationEngine.TriggerListener prefetchTriggerListener = new AutomationEngine.TriggerListener() {
+        @Override
+        public void onScheduleTriggerNearGoal(@NonNull Schedule<? extends ScheduleData> schedule, @NonNull TriggerContext triggerContext) {
+            prefetchDeferred(schedule, triggerContext);
+        }
+    };
     private final FrequencyLimitManager frequencyLimitManager;
 
     private final ActionsScheduleDelegate actionScheduleDelegate;
@@ -153,7 +173,9 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         this.backgroundHandler = new Handler(AirshipLoopers.getBackgroundLooper());
         this.retryingExecutor = RetryingExecutor.newSerialExecutor(Looper.getMainLooper());
 
-        this.deferredScheduleClient = new DeferredScheduleClient(runtimeConfig, new AuthManager(runtimeConfig, airshipChannel));
+        this.deferredScheduleClient = new DeferredScheduleClient(runtimeConfig, new AuthManager(runtimeConfig, airshipChannel, preferenceDataStore));
+        this.deferredResultCache = new DeferredResultCache();
+        this.prefetchExecutor = AirshipExecutors.THREAD_POOL_EXECUTOR;
         this.actionScheduleDelegate = new ActionsScheduleDelegate();
         this.inAppMessageScheduleDelegate = new InAppMessageScheduleDelegate(inAppMessageManager);
         this.frequencyLimitManager = new FrequencyLimitManager(context, runtimeConfig);
@@ -169,6 +191,8 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
                     @NonNull InAppMessageManager inAppMessageManager,
                     @NonNull RetryingExecutor retryingExecutor,
                     @NonNull DeferredScheduleClient deferredScheduleClient,
+                    @NonNull DeferredResultCache deferredResultCache,
+                    @NonNull Executor prefetchExecutor,
                     @NonNull ActionsScheduleDelegate actionsScheduleDelegate,
                     @NonNull InAppMessageScheduleDelegate inAppMessageScheduleDelegate,
                     @NonNull FrequencyLimitManager frequencyLimitManager) {
@@ -180,6 +204,8 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         this.inAppMessageManager = inAppMessageManager;
         this.retryingExecutor = retryingExecutor;
         this.deferredScheduleClient = deferredScheduleClient;
+        this.deferredResultCache = deferredResultCache;
+        this.prefetchExecutor = prefetchExecutor;
         this.backgroundHandler = new Handler(AirshipLoopers.getBackgroundLooper());
         this.actionScheduleDelegate = actionsScheduleDelegate;
         this.inAppMessageScheduleDelegate = inAppMessageScheduleDelegate;
@@ -249,6 +275,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             }
         });
 
+        updateTriggerListener();
         automationEngine.start(driver);
         updateEnginePauseState();
 
@@ -278,20 +305,15 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         remoteDataSubscriber.subscribe(backgroundHandler.getLooper(), new InAppRemoteDataObserver.Delegate() {
             @Override
             @NonNull
-            public PendingResult<Collection<Schedule<? extends ScheduleData>>> getSchedules() {
-                return InAppAutomation.this.getSchedules();
-            }
-
-            @Override
-            @NonNull
-            public PendingResult<Boolean> editSchedule(@NonNull String scheduleId, @NonNull ScheduleEdits<? extends ScheduleData> edits) {
-                return InAppAutomation.this.editSchedule(scheduleId, edits);
+            public PendingResult<Set<String>> getRemoteScheduleIds() {
+                return automationEngine.getRemoteScheduleIds(InAppMessage.SOURCE_REMOTE_DATA);
             }
 
             @NonNull
             @Override
-            public PendingResult<Boolean> schedule(@NonNull List<Schedule<? extends ScheduleData>> schedules) {
-                return InAppAutomation.this.schedule(schedules);
+            public PendingResult<Boolean> reconcileSchedules(@NonNull List<Schedule<? extends ScheduleData>> schedules,
+                                                             @NonNull Map<String, ScheduleEdits<? extends ScheduleData>> edits) {
+                return automationEngine.reconcileSchedules(schedules, edits);
             }
 
             @Override
@@ -500,6 +522,33 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         return getDataStore().getBoolean(PAUSE_KEY, false);
     }
 
+    /**
+     * Enables or disables prefetching deferred schedules.
+     * <p>
+     * When enabled, a deferred schedule is resolved in the background once its trigger is one
+     * matching event away from its goal, e.g. a screen trigger that has been viewed all but one
+     * time. If the schedule triggers shortly after, the prefetched result is used instead of
+     * resolving the schedule after the trigger fires. Disabled by default.
+     *
+     * @param enabled {@code true} to prefetch deferred schedules, otherwise {@code false}.
+     */
+    public void setDeferredPrefetchEnabled(boolean enabled) {
+        getDataStore().put(DEFERRED_PREFETCH_ENABLE_KEY, enabled);
+        updateTriggerListener();
+        if (!enabled) {
+            deferredResultCache.clear();
+        }
+    }
+
+    /**
+     * Returns {@code true} if deferred schedules are prefetched, otherwise {@code false}.
+     *
+     * @return {@code true} if deferred schedules are prefetched, otherwise {@code false}.
+     */
+    public boolean isDeferredPrefetchEnabled() {
+        return getDataStore().getBoolean(DEFERRED_PREFETCH_ENABLE_KEY, false);
+    }
+
     /**
      * Enables or disables automations.
      *
@@ -651,22 +700,26 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             return RetryingExecutor.RESULT_RETRY;
         }
 
-        try {
-            response = deferredScheduleClient.performRequest(deferredScheduleData.getUrl(),
-                    channelId, triggerContext, audienceManager.getTagOverrides(),
-                    audienceManager.getAttributeOverrides());
-        } catch (RequestException e) {
-            if (deferredScheduleData.getRetryOnTimeout()) {
-                Logger.debug(e, "Failed to resolve deferred schedule, will retry. Schedule: %s", schedule.getId());
+        response = getPrefetchedResponse(schedule.getId(), deferredScheduleData, channelId, triggerContext);
+
+        if (response == null) {
+            try {
+                response = deferredScheduleClient.performRequest(deferredScheduleData.getUrl(),
+                        channelId, triggerContext, audienceManager.getTagOverrides(),
+                        audienceManager.getAttributeOverrides());
+            } catch (RequestException e) {
+                if (deferredScheduleData.getRetryOnTimeout()) {
+                    Logger.debug(e, "Failed to resolve deferred schedule, will retry. Schedule: %s", schedule.getId());
+                    return RetryingExecutor.RESULT_RETRY;
+                } else {
+                    Logger.debug(e, "Failed to resolve deferred schedule. Schedule: %s", schedule.getId());
+                    callback.onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
+                    return RetryingExecutor.RESULT_CANCEL;
+                }
+            } catch (AuthException e) {
+                Logger.debug(e, "Failed to resolve deferred schedule: %s", schedule.getId());
                 return RetryingExecutor.RESULT_RETRY;
-            } else {
-                Logger.debug(e, "Failed to resolve deferred schedule. Schedule: %s", schedule.getId());
-                callback.onFinish(AutomationDriver.PREPARE_RESULT_PENALIZE);
-                return RetryingExecutor.RESULT_CANCEL;
             }
-        } catch (AuthException e) {
-            Logger.debug(e, "Failed to resolve deferred schedule: %s", schedule.getId());
-            return RetryingExecutor.RESULT_RETRY;
         }
 
         if (!response.isSuccessful()) {
@@ -690,6 +743,93 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         return RetryingExecutor.RESULT_FINISHED;
     }
 
+    /**
+     * Only listens for triggers that are near their goal while prefetching is enabled, so the
+     * engine does not look up schedules on every trigger update otherwise.
+     */
+    private void updateTriggerListener() {
+        automationEngine.setTriggerListener(isDeferredPrefetchEnabled() ? prefetchTriggerListener : null);
+    }
+
+    /**
+     * Starts resolving a deferred schedule before it is triggered.
+     *
+     * @param schedule The schedule.
+     * @param triggerContext The trigger context the schedule will likely be triggered with.
+     */
+    @WorkerThread
+    private void prefetchDeferred(final @NonNull Schedule<? extends ScheduleData> schedule,
+                                  final @NonNull TriggerContext triggerContext) {
+        if (!Schedule.TYPE_DEFERRED.equals(schedule.getType()) || !isDeferredPrefetchEnabled()
+                || isPaused() || isScheduleInvalid(schedule)) {
+            return;
+        }
+
+        final String channelId = airshipChannel.getId();
+        if (channelId == null) {
+            return;
+        }
+
+        final Deferred deferredScheduleData = (Deferred) schedule.coerceType();
+        if (deferredResultCache.contains(schedule.getId(), deferredScheduleData.getUrl(), channelId, triggerContext)) {
+            return;
+        }
+
+        Logger.verbose("Prefetching deferred schedule: %s", schedule.getId());
+        FutureTask<Response<DeferredScheduleClient.Result>> task = new FutureTask<>(new Callable<Response<DeferredScheduleClient.Result>>() {
+            @Override
+            public Response<DeferredScheduleClient.Result> call() throws Exception {
+                return deferredScheduleClient.performRequest(deferredScheduleData.getUrl(),
+                        channelId, triggerContext, audienceManager.getTagOverrides(),
+                        audienceManager.getAttributeOverrides());
+            }
+        });
+
+        deferredResultCache.put(schedule.getId(), deferredScheduleData.getUrl(), channelId, triggerContext, task);
+        prefetchExecutor.execute(task);
+    }
+
+    /**
+     * Gets the prefetched response for a deferred schedule, waiting for it if the request is
+     * still in flight.
+     *
+     * @param scheduleId The schedule ID.
+     * @param deferredScheduleData The deferred schedule data.
+     * @param channelId The channel ID.
+     * @param triggerContext The trigger context.
+     * @return The prefetched response, or {@code null} if there is no successful prefetched response.
+     */
+    @Nullable
+    private Response<DeferredScheduleClient.Result> getPrefetchedResponse(@NonNull String scheduleId,
+                                                                          @NonNull Deferred deferredScheduleData,
+                                                                          @NonNull String channelId,
+                                                                          @Nullable TriggerContext triggerContext) {
+        Future<Response<DeferredScheduleClient.Result>> future = deferredResultCache.take(scheduleId,
+                deferredScheduleData.getUrl(), channelId, triggerContext);
+        if (future == null) {
+            return null;
+        }
+
+        Response<DeferredScheduleClient.Result> response = null;
+        PrioritizedExecutor.beginBlocking(prefetchExecutor);
+        try {
+            response = future.get();
+        } catch (ExecutionException e) {
+            Logger.debug(e, "Prefetching deferred schedule failed: %s", scheduleId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            PrioritizedExecutor.endBlocking(prefetchExecutor);
+        }
+
+        if (response == null || !response.isSuccessful()) {
+            return null;
+        }
+
+        Logger.verbose("Using prefetched deferred schedule: %s", scheduleId);
+        return response;
+    }
+
     @MainThread
     @AutomationDriver.ReadyResult
     private int onCheckExecutionReadiness(@NonNull Schedule<? extends ScheduleData> schedule) {
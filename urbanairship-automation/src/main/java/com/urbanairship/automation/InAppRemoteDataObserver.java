@@ -13,6 +13,7 @@ import com.urbanairship.UAirship;
 import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.automation.deferred.Deferred;
 import com.urbanairship.automation.limits.FrequencyConstraint;
+import com.urbanairship.automation.storage.ScheduleEntity;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonList;
@@ -30,8 +31,10 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -85,7 +88,7 @@ class InAppRemoteDataObserver {
     private static final String LAST_PAYLOAD_TIMESTAMP_KEY = "com.urbanairship.iam.data.LAST_PAYLOAD_TIMESTAMP";
     private static final String LAST_PAYLOAD_METADATA = "com.urbanairship.iam.data.LAST_PAYLOAD_METADATA";
     private static final String SCHEDULE_NEW_USER_CUTOFF_TIME_KEY = "com.urbanairship.iam.data.NEW_USER_TIME";
-    static final String REMOTE_DATA_METADATA = "com.urbanairship.iaa.REMOTE_DATA_METADATA";
+    static final String REMOTE_DATA_METADATA = ScheduleEntity.REMOTE_DATA_METADATA;
 
     private final PreferenceDataStore preferenceDataStore;
     private final RemoteData remoteData;
@@ -101,14 +104,24 @@ class InAppRemoteDataObserver {
 
     interface Delegate {
 
+        /**
+         * Gets the IDs of all schedules from remote-data.
+         *
+         * @return A pending result.
+         */
         @NonNull
-        PendingResult<Collection<Schedule<? extends ScheduleData>>> getSchedules();
-
-        @NonNull
-        PendingResult<Boolean> editSchedule(@NonNull String scheduleId, @NonNull ScheduleEdits<? extends ScheduleData> edits);
-
+        PendingResult<Set<String>> getRemoteScheduleIds();
+
+        /**
+         * Schedules new schedules and applies edits to existing schedules together.
+         *
+         * @param schedules The schedules to add.
+         * @param edits The edits, keyed by schedule ID.
+         * @return A pending result.
+         */
         @NonNull
-        PendingResult<Boolean> schedule(@NonNull List<Schedule<? extends ScheduleData>> schedules);
+        PendingResult<Boolean> reconcileSchedules(@NonNull List<Schedule<? extends ScheduleData>> schedules,
+                                                  @NonNull Map<String, ScheduleEdits<? extends ScheduleData>> edits);
 
         Future<Boolean> updateConstraints(@NonNull Collection<FrequencyConstraint> constraints);
 
@@ -210,8 +223,13 @@ class InAppRemoteDataObserver {
 
         boolean isMetadataUpToDate = payload.getMetadata().equals(lastPayloadMetadata);
         List<Schedule<? extends ScheduleData>> newSchedules = new ArrayList<>();
-        List<String> incomingScheduleIds = new ArrayList<>();
-        Set<String> scheduledRemoteIds = filterRemoteSchedules(delegate.getSchedules().get());
+        Map<String, ScheduleEdits<? extends ScheduleData>> scheduleEdits = new HashMap<>();
+        Set<String> incomingScheduleIds = new HashSet<>();
+        Set<String> scheduledRemoteIds = delegate.getRemoteScheduleIds().get();
+        if (scheduledRemoteIds == null) {
+            scheduledRemoteIds = Collections.emptySet();
+        }
+
         Collection<FrequencyConstraint> constraints = parseConstraints(payload.getData().opt(CONSTRAINTS_JSON_KEY).optList());
 
         // Update constraints
@@ -256,22 +274,15 @@ class InAppRemoteDataObserver {
                 }
             } else if (scheduledRemoteIds.contains(scheduleId)) {
                 try {
-                    ScheduleEdits<?> edits = parseEdits(messageJson, scheduleMetadata);
-                    Boolean edited = delegate.editSchedule(scheduleId, edits).get();
-                    if (edited != null && edited) {
-                        Logger.debug("Updated in-app automation: %s with edits: %s", scheduleId, edits);
-                    }
+                    ScheduleEdits<? extends ScheduleData> edits = parseEdits(messageJson, scheduleMetadata);
+                    scheduleEdits.put(scheduleId, edits);
+                    Logger.debug("Updated in-app automation: %s with edits: %s", scheduleId, edits);
                 } catch (JsonException e) {
                     Logger.error(e, "Failed to parse in-app automation edits: %s", scheduleId);
                 }
             }
         }
 
-        // Schedule new in-app messages
-        if (!newSchedules.isEmpty()) {
-            delegate.schedule(newSchedules).get();
-        }
-
         // End any messages that are no longer in the listing
         Set<String> schedulesToRemove = new HashSet<>(scheduledRemoteIds);
         schedulesToRemove.removeAll(incomingScheduleIds);
@@ -288,10 +299,15 @@ class InAppRemoteDataObserver {
                                                                        .build();
 
             for (String scheduleId : schedulesToRemove) {
-                delegate.editSchedule(scheduleId, edits).get();
+                scheduleEdits.put(scheduleId, edits);
             }
         }
 
+        // Schedule new in-app messages and apply all edits at once
+        if (!newSchedules.isEmpty() || !scheduleEdits.isEmpty()) {
+            delegate.reconcileSchedules(newSchedules, scheduleEdits).get();
+        }
+
         // Store data
         preferenceDataStore.put(LAST_PAYLOAD_TIMESTAMP_KEY, payload.getTimestamp());
         preferenceDataStore.put(LAST_PAYLOAD_METADATA, payload.getMetadata());
@@ -396,23 +412,6 @@ class InAppRemoteDataObserver {
         return AudienceChecks.checkAudienceForScheduling(context, audience, allowNewUser);
     }
 
-    @NonNull
-    private Set<String> filterRemoteSchedules(@Nullable Collection<Schedule<? extends ScheduleData>> schedules) {
-        if (schedules == null) {
-            return Collections.emptySet();
-        }
-
-        HashSet<String> scheduleIds = new HashSet<>();
-
-        for (Schedule<? extends ScheduleData> schedule : schedules) {
-            if (isRemoteSchedule(schedule)) {
-                scheduleIds.add(schedule.getId());
-            }
-        }
-
-        return scheduleIds;
-    }
-
     /**
      * Gets the schedule new user audience check cut off time.
      *
@@ -91,6 +91,7 @@ class ScheduleConverters {
         entity.data = schedule.getDataAsJson();
         entity.campaigns = schedule.getCampaigns();
         entity.frequencyConstraintIds = schedule.getFrequencyConstraintIds();
+        entity.updateIndexedColumns();
 
         for (Trigger trigger : schedule.getTriggers()) {
             triggerEntities.add(convert(trigger, false, schedule.getId()));
@@ -2,13 +2,23 @@
 
 package com.urbanairship.automation.auth;
 
+import com.urbanairship.AirshipExecutors;
+import com.urbanairship.Logger;
+import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
 import com.urbanairship.util.Clock;
+import com.urbanairship.util.PrioritizedExecutor;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -17,28 +27,56 @@ import androidx.annotation.WorkerThread;
 
 /**
  * Auth manager.
+ * <p>
+ * Concurrent token requests share a single fetch. A cached token that is close to expiring is
+ * still returned, but a new token is fetched in the background. If a background refresh fails,
+ * no more are attempted until {@link #REFRESH_BACKOFF_MS} has passed. The token is persisted so
+ * it can be used after an app restart.
  *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class AuthManager {
 
+    /**
+     * Time before the token expires that it is refreshed in the background.
+     */
+    @VisibleForTesting
+    static final long REFRESH_WINDOW_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Time after a failed background refresh before another one is attempted.
+     */
+    @VisibleForTesting
+    static final long REFRESH_BACKOFF_MS = TimeUnit.MINUTES.toMillis(1);
+
     private final Object cachedAuthLock = new Object();
+    private final Object tokenStoreLock = new Object();
     private final AuthApiClient apiClient;
     private final AirshipChannel channel;
     private final Clock clock;
+    private final AuthTokenStore tokenStore;
+    private final Executor refreshExecutor;
 
     private AuthToken cachedAuth;
+    private boolean isStoreLoaded;
+    private TokenFetch pendingFetch;
+    private long lastRefreshFailure = -1;
 
-    public AuthManager(@NonNull AirshipRuntimeConfig runtimeConfig, @NonNull AirshipChannel channel) {
-        this(new AuthApiClient(runtimeConfig), channel, Clock.DEFAULT_CLOCK);
+    public AuthManager(@NonNull AirshipRuntimeConfig runtimeConfig, @NonNull AirshipChannel channel,
+                       @NonNull PreferenceDataStore dataStore) {
+        this(new AuthApiClient(runtimeConfig), channel, Clock.DEFAULT_CLOCK, new AuthTokenStore(dataStore),
+                AirshipExecutors.THREAD_POOL_EXECUTOR);
     }
 
     @VisibleForTesting
-    AuthManager(@NonNull AuthApiClient apiClient, @NonNull AirshipChannel channel, @NonNull Clock clock) {
+    AuthManager(@NonNull AuthApiClient apiClient, @NonNull AirshipChannel channel, @NonNull Clock clock,
+                @NonNull AuthTokenStore tokenStore, @NonNull Executor refreshExecutor) {
         this.apiClient = apiClient;
         this.channel = channel;
         this.clock = clock;
+        this.tokenStore = tokenStore;
+        this.refreshExecutor = refreshExecutor;
     }
 
     /**
@@ -55,16 +93,110 @@ public class AuthManager {
             throw new AuthException("Unable to create token, channel not created");
         }
 
-        String cachedToken = getCachedToken(channelId);
-        if (cachedToken != null) {
-            return cachedToken;
+        TokenFetch fetch;
+        boolean isOwner = false;
+
+        synchronized (cachedAuthLock) {
+            AuthToken cached = getCachedToken(channelId);
+            if (cached != null) {
+                if (cached.getExpiration() - clock.currentTimeMillis() <= REFRESH_WINDOW_MS) {
+                    refresh(channelId);
+                }
+                return cached.getToken();
+            }
+
+            fetch = pendingFetch;
+            if (fetch == null || !fetch.channelId.equals(channelId)) {
+                fetch = new TokenFetch(channelId);
+                pendingFetch = fetch;
+                isOwner = true;
+            }
+        }
+
+        if (isOwner) {
+            fetch.run();
+        }
+
+        return await(fetch).getToken();
+    }
+
+    /**
+     * Called to clear a token early if its expired.
+     *
+     * @param token The expired token.
+     */
+    public void tokenExpired(@NonNull String token) {
+        synchronized (cachedAuthLock) {
+            loadStoredToken();
+            if (cachedAuth == null || !token.equals(cachedAuth.getToken())) {
+                return;
+            }
+            cachedAuth = null;
+        }
+
+        persist();
+    }
+
+    /**
+     * Starts a background fetch if one is not already running. Must be called with the lock held.
+     *
+     * @param channelId The channel ID.
+     */
+    private void refresh(@NonNull String channelId) {
+        if (pendingFetch != null) {
+            return;
+        }
+
+        if (lastRefreshFailure >= 0 && clock.currentTimeMillis() - lastRefreshFailure < REFRESH_BACKOFF_MS) {
+            return;
+        }
+
+        final TokenFetch fetch = new TokenFetch(channelId);
+        pendingFetch = fetch;
+
+        Logger.verbose("Refreshing auth token.");
+        refreshExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                fetch.run();
+                try {
+                    await(fetch);
+                } catch (AuthException e) {
+                    Logger.debug(e, "Failed to refresh auth token.");
+                    synchronized (cachedAuthLock) {
+                        lastRefreshFailure = clock.currentTimeMillis();
+                    }
+                }
+            }
+        });
+    }
+
+    @NonNull
+    private static AuthToken await(@NonNull TokenFetch fetch) throws AuthException {
+        PrioritizedExecutor.beginBlocking();
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthException("Interrupted while generating token.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AuthException) {
+                throw (AuthException) cause;
+            }
+            throw new AuthException("Failed to generate token.", cause);
+        } finally {
+            PrioritizedExecutor.endBlocking();
         }
+    }
 
+    @NonNull
+    private AuthToken fetchToken(@NonNull String channelId) throws AuthException {
         try {
             Response<AuthToken> authResponse = apiClient.getToken(channelId);
             if (authResponse.getResult() != null && authResponse.isSuccessful()) {
                 cache(authResponse.getResult());
-                return authResponse.getResult().getToken();
+                return authResponse.getResult();
             } else {
                 throw new AuthException("Failed to generate token. Response: " + authResponse);
             }
@@ -73,42 +205,92 @@ public class AuthManager {
         }
     }
 
+    private void cache(AuthToken cachedAuth) {
+        synchronized (cachedAuthLock) {
+            this.cachedAuth = cachedAuth;
+            this.isStoreLoaded = true;
+            this.lastRefreshFailure = -1;
+        }
+
+        persist();
+    }
+
     /**
-     * Called to clear a token early if its expired.
-     *
-     * @param token The expired token.
+     * Persists the current token. Encryption can be slow, so the token is saved outside of the
+     * cached auth lock. The latest token is read under the store lock so concurrent saves can't
+     * leave an older token persisted.
      */
-    public void tokenExpired(@NonNull String token) {
-        synchronized (cachedAuthLock) {
-            if (token.equals(cachedAuth.getToken())) {
-                cachedAuth = null;
+    private void persist() {
+        synchronized (tokenStoreLock) {
+            AuthToken token;
+            synchronized (cachedAuthLock) {
+                token = cachedAuth;
             }
+            tokenStore.save(token);
         }
     }
 
-    private void cache(AuthToken cachedAuth) {
-        synchronized (cachedAuthLock) {
-            this.cachedAuth = cachedAuth;
+    /**
+     * Loads the persisted token on first use. Must be called with the lock held.
+     */
+    private void loadStoredToken() {
+        if (!isStoreLoaded) {
+            isStoreLoaded = true;
+            cachedAuth = tokenStore.load();
         }
     }
 
+    /**
+     * Gets the cached token. Must be called with the lock held.
+     *
+     * @param channelId The channel ID.
+     * @return The cached token if it is valid for the channel, otherwise {@code null}.
+     */
     @Nullable
-    private String getCachedToken(@NonNull String channelId) {
-        synchronized (cachedAuthLock) {
-            if (cachedAuth == null) {
-                return null;
-            }
+    private AuthToken getCachedToken(@NonNull String channelId) {
+        loadStoredToken();
 
-            if (clock.currentTimeMillis() >= cachedAuth.getExpiration()) {
-                return null;
-            }
+        if (cachedAuth == null) {
+            return null;
+        }
 
-            if (!UAStringUtil.equals(channelId, cachedAuth.getChannelId())) {
-                return null;
-            }
+        if (clock.currentTimeMillis() >= cachedAuth.getExpiration()) {
+            return null;
+        }
 
-            return cachedAuth.getToken();
+        if (!UAStringUtil.equals(channelId, cachedAuth.getChannelId())) {
+            return null;
         }
+
+        return cachedAuth;
+    }
+
+    /**
+     * A token fetch shared by all callers waiting on a token for the same channel.
+     */
+    private class TokenFetch extends FutureTask<AuthToken> {
+
+        private final String channelId;
+
+        TokenFetch(@NonNull final String channelId) {
+            super(new Callable<AuthToken>() {
+                @Override
+                public AuthToken call() throws AuthException {
+                    return fetchToken(channelId);
+                }
+            });
+            this.channelId = channelId;
+        }
+
+        @Override
+        protected void done() {
+            synchronized (cachedAuthLock) {
+                if (pendingFetch == this) {
+                    pendingFetch = null;
+                }
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,197 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.auth;
+
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Base64;
+
+import com.urbanairship.Logger;
+import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Persists the auth token encrypted in the {@link PreferenceDataStore} so it survives app restarts.
+ * <p>
+ * Tokens are encrypted with an AES key kept in the Android Keystore. The Keystore is not
+ * available before Android M, so tokens are not persisted on older devices.
+ */
+class AuthTokenStore {
+
+    private static final String TOKEN_KEY = "com.urbanairship.automation.auth.TOKEN";
+
+    private static final String CHANNEL_ID_KEY = "channel_id";
+    private static final String TOKEN_VALUE_KEY = "token";
+    private static final String EXPIRATION_KEY = "expiration";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Encrypts and decrypts the stored token.
+     */
+    interface Encryptor {
+
+        @NonNull
+        byte[] encrypt(@NonNull byte[] data) throws GeneralSecurityException, IOException;
+
+        @NonNull
+        byte[] decrypt(@NonNull byte[] data) throws GeneralSecurityException, IOException;
+
+    }
+
+    private final PreferenceDataStore dataStore;
+    private final Encryptor encryptor;
+
+    AuthTokenStore(@NonNull PreferenceDataStore dataStore) {
+        this(dataStore, Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? new KeyStoreEncryptor() : null);
+    }
+
+    @VisibleForTesting
+    AuthTokenStore(@NonNull PreferenceDataStore dataStore, @Nullable Encryptor encryptor) {
+        this.dataStore = dataStore;
+        this.encryptor = encryptor;
+    }
+
+    /**
+     * Loads the stored token.
+     *
+     * @return The stored token, or {@code null} if no token is stored or it could not be decrypted.
+     */
+    @Nullable
+    @WorkerThread
+    AuthToken load() {
+        String encoded = dataStore.getString(TOKEN_KEY, null);
+        if (encoded == null || encryptor == null) {
+            return null;
+        }
+
+        try {
+            byte[] decrypted = encryptor.decrypt(Base64.decode(encoded, Base64.NO_WRAP));
+            JsonMap json = JsonValue.parseString(new String(decrypted, UTF_8)).optMap();
+
+            String channelId = json.opt(CHANNEL_ID_KEY).getString();
+            String token = json.opt(TOKEN_VALUE_KEY).getString();
+            if (channelId == null || token == null) {
+                throw new JsonException("Invalid token: " + json);
+            }
+
+            return new AuthToken(channelId, token, json.opt(EXPIRATION_KEY).getLong(0));
+        } catch (GeneralSecurityException | IOException | JsonException | RuntimeException e) {
+            // Most likely the key was lost, e.g. the data was restored on a new device. Some
+            // Keystore implementations also throw runtime exceptions such as ProviderException.
+            Logger.debug(e, "Unable to load auth token.");
+            dataStore.remove(TOKEN_KEY);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the token, or clears the stored token.
+     *
+     * @param authToken The token, or {@code null} to clear the stored token.
+     */
+    @WorkerThread
+    void save(@Nullable AuthToken authToken) {
+        if (authToken == null || encryptor == null) {
+            dataStore.remove(TOKEN_KEY);
+            return;
+        }
+
+        String json = JsonMap.newBuilder()
+                             .put(CHANNEL_ID_KEY, authToken.getChannelId())
+                             .put(TOKEN_VALUE_KEY, authToken.getToken())
+                             .put(EXPIRATION_KEY, authToken.getExpiration())
+                             .build()
+                             .toString();
+
+        try {
+            byte[] encrypted = encryptor.encrypt(json.getBytes(UTF_8));
+            dataStore.put(TOKEN_KEY, Base64.encodeToString(encrypted, Base64.NO_WRAP));
+        } catch (GeneralSecurityException | IOException | RuntimeException e) {
+            // The token is still cached in memory
+            Logger.debug(e, "Unable to store auth token.");
+            dataStore.remove(TOKEN_KEY);
+        }
+    }
+
+    /**
+     * AES-GCM encryption with a key stored in the Android Keystore. The IV is prepended to the
+     * encrypted data.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.M)
+    private static class KeyStoreEncryptor implements Encryptor {
+
+        private static final String KEY_STORE = "AndroidKeyStore";
+        private static final String KEY_ALIAS = "com.urbanairship.automation.auth";
+        private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+        private static final int IV_LENGTH = 12;
+        private static final int TAG_LENGTH_BITS = 128;
+
+        @NonNull
+        @Override
+        public byte[] encrypt(@NonNull byte[] data) throws GeneralSecurityException, IOException {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, getKey());
+
+            byte[] iv = cipher.getIV();
+            byte[] encrypted = cipher.doFinal(data);
+
+            byte[] result = new byte[iv.length + encrypted.length];
+            System.arraycopy(iv, 0, result, 0, iv.length);
+            System.arraycopy(encrypted, 0, result, iv.length, encrypted.length);
+            return result;
+        }
+
+        @NonNull
+        @Override
+        public byte[] decrypt(@NonNull byte[] data) throws GeneralSecurityException, IOException {
+            if (data.length <= IV_LENGTH) {
+                throw new GeneralSecurityException("Invalid data");
+            }
+
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, getKey(), new GCMParameterSpec(TAG_LENGTH_BITS, data, 0, IV_LENGTH));
+            return cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH);
+        }
+
+        @NonNull
+        private synchronized SecretKey getKey() throws GeneralSecurityException, IOException {
+            KeyStore keyStore = KeyStore.getInstance(KEY_STORE);
+            keyStore.load(null);
+
+            KeyStore.Entry entry = keyStore.getEntry(KEY_ALIAS, null);
+            if (entry instanceof KeyStore.SecretKeyEntry) {
+                return ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+            }
+
+            KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEY_STORE);
+            generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                    .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                    .setKeySize(256)
+                    .build());
+            return generator.generateKey();
+        }
+
+    }
+
+}
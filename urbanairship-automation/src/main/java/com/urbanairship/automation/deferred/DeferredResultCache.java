@@ -0,0 +1,153 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.deferred;
+
+import com.urbanairship.automation.TriggerContext;
+import com.urbanairship.http.Response;
+import com.urbanairship.util.Clock;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Short lived cache of deferred schedule requests that were started before the schedule was
+ * triggered.
+ * <p>
+ * An entry is only handed out if the schedule is resolved for the same URL, channel, trigger and
+ * trigger event within the TTL, and only once. The request includes the event, so a result that was
+ * prefetched for a different event payload is never used.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class DeferredResultCache {
+
+    /**
+     * Default time a prefetched result is valid for.
+     */
+    public static final long DEFAULT_TTL_MS = 30000;
+
+    private static final int MAX_ENTRIES = 50;
+
+    private final Clock clock;
+    private final long ttlMs;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public DeferredResultCache() {
+        this(Clock.DEFAULT_CLOCK, DEFAULT_TTL_MS);
+    }
+
+    @VisibleForTesting
+    DeferredResultCache(@NonNull Clock clock, long ttlMs) {
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Checks if there is a valid entry for the schedule.
+     *
+     * @param scheduleId The schedule ID.
+     * @param url The deferred URL.
+     * @param channelId The channel ID.
+     * @param triggerContext The trigger context.
+     * @return {@code true} if a matching entry exists, otherwise {@code false}.
+     */
+    public synchronized boolean contains(@NonNull String scheduleId, @NonNull URL url, @NonNull String channelId, @NonNull TriggerContext triggerContext) {
+        Entry entry = entries.get(scheduleId);
+        return entry != null && !isExpired(entry) && entry.matches(url, channelId, triggerContext);
+    }
+
+    /**
+     * Adds an entry.
+     *
+     * @param scheduleId The schedule ID.
+     * @param url The deferred URL.
+     * @param channelId The channel ID.
+     * @param triggerContext The trigger context the request was made for.
+     * @param response The pending response.
+     */
+    public synchronized void put(@NonNull String scheduleId, @NonNull URL url, @NonNull String channelId,
+                                 @NonNull TriggerContext triggerContext, @NonNull Future<Response<DeferredScheduleClient.Result>> response) {
+        trim();
+        if (entries.size() >= MAX_ENTRIES && !entries.containsKey(scheduleId)) {
+            return;
+        }
+
+        entries.put(scheduleId, new Entry(url.toString(), channelId, triggerContext, response, clock.elapsedRealtime() + ttlMs));
+    }
+
+    /**
+     * Removes and returns the entry for the schedule if it matches the request.
+     *
+     * @param scheduleId The schedule ID.
+     * @param url The deferred URL.
+     * @param channelId The channel ID.
+     * @param triggerContext The trigger context.
+     * @return The pending response, or {@code null} if there is no valid entry.
+     */
+    @Nullable
+    public synchronized Future<Response<DeferredScheduleClient.Result>> take(@NonNull String scheduleId, @NonNull URL url,
+                                                                            @NonNull String channelId, @Nullable TriggerContext triggerContext) {
+        Entry entry = entries.remove(scheduleId);
+        if (entry == null || triggerContext == null || isExpired(entry)) {
+            return null;
+        }
+
+        return entry.matches(url, channelId, triggerContext) ? entry.response : null;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private void trim() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean isExpired(@NonNull Entry entry) {
+        return clock.elapsedRealtime() >= entry.expiry;
+    }
+
+    private static class Entry {
+
+        private final String url;
+        private final String channelId;
+        private final TriggerContext triggerContext;
+        private final Future<Response<DeferredScheduleClient.Result>> response;
+        private final long expiry;
+
+        Entry(@NonNull String url, @NonNull String channelId, @NonNull TriggerContext triggerContext,
+              @NonNull Future<Response<DeferredScheduleClient.Result>> response, long expiry) {
+            this.url = url;
+            this.channelId = channelId;
+            this.triggerContext = triggerContext;
+            this.response = response;
+            this.expiry = expiry;
+        }
+
+        boolean matches(@NonNull URL url, @NonNull String channelId, @NonNull TriggerContext triggerContext) {
+            return this.url.equals(url.toString()) && this.channelId.equals(channelId) && this.triggerContext.equals(triggerContext);
+        }
+
+    }
+
+}
@@ -44,7 +44,7 @@ public class FrequencyLimitManager {
      * A frequency checker will have a strong reference to the list of constraints entities. Once
      * the checker is cleaned up this should remove the values from the map.
      */
-    private final Map<ConstraintEntity, List<OccurrenceEntity>> occurrencesMap = new WeakHashMap<>();
+    private final Map<ConstraintEntity, OccurrenceWindow> occurrencesMap = new WeakHashMap<>();
 
     /*
      * List of pending occurrences to write to the database.
@@ -199,10 +199,10 @@ public class FrequencyLimitManager {
             pendingOccurrences.add(occurrence);
 
             // Update any constraints that are still active
-            for (Map.Entry<ConstraintEntity, List<OccurrenceEntity>> entry : occurrencesMap.entrySet()) {
+            for (Map.Entry<ConstraintEntity, OccurrenceWindow> entry : occurrencesMap.entrySet()) {
                 ConstraintEntity constraint = entry.getKey();
                 if (constraint != null && id.equals(constraint.constraintId)) {
-                    entry.getValue().add(occurrence);
+                    entry.getValue().add(timeMillis);
                 }
             }
         }
@@ -225,14 +225,19 @@ public class FrequencyLimitManager {
         Collection<ConstraintEntity> constraints = dao.getConstraints(constraintIds);
 
         for (ConstraintEntity constraint : constraints) {
-            List<OccurrenceEntity> occurrences = dao.getOccurrences(constraint.constraintId);
+            // Only the most recent occurrences up to the count can affect the limit
+            OccurrenceWindow window = new OccurrenceWindow(constraint.count);
+            for (OccurrenceEntity entity : dao.getRecentOccurrences(constraint.constraintId, constraint.count)) {
+                window.add(entity.timeStamp);
+            }
+
             synchronized (lock) {
                 for (OccurrenceEntity entity : pendingOccurrences) {
                     if (entity.parentConstraintId.equals(constraint.constraintId)) {
-                        occurrences.add(entity);
+                        window.add(entity.timeStamp);
                     }
                 }
-                occurrencesMap.put(constraint, occurrences);
+                occurrencesMap.put(constraint, window);
             }
         }
 
@@ -246,24 +251,34 @@ public class FrequencyLimitManager {
             pendingOccurrences.clear();
         }
 
+        Set<String> constraintIds = new HashSet<>();
         for (OccurrenceEntity occurrence : pending) {
             try {
                 dao.insert(occurrence);
+                constraintIds.add(occurrence.parentConstraintId);
             } catch (SQLiteException e) {
                 Logger.verbose(e);
             }
         }
-    }
 
-    private boolean isConstraintOverLimit(@NonNull ConstraintEntity constraint) {
-        List<OccurrenceEntity> occurrences = occurrencesMap.get(constraint);
+        if (constraintIds.isEmpty()) {
+            return;
+        }
 
-        if (occurrences == null || occurrences.size() < constraint.count) {
-            return false;
+        // Prune any occurrences that can no longer affect the limit
+        long timeMillis = clock.currentTimeMillis();
+        try {
+            for (ConstraintEntity constraint : dao.getConstraints(constraintIds)) {
+                dao.deleteOccurrences(constraint.constraintId, timeMillis - constraint.range, constraint.count);
+            }
+        } catch (SQLiteException e) {
+            Logger.verbose(e);
         }
+    }
 
-        long timeSinceOccurrence = clock.currentTimeMillis() - occurrences.get(occurrences.size() - constraint.count).timeStamp;
-        return timeSinceOccurrence <= constraint.range;
+    private boolean isConstraintOverLimit(@NonNull ConstraintEntity constraint) {
+        OccurrenceWindow window = occurrencesMap.get(constraint);
+        return window != null && window.isOverLimit(clock.currentTimeMillis(), constraint.range);
     }
 
     @NonNull
@@ -275,4 +290,46 @@ public class FrequencyLimitManager {
         return constraintIds;
     }
 
+    /**
+     * Ring buffer of the most recent occurrence times for a constraint, bounded by the
+     * constraint count.
+     */
+    private static class OccurrenceWindow {
+
+        private final long[] timeStamps;
+        private int start = 0;
+        private int size = 0;
+
+        OccurrenceWindow(int count) {
+            this.timeStamps = new long[Math.max(count, 1)];
+        }
+
+        /**
+         * Adds an occurrence, replacing the oldest occurrence if the window is full.
+         *
+         * @param timeStamp The occurrence time.
+         */
+        void add(long timeStamp) {
+            if (size < timeStamps.length) {
+                timeStamps[(start + size) % timeStamps.length] = timeStamp;
+                size++;
+            } else {
+                timeStamps[start] = timeStamp;
+                start = (start + 1) % timeStamps.length;
+            }
+        }
+
+        /**
+         * Checks if the window is full and the oldest occurrence is within the range.
+         *
+         * @param timeMillis The current time.
+         * @param range The constraint range.
+         * @return {@code true} if over the limit, otherwise {@code false}.
+         */
+        boolean isOverLimit(long timeMillis, long range) {
+            return size == timeStamps.length && timeMillis - timeStamps[start] <= range;
+        }
+
+    }
+
 }
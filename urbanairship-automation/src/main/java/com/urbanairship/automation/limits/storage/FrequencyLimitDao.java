@@ -40,6 +40,13 @@ public interface FrequencyLimitDao {
     @Query("SELECT * FROM occurrences WHERE parentConstraintId = :constraintId ORDER BY timeStamp ASC")
     List<OccurrenceEntity> getOccurrences(String constraintId);
 
+    @Query("SELECT * FROM (SELECT * FROM occurrences WHERE parentConstraintId = :constraintId ORDER BY timeStamp DESC LIMIT :limit) ORDER BY timeStamp ASC")
+    List<OccurrenceEntity> getRecentOccurrences(String constraintId, int limit);
+
+    @Query("DELETE FROM occurrences WHERE parentConstraintId = :constraintId AND (timeStamp < :minTimeStamp OR id NOT IN " +
+            "(SELECT id FROM occurrences WHERE parentConstraintId = :constraintId ORDER BY timeStamp DESC LIMIT :count))")
+    void deleteOccurrences(String constraintId, long minTimeStamp, int count);
+
     @Delete
     @Transaction
     void delete(ConstraintEntity entity);
@@ -2,6 +2,8 @@
 
 package com.urbanairship.automation.storage;
 
+import com.urbanairship.json.JsonSerializable;
+
 import java.util.Collection;
 import java.util.List;
 
@@ -117,6 +119,45 @@ public abstract class AutomationDao {
     @NonNull
     public abstract List<TriggerEntity> getActiveTriggers(int type);
 
+    @Query("SELECT scheduleId FROM schedules WHERE (isRemote = 1) OR (messageSource = :messageSource)")
+    @NonNull
+    public abstract List<String> getRemoteScheduleIds(@NonNull String messageSource);
+
+    @Query("SELECT MIN(scheduleStart) FROM schedules " +
+            "WHERE (executionState != " + ScheduleState.FINISHED + ") " +
+            "AND (scheduleStart > strftime('%s', 'now') * 1000)")
+    @Nullable
+    public abstract Long getNextScheduleStart();
+
+    /**
+     * Gets the active triggers for the type that could match the event. By default this returns
+     * all the active triggers for the type.
+     *
+     * @param type The trigger type.
+     * @param event The event.
+     * @return The list of triggers.
+     */
+    @NonNull
+    public List<TriggerEntity> getActiveTriggers(int type, @NonNull JsonSerializable event) {
+        return getActiveTriggers(type);
+    }
+
+    /**
+     * Updates trigger progress that does not need to be persisted right away. By default the
+     * triggers are written immediately.
+     *
+     * @param entities The triggers.
+     */
+    public void updateTriggerProgress(@NonNull List<TriggerEntity> entities) {
+        updateTriggers(entities);
+    }
+
+    /**
+     * Writes any trigger progress that has not been persisted yet.
+     */
+    public void flushTriggerProgress() {
+    }
+
     @Transaction
     public void insert(@NonNull Collection<FullSchedule> entries) {
         for (FullSchedule entry : entries) {
@@ -138,6 +179,22 @@ public abstract class AutomationDao {
         }
     }
 
+    /**
+     * Updates and inserts schedules in a single transaction.
+     *
+     * @param updates The schedules to update.
+     * @param inserts The schedules to insert.
+     */
+    @Transaction
+    public void updateAndInsert(@NonNull Collection<FullSchedule> updates, @NonNull Collection<FullSchedule> inserts) {
+        updateSchedules(updates);
+        for (FullSchedule entry : inserts) {
+            if (entry != null) {
+                insert(entry);
+            }
+        }
+    }
+
     public void update(@NonNull FullSchedule entry) {
         update(entry.schedule, entry.triggers);
     }
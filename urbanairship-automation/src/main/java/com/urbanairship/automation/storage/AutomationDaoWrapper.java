@@ -3,10 +3,14 @@
 package com.urbanairship.automation.storage;
 
 import com.urbanairship.Logger;
+import com.urbanairship.json.JsonSerializable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -14,6 +18,18 @@ import androidx.annotation.RestrictTo;
 
 /**
  * Wrapper around the AutomationDao that catches any SQL exceptions.
+ * <p>
+ * Active triggers are kept in an in-memory {@link TriggerIndex} that is cleared whenever a
+ * schedule is inserted, updated, or deleted. All active trigger queries, including the ones for a
+ * single schedule, are served from the index so there is only ever one entity per trigger. Trigger
+ * progress updates keep the index valid since the indexed trigger entities are the ones being
+ * updated.
+ * <p>
+ * Trigger progress written with {@link #updateTriggerProgress(List)} is held in memory until
+ * {@link #flushTriggerProgress()} is called or until any schedules are read or written, so the
+ * database is always up to date before it is queried for full schedules. Since the indexed
+ * entities are shared, pending progress for a trigger always holds the latest progress from every
+ * trigger stream.
  *
  * @hide
  */
@@ -21,6 +37,8 @@ import androidx.annotation.RestrictTo;
 public class AutomationDaoWrapper extends AutomationDao {
 
     private final AutomationDao dao;
+    private final TriggerIndex triggerIndex = new TriggerIndex();
+    private final Map<Integer, TriggerEntity> pendingProgress = new LinkedHashMap<>();
 
     public AutomationDaoWrapper(@NonNull AutomationDao dao) {
         this.dao = dao;
@@ -28,6 +46,8 @@ public class AutomationDaoWrapper extends AutomationDao {
 
     @Override
     public void insert(@NonNull ScheduleEntity entity, @NonNull List<TriggerEntity> entities) {
+        flushTriggerProgress();
+        triggerIndex.invalidate();
         try {
             dao.insert(entity, entities);
         } catch (Exception e) {
@@ -37,6 +57,8 @@ public class AutomationDaoWrapper extends AutomationDao {
 
     @Override
     public void update(@NonNull ScheduleEntity entity, @NonNull List<TriggerEntity> entities) {
+        flushTriggerProgress();
+        triggerIndex.invalidate();
         try {
             dao.update(entity, entities);
         } catch (Exception e) {
@@ -46,15 +68,53 @@ public class AutomationDaoWrapper extends AutomationDao {
 
     @Override
     public void updateTriggers(@NonNull List<TriggerEntity> entities) {
+        synchronized (pendingProgress) {
+            for (TriggerEntity entity : entities) {
+                pendingProgress.remove(entity.id);
+            }
+        }
+
+        try {
+            dao.updateTriggers(entities);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to update triggers %s", entities);
+            triggerIndex.invalidate();
+        }
+    }
+
+    @Override
+    public void updateTriggerProgress(@NonNull List<TriggerEntity> entities) {
+        synchronized (pendingProgress) {
+            for (TriggerEntity entity : entities) {
+                pendingProgress.put(entity.id, entity);
+            }
+        }
+    }
+
+    @Override
+    public void flushTriggerProgress() {
+        List<TriggerEntity> entities;
+        synchronized (pendingProgress) {
+            if (pendingProgress.isEmpty()) {
+                return;
+            }
+
+            entities = new ArrayList<>(pendingProgress.values());
+            pendingProgress.clear();
+        }
+
         try {
             dao.updateTriggers(entities);
         } catch (Exception e) {
             Logger.error(e, "Failed to update triggers %s", entities);
+            triggerIndex.invalidate();
         }
     }
 
     @Override
     public void delete(@NonNull ScheduleEntity entity) {
+        flushTriggerProgress();
+        triggerIndex.invalidate();
         try {
             dao.delete(entity);
         } catch (Exception e) {
@@ -62,6 +122,17 @@ public class AutomationDaoWrapper extends AutomationDao {
         }
     }
 
+    @Override
+    public void updateAndInsert(@NonNull Collection<FullSchedule> updates, @NonNull Collection<FullSchedule> inserts) {
+        flushTriggerProgress();
+        triggerIndex.invalidate();
+        try {
+            dao.updateAndInsert(updates, inserts);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to update schedules %s and insert schedules %s", updates, inserts);
+        }
+    }
+
     @Override
     public int getScheduleCount() {
         try {
@@ -75,6 +146,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedules() {
+        flushTriggerProgress();
         try {
             return dao.getSchedules();
         } catch (Exception e) {
@@ -86,6 +158,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedulesByType(@NonNull String type) {
+        flushTriggerProgress();
         try {
             return dao.getSchedulesByType(type);
         } catch (Exception e) {
@@ -97,6 +170,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @Nullable
     @Override
     public FullSchedule getSchedule(@NonNull String scheduleId) {
+        flushTriggerProgress();
         try {
             return dao.getSchedule(scheduleId);
         } catch (Exception e) {
@@ -108,6 +182,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @Nullable
     @Override
     public FullSchedule getSchedule(@NonNull String scheduleId, @NonNull String type) {
+        flushTriggerProgress();
         try {
             return dao.getSchedule(scheduleId, type);
         } catch (Exception e) {
@@ -119,6 +194,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedules(@NonNull Collection<String> scheduleIds) {
+        flushTriggerProgress();
         try {
             return dao.getSchedules(scheduleIds);
         } catch (Exception e) {
@@ -130,6 +206,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedules(@NonNull Collection<String> scheduleIds, @NonNull String type) {
+        flushTriggerProgress();
         try {
             return dao.getSchedules(scheduleIds, type);
         } catch (Exception e) {
@@ -141,6 +218,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedulesWithGroup(@NonNull String group, @NonNull String type) {
+        flushTriggerProgress();
         try {
             return dao.getSchedulesWithGroup(group, type);
         } catch (Exception e) {
@@ -152,6 +230,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedulesWithGroup(@NonNull String group) {
+        flushTriggerProgress();
         try {
             return dao.getSchedulesWithGroup(group);
         } catch (Exception e) {
@@ -163,6 +242,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getSchedulesWithStates(int... executionStates) {
+        flushTriggerProgress();
         try {
             return dao.getSchedulesWithStates(executionStates);
         } catch (Exception e) {
@@ -174,6 +254,7 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<FullSchedule> getActiveExpiredSchedules() {
+        flushTriggerProgress();
         try {
             return dao.getActiveExpiredSchedules();
         } catch (Exception e) {
@@ -185,22 +266,76 @@ public class AutomationDaoWrapper extends AutomationDao {
     @NonNull
     @Override
     public List<TriggerEntity> getActiveTriggers(int type, @NonNull String scheduleId) {
+        List<TriggerEntity> triggers = new ArrayList<>();
+        for (TriggerEntity trigger : getActiveTriggers(type)) {
+            if (scheduleId.equals(trigger.parentScheduleId)) {
+                triggers.add(trigger);
+            }
+        }
+
+        return triggers;
+    }
+
+    @NonNull
+    @Override
+    public List<TriggerEntity> getActiveTriggers(int type) {
+        List<TriggerEntity> triggers = triggerIndex.get(type, System.currentTimeMillis());
+        if (triggers == null) {
+            loadTriggers(type);
+            triggers = triggerIndex.get(type, System.currentTimeMillis());
+        }
+
+        return triggers == null ? Collections.<TriggerEntity>emptyList() : triggers;
+    }
+
+    @NonNull
+    @Override
+    public List<TriggerEntity> getActiveTriggers(int type, @NonNull JsonSerializable event) {
+        List<TriggerEntity> triggers = triggerIndex.get(type, event, System.currentTimeMillis());
+        if (triggers == null) {
+            loadTriggers(type);
+            triggers = triggerIndex.get(type, event, System.currentTimeMillis());
+        }
+
+        return triggers == null ? Collections.<TriggerEntity>emptyList() : triggers;
+    }
+
+    @NonNull
+    @Override
+    public List<String> getRemoteScheduleIds(@NonNull String messageSource) {
         try {
-            return dao.getActiveTriggers(type, scheduleId);
+            return dao.getRemoteScheduleIds(messageSource);
         } catch (Exception e) {
-            Logger.error(e, "Failed to get active triggers %s %s", type, scheduleId);
+            Logger.error(e, "Failed to get schedule IDs");
             return Collections.emptyList();
         }
     }
 
-    @NonNull
+    @Nullable
     @Override
-    public List<TriggerEntity> getActiveTriggers(int type) {
+    public Long getNextScheduleStart() {
         try {
-            return dao.getActiveTriggers(type);
+            return dao.getNextScheduleStart();
+        } catch (Exception e) {
+            Logger.error(e, "Failed to get next schedule start");
+            return null;
+        }
+    }
+
+    /**
+     * Loads the active triggers for the type into the index. The index entry expires when the
+     * next pending schedule starts since its triggers become active at that time.
+     *
+     * @param type The trigger type.
+     */
+    private void loadTriggers(int type) {
+        flushTriggerProgress();
+        try {
+            Long nextStart = dao.getNextScheduleStart();
+            List<TriggerEntity> triggers = dao.getActiveTriggers(type);
+            triggerIndex.put(type, triggers, nextStart == null ? -1 : nextStart);
         } catch (Exception e) {
             Logger.error(e, "Failed to get active triggers %s", type);
-            return Collections.emptyList();
         }
     }
 
@@ -2,7 +2,10 @@
 
 package com.urbanairship.automation.storage;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 import com.urbanairship.config.AirshipRuntimeConfig;
 
@@ -24,7 +27,7 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-@Database(entities = { ScheduleEntity.class, TriggerEntity.class }, version = 3, exportSchema = false)
+@Database(entities = { ScheduleEntity.class, TriggerEntity.class }, version = 4, exportSchema = false)
 @TypeConverters({ Converters.class })
 public abstract class AutomationDatabase extends RoomDatabase {
 
@@ -47,11 +50,47 @@ public abstract class AutomationDatabase extends RoomDatabase {
         }
     };
 
+    private static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE schedules "
+                    + " ADD COLUMN messageSource TEXT");
+            database.execSQL("ALTER TABLE schedules "
+                    + " ADD COLUMN isRemote INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_schedules_messageSource` ON `schedules` (`messageSource`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_schedules_isRemote` ON `schedules` (`isRemote`)");
+
+            // Backfill the derived columns
+            Converters converters = new Converters();
+            Cursor cursor = database.query("SELECT id, scheduleType, data, metadata FROM schedules");
+            try {
+                while (cursor.moveToNext()) {
+                    ScheduleEntity entity = new ScheduleEntity();
+                    entity.scheduleType = cursor.getString(1);
+                    entity.data = converters.jsonValueFromString(cursor.getString(2));
+                    entity.metadata = converters.jsonMapFromString(cursor.getString(3));
+                    entity.updateIndexedColumns();
+
+                    if (entity.messageSource == null && !entity.isRemote) {
+                        continue;
+                    }
+
+                    ContentValues values = new ContentValues();
+                    values.put("messageSource", entity.messageSource);
+                    values.put("isRemote", entity.isRemote);
+                    database.update("schedules", SQLiteDatabase.CONFLICT_NONE, values, "id = ?", new Object[] { cursor.getInt(0) });
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+    };
+
     public static AutomationDatabase createDatabase(@NonNull Context context, @NonNull AirshipRuntimeConfig config) {
         String name = config.getConfigOptions().appKey + "_in-app-automation";
         String path = new File(ContextCompat.getNoBackupFilesDir(context), name).getAbsolutePath();
         return Room.databaseBuilder(context, AutomationDatabase.class, path)
-                   .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                   .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4)
                    .fallbackToDestructiveMigrationOnDowngrade()
                    .build();
 
@@ -63,6 +63,7 @@ public class LegacyDataMigrator {
                 @Override
                 public void onMigrate(@NonNull ScheduleEntity scheduleEntity, @NonNull List<TriggerEntity> triggerEntities) {
                     scheduleEntity.scheduleType = Schedule.TYPE_ACTION;
+                    scheduleEntity.updateIndexedColumns();
                     Logger.verbose("Saving migrated action schedule: %s triggers: %s", scheduleEntity, triggerEntities);
                     dao.insert(new FullSchedule(scheduleEntity, triggerEntities));
                 }
@@ -274,6 +275,7 @@ public class LegacyDataMigrator {
                 }
             }
 
+            scheduleEntity.updateIndexedColumns();
             Logger.verbose("Saving migrated message schedule: %s triggers: %s", scheduleEntity, triggerEntities);
             dao.insert(new FullSchedule(scheduleEntity, triggerEntities));
         }
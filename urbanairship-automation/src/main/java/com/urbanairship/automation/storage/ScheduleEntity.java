@@ -3,6 +3,7 @@
 package com.urbanairship.automation.storage;
 
 import com.urbanairship.automation.Audience;
+import com.urbanairship.automation.Schedule;
 import com.urbanairship.automation.TriggerContext;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
@@ -18,9 +19,17 @@ import androidx.room.PrimaryKey;
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-@Entity(tableName = "schedules", indices = { @Index(value = { "scheduleId" }, unique = true) })
+@Entity(tableName = "schedules",
+        indices = { @Index(value = { "scheduleId" }, unique = true), @Index("messageSource"), @Index("isRemote") })
 public class ScheduleEntity {
 
+    /**
+     * Metadata key that marks schedules created from remote data.
+     */
+    public static final String REMOTE_DATA_METADATA = "com.urbanairship.iaa.REMOTE_DATA_METADATA";
+
+    private static final String MESSAGE_SOURCE_KEY = "source";
+
     @PrimaryKey(autoGenerate = true)
     public int id;
 
@@ -47,6 +56,24 @@ public class ScheduleEntity {
     public JsonValue campaigns;
     public List<String> frequencyConstraintIds;
 
+    // Derived from the type, data and metadata so remote schedules can be queried by index
+    public String messageSource;
+    public boolean isRemote;
+
+    /**
+     * Updates the indexed columns that are derived from the schedule type, data and metadata.
+     * Must be called before the entity is saved whenever any of those change.
+     */
+    public void updateIndexedColumns() {
+        isRemote = metadata != null && metadata.containsKey(REMOTE_DATA_METADATA);
+
+        if (Schedule.TYPE_IN_APP_MESSAGE.equals(scheduleType) && data != null) {
+            messageSource = data.optMap().opt(MESSAGE_SOURCE_KEY).getString();
+        } else {
+            messageSource = null;
+        }
+    }
+
     @Override
     public String toString() {
         return "ScheduleEntity{" +
@@ -73,6 +100,8 @@ public class ScheduleEntity {
                 ", audience=" + audience +
                 ", campaigns=" + campaigns +
                 ", frequencyConstraintIds=" + frequencyConstraintIds +
+                ", messageSource='" + messageSource + '\'' +
+                ", isRemote=" + isRemote +
                 '}';
     }
 
@@ -0,0 +1,216 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import android.util.SparseArray;
+
+import com.urbanairship.analytics.CustomEvent;
+import com.urbanairship.analytics.location.RegionEvent;
+import com.urbanairship.automation.Trigger;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonPredicate;
+import com.urbanairship.json.JsonSerializable;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.json.matchers.ExactValueMatcher;
+import com.urbanairship.util.UAStringUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * In-memory index of active triggers by trigger type.
+ * <p>
+ * Triggers whose predicate requires an exact event name, region ID, or screen name are also
+ * indexed by that value so an event only needs to evaluate the triggers that could match it.
+ */
+class TriggerIndex {
+
+    private static final String MATCHER_KEY = "key";
+    private static final String MATCHER_SCOPE = "scope";
+    private static final String MATCHER_VALUE = "value";
+    private static final String MATCHER_IGNORE_CASE = "ignore_case";
+
+    private final SparseArray<Entry> entries = new SparseArray<>();
+
+    /**
+     * Clears the index.
+     */
+    synchronized void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * Adds the active triggers for a trigger type.
+     *
+     * @param type The trigger type.
+     * @param triggers The active triggers.
+     * @param expiration The time in milliseconds when the entry needs to be reloaded, or -1 if it does not expire.
+     */
+    synchronized void put(int type, @NonNull List<TriggerEntity> triggers, long expiration) {
+        Entry entry = new Entry(expiration);
+        String field = getIndexField(type);
+
+        for (TriggerEntity trigger : triggers) {
+            entry.all.add(trigger);
+
+            String value = trigger.jsonPredicate == null ? null : getPredicateIndexValue(trigger.jsonPredicate, field);
+            if (value == null) {
+                entry.unindexed.add(trigger);
+                continue;
+            }
+
+            List<TriggerEntity> indexed = entry.indexed.get(value);
+            if (indexed == null) {
+                indexed = new ArrayList<>();
+                entry.indexed.put(value, indexed);
+            }
+            indexed.add(trigger);
+        }
+
+        entries.put(type, entry);
+    }
+
+    /**
+     * Gets all the active triggers for the type.
+     *
+     * @param type The trigger type.
+     * @param time The current time in milliseconds.
+     * @return The triggers, or {@code null} if the type is not indexed.
+     */
+    @Nullable
+    synchronized List<TriggerEntity> get(int type, long time) {
+        Entry entry = getEntry(type, time);
+        return entry == null ? null : new ArrayList<>(entry.all);
+    }
+
+    /**
+     * Gets the active triggers for the type that could match the event.
+     *
+     * @param type The trigger type.
+     * @param event The event.
+     * @param time The current time in milliseconds.
+     * @return The triggers, or {@code null} if the type is not indexed.
+     */
+    @Nullable
+    synchronized List<TriggerEntity> get(int type, @NonNull JsonSerializable event, long time) {
+        Entry entry = getEntry(type, time);
+        if (entry == null) {
+            return null;
+        }
+
+        String value = getEventIndexValue(event.toJsonValue(), getIndexField(type));
+        List<TriggerEntity> indexed = value == null ? null : entry.indexed.get(value);
+
+        List<TriggerEntity> triggers = new ArrayList<>(entry.unindexed.size() + (indexed == null ? 0 : indexed.size()));
+        triggers.addAll(entry.unindexed);
+        if (indexed != null) {
+            triggers.addAll(indexed);
+        }
+
+        return triggers;
+    }
+
+    @Nullable
+    private Entry getEntry(int type, long time) {
+        Entry entry = entries.get(type);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expiration >= 0 && time >= entry.expiration) {
+            entries.remove(type);
+            return null;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Gets the event field that is used to index triggers of the given type.
+     *
+     * @param type The trigger type.
+     * @return The field name, or {@code null} if the event value itself is indexed.
+     */
+    @Nullable
+    private static String getIndexField(int type) {
+        switch (type) {
+            case Trigger.CUSTOM_EVENT_COUNT:
+            case Trigger.CUSTOM_EVENT_VALUE:
+                return CustomEvent.EVENT_NAME;
+
+            case Trigger.REGION_ENTER:
+            case Trigger.REGION_EXIT:
+                return RegionEvent.REGION_ID;
+
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static String getEventIndexValue(@NonNull JsonValue event, @Nullable String field) {
+        return field == null ? event.getString() : event.optMap().opt(field).getString();
+    }
+
+    /**
+     * Finds the exact string the predicate requires for the index field.
+     *
+     * @param predicate The predicate.
+     * @param field The index field.
+     * @return The required value, or {@code null} if the predicate does not require a single exact value.
+     */
+    @Nullable
+    private static String getPredicateIndexValue(@NonNull JsonPredicate predicate, @Nullable String field) {
+        JsonMap predicateMap = predicate.toJsonValue().optMap();
+
+        List<JsonValue> items;
+        if (predicateMap.containsKey(JsonPredicate.AND_PREDICATE_TYPE)) {
+            items = predicateMap.opt(JsonPredicate.AND_PREDICATE_TYPE).optList().getList();
+        } else if (predicateMap.containsKey(JsonPredicate.OR_PREDICATE_TYPE)) {
+            items = predicateMap.opt(JsonPredicate.OR_PREDICATE_TYPE).optList().getList();
+            if (items.size() != 1) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        for (JsonValue item : items) {
+            JsonMap matcher = item.optMap();
+            JsonValue scope = matcher.opt(MATCHER_SCOPE);
+            if (scope.isString() || !scope.optList().isEmpty() || matcher.opt(MATCHER_IGNORE_CASE).getBoolean(false)) {
+                continue;
+            }
+
+            if (!UAStringUtil.equals(field, matcher.opt(MATCHER_KEY).getString())) {
+                continue;
+            }
+
+            JsonMap value = matcher.opt(MATCHER_VALUE).optMap();
+            if (value.size() == 1 && value.opt(ExactValueMatcher.EQUALS_VALUE_KEY).isString()) {
+                return value.opt(ExactValueMatcher.EQUALS_VALUE_KEY).getString();
+            }
+        }
+
+        return null;
+    }
+
+    private static class Entry {
+
+        final long expiration;
+        final List<TriggerEntity> all = new ArrayList<>();
+        final List<TriggerEntity> unindexed = new ArrayList<>();
+        final Map<String, List<TriggerEntity>> indexed = new HashMap<>();
+
+        Entry(long expiration) {
+            this.expiration = expiration;
+        }
+
+    }
+
+}
@@ -16,7 +16,6 @@ import com.urbanairship.util.UAHttpStatusUtil;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -85,7 +84,7 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
     @NonNull
     protected FileUtils.DownloadResult cacheImage(@NonNull Assets assets, @NonNull String url) throws IOException {
         File file = assets.file(url);
-        FileUtils.DownloadResult result = FileUtils.downloadFile(new URL(url), file);
+        FileUtils.DownloadResult result = assets.download(url);
 
         if (result.isSuccess) {
             // Cache the width and height for view resizing
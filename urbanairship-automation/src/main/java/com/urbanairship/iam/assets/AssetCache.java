@@ -26,6 +26,7 @@ class AssetCache {
     private static final String CACHE_DIRECTORY = "com.urbanairship.iam.assets";
     private final File storageDirectory;
     private final StorageManager storageManager;
+    private final AssetStore assetStore;
 
     /**
      * A map of active schedule IDs to assets. Prevents needed to load the asset's metadata
@@ -43,6 +44,7 @@ class AssetCache {
     AssetCache(@NonNull Context context) {
         this.storageDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY);
         this.storageManager = findStorageManager(context);
+        this.assetStore = new AssetStore(context);
     }
 
     /**
@@ -57,7 +59,7 @@ class AssetCache {
         synchronized (activeAssets) {
             Assets assets = activeAssets.get(scheduleId);
             if (assets == null) {
-                assets = Assets.load(getAssetsDirectory(scheduleId));
+                assets = Assets.load(getAssetsDirectory(scheduleId), scheduleId, assetStore);
                 activeAssets.put(scheduleId, assets);
             }
             return assets;
@@ -76,6 +78,7 @@ class AssetCache {
         synchronized (activeAssets) {
             if (wipeFromDisk) {
                 FileUtils.deleteRecursively(getAssetsDirectory(scheduleId));
+                assetStore.release(scheduleId);
             }
 
             activeAssets.remove(scheduleId);
@@ -0,0 +1,561 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.iam.assets;
+
+import android.content.Context;
+import android.os.Build;
+import android.system.ErrnoException;
+import android.system.Os;
+
+import com.urbanairship.Logger;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.Clock;
+import com.urbanairship.util.ConnectionUtils;
+import com.urbanairship.util.FileUtils;
+import com.urbanairship.util.UAHttpStatusUtil;
+import com.urbanairship.util.UAStringUtil;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Content store shared by all schedules' assets.
+ * <p>
+ * Each remote URL is downloaded once into the store and linked into the schedules' asset
+ * directories. The store tracks which schedules reference each entry and revalidates stale
+ * entries with a conditional request.
+ * <p>
+ * Downloads run outside of the store lock, so fetching or releasing other schedules' assets never
+ * waits on the network. Concurrent fetches of the same URL share a single download.
+ */
+class AssetStore {
+
+    private static final String STORE_DIRECTORY = "com.urbanairship.iam.shared-assets";
+    private static final String INDEX_FILE = "index";
+
+    /**
+     * How long an entry is used without revalidating it.
+     */
+    private static final long FRESHNESS_MS = 60 * 60 * 1000; // 1 hour
+
+    /**
+     * How long an entry is kept after the last schedule releases it.
+     */
+    private static final long UNREFERENCED_TTL_MS = 24 * 60 * 60 * 1000; // 24 hours
+
+    private static final int NETWORK_TIMEOUT_MS = 2000;
+    private static final int READ_TIMEOUT_MS = 30000;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "last_modified";
+    private static final String VALIDATED_KEY = "validated";
+    private static final String LAST_USED_KEY = "last_used";
+    private static final String SCHEDULES_KEY = "schedules";
+
+    private final Context context;
+    private final File directory;
+    private final Clock clock;
+    private final Object lock = new Object();
+    private final Map<String, FutureTask<FileUtils.DownloadResult>> pendingDownloads = new HashMap<>();
+
+    private Map<String, Entry> entries;
+
+    /**
+     * Default constructor.
+     *
+     * @param context The context.
+     */
+    AssetStore(@NonNull Context context) {
+        this(context, new File(context.getCacheDir(), STORE_DIRECTORY), Clock.DEFAULT_CLOCK);
+    }
+
+    @VisibleForTesting
+    AssetStore(@NonNull Context context, @NonNull File directory, @NonNull Clock clock) {
+        this.context = context.getApplicationContext();
+        this.directory = directory;
+        this.clock = clock;
+    }
+
+    /**
+     * Fetches a URL into a schedule's asset file. Entries that are already in the store are
+     * linked without a download, and stale entries are revalidated with a conditional request.
+     *
+     * @param scheduleId The schedule ID.
+     * @param url The URL.
+     * @param file The schedule's asset file.
+     * @return The download result.
+     * @throws IOException If the URL is invalid or the download fails.
+     */
+    @WorkerThread
+    @NonNull
+    FileUtils.DownloadResult fetch(@NonNull String scheduleId, @NonNull String url, @NonNull File file) throws IOException {
+        return fetch(scheduleId, url, file, true);
+    }
+
+    @WorkerThread
+    @NonNull
+    private FileUtils.DownloadResult fetch(@NonNull String scheduleId, @NonNull final String url,
+                                           @NonNull File file, boolean canRetry) throws IOException {
+        File blob = blobFile(url);
+        FutureTask<FileUtils.DownloadResult> download = null;
+        boolean isRevalidation = false;
+        boolean isOwner = false;
+
+        synchronized (lock) {
+            loadEntries();
+
+            Entry entry = entries.get(url);
+            if (entry != null && !blob.exists()) {
+                entries.remove(url);
+                entry = null;
+            }
+
+            if (entry == null || clock.currentTimeMillis() - entry.validated >= FRESHNESS_MS) {
+                isRevalidation = entry != null;
+                download = pendingDownloads.get(url);
+                if (download == null) {
+                    final String etag = entry == null ? null : entry.etag;
+                    final String lastModified = entry == null ? null : entry.lastModified;
+                    final boolean conditional = isRevalidation;
+
+                    download = new FutureTask<>(new Callable<FileUtils.DownloadResult>() {
+                        @Override
+                        public FileUtils.DownloadResult call() throws IOException {
+                            return download(url, conditional, etag, lastModified);
+                        }
+                    });
+                    pendingDownloads.put(url, download);
+                    isOwner = true;
+                }
+            }
+        }
+
+        int statusCode = HttpURLConnection.HTTP_OK;
+
+        if (download != null) {
+            if (isOwner) {
+                try {
+                    download.run();
+                } finally {
+                    synchronized (lock) {
+                        pendingDownloads.remove(url);
+                    }
+                }
+            }
+
+            try {
+                FileUtils.DownloadResult result = await(download);
+                if (!result.isSuccess && (!isRevalidation || UAHttpStatusUtil.inClientErrorRange(result.statusCode))) {
+                    return result;
+                }
+
+                // Revalidations fall back to the stored entry on server errors
+                statusCode = result.statusCode;
+            } catch (IOException e) {
+                if (!isRevalidation) {
+                    throw e;
+                }
+                Logger.debug(e, "Unable to revalidate asset %s, using the stored copy.", url);
+            }
+        }
+
+        synchronized (lock) {
+            loadEntries();
+
+            Entry entry = entries.get(url);
+            if (entry != null && blob.exists()) {
+                if (!link(blob, file)) {
+                    return new FileUtils.DownloadResult(false, statusCode);
+                }
+
+                entry.schedules.add(scheduleId);
+                entry.lastUsed = clock.currentTimeMillis();
+                saveEntries();
+
+                return new FileUtils.DownloadResult(true, statusCode);
+            }
+        }
+
+        // The entry was released after it was validated, download it again
+        if (canRetry) {
+            return fetch(scheduleId, url, file, false);
+        }
+
+        return new FileUtils.DownloadResult(false, statusCode);
+    }
+
+    /**
+     * Releases all entries referenced by a schedule. Entries without any references are removed
+     * once they have not been used for a day.
+     *
+     * @param scheduleId The schedule ID.
+     */
+    @WorkerThread
+    void release(@NonNull String scheduleId) {
+        synchronized (lock) {
+            loadEntries();
+
+            boolean changed = false;
+            long now = clock.currentTimeMillis();
+
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> mapEntry = iterator.next();
+                Entry entry = mapEntry.getValue();
+
+                if (entry.schedules.remove(scheduleId)) {
+                    entry.lastUsed = now;
+                    changed = true;
+                }
+
+                if (entry.schedules.isEmpty() && now - entry.lastUsed >= UNREFERENCED_TTL_MS) {
+                    //noinspection ResultOfMethodCallIgnored
+                    blobFile(mapEntry.getKey()).delete();
+                    iterator.remove();
+                    changed = true;
+                }
+            }
+
+            if (changed) {
+                saveEntries();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of schedules referencing a URL.
+     *
+     * @param url The URL.
+     * @return The reference count.
+     */
+    @VisibleForTesting
+    int getReferenceCount(@NonNull String url) {
+        synchronized (lock) {
+            loadEntries();
+            Entry entry = entries.get(url);
+            return entry == null ? 0 : entry.schedules.size();
+        }
+    }
+
+    /**
+     * Waits for a download that may be shared with other fetches.
+     */
+    @NonNull
+    private static FileUtils.DownloadResult await(@NonNull FutureTask<FileUtils.DownloadResult> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading asset.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to download asset.", cause);
+        }
+    }
+
+    /**
+     * Downloads the URL into its blob. The request is made without holding the lock, only the
+     * blob and index updates hold it. If the request is conditional a {@code 304} keeps the
+     * current blob.
+     */
+    @NonNull
+    private FileUtils.DownloadResult download(@NonNull String url, boolean conditional,
+                                              @Nullable String etag, @Nullable String lastModified) throws IOException {
+        Logger.verbose("Downloading asset from: %s", url);
+
+        File blob = blobFile(url);
+        File partialFile = new File(blob.getPath() + ".partial");
+        URLConnection connection = null;
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+
+        try {
+            connection = openConnection(new URL(url));
+            connection.setConnectTimeout(NETWORK_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+
+            if (conditional) {
+                if (etag != null) {
+                    connection.setRequestProperty("If-None-Match", etag);
+                }
+
+                if (lastModified != null) {
+                    connection.setRequestProperty("If-Modified-Since", lastModified);
+                }
+            }
+
+            int statusCode = HttpURLConnection.HTTP_OK;
+            if (connection instanceof HttpURLConnection) {
+                statusCode = ((HttpURLConnection) connection).getResponseCode();
+
+                if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED && conditional) {
+                    synchronized (lock) {
+                        Entry entry = entries.get(url);
+                        if (entry != null) {
+                            entry.validated = clock.currentTimeMillis();
+                        }
+                    }
+                    return new FileUtils.DownloadResult(true, statusCode);
+                }
+
+                if (!UAHttpStatusUtil.inSuccessRange(statusCode)) {
+                    return new FileUtils.DownloadResult(false, statusCode);
+                }
+            }
+
+            prepareDirectory();
+
+            inputStream = connection.getInputStream();
+            outputStream = new FileOutputStream(partialFile);
+            copy(inputStream, outputStream);
+            outputStream.close();
+
+            synchronized (lock) {
+                // Schedules that linked the previous blob keep their copy
+                //noinspection ResultOfMethodCallIgnored
+                blob.delete();
+                if (!partialFile.renameTo(blob)) {
+                    return new FileUtils.DownloadResult(false, statusCode);
+                }
+
+                Entry updated = entries.get(url);
+                if (updated == null) {
+                    updated = new Entry();
+                    updated.lastUsed = clock.currentTimeMillis();
+                }
+
+                updated.etag = connection.getHeaderField("ETag");
+                updated.lastModified = connection.getHeaderField("Last-Modified");
+                updated.validated = clock.currentTimeMillis();
+                entries.put(url, updated);
+            }
+
+            return new FileUtils.DownloadResult(true, statusCode);
+        } finally {
+            closeQuietly(inputStream);
+            closeQuietly(outputStream);
+
+            //noinspection ResultOfMethodCallIgnored
+            partialFile.delete();
+
+            if (connection instanceof HttpURLConnection) {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    /**
+     * Opens a connection to the URL.
+     *
+     * @param url The URL.
+     * @return The connection.
+     * @throws IOException If the connection fails to open.
+     */
+    @VisibleForTesting
+    @NonNull
+    URLConnection openConnection(@NonNull URL url) throws IOException {
+        return ConnectionUtils.openSecureConnection(context, url);
+    }
+
+    /**
+     * Links the blob into the schedule's asset file, falling back to a copy if hard links are
+     * not available.
+     */
+    private boolean link(@NonNull File blob, @NonNull File file) {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            try {
+                Os.link(blob.getAbsolutePath(), file.getAbsolutePath());
+                return true;
+            } catch (ErrnoException e) {
+                Logger.debug(e, "Unable to link asset, copying instead.");
+            }
+        }
+
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+        try {
+            inputStream = new FileInputStream(blob);
+            outputStream = new FileOutputStream(file);
+            copy(inputStream, outputStream);
+            return true;
+        } catch (IOException e) {
+            Logger.error(e, "Failed to copy asset.");
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return false;
+        } finally {
+            closeQuietly(inputStream);
+            closeQuietly(outputStream);
+        }
+    }
+
+    @NonNull
+    private File blobFile(@NonNull String url) {
+        return new File(directory, UAStringUtil.sha256(url));
+    }
+
+    private void loadEntries() {
+        if (entries != null) {
+            return;
+        }
+
+        entries = new HashMap<>();
+
+        File indexFile = new File(directory, INDEX_FILE);
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(indexFile);
+            byte[] bytes = new byte[(int) indexFile.length()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = inputStream.read(bytes, offset, bytes.length - offset);
+                if (read == -1) {
+                    break;
+                }
+                offset += read;
+            }
+
+            JsonMap index = JsonValue.parseString(new String(bytes, 0, offset, Charset.forName("UTF-8"))).optMap();
+            for (Map.Entry<String, JsonValue> mapEntry : index) {
+                entries.put(mapEntry.getKey(), Entry.fromJson(mapEntry.getValue().optMap()));
+            }
+        } catch (IOException | JsonException e) {
+            Logger.error(e, "Failed to read the asset store index.");
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+    private void saveEntries() {
+        prepareDirectory();
+
+        JsonMap.Builder builder = JsonMap.newBuilder();
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            builder.put(mapEntry.getKey(), mapEntry.getValue().toJson());
+        }
+
+        File indexFile = new File(directory, INDEX_FILE);
+        File partialFile = new File(directory, INDEX_FILE + ".partial");
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(partialFile);
+            outputStream.write(builder.build().toString().getBytes(Charset.forName("UTF-8")));
+            outputStream.close();
+            outputStream = null;
+
+            if (!partialFile.renameTo(indexFile)) {
+                Logger.error("Failed to write the asset store index.");
+            }
+        } catch (IOException e) {
+            Logger.error(e, "Failed to write the asset store index.");
+        } finally {
+            closeQuietly(outputStream);
+        }
+    }
+
+    private void prepareDirectory() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            Logger.error("Failed to create asset store directory.");
+        }
+    }
+
+    private static void copy(@NonNull InputStream inputStream, @NonNull OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, count);
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                Logger.error(e);
+            }
+        }
+    }
+
+    /**
+     * Store entry.
+     */
+    private static class Entry {
+
+        String etag;
+        String lastModified;
+        long validated;
+        long lastUsed;
+        final Set<String> schedules = new HashSet<>();
+
+        @NonNull
+        JsonMap toJson() {
+            return JsonMap.newBuilder()
+                          .putOpt(ETAG_KEY, etag)
+                          .putOpt(LAST_MODIFIED_KEY, lastModified)
+                          .put(VALIDATED_KEY, validated)
+                          .put(LAST_USED_KEY, lastUsed)
+                          .put(SCHEDULES_KEY, JsonValue.wrapOpt(schedules))
+                          .build();
+        }
+
+        @NonNull
+        static Entry fromJson(@NonNull JsonMap json) {
+            Entry entry = new Entry();
+            entry.etag = json.opt(ETAG_KEY).getString();
+            entry.lastModified = json.opt(LAST_MODIFIED_KEY).getString();
+            entry.validated = json.opt(VALIDATED_KEY).getLong(0);
+            entry.lastUsed = json.opt(LAST_USED_KEY).getLong(0);
+
+            JsonList schedules = json.opt(SCHEDULES_KEY).optList();
+            for (JsonValue schedule : schedules) {
+                if (schedule.isString()) {
+                    entry.schedules.add(schedule.optString());
+                }
+            }
+
+            return entry;
+        }
+
+    }
+
+}
@@ -15,6 +15,7 @@ import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonSerializable;
 import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.FileUtils;
 import com.urbanairship.util.UAStringUtil;
 
 import java.io.BufferedReader;
@@ -24,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
@@ -83,6 +85,12 @@ public class Assets implements Parcelable {
     private final Map<String, JsonValue> metadata;
     private final Object metadataLock = new Object();
 
+    @Nullable
+    private final String scheduleId;
+
+    @Nullable
+    private final AssetStore assetStore;
+
     /**
      * Loads assets from a directory.
      *
@@ -92,8 +100,22 @@ public class Assets implements Parcelable {
     @WorkerThread
     @NonNull
     static Assets load(@NonNull File root) {
+        return load(root, null, null);
+    }
+
+    /**
+     * Loads assets from a directory.
+     *
+     * @param root The assets' root directory.
+     * @param scheduleId The schedule ID.
+     * @param assetStore The shared asset store used to download remote assets.
+     * @return The assets.
+     */
+    @WorkerThread
+    @NonNull
+    static Assets load(@NonNull File root, @Nullable String scheduleId, @Nullable AssetStore assetStore) {
         File metadata = new File(root, METADATA_FILE);
-        return new Assets(root, readJson(metadata).optMap());
+        return new Assets(root, readJson(metadata).optMap(), scheduleId, assetStore);
     }
 
     /**
@@ -103,11 +125,17 @@ public class Assets implements Parcelable {
      * @param metadata The metadata.
      */
     private Assets(@NonNull File root, @NonNull JsonMap metadata) {
+        this(root, metadata, null, null);
+    }
+
+    private Assets(@NonNull File root, @NonNull JsonMap metadata, @Nullable String scheduleId, @Nullable AssetStore assetStore) {
+        this.scheduleId = scheduleId;
+        this.assetStore = assetStore;
         this.rootDirectory = root;
         this.filesDirectory = new File(root, FILES_DIRECTORY);
         this.metadataFile = new File(root, METADATA_FILE);
         this.metadata = new HashMap<>(metadata.getMap());
-        this.executor = AirshipExecutors.newSerialExecutor();
+        this.executor = AirshipExecutors.newUserVisibleSerialExecutor();
     }
 
     @Override
@@ -135,6 +163,25 @@ public class Assets implements Parcelable {
         return new File(filesDirectory, UAStringUtil.sha256(key));
     }
 
+    /**
+     * Downloads a remote asset into the file for the URL. Assets that were already downloaded
+     * for another schedule are shared instead of downloaded again.
+     *
+     * @param url The URL.
+     * @return The download result.
+     * @throws IOException If the URL is invalid or the download fails.
+     */
+    @WorkerThread
+    @NonNull
+    FileUtils.DownloadResult download(@NonNull String url) throws IOException {
+        File file = file(url);
+        if (assetStore != null && scheduleId != null) {
+            return assetStore.fetch(scheduleId, url, file);
+        }
+
+        return FileUtils.downloadFile(new URL(url), file);
+    }
+
     /**
      * Gets metadata for a key.
      *
@@ -22,6 +22,8 @@ import com.urbanairship.automation.storage.AutomationDatabase;
 import com.urbanairship.automation.storage.FullSchedule;
 import com.urbanairship.automation.storage.LegacyDataMigrator;
 import com.urbanairship.automation.storage.ScheduleState;
+import com.urbanairship.iam.InAppMessage;
+import com.urbanairship.iam.custom.CustomDisplayContent;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.json.ValueMatcher;
@@ -39,8 +41,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -56,9 +60,12 @@ import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(AndroidJUnit4.class)
@@ -336,6 +343,38 @@ public class AutomationEngineTest {
         }, JsonValue.wrap("screen"));
     }
 
+    @Test
+    public void testTriggerNearGoal() throws Exception {
+        AutomationEngine.TriggerListener listener = mock(AutomationEngine.TriggerListener.class);
+        automationEngine.setTriggerListener(listener);
+
+        Trigger trigger = Triggers.newScreenTriggerBuilder()
+                                  .setGoal(3)
+                                  .setScreenName("screen")
+                                  .build();
+
+        Schedule<Actions> schedule = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
+                                             .addTrigger(trigger)
+                                             .setId("schedule id")
+                                             .build();
+        schedule(schedule);
+
+        // One view away from the goal after the second view
+        UAirship.shared().getAnalytics().trackScreen("screen");
+        runLooperTasks();
+        verifyZeroInteractions(listener);
+
+        UAirship.shared().getAnalytics().trackScreen("screen");
+        runLooperTasks();
+        verify(listener).onScheduleTriggerNearGoal(any(Schedule.class), eq(new TriggerContext(trigger, JsonValue.wrap("screen"))));
+
+        // Reaching the goal triggers the schedule instead
+        clearInvocations(listener);
+        UAirship.shared().getAnalytics().trackScreen("screen");
+        runLooperTasks();
+        verifyZeroInteractions(listener);
+    }
+
     @Test
     public void testSecondsDelay() throws Exception {
         ScheduleDelay delay = ScheduleDelay.newBuilder()
@@ -685,6 +724,100 @@ public class AutomationEngineTest {
         assertEquals(edits.getEnd().longValue(), updated.getEnd());
     }
 
+    @Test
+    public void testReconcileSchedules() throws Exception {
+        Schedule<Actions> existing = Schedule.newBuilder(this.schedule).setId("existing").build();
+        Schedule<Actions> removed = Schedule.newBuilder(this.schedule).setId("removed").build();
+        schedule(existing);
+        schedule(removed);
+
+        Schedule<Actions> added = Schedule.newBuilder(this.schedule).setId("added").build();
+
+        long end = System.currentTimeMillis() - 1;
+        Map<String, ScheduleEdits<? extends ScheduleData>> edits = new HashMap<>();
+        edits.put("existing", ScheduleEdits.newBuilder().setPriority(10).build());
+        edits.put("removed", ScheduleEdits.newBuilder().setStart(end).setEnd(end).build());
+        edits.put("missing", ScheduleEdits.newBuilder().setPriority(10).build());
+
+        Future<Boolean> future = automationEngine.reconcileSchedules(Collections.<Schedule<? extends ScheduleData>>singletonList(added), edits);
+        runLooperTasks();
+        assertTrue(future.get());
+
+        assertEquals(3, dao.getScheduleCount());
+        assertEquals(10, dao.getSchedule("existing").schedule.priority);
+        verifyState(existing, ScheduleState.IDLE);
+        verifyState(removed, ScheduleState.FINISHED);
+        verifyState(added, ScheduleState.IDLE);
+        assertNull(dao.getSchedule("missing"));
+    }
+
+    @Test
+    public void testGetRemoteScheduleIds() throws Exception {
+        Schedule<Actions> remote = Schedule.newBuilder(this.schedule)
+                                           .setId("remote")
+                                           .setMetadata(JsonMap.newBuilder()
+                                                               .putOpt(InAppRemoteDataObserver.REMOTE_DATA_METADATA, "neat")
+                                                               .build())
+                                           .build();
+
+        Schedule<Actions> other = Schedule.newBuilder(this.schedule)
+                                          .setId("other")
+                                          .setMetadata(JsonMap.newBuilder()
+                                                              .putOpt("other_metadata", "neat")
+                                                              .build())
+                                          .build();
+
+        InAppMessage remoteMessage = InAppMessage.newBuilder()
+                                                 .setDisplayContent(new CustomDisplayContent(JsonValue.NULL))
+                                                 .setSource(InAppMessage.SOURCE_REMOTE_DATA)
+                                                 .build();
+
+        Schedule<InAppMessage> remoteMessageSchedule = Schedule.newBuilder(remoteMessage)
+                                                                .setId("remote-message")
+                                                                .addTrigger(Triggers.newAppInitTriggerBuilder().setGoal(1).build())
+                                                                .build();
+
+        // Only the message source counts, not a matching value nested in the content
+        InAppMessage nestedMessage = InAppMessage.newBuilder()
+                                                 .setDisplayContent(new CustomDisplayContent(JsonMap.newBuilder()
+                                                                                                    .put("source", "remote-data")
+                                                                                                    .build()
+                                                                                                    .toJsonValue()))
+                                                 .setSource(InAppMessage.SOURCE_APP_DEFINED)
+                                                 .build();
+
+        Schedule<InAppMessage> nestedMessageSchedule = Schedule.newBuilder(nestedMessage)
+                                                                .setId("nested-message")
+                                                                .addTrigger(Triggers.newAppInitTriggerBuilder().setGoal(1).build())
+                                                                .build();
+
+        schedule(remote);
+        schedule(other);
+        schedule(remoteMessageSchedule);
+        schedule(nestedMessageSchedule);
+        schedule(this.schedule);
+
+        Future<Set<String>> future = automationEngine.getRemoteScheduleIds(InAppMessage.SOURCE_REMOTE_DATA);
+        runLooperTasks();
+        assertEquals(new HashSet<>(Arrays.asList("remote", "remote-message")), future.get());
+
+        // Edits update the indexed columns
+        automationEngine.editSchedule("other", ScheduleEdits.newBuilder()
+                                                            .setMetadata(JsonMap.newBuilder()
+                                                                                .putOpt(InAppRemoteDataObserver.REMOTE_DATA_METADATA, "neat")
+                                                                                .build())
+                                                            .build());
+        automationEngine.editSchedule("remote-message", ScheduleEdits.newBuilder(InAppMessage.newBuilder(remoteMessage)
+                                                                                             .setSource(InAppMessage.SOURCE_APP_DEFINED)
+                                                                                             .build())
+                                                                     .build());
+        runLooperTasks();
+
+        future = automationEngine.getRemoteScheduleIds(InAppMessage.SOURCE_REMOTE_DATA);
+        runLooperTasks();
+        assertEquals(new HashSet<>(Arrays.asList("remote", "other")), future.get());
+    }
+
     @Test
     public void testInterval() throws Exception {
         final Schedule schedule = Schedule.newBuilder(this.schedule)
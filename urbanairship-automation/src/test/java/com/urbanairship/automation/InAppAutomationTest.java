@@ -11,6 +11,7 @@ import com.urbanairship.analytics.CustomEvent;
 import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.automation.auth.AuthException;
 import com.urbanairship.automation.deferred.Deferred;
+import com.urbanairship.automation.deferred.DeferredResultCache;
 import com.urbanairship.automation.deferred.DeferredScheduleClient;
 import com.urbanairship.automation.limits.FrequencyChecker;
 import com.urbanairship.automation.limits.FrequencyConstraint;
@@ -56,6 +57,9 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static com.urbanairship.automation.tags.TestUtils.tagSet;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
@@ -77,6 +81,7 @@ public class InAppAutomationTest {
 
     private InAppAutomation inAppAutomation;
     private AutomationEngine.ScheduleListener scheduleListener;
+    private AutomationEngine.TriggerListener triggerListener;
 
     private AutomationDriver driver;
     private AutomationEngine mockEngine;
@@ -116,12 +121,21 @@ public class InAppAutomationTest {
             }
         }).when(mockEngine).setScheduleListener(any(AutomationEngine.ScheduleListener.class));
 
-        RetryingExecutor executor = new RetryingExecutor(new Handler(Looper.getMainLooper()), new Executor() {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                triggerListener = invocation.getArgument(0);
+                return null;
+            }
+        }).when(mockEngine).setTriggerListener(any(AutomationEngine.TriggerListener.class));
+
+        Executor directExecutor = new Executor() {
             @Override
             public void execute(@NonNull Runnable runnable) {
                 runnable.run();
             }
-        });
+        };
+        RetryingExecutor executor = new RetryingExecutor(new Handler(Looper.getMainLooper()), directExecutor);
 
         mockMessageScheduleDelegate = mock(InAppMessageScheduleDelegate.class);
         mockActionsScheduleDelegate = mock(ActionsScheduleDelegate.class);
@@ -129,6 +143,7 @@ public class InAppAutomationTest {
 
         inAppAutomation = new InAppAutomation(TestApplication.getApplication(), TestApplication.getApplication().preferenceDataStore,
                 mockEngine, mockChannel, mockAudienceManager, mockObserver, mockIamManager, executor, mockDeferredScheduleClient,
+                new DeferredResultCache(), directExecutor,
                 mockActionsScheduleDelegate, mockMessageScheduleDelegate, mockFrequencyLimitManager);
 
         inAppAutomation.init();
@@ -246,6 +261,68 @@ public class InAppAutomationTest {
         verify(mockMessageScheduleDelegate).onExecute(schedule, executeCallback);
     }
 
+    @Test
+    public void testPrefetchDeferredSchedule() throws MalformedURLException, AuthException, RequestException {
+        inAppAutomation.setDeferredPrefetchEnabled(true);
+        when(mockChannel.getId()).thenReturn("some channel");
+
+        Trigger trigger = Triggers.newScreenTriggerBuilder().setGoal(2).setScreenName("screen").build();
+        TriggerContext triggerContext = new TriggerContext(trigger, JsonValue.wrap("screen"));
+
+        Deferred deferredScheduleData = new Deferred(new URL("https://neat"), true, Deferred.TYPE_IN_APP_MESSAGE);
+        Schedule<? extends ScheduleData> schedule = Schedule.newBuilder(deferredScheduleData)
+                                                            .addTrigger(trigger)
+                                                            .build();
+
+        InAppMessage message = InAppMessage.newBuilder()
+                                           .setDisplayContent(new CustomDisplayContent(JsonValue.NULL))
+                                           .build();
+
+        when(mockDeferredScheduleClient.performRequest(new URL("https://neat"), "some channel", triggerContext, EMPTY_TAG_OVERRIDES, EMPTY_ATTRIBUTE_OVERRIDES))
+                .thenReturn(new Response.Builder<DeferredScheduleClient.Result>(200)
+                        .setResult(new DeferredScheduleClient.Result(true, message))
+                        .build());
+
+        triggerListener.onScheduleTriggerNearGoal(schedule, triggerContext);
+        triggerListener.onScheduleTriggerNearGoal(schedule, triggerContext);
+        verify(mockDeferredScheduleClient, times(1)).performRequest(new URL("https://neat"), "some channel", triggerContext, EMPTY_TAG_OVERRIDES, EMPTY_ATTRIBUTE_OVERRIDES);
+
+        // Prepare uses the prefetched result
+        AutomationDriver.PrepareScheduleCallback callback = mock(AutomationDriver.PrepareScheduleCallback.class);
+        driver.onPrepareSchedule(schedule, triggerContext, callback);
+        verify(mockMessageScheduleDelegate).onPrepareSchedule(eq(schedule), eq(message), any(AutomationDriver.PrepareScheduleCallback.class));
+        verify(mockDeferredScheduleClient, times(1)).performRequest(new URL("https://neat"), "some channel", triggerContext, EMPTY_TAG_OVERRIDES, EMPTY_ATTRIBUTE_OVERRIDES);
+
+        // Prefetched results are only used once
+        driver.onPrepareSchedule(schedule, triggerContext, callback);
+        verify(mockDeferredScheduleClient, times(2)).performRequest(new URL("https://neat"), "some channel", triggerContext, EMPTY_TAG_OVERRIDES, EMPTY_ATTRIBUTE_OVERRIDES);
+    }
+
+    @Test
+    public void testPrefetchDeferredScheduleDisabled() throws MalformedURLException, AuthException, RequestException {
+        when(mockChannel.getId()).thenReturn("some channel");
+
+        Trigger trigger = Triggers.newScreenTriggerBuilder().setGoal(2).setScreenName("screen").build();
+        Deferred deferredScheduleData = new Deferred(new URL("https://neat"), true, Deferred.TYPE_IN_APP_MESSAGE);
+        Schedule<? extends ScheduleData> schedule = Schedule.newBuilder(deferredScheduleData)
+                                                            .addTrigger(trigger)
+                                                            .build();
+
+        // The listener is only set while prefetching is enabled
+        assertFalse(inAppAutomation.isDeferredPrefetchEnabled());
+        assertNull(triggerListener);
+        verify(mockEngine).setTriggerListener(null);
+
+        inAppAutomation.setDeferredPrefetchEnabled(true);
+        assertNotNull(triggerListener);
+
+        inAppAutomation.setDeferredPrefetchEnabled(false);
+        verify(mockEngine, times(2)).setTriggerListener(null);
+
+        triggerListener.onScheduleTriggerNearGoal(schedule, new TriggerContext(trigger, JsonValue.wrap("screen")));
+        verifyZeroInteractions(mockDeferredScheduleClient);
+    }
+
     @Test
     public void testPrepareDeferredScheduleMissedAudience() throws MalformedURLException, AuthException, RequestException {
         when(mockChannel.getId()).thenReturn("some channel");
@@ -28,8 +28,10 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -585,7 +587,14 @@ public class InAppRemoteDataObserverTest {
 
         @NonNull
         @Override
-        public PendingResult<Boolean> schedule(@NonNull List<Schedule<? extends ScheduleData>> schedules) {
+        public PendingResult<Boolean> reconcileSchedules(@NonNull List<Schedule<? extends ScheduleData>> schedules,
+                                                         @NonNull Map<String, ScheduleEdits<? extends ScheduleData>> edits) {
+            for (Map.Entry<String, ScheduleEdits<? extends ScheduleData>> entry : edits.entrySet()) {
+                if (this.schedules.containsKey(entry.getKey())) {
+                    scheduleEdits.put(entry.getKey(), entry.getValue());
+                }
+            }
+
             for (Schedule<? extends ScheduleData> schedule : schedules) {
                 this.schedules.put(schedule.getId(), schedule);
             }
@@ -604,26 +613,17 @@ public class InAppRemoteDataObserverTest {
 
         @NonNull
         @Override
-        public PendingResult<Collection<Schedule<? extends ScheduleData>>> getSchedules() {
-            PendingResult<Collection<Schedule<? extends ScheduleData>>> pendingResult = new PendingResult<>();
-            pendingResult.setResult(schedules.values());
-            return pendingResult;
-        }
-
-        @NonNull
-        @Override
-        public PendingResult<Boolean> editSchedule(@NonNull String scheduleId, @NonNull ScheduleEdits<? extends ScheduleData> edits) {
-            PendingResult<Boolean> result = new PendingResult<>();
-            Schedule<?> schedule = schedules.get(scheduleId);
-
-            if (schedule != null) {
-                scheduleEdits.put(scheduleId, edits);
-                result.setResult(true);
-            } else {
-                result.setResult(false);
+        public PendingResult<Set<String>> getRemoteScheduleIds() {
+            Set<String> ids = new HashSet<>();
+            for (Schedule<? extends ScheduleData> schedule : schedules.values()) {
+                if (schedule.getMetadata().containsKey(InAppRemoteDataObserver.REMOTE_DATA_METADATA)) {
+                    ids.add(schedule.getId());
+                }
             }
 
-            return result;
+            PendingResult<Set<String>> pendingResult = new PendingResult<>();
+            pendingResult.setResult(ids);
+            return pendingResult;
         }
 
         public ScheduleEdits<? extends ScheduleData> getScheduleEdits(@NonNull String scheduleId) {
@@ -2,6 +2,8 @@
 
 package com.urbanairship.automation.auth;
 
+import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.TestApplication;
 import com.urbanairship.TestClock;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.http.RequestException;
@@ -10,11 +12,33 @@ import com.urbanairship.http.Response;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.ProviderException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(AndroidJUnit4.class)
@@ -24,6 +48,14 @@ public class AuthManagerTest {
     private AuthApiClient mockClient;
     private AirshipChannel mockChannel;
     private TestClock clock;
+    private AuthTokenStore tokenStore;
+
+    private final Executor directExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
 
     @Before
     public void setup() {
@@ -31,7 +63,10 @@ public class AuthManagerTest {
         this.mockClient = mock(AuthApiClient.class);
         this.clock = new TestClock();
 
-        this.authManager = new AuthManager(mockClient, mockChannel, clock);
+        PreferenceDataStore dataStore = TestApplication.getApplication().preferenceDataStore;
+        this.tokenStore = new AuthTokenStore(dataStore, new TestEncryptor());
+
+        this.authManager = new AuthManager(mockClient, mockChannel, clock, tokenStore, directExecutor);
     }
 
     @Test
@@ -118,4 +153,186 @@ public class AuthManagerTest {
         assertEquals("some other token", authManager.getToken());
     }
 
+    @Test
+    public void testTokenPersisted() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long expiration = AuthManager.REFRESH_WINDOW_MS * 2;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", expiration))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        // A new manager uses the stored token
+        AuthApiClient otherClient = mock(AuthApiClient.class);
+        AuthManager restored = new AuthManager(otherClient, mockChannel, clock, tokenStore, directExecutor);
+        assertEquals("some token", restored.getToken());
+        verifyZeroInteractions(otherClient);
+
+        // Expired tokens are cleared from the store
+        restored.tokenExpired("some token");
+        assertNull(tokenStore.load());
+    }
+
+    @Test
+    public void testTokenStoreRuntimeException() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        PreferenceDataStore dataStore = TestApplication.getApplication().preferenceDataStore;
+        AuthTokenStore failingStore = new AuthTokenStore(dataStore, new AuthTokenStore.Encryptor() {
+            @NonNull
+            @Override
+            public byte[] encrypt(@NonNull byte[] data) {
+                throw new ProviderException("Keystore unavailable");
+            }
+
+            @NonNull
+            @Override
+            public byte[] decrypt(@NonNull byte[] data) {
+                throw new IllegalStateException("Keystore unavailable");
+            }
+        });
+
+        // A previously stored token that can no longer be decrypted is cleared
+        tokenStore.save(new AuthToken("channel id", "old token", AuthManager.REFRESH_WINDOW_MS * 2));
+        assertNull(failingStore.load());
+        assertNull(tokenStore.load());
+
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", AuthManager.REFRESH_WINDOW_MS * 2))
+                        .build());
+
+        // The token is only kept in memory
+        AuthManager manager = new AuthManager(mockClient, mockChannel, clock, failingStore, directExecutor);
+        assertEquals("some token", manager.getToken());
+        assertEquals("some token", manager.getToken());
+        verify(mockClient, times(1)).getToken("channel id");
+        assertNull(tokenStore.load());
+    }
+
+    @Test
+    public void testRefreshBeforeExpiration() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long expiration = AuthManager.REFRESH_WINDOW_MS * 2;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", expiration))
+                        .build())
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some other token", expiration * 2))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+        assertEquals("some token", authManager.getToken());
+        verify(mockClient, times(1)).getToken("channel id");
+
+        // Within the refresh window the current token is returned while a new one is fetched
+        clock.currentTimeMillis = expiration - AuthManager.REFRESH_WINDOW_MS;
+        assertEquals("some token", authManager.getToken());
+        verify(mockClient, times(2)).getToken("channel id");
+
+        assertEquals("some other token", authManager.getToken());
+    }
+
+    @Test
+    public void testRefreshBackoff() throws RequestException, AuthException {
+        clock.currentTimeMillis = 0;
+        long expiration = AuthManager.REFRESH_WINDOW_MS * 2;
+        when(mockChannel.getId()).thenReturn("channel id");
+        when(mockClient.getToken("channel id"))
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", expiration))
+                        .build())
+                .thenReturn(new Response.Builder<AuthToken>(500)
+                        .build())
+                .thenReturn(new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some other token", expiration * 2))
+                        .build());
+
+        assertEquals("some token", authManager.getToken());
+
+        // The refresh fails
+        clock.currentTimeMillis = expiration - AuthManager.REFRESH_WINDOW_MS;
+        assertEquals("some token", authManager.getToken());
+        verify(mockClient, times(2)).getToken("channel id");
+
+        // No refresh during the backoff
+        clock.currentTimeMillis += AuthManager.REFRESH_BACKOFF_MS - 1;
+        assertEquals("some token", authManager.getToken());
+        verify(mockClient, times(2)).getToken("channel id");
+
+        // Refresh after the backoff
+        clock.currentTimeMillis += 1;
+        assertEquals("some token", authManager.getToken());
+        verify(mockClient, times(3)).getToken("channel id");
+        assertEquals("some other token", authManager.getToken());
+    }
+
+    @Test
+    public void testConcurrentFetchesCoalesced() throws Exception {
+        when(mockChannel.getId()).thenReturn("channel id");
+
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch finishRequest = new CountDownLatch(1);
+        when(mockClient.getToken("channel id")).thenAnswer(new Answer<Response<AuthToken>>() {
+            @Override
+            public Response<AuthToken> answer(InvocationOnMock invocation) throws Throwable {
+                requestStarted.countDown();
+                finishRequest.await(5, TimeUnit.SECONDS);
+                return new Response.Builder<AuthToken>(200)
+                        .setResult(new AuthToken("channel id", "some token", clock.currentTimeMillis + AuthManager.REFRESH_WINDOW_MS * 2))
+                        .build();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws AuthException {
+                        return authManager.getToken();
+                    }
+                }));
+            }
+
+            assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            finishRequest.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("some token", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(mockClient, times(1)).getToken(anyString());
+    }
+
+    private static class TestEncryptor implements AuthTokenStore.Encryptor {
+
+        @NonNull
+        @Override
+        public byte[] encrypt(@NonNull byte[] data) throws GeneralSecurityException, IOException {
+            byte[] result = new byte[data.length];
+            for (int i = 0; i < data.length; i++) {
+                result[i] = (byte) ~data[i];
+            }
+            return result;
+        }
+
+        @NonNull
+        @Override
+        public byte[] decrypt(@NonNull byte[] data) throws GeneralSecurityException, IOException {
+            return encrypt(data);
+        }
+
+    }
+
 }
@@ -0,0 +1,115 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.deferred;
+
+import com.urbanairship.TestClock;
+import com.urbanairship.automation.Trigger;
+import com.urbanairship.automation.TriggerContext;
+import com.urbanairship.automation.Triggers;
+import com.urbanairship.http.Response;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class DeferredResultCacheTest {
+
+    private static final long TTL_MS = 1000;
+
+    private TestClock clock;
+    private DeferredResultCache cache;
+    private URL url;
+    private Trigger trigger;
+    private TriggerContext triggerContext;
+    private Future<Response<DeferredScheduleClient.Result>> response;
+
+    @Before
+    public void setup() throws MalformedURLException {
+        clock = new TestClock();
+        cache = new DeferredResultCache(clock, TTL_MS);
+        url = new URL("https://neat");
+        trigger = Triggers.newScreenTriggerBuilder().setGoal(2).setScreenName("screen").build();
+        triggerContext = new TriggerContext(trigger, JsonValue.wrap("screen"));
+        response = new FutureTask<>(new Callable<Response<DeferredScheduleClient.Result>>() {
+            @Override
+            public Response<DeferredScheduleClient.Result> call() {
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testTake() {
+        cache.put("schedule", url, "channel", triggerContext, response);
+        assertTrue(cache.contains("schedule", url, "channel", triggerContext));
+
+        assertSame(response, cache.take("schedule", url, "channel", triggerContext));
+
+        // Only handed out once
+        assertFalse(cache.contains("schedule", url, "channel", triggerContext));
+        assertNull(cache.take("schedule", url, "channel", triggerContext));
+    }
+
+    @Test
+    public void testExpired() {
+        cache.put("schedule", url, "channel", triggerContext, response);
+
+        clock.elapsedRealtime += TTL_MS;
+        assertFalse(cache.contains("schedule", url, "channel", triggerContext));
+        assertNull(cache.take("schedule", url, "channel", triggerContext));
+    }
+
+    @Test
+    public void testMismatch() throws MalformedURLException {
+        Trigger otherTrigger = Triggers.newScreenTriggerBuilder().setGoal(3).setScreenName("screen").build();
+
+        cache.put("schedule", url, "channel", triggerContext, response);
+        assertNull(cache.take("schedule", url, "other channel", triggerContext));
+
+        cache.put("schedule", url, "channel", triggerContext, response);
+        assertNull(cache.take("schedule", new URL("https://other"), "channel", triggerContext));
+
+        cache.put("schedule", url, "channel", triggerContext, response);
+        assertNull(cache.take("schedule", url, "channel", new TriggerContext(otherTrigger, JsonValue.wrap("screen"))));
+
+        cache.put("schedule", url, "channel", triggerContext, response);
+        assertNull(cache.take("schedule", url, "channel", null));
+    }
+
+    @Test
+    public void testEventMismatch() {
+        Trigger eventTrigger = Triggers.newCustomEventTriggerBuilder().setCountGoal(2).setEventName("event").build();
+        TriggerContext prefetchContext = new TriggerContext(eventTrigger, JsonMap.newBuilder()
+                                                                                 .put("event_name", "event")
+                                                                                 .put("properties", JsonMap.newBuilder().put("item", "one").build())
+                                                                                 .build()
+                                                                                 .toJsonValue());
+
+        TriggerContext actualContext = new TriggerContext(eventTrigger, JsonMap.newBuilder()
+                                                                               .put("event_name", "event")
+                                                                               .put("properties", JsonMap.newBuilder().put("item", "two").build())
+                                                                               .build()
+                                                                               .toJsonValue());
+
+        cache.put("schedule", url, "channel", prefetchContext, response);
+        assertFalse(cache.contains("schedule", url, "channel", actualContext));
+        assertNull(cache.take("schedule", url, "channel", actualContext));
+    }
+
+}
@@ -92,11 +92,11 @@ public class FrequencyLimitManagerTest {
         executor.shutdown();
         executor.awaitTermination(10, TimeUnit.SECONDS);
 
+        // The occurrence at 0 is outside the range and pruned
         List<OccurrenceEntity> occurrenceEntityList = dao.getOccurrences("some-id");
-        assertEquals(3, occurrenceEntityList.size());
-        assertEquals(0, occurrenceEntityList.get(0).timeStamp);
-        assertEquals(1, occurrenceEntityList.get(1).timeStamp);
-        assertEquals(11, occurrenceEntityList.get(2).timeStamp);
+        assertEquals(2, occurrenceEntityList.size());
+        assertEquals(1, occurrenceEntityList.get(0).timeStamp);
+        assertEquals(11, occurrenceEntityList.get(1).timeStamp);
     }
 
     @Test
@@ -134,11 +134,11 @@ public class FrequencyLimitManagerTest {
         executor.shutdown();
         executor.awaitTermination(10, TimeUnit.SECONDS);
 
+        // The occurrence at 0 is outside the range and pruned
         List<OccurrenceEntity> occurrenceEntityList = dao.getOccurrences("some-id");
-        assertEquals(3, occurrenceEntityList.size());
-        assertEquals(0, occurrenceEntityList.get(0).timeStamp);
-        assertEquals(1, occurrenceEntityList.get(1).timeStamp);
-        assertEquals(11, occurrenceEntityList.get(2).timeStamp);
+        assertEquals(2, occurrenceEntityList.size());
+        assertEquals(1, occurrenceEntityList.get(0).timeStamp);
+        assertEquals(11, occurrenceEntityList.get(1).timeStamp);
     }
 
     @Test
@@ -191,17 +191,15 @@ public class FrequencyLimitManagerTest {
         executor.shutdown();
         executor.awaitTermination(10, TimeUnit.SECONDS);
 
+        // Only occurrences within the range and up to the count are kept
         List<OccurrenceEntity> fooList = dao.getOccurrences("foo");
-        assertEquals(3, fooList.size());
-        assertEquals(0, fooList.get(0).timeStamp);
-        assertEquals(3, fooList.get(1).timeStamp);
-        assertEquals(11, fooList.get(2).timeStamp);
+        assertEquals(2, fooList.size());
+        assertEquals(3, fooList.get(0).timeStamp);
+        assertEquals(11, fooList.get(1).timeStamp);
 
         List<OccurrenceEntity> barList = dao.getOccurrences("bar");
-        assertEquals(3, barList.size());
-        assertEquals(0, barList.get(0).timeStamp);
-        assertEquals(3, barList.get(1).timeStamp);
-        assertEquals(11, barList.get(2).timeStamp);
+        assertEquals(1, barList.size());
+        assertEquals(11, barList.get(0).timeStamp);
     }
 
     @Test
@@ -246,6 +244,33 @@ public class FrequencyLimitManagerTest {
         assertEquals(0, barList.get(1).timeStamp);
     }
 
+    @Test
+    public void testNewCheckerLoadsRecentOccurrences() throws ExecutionException, InterruptedException {
+        limitManager.updateConstraints(Collections.singletonList(FrequencyConstraint.newBuilder()
+                                                                                    .setCount(2)
+                                                                                    .setRange(TimeUnit.MILLISECONDS, 100)
+                                                                                    .setId("foo")
+                                                                                    .build()));
+
+        FrequencyChecker checker = limitManager.getFrequencyChecker(ids("foo")).get();
+
+        clock.currentTimeMillis = 0;
+        assertTrue(checker.checkAndIncrement());
+        clock.currentTimeMillis = 50;
+        assertTrue(checker.checkAndIncrement());
+        assertFalse(checker.checkAndIncrement());
+
+        // A new checker is over the limit until the count-th most recent occurrence leaves the range
+        clock.currentTimeMillis = 100;
+        FrequencyChecker newChecker = limitManager.getFrequencyChecker(ids("foo")).get();
+        assertTrue(newChecker.isOverLimit());
+
+        clock.currentTimeMillis = 101;
+        assertFalse(newChecker.isOverLimit());
+        assertTrue(newChecker.checkAndIncrement());
+        assertTrue(newChecker.isOverLimit());
+    }
+
     @Test
     public void testUpdateConstraintRangeClearsCount() throws ExecutionException, InterruptedException {
         limitManager.updateConstraints(Collections.singletonList(FrequencyConstraint.newBuilder()
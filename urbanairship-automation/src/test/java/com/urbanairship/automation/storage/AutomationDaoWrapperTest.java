@@ -0,0 +1,132 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import com.urbanairship.automation.Trigger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(AndroidJUnit4.class)
+public class AutomationDaoWrapperTest {
+
+    private AutomationDao mockDao;
+    private AutomationDaoWrapper wrapper;
+
+    @Before
+    public void setup() {
+        mockDao = mock(AutomationDao.class);
+        wrapper = new AutomationDaoWrapper(mockDao);
+    }
+
+    @Test
+    public void testTriggerProgressWriteBehind() {
+        TriggerEntity trigger = createTrigger(1);
+        wrapper.updateTriggerProgress(Collections.singletonList(trigger));
+        verify(mockDao, never()).updateTriggers(anyList());
+
+        wrapper.flushTriggerProgress();
+        verify(mockDao).updateTriggers(Collections.singletonList(trigger));
+
+        // Nothing pending
+        wrapper.flushTriggerProgress();
+        verify(mockDao).updateTriggers(anyList());
+    }
+
+    @Test
+    public void testTriggerProgressCoalesced() {
+        TriggerEntity first = createTrigger(1);
+        TriggerEntity second = createTrigger(2);
+
+        wrapper.updateTriggerProgress(Arrays.asList(first, second));
+        wrapper.updateTriggerProgress(Collections.singletonList(first));
+        wrapper.flushTriggerProgress();
+
+        verify(mockDao).updateTriggers(Arrays.asList(first, second));
+    }
+
+    @Test
+    public void testReadFlushesTriggerProgress() {
+        TriggerEntity trigger = createTrigger(1);
+        wrapper.updateTriggerProgress(Collections.singletonList(trigger));
+
+        wrapper.getSchedules(Collections.singletonList("schedule"));
+
+        InOrder inOrder = inOrder(mockDao);
+        inOrder.verify(mockDao).updateTriggers(Collections.singletonList(trigger));
+        inOrder.verify(mockDao).getSchedules(Collections.singletonList("schedule"));
+    }
+
+    @Test
+    public void testUpdateTriggersClearsPendingProgress() {
+        TriggerEntity trigger = createTrigger(1);
+        wrapper.updateTriggerProgress(Collections.singletonList(trigger));
+
+        List<TriggerEntity> triggers = Collections.singletonList(trigger);
+        wrapper.updateTriggers(triggers);
+        wrapper.flushTriggerProgress();
+
+        verify(mockDao).updateTriggers(triggers);
+    }
+
+    @Test
+    public void testScheduleTriggersSharedWithIndex() {
+        TriggerEntity trigger = createTrigger(1, "schedule");
+        TriggerEntity other = createTrigger(2, "other schedule");
+        when(mockDao.getActiveTriggers(Trigger.ACTIVE_SESSION)).thenReturn(Arrays.asList(trigger, other));
+
+        // State stream
+        List<TriggerEntity> stateTriggers = wrapper.getActiveTriggers(Trigger.ACTIVE_SESSION, "schedule");
+        assertEquals(1, stateTriggers.size());
+        assertSame(trigger, stateTriggers.get(0));
+        stateTriggers.get(0).progress += 1;
+        wrapper.updateTriggerProgress(stateTriggers);
+
+        // Event stream
+        List<TriggerEntity> eventTriggers = wrapper.getActiveTriggers(Trigger.ACTIVE_SESSION);
+        assertEquals(2, eventTriggers.size());
+        assertSame(trigger, eventTriggers.get(0));
+        eventTriggers.get(0).progress += 1;
+        wrapper.updateTriggerProgress(Collections.singletonList(eventTriggers.get(0)));
+
+        wrapper.flushTriggerProgress();
+
+        // Both updates are kept
+        assertEquals(3.0, trigger.progress, 0);
+        verify(mockDao).updateTriggers(Collections.singletonList(trigger));
+        verify(mockDao, never()).getActiveTriggers(anyInt(), anyString());
+    }
+
+    private static TriggerEntity createTrigger(int id) {
+        return createTrigger(id, "schedule");
+    }
+
+    private static TriggerEntity createTrigger(int id, String scheduleId) {
+        TriggerEntity entity = new TriggerEntity();
+        entity.id = id;
+        entity.parentScheduleId = scheduleId;
+        entity.goal = 10;
+        entity.progress = 1;
+        return entity;
+    }
+
+}
@@ -0,0 +1,105 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import com.urbanairship.analytics.CustomEvent;
+import com.urbanairship.automation.Trigger;
+import com.urbanairship.automation.Triggers;
+import com.urbanairship.json.JsonMatcher;
+import com.urbanairship.json.JsonPredicate;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.json.ValueMatcher;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class TriggerIndexTest {
+
+    private final TriggerIndex index = new TriggerIndex();
+
+    @Test
+    public void testCustomEventTriggers() {
+        TriggerEntity foo = createTrigger(Triggers.newCustomEventTriggerBuilder().setEventName("foo").setCountGoal(1).build());
+        TriggerEntity bar = createTrigger(Triggers.newCustomEventTriggerBuilder().setEventName("bar").setCountGoal(1).build());
+        TriggerEntity any = createTrigger(Triggers.newCustomEventTriggerBuilder().setCountGoal(1).build());
+
+        index.put(Trigger.CUSTOM_EVENT_COUNT, Arrays.asList(foo, bar, any), -1);
+
+        List<TriggerEntity> triggers = index.get(Trigger.CUSTOM_EVENT_COUNT, CustomEvent.newBuilder("foo").build().toJsonValue(), 0);
+        assertEquals(2, triggers.size());
+        assertTrue(triggers.contains(foo));
+        assertTrue(triggers.contains(any));
+
+        triggers = index.get(Trigger.CUSTOM_EVENT_COUNT, CustomEvent.newBuilder("baz").build().toJsonValue(), 0);
+        assertEquals(Arrays.asList(any), triggers);
+
+        assertEquals(3, index.get(Trigger.CUSTOM_EVENT_COUNT, 0).size());
+    }
+
+    @Test
+    public void testScreenTriggers() {
+        TriggerEntity home = createTrigger(Triggers.newScreenTriggerBuilder().setScreenName("home").setGoal(1).build());
+        TriggerEntity settings = createTrigger(Triggers.newScreenTriggerBuilder().setScreenName("settings").setGoal(1).build());
+
+        index.put(Trigger.SCREEN_VIEW, Arrays.asList(home, settings), -1);
+
+        assertEquals(Arrays.asList(home), index.get(Trigger.SCREEN_VIEW, JsonValue.wrap("home"), 0));
+        assertTrue(index.get(Trigger.SCREEN_VIEW, JsonValue.wrap("other"), 0).isEmpty());
+    }
+
+    @Test
+    public void testComplexPredicateIsNotIndexed() {
+        JsonPredicate predicate = JsonPredicate.newBuilder()
+                                               .setPredicateType(JsonPredicate.OR_PREDICATE_TYPE)
+                                               .addMatcher(JsonMatcher.newBuilder()
+                                                                      .setKey(CustomEvent.EVENT_NAME)
+                                                                      .setValueMatcher(ValueMatcher.newValueMatcher(JsonValue.wrap("foo")))
+                                                                      .build())
+                                               .addMatcher(JsonMatcher.newBuilder()
+                                                                      .setKey(CustomEvent.EVENT_NAME)
+                                                                      .setValueMatcher(ValueMatcher.newValueMatcher(JsonValue.wrap("bar")))
+                                                                      .build())
+                                               .build();
+
+        TriggerEntity trigger = new TriggerEntity();
+        trigger.triggerType = Trigger.CUSTOM_EVENT_COUNT;
+        trigger.jsonPredicate = predicate;
+
+        index.put(Trigger.CUSTOM_EVENT_COUNT, Arrays.asList(trigger), -1);
+        assertEquals(Arrays.asList(trigger), index.get(Trigger.CUSTOM_EVENT_COUNT, CustomEvent.newBuilder("bar").build().toJsonValue(), 0));
+    }
+
+    @Test
+    public void testExpiration() {
+        index.put(Trigger.SCREEN_VIEW, Arrays.<TriggerEntity>asList(), 100);
+
+        assertEquals(0, index.get(Trigger.SCREEN_VIEW, 99).size());
+        assertNull(index.get(Trigger.SCREEN_VIEW, 100));
+    }
+
+    @Test
+    public void testInvalidate() {
+        index.put(Trigger.SCREEN_VIEW, Arrays.<TriggerEntity>asList(), -1);
+        index.invalidate();
+        assertNull(index.get(Trigger.SCREEN_VIEW, 0));
+    }
+
+    private static TriggerEntity createTrigger(Trigger trigger) {
+        TriggerEntity entity = new TriggerEntity();
+        entity.triggerType = trigger.getType();
+        entity.goal = trigger.getGoal();
+        entity.jsonPredicate = trigger.getPredicate();
+        return entity;
+    }
+
+}
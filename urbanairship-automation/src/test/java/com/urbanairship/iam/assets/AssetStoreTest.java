@@ -0,0 +1,403 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.iam.assets;
+
+import android.content.Context;
+
+import com.urbanairship.TestClock;
+import com.urbanairship.util.FileUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AssetStore}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AssetStoreTest {
+
+    private static final String REMOTE_URL = "https://example.com/asset.png";
+
+    private Context context;
+    private AssetStore assetStore;
+    private TestClock clock;
+    private File source;
+    private String url;
+    private File storeDirectory;
+
+    @Before
+    public void setup() throws IOException {
+        context = ApplicationProvider.getApplicationContext();
+        clock = new TestClock();
+        storeDirectory = new File(context.getCacheDir(), "asset-store-test");
+        FileUtils.deleteRecursively(storeDirectory);
+        assetStore = new AssetStore(context, storeDirectory, clock);
+
+        source = new File(context.getCacheDir(), "source");
+        write(source, "original");
+        url = source.toURI().toURL().toString();
+    }
+
+    /**
+     * Test a URL fetched by multiple schedules is only downloaded once.
+     */
+    @Test
+    public void testFetchShared() throws IOException {
+        File first = new File(storeDirectory.getParentFile(), "first");
+        File second = new File(storeDirectory.getParentFile(), "second");
+
+        assertTrue(assetStore.fetch("schedule-1", url, first).isSuccess);
+
+        // Change the source, the fresh entry should be used without downloading
+        write(source, "changed");
+        assertTrue(assetStore.fetch("schedule-2", url, second).isSuccess);
+
+        assertEquals("original", read(first));
+        assertEquals("original", read(second));
+        assertEquals(2, assetStore.getReferenceCount(url));
+    }
+
+    /**
+     * Test stale entries are downloaded again.
+     */
+    @Test
+    public void testFetchStale() throws IOException {
+        File first = new File(storeDirectory.getParentFile(), "first");
+        File second = new File(storeDirectory.getParentFile(), "second");
+
+        assertTrue(assetStore.fetch("schedule-1", url, first).isSuccess);
+
+        write(source, "changed");
+        clock.currentTimeMillis += 2 * 60 * 60 * 1000;
+        assertTrue(assetStore.fetch("schedule-2", url, second).isSuccess);
+
+        assertEquals("original", read(first));
+        assertEquals("changed", read(second));
+    }
+
+    /**
+     * Test releasing schedules.
+     */
+    @Test
+    public void testRelease() throws IOException {
+        assetStore.fetch("schedule-1", url, new File(storeDirectory.getParentFile(), "first"));
+        assetStore.fetch("schedule-2", url, new File(storeDirectory.getParentFile(), "second"));
+
+        assetStore.release("schedule-1");
+        assertEquals(1, assetStore.getReferenceCount(url));
+
+        assetStore.release("schedule-2");
+        assertEquals(0, assetStore.getReferenceCount(url));
+
+        // Unreferenced entries are removed after a day
+        clock.currentTimeMillis += 25 * 60 * 60 * 1000;
+        assetStore.release("schedule-3");
+
+        File[] files = storeDirectory.listFiles();
+        assertEquals(1, files.length);
+        assertEquals("index", files[0].getName());
+    }
+
+    /**
+     * Test the index is persisted.
+     */
+    @Test
+    public void testPersistence() throws IOException {
+        assetStore.fetch("schedule-1", url, new File(storeDirectory.getParentFile(), "first"));
+
+        AssetStore restored = new AssetStore(ApplicationProvider.<Context>getApplicationContext(), storeDirectory, clock);
+        assertEquals(1, restored.getReferenceCount(url));
+        assertFalse(restored.getReferenceCount("https://example.com/other") > 0);
+    }
+
+    /**
+     * Test a download does not block the store and concurrent fetches of a URL share it.
+     */
+    @Test
+    public void testConcurrentFetch() throws Exception {
+        final CountDownLatch downloadStarted = new CountDownLatch(1);
+        final CountDownLatch finishDownload = new CountDownLatch(1);
+        final AtomicInteger connectionCount = new AtomicInteger();
+
+        final AssetStore store = new AssetStore(ApplicationProvider.<Context>getApplicationContext(), storeDirectory, clock) {
+            @NonNull
+            @Override
+            URLConnection openConnection(@NonNull URL url) {
+                connectionCount.incrementAndGet();
+                return new URLConnection(url) {
+                    @Override
+                    public void connect() {
+                    }
+
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        downloadStarted.countDown();
+                        try {
+                            finishDownload.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        return new ByteArrayInputStream("slow".getBytes("UTF-8"));
+                    }
+                };
+            }
+        };
+
+        final File first = new File(storeDirectory.getParentFile(), "first");
+        final File second = new File(storeDirectory.getParentFile(), "second");
+        final String slowUrl = "https://example.com/slow";
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<FileUtils.DownloadResult> firstResult = executor.submit(new Callable<FileUtils.DownloadResult>() {
+                @Override
+                public FileUtils.DownloadResult call() throws IOException {
+                    return store.fetch("schedule-1", slowUrl, first);
+                }
+            });
+            assertTrue(downloadStarted.await(5, TimeUnit.SECONDS));
+
+            Future<FileUtils.DownloadResult> secondResult = executor.submit(new Callable<FileUtils.DownloadResult>() {
+                @Override
+                public FileUtils.DownloadResult call() throws IOException {
+                    return store.fetch("schedule-2", slowUrl, second);
+                }
+            });
+
+            // Releasing does not wait on the download
+            Future<?> release = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    store.release("schedule-3");
+                }
+            });
+            release.get(1, TimeUnit.SECONDS);
+
+            finishDownload.countDown();
+            assertTrue(firstResult.get(5, TimeUnit.SECONDS).isSuccess);
+            assertTrue(secondResult.get(5, TimeUnit.SECONDS).isSuccess);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, connectionCount.get());
+        assertEquals("slow", read(first));
+        assertEquals("slow", read(second));
+        assertEquals(2, store.getReferenceCount(slowUrl));
+    }
+
+    /**
+     * Test stale entries are revalidated with the stored validators and a 304 reuses the stored copy.
+     */
+    @Test
+    public void testRevalidateNotModified() throws IOException {
+        TestAssetStore store = new TestAssetStore();
+        File first = new File(storeDirectory.getParentFile(), "first");
+        File second = new File(storeDirectory.getParentFile(), "second");
+
+        TestConnection download = store.addConnection(HttpURLConnection.HTTP_OK, "original");
+        download.headers.put("ETag", "\"v1\"");
+        download.headers.put("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+
+        FileUtils.DownloadResult result = store.fetch("schedule-1", REMOTE_URL, first);
+        assertTrue(result.isSuccess);
+        assertEquals(HttpURLConnection.HTTP_OK, result.statusCode);
+        assertNull(download.getRequestProperty("If-None-Match"));
+        assertNull(download.getRequestProperty("If-Modified-Since"));
+
+        clock.currentTimeMillis += 2 * 60 * 60 * 1000;
+        TestConnection revalidation = store.addConnection(HttpURLConnection.HTTP_NOT_MODIFIED, null);
+
+        result = store.fetch("schedule-2", REMOTE_URL, second);
+        assertTrue(result.isSuccess);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, result.statusCode);
+        assertEquals("\"v1\"", revalidation.getRequestProperty("If-None-Match"));
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", revalidation.getRequestProperty("If-Modified-Since"));
+        assertEquals("original", read(second));
+        assertEquals(2, store.getReferenceCount(REMOTE_URL));
+
+        // The 304 refreshed the entry
+        assertTrue(store.fetch("schedule-3", REMOTE_URL, new File(storeDirectory.getParentFile(), "third")).isSuccess);
+        assertEquals(2, store.openedConnections.size());
+    }
+
+    /**
+     * Test a revalidation that fails with a server error falls back to the stored copy.
+     */
+    @Test
+    public void testRevalidateServerError() throws IOException {
+        TestAssetStore store = new TestAssetStore();
+        File first = new File(storeDirectory.getParentFile(), "first");
+        File second = new File(storeDirectory.getParentFile(), "second");
+
+        store.addConnection(HttpURLConnection.HTTP_OK, "original").headers.put("ETag", "\"v1\"");
+        assertTrue(store.fetch("schedule-1", REMOTE_URL, first).isSuccess);
+
+        clock.currentTimeMillis += 2 * 60 * 60 * 1000;
+        TestConnection revalidation = store.addConnection(HttpURLConnection.HTTP_UNAVAILABLE, null);
+
+        FileUtils.DownloadResult result = store.fetch("schedule-2", REMOTE_URL, second);
+        assertTrue(result.isSuccess);
+        assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, result.statusCode);
+        assertEquals("\"v1\"", revalidation.getRequestProperty("If-None-Match"));
+        assertEquals("original", read(second));
+        assertEquals(2, store.getReferenceCount(REMOTE_URL));
+    }
+
+    /**
+     * Test an entry that is released while it is being revalidated is downloaded again.
+     */
+    @Test
+    public void testEntryReleasedDuringRevalidation() throws IOException {
+        final TestAssetStore store = new TestAssetStore();
+        File first = new File(storeDirectory.getParentFile(), "first");
+        File second = new File(storeDirectory.getParentFile(), "second");
+
+        store.addConnection(HttpURLConnection.HTTP_OK, "original").headers.put("ETag", "\"v1\"");
+        assertTrue(store.fetch("schedule-1", REMOTE_URL, first).isSuccess);
+        store.release("schedule-1");
+
+        // Stale and past the unreferenced TTL
+        clock.currentTimeMillis += 25 * 60 * 60 * 1000;
+        TestConnection revalidation = new TestConnection(HttpURLConnection.HTTP_NOT_MODIFIED, null) {
+            @Override
+            public int getResponseCode() {
+                store.release("schedule-3");
+                return super.getResponseCode();
+            }
+        };
+        store.connections.add(revalidation);
+        TestConnection download = store.addConnection(HttpURLConnection.HTTP_OK, "changed");
+
+        FileUtils.DownloadResult result = store.fetch("schedule-2", REMOTE_URL, second);
+        assertTrue(result.isSuccess);
+        assertEquals(HttpURLConnection.HTTP_OK, result.statusCode);
+        assertEquals("\"v1\"", revalidation.getRequestProperty("If-None-Match"));
+        assertNull(download.getRequestProperty("If-None-Match"));
+        assertEquals("changed", read(second));
+        assertEquals(1, store.getReferenceCount(REMOTE_URL));
+    }
+
+    private static void write(File file, String contents) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(contents.getBytes("UTF-8"));
+        outputStream.close();
+    }
+
+    private static String read(File file) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        byte[] bytes = new byte[(int) file.length()];
+        int count = inputStream.read(bytes);
+        inputStream.close();
+        return new String(bytes, 0, count, "UTF-8");
+    }
+
+    /**
+     * Asset store that serves queued connections.
+     */
+    private class TestAssetStore extends AssetStore {
+
+        private final List<TestConnection> connections = new ArrayList<>();
+        private final List<TestConnection> openedConnections = new ArrayList<>();
+
+        TestAssetStore() {
+            super(context, storeDirectory, clock);
+        }
+
+        @NonNull
+        TestConnection addConnection(int responseCode, String body) throws IOException {
+            TestConnection connection = new TestConnection(responseCode, body);
+            connections.add(connection);
+            return connection;
+        }
+
+        @NonNull
+        @Override
+        URLConnection openConnection(@NonNull URL url) {
+            TestConnection connection = connections.remove(0);
+            openedConnections.add(connection);
+            return connection;
+        }
+
+    }
+
+    /**
+     * HTTP connection with a canned response.
+     */
+    private static class TestConnection extends HttpURLConnection {
+
+        private final int responseCode;
+        private final String body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        TestConnection(int responseCode, String body) throws IOException {
+            super(new URL(REMOTE_URL));
+            this.responseCode = responseCode;
+            this.body = body;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return responseCode;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (body == null) {
+                throw new IOException("No body");
+            }
+            return new ByteArrayInputStream(body.getBytes("UTF-8"));
+        }
+
+    }
+
+}
@@ -6,6 +6,7 @@ import android.content.Context;
 
 import com.urbanairship.job.JobInfo;
 import com.urbanairship.json.JsonMap;
+import com.urbanairship.util.PrioritizedExecutor;
 
 import java.util.concurrent.Executor;
 
@@ -42,7 +43,7 @@ public abstract class AirshipComponent {
     /**
      * Default job executor.
      */
-    private final Executor jobExecutor = AirshipExecutors.newSerialExecutor();
+    private final Executor jobExecutor = AirshipExecutors.newSerialExecutor(PrioritizedExecutor.PRIORITY_LOW);
 
     /**
      * Initialize the manager.
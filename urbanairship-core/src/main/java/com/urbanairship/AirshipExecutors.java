@@ -1,28 +1,48 @@
 package com.urbanairship;
 
-import com.urbanairship.util.AirshipThreadFactory;
+import android.os.Process;
+
+import com.urbanairship.util.PrioritizedExecutor;
 import com.urbanairship.util.SerialExecutor;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
 
 /**
  * Common Executors for Airship.
+ * <p>
+ * Work is split into two bounded lanes. The {@link #USER_VISIBLE_EXECUTOR} runs work the user is
+ * waiting on, e.g. notification images and actions, so it is never queued behind background work
+ * on the {@link #THREAD_POOL_EXECUTOR}. Tasks that block waiting on other tasks must use
+ * {@link PrioritizedExecutor#beginBlocking(java.util.concurrent.Executor)} and
+ * {@link PrioritizedExecutor#endBlocking(java.util.concurrent.Executor)}, passing the executor
+ * the other task runs on if it is known.
  *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class AirshipExecutors {
 
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final int BACKGROUND_POOL_SIZE = Math.max(4, Math.min(CPU_COUNT * 2, 8));
+    private static final int USER_VISIBLE_POOL_SIZE = Math.max(2, Math.min(CPU_COUNT, 4));
+
+    /**
+     * The shared background thread pool executor.
+     */
+    @NonNull
+    public static final ExecutorService THREAD_POOL_EXECUTOR = new PrioritizedExecutor("UrbanAirship",
+            BACKGROUND_POOL_SIZE, PrioritizedExecutor.PRIORITY_NORMAL, Process.THREAD_PRIORITY_BACKGROUND);
+
     /**
-     * The shared thread pool executor.
+     * The shared thread pool executor for work the user is waiting on.
      */
     @NonNull
-    public static final ExecutorService THREAD_POOL_EXECUTOR = Executors.newCachedThreadPool(AirshipThreadFactory.DEFAULT_THREAD_FACTORY);
+    public static final ExecutorService USER_VISIBLE_EXECUTOR = new PrioritizedExecutor("UrbanAirship user visible",
+            USER_VISIBLE_POOL_SIZE, PrioritizedExecutor.PRIORITY_HIGH, Process.THREAD_PRIORITY_DEFAULT);
 
     /**
      * Creates a new serial executor that shares threads with the {@link #THREAD_POOL_EXECUTOR}.
@@ -34,4 +54,26 @@ public class AirshipExecutors {
         return new SerialExecutor(THREAD_POOL_EXECUTOR);
     }
 
+    /**
+     * Creates a new serial executor that shares threads with the {@link #THREAD_POOL_EXECUTOR} and
+     * runs at the given priority.
+     *
+     * @param priority The priority.
+     * @return A new serial executor.
+     */
+    @NonNull
+    public static Executor newSerialExecutor(@PrioritizedExecutor.Priority int priority) {
+        return new SerialExecutor(THREAD_POOL_EXECUTOR, priority);
+    }
+
+    /**
+     * Creates a new serial executor that shares threads with the {@link #USER_VISIBLE_EXECUTOR}.
+     *
+     * @return A new serial executor.
+     */
+    @NonNull
+    public static Executor newUserVisibleSerialExecutor() {
+        return new SerialExecutor(USER_VISIBLE_EXECUTOR);
+    }
+
 }
@@ -4,6 +4,8 @@ package com.urbanairship;
 
 import android.os.Looper;
 
+import com.urbanairship.util.PrioritizedExecutor;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -130,7 +132,13 @@ public class PendingResult<T> implements Cancelable, Future<T> {
             if (isDone()) {
                 return result;
             }
-            this.wait();
+
+            PrioritizedExecutor.beginBlocking();
+            try {
+                this.wait();
+            } finally {
+                PrioritizedExecutor.endBlocking();
+            }
             return result;
         }
     }
@@ -143,7 +151,12 @@ public class PendingResult<T> implements Cancelable, Future<T> {
                 return result;
             }
 
-            this.wait(timeUnit.toMillis(l));
+            PrioritizedExecutor.beginBlocking();
+            try {
+                this.wait(timeUnit.toMillis(l));
+            } finally {
+                PrioritizedExecutor.endBlocking();
+            }
 
             return result;
         }
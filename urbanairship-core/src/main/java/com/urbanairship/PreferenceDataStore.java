@@ -3,11 +3,13 @@
 package com.urbanairship;
 
 import android.annotation.SuppressLint;
+import android.content.ContentProviderOperation;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.ContentObserver;
 import android.database.Cursor;
 import android.net.Uri;
+import android.text.TextUtils;
 
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonSerializable;
@@ -17,6 +19,7 @@ import com.urbanairship.util.UAStringUtil;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
@@ -49,6 +52,34 @@ public final class PreferenceDataStore {
 
     private final List<PreferenceChangeListener> listeners = new ArrayList<>();
 
+    /**
+     * Single observer for all preferences. Writes notify the preference's own URI, so
+     * only the changed preference is synced from the database.
+     */
+    private final ContentObserver observer = new ContentObserver(null) {
+
+        @Override
+        public boolean deliverSelfNotifications() {
+            return false;
+        }
+
+        @Override
+        public void onChange(boolean selfChange) {
+            onChange(selfChange, null);
+        }
+
+        @Override
+        public void onChange(boolean selfChange, @Nullable Uri uri) {
+            Logger.verbose("Preference updated: %s", uri);
+            onPreferenceUriChanged(uri);
+        }
+    };
+
+    // Pending writes by key, a null value removes the preference
+    private final Map<String, String> journal = new LinkedHashMap<>();
+    private boolean isJournalWriteScheduled = false;
+    private final Object writeLock = new Object();
+
     /**
      * Listener for when preferences changes either by the
      * current process or a different process.
@@ -106,6 +137,7 @@ public final class PreferenceDataStore {
      */
     protected void init() {
         loadPreferences();
+        resolver.registerContentObserver(UrbanAirshipProvider.getPreferencesContentUri(context), true, observer);
     }
 
     private void loadPreferences() {
@@ -217,9 +249,10 @@ public final class PreferenceDataStore {
     }
 
     private void finishLoad(@NonNull List<Preference> preferences) {
-        for (Preference preference : preferences) {
-            this.preferences.put(preference.key, preference);
-            preference.registerObserver();
+        synchronized (this.preferences) {
+            for (Preference preference : preferences) {
+                this.preferences.put(preference.key, preference);
+            }
         }
 
         for (String key : OBSOLETE_KEYS) {
@@ -231,9 +264,36 @@ public final class PreferenceDataStore {
      * Unregisters any observers.
      */
     protected void tearDown() {
-        for (Preference preference : preferences.values()) {
-            preference.unregisterObserver();
+        resolver.unregisterContentObserver(observer);
+    }
+
+    /**
+     * Called when a preference is changed by a different process.
+     *
+     * @param uri The changed preference URI, or {@code null} if unknown.
+     */
+    private void onPreferenceUriChanged(@Nullable Uri uri) {
+        final List<Preference> changed = new ArrayList<>();
+
+        List<String> segments = uri == null ? null : uri.getPathSegments();
+        if (segments == null || segments.size() < 2) {
+            // Unknown key, sync everything
+            synchronized (preferences) {
+                changed.addAll(preferences.values());
+            }
+        } else {
+            String key = TextUtils.join("/", segments.subList(1, segments.size()));
+            changed.add(getPreference(key));
         }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Preference preference : changed) {
+                    preference.syncValue();
+                }
+            }
+        });
     }
 
     /**
@@ -254,8 +314,7 @@ public final class PreferenceDataStore {
      * @return The boolean value for the preference or defaultValue if it doesn't exist.
      */
     public boolean getBoolean(@NonNull String key, boolean defaultValue) {
-        String value = getPreference(key).get();
-        return value == null ? defaultValue : Boolean.parseBoolean(value);
+        return getPreference(key).getBoolean(defaultValue);
     }
 
     /**
@@ -280,16 +339,7 @@ public final class PreferenceDataStore {
      * @return The long value for the preference or defaultValue if it doesn't exist.
      */
     public long getLong(@NonNull String key, long defaultValue) {
-        String value = getPreference(key).get();
-        if (value == null) {
-            return defaultValue;
-        }
-
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return getPreference(key).getLong(defaultValue);
     }
 
     /**
@@ -301,16 +351,7 @@ public final class PreferenceDataStore {
      * @return The integer value for the preference or defaultValue if it doesn't exist.
      */
     public int getInt(@NonNull String key, int defaultValue) {
-        String value = getPreference(key).get();
-        if (value == null) {
-            return defaultValue;
-        }
-
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return getPreference(key).getInt(defaultValue);
     }
 
     /**
@@ -321,13 +362,7 @@ public final class PreferenceDataStore {
      */
     @NonNull
     public JsonValue getJsonValue(@NonNull String key) {
-        try {
-            return JsonValue.parseString(getPreference(key).get());
-        } catch (JsonException e) {
-            // Should never happen
-            Logger.debug(e, "Unable to parse preference value: %s", key);
-            return JsonValue.NULL;
-        }
+        return getPreference(key).getJsonValue();
     }
 
     /**
@@ -433,6 +468,93 @@ public final class PreferenceDataStore {
         return getPreference(key).putSync(value);
     }
 
+    /**
+     * Creates an editor to update several preferences at once. The changes are written
+     * in a single transaction when {@link Editor#apply()} is called.
+     *
+     * @return An editor.
+     */
+    @NonNull
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Adds values to the write journal and schedules a journal write if needed. Multiple
+     * writes to the same key before the journal is written are coalesced into a single write.
+     *
+     * @param values The values to write by key, a null value removes the preference.
+     */
+    private void journalWrites(@NonNull Map<String, String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        synchronized (journal) {
+            journal.putAll(values);
+
+            if (isJournalWriteScheduled) {
+                return;
+            }
+
+            isJournalWriteScheduled = true;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeJournal();
+            }
+        });
+    }
+
+    /**
+     * Writes all the journaled values in a single transaction.
+     */
+    private void writeJournal() {
+        synchronized (writeLock) {
+            Map<String, String> values;
+            synchronized (journal) {
+                values = new LinkedHashMap<>(journal);
+                journal.clear();
+                isJournalWriteScheduled = false;
+            }
+
+            if (values.isEmpty()) {
+                return;
+            }
+
+            Uri uri = UrbanAirshipProvider.getPreferencesContentUri(context);
+            ArrayList<ContentProviderOperation> operations = new ArrayList<>(values.size());
+
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (entry.getValue() == null) {
+                    Logger.verbose("Removing preference: %s", entry.getKey());
+                    operations.add(ContentProviderOperation.newDelete(uri)
+                                                           .withSelection(WHERE_CLAUSE_KEY, new String[] { entry.getKey() })
+                                                           .build());
+                } else {
+                    Logger.verbose("Saving preference: %s value: %s", entry.getKey(), entry.getValue());
+                    ContentValues contentValues = new ContentValues();
+                    contentValues.put(PreferencesDataManager.COLUMN_NAME_KEY, entry.getKey());
+                    contentValues.put(PreferencesDataManager.COLUMN_NAME_VALUE, entry.getValue());
+                    operations.add(ContentProviderOperation.newInsert(uri)
+                                                           .withValues(contentValues)
+                                                           .build());
+                }
+            }
+
+            if (resolver.applyBatch(operations) == null) {
+                Logger.error("Failed to write preferences: %s", values.keySet());
+                return;
+            }
+
+            for (String key : values.keySet()) {
+                getPreference(key).notifyWrite();
+            }
+        }
+    }
+
     /**
      * Called when a preference changes in value.
      *
@@ -458,7 +580,6 @@ public final class PreferenceDataStore {
             Preference preference = preferences.get(key);
             if (preference == null) {
                 preference = new Preference(key, null);
-                preference.registerObserver();
                 preferences.put(key, preference);
             }
             return preference;
@@ -466,34 +587,134 @@ public final class PreferenceDataStore {
     }
 
     /**
-     * A helper class that handles fetching, writing, and syncing with the
-     * preference provider.
+     * Editor to update several preferences in a single transaction.
      */
-    private class Preference {
+    public class Editor {
 
-        private final ContentObserver observer = new ContentObserver(null) {
+        private final Map<String, String> values = new LinkedHashMap<>();
 
-            @Override
-            public boolean deliverSelfNotifications() {
-                return false;
+        private Editor() {}
+
+        /**
+         * Stores a String value.
+         *
+         * @param key The preference name.
+         * @param value The preference value.
+         * @return The editor.
+         */
+        @NonNull
+        public Editor put(@NonNull String key, @Nullable String value) {
+            values.put(key, value);
+            return this;
+        }
+
+        /**
+         * Stores a long value.
+         *
+         * @param key The preference name.
+         * @param value The preference value.
+         * @return The editor.
+         */
+        @NonNull
+        public Editor put(@NonNull String key, long value) {
+            return put(key, String.valueOf(value));
+        }
+
+        /**
+         * Stores an int value.
+         *
+         * @param key The preference name.
+         * @param value The preference value.
+         * @return The editor.
+         */
+        @NonNull
+        public Editor put(@NonNull String key, int value) {
+            return put(key, String.valueOf(value));
+        }
+
+        /**
+         * Stores a boolean value.
+         *
+         * @param key The preference name.
+         * @param value The preference value.
+         * @return The editor.
+         */
+        @NonNull
+        public Editor put(@NonNull String key, boolean value) {
+            return put(key, String.valueOf(value));
+        }
+
+        /**
+         * Stores a {@link JsonSerializable} value.
+         *
+         * @param key The preference name.
+         * @param value The preference value.
+         * @return The editor.
+         */
+        @NonNull
+        public Editor put(@NonNull String key, @Nullable JsonSerializable value) {
+            if (value == null || value.toJsonValue() == null) {
+                return remove(key);
             }
 
-            @Override
-            public void onChange(boolean selfChange) {
-                Logger.verbose("Preference updated: %s", key);
-                executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        syncValue();
-                    }
-                });
+            return put(key, value.toJsonValue().toString());
+        }
+
+        /**
+         * Removes a preference.
+         *
+         * @param key The preference name.
+         * @return The editor.
+         */
+        @NonNull
+        public Editor remove(@NonNull String key) {
+            values.put(key, null);
+            return this;
+        }
+
+        /**
+         * Applies the changes. The in-memory values are updated immediately and the changes
+         * are written to the database in a single transaction.
+         */
+        public void apply() {
+            Map<String, String> changed = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (getPreference(entry.getKey()).setValue(entry.getValue())) {
+                    changed.put(entry.getKey(), entry.getValue());
+                }
             }
-        };
+
+            journalWrites(changed);
+        }
+
+    }
+
+    /**
+     * A helper class that handles fetching, writing, and syncing with the
+     * preference provider.
+     * <p>
+     * Typed values are parsed from the stored string the first time they are requested and
+     * cached until the value changes.
+     */
+    private class Preference {
+
+        private static final int PARSE_PENDING = 0;
+        private static final int PARSE_VALID = 1;
+        private static final int PARSE_INVALID = 2;
 
         private final String key;
         private String value;
         private final Uri uri;
 
+        // Cached typed values, reset whenever the value changes
+        private int longState = PARSE_PENDING;
+        private long longValue;
+        private int intState = PARSE_PENDING;
+        private int intValue;
+        private int booleanState = PARSE_PENDING;
+        private boolean booleanValue;
+        private JsonValue jsonValue;
+
         Preference(String key, String value) {
             this.key = key;
             this.value = value;
@@ -511,6 +732,99 @@ public final class PreferenceDataStore {
             }
         }
 
+        /**
+         * Gets the value as a long.
+         *
+         * @param defaultValue The value to return if the preference is not set or is not a long.
+         * @return The long value.
+         */
+        long getLong(long defaultValue) {
+            synchronized (this) {
+                if (value == null) {
+                    return defaultValue;
+                }
+
+                if (longState == PARSE_PENDING) {
+                    try {
+                        longValue = Long.parseLong(value);
+                        longState = PARSE_VALID;
+                    } catch (NumberFormatException e) {
+                        longState = PARSE_INVALID;
+                    }
+                }
+
+                return longState == PARSE_VALID ? longValue : defaultValue;
+            }
+        }
+
+        /**
+         * Gets the value as an int.
+         *
+         * @param defaultValue The value to return if the preference is not set or is not an int.
+         * @return The int value.
+         */
+        int getInt(int defaultValue) {
+            synchronized (this) {
+                if (value == null) {
+                    return defaultValue;
+                }
+
+                if (intState == PARSE_PENDING) {
+                    try {
+                        intValue = Integer.parseInt(value);
+                        intState = PARSE_VALID;
+                    } catch (NumberFormatException e) {
+                        intState = PARSE_INVALID;
+                    }
+                }
+
+                return intState == PARSE_VALID ? intValue : defaultValue;
+            }
+        }
+
+        /**
+         * Gets the value as a boolean.
+         *
+         * @param defaultValue The value to return if the preference is not set.
+         * @return The boolean value.
+         */
+        boolean getBoolean(boolean defaultValue) {
+            synchronized (this) {
+                if (value == null) {
+                    return defaultValue;
+                }
+
+                if (booleanState == PARSE_PENDING) {
+                    booleanValue = Boolean.parseBoolean(value);
+                    booleanState = PARSE_VALID;
+                }
+
+                return booleanValue;
+            }
+        }
+
+        /**
+         * Gets the value as a JsonValue.
+         *
+         * @return The JsonValue, or {@link JsonValue#NULL} if the preference is not set or is not valid JSON.
+         */
+        @NonNull
+        JsonValue getJsonValue() {
+            synchronized (this) {
+                if (jsonValue == null) {
+                    try {
+                        jsonValue = JsonValue.parseString(value);
+                    } catch (JsonException e) {
+                        // Should never happen
+                        Logger.debug(e, "Unable to parse preference value: %s", key);
+                        jsonValue = JsonValue.NULL;
+                    }
+                }
+
+                return jsonValue;
+            }
+        }
+
         /**
          * Put a new value for the preference.
          *
@@ -518,12 +832,7 @@ public final class PreferenceDataStore {
          */
         void put(final String value) {
             if (setValue(value)) {
-                executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        writeValue(value);
-                    }
-                });
+                journalWrites(Collections.singletonMap(key, value));
             }
         }
 
@@ -537,12 +846,33 @@ public final class PreferenceDataStore {
          * the database, otherwise <code>false</code>
          */
         boolean putSync(String value) {
-            synchronized (this) {
-                if (writeValue(value)) {
+            synchronized (writeLock) {
+                boolean hasPendingWrite;
+                String pendingValue;
+                synchronized (journal) {
+                    hasPendingWrite = journal.containsKey(key);
+                    pendingValue = journal.get(key);
+                }
+
+                synchronized (this) {
+                    if (!writeValue(value)) {
+                        // Keep the pending write so the database catches up with memory
+                        return false;
+                    }
                     setValue(value);
-                    return true;
                 }
-                return false;
+
+                // Drop the pending write so it does not overwrite this value later, unless a
+                // newer value was queued while writing
+                if (hasPendingWrite) {
+                    synchronized (journal) {
+                        if (journal.containsKey(key) && journal.get(key) == pendingValue) {
+                            journal.remove(key);
+                        }
+                    }
+                }
+
+                return true;
             }
         }
 
@@ -559,6 +889,10 @@ public final class PreferenceDataStore {
                     return false;
                 }
                 this.value = value;
+                this.longState = PARSE_PENDING;
+                this.intState = PARSE_PENDING;
+                this.booleanState = PARSE_PENDING;
+                this.jsonValue = null;
             }
 
             onPreferenceChanged(key);
@@ -626,12 +960,11 @@ public final class PreferenceDataStore {
             }
         }
 
-        void registerObserver() {
-            resolver.registerContentObserver(this.uri, true, observer);
-        }
-
-        void unregisterObserver() {
-            resolver.unregisterContentObserver(observer);
+        /**
+         * Notifies other processes that the value was written to the database.
+         */
+        void notifyWrite() {
+            resolver.notifyChange(this.uri, observer);
         }
 
     }
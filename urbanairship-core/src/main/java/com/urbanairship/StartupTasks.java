@@ -0,0 +1,193 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship;
+
+import com.urbanairship.util.AirshipThreadFactory;
+import com.urbanairship.util.PrioritizedExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
+
+/**
+ * Runs take off tasks on a bounded executor.
+ * <p>
+ * Each task lists the tasks it depends on and starts once they finish, so independent components
+ * are built and initialized in parallel. Tasks must be submitted after their dependencies. The
+ * executor runs tasks in submission order, so a task waiting on a dependency never holds the only
+ * thread the dependency could run on. The time spent in each task is recorded for the startup
+ * trace and each task is wrapped in a systrace section.
+ */
+class StartupTasks {
+
+    private static final int MAX_THREADS = 4;
+    private static final long KEEP_ALIVE_SECONDS = 1;
+
+    private static final ThreadLocal<Boolean> isStartupThread = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor executor;
+    private final List<Timing> timings = new ArrayList<>();
+    private final long startTime = System.nanoTime();
+
+    StartupTasks() {
+        int threads = Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new AirshipThreadFactory("Airship startup"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Checks if the current thread is running a startup task. Startup tasks run while the take off
+     * thread holds the airship lock, so they must not block waiting for take off.
+     *
+     * @return {@code true} if the current thread is running a startup task, otherwise {@code false}.
+     */
+    static boolean isStartupThread() {
+        return Boolean.TRUE.equals(isStartupThread.get());
+    }
+
+    /**
+     * Submits a task.
+     *
+     * @param name The task name used in the startup trace.
+     * @param callable The task.
+     * @param dependencies Tasks that need to finish before the task runs.
+     * @param <T> The result type.
+     * @return The task's future.
+     */
+    @NonNull
+    <T> Future<T> submit(@NonNull final String name, @NonNull final Callable<T> callable, @NonNull final Future<?>... dependencies) {
+        return executor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                for (Future<?> dependency : dependencies) {
+                    await(dependency);
+                }
+
+                isStartupThread.set(true);
+                TraceCompat.beginSection(name);
+                long start = System.nanoTime();
+                try {
+                    return callable.call();
+                } finally {
+                    long end = System.nanoTime();
+                    TraceCompat.endSection();
+                    isStartupThread.remove();
+
+                    synchronized (timings) {
+                        timings.add(new Timing(name, Thread.currentThread().getName(), start - startTime, end - start));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Submits a task that initializes components in order.
+     *
+     * @param name The task name used in the startup trace.
+     * @param components The components.
+     * @param dependencies Tasks that need to finish before the components are initialized.
+     * @return The task's future.
+     */
+    @NonNull
+    Future<Void> submitInit(@NonNull String name, @NonNull final Collection<? extends AirshipComponent> components, @NonNull Future<?>... dependencies) {
+        return submit(name, new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (AirshipComponent component : components) {
+                    component.init();
+                }
+                return null;
+            }
+        }, dependencies);
+    }
+
+    /**
+     * Waits for a task and returns its result. Failures are rethrown as they were thrown by
+     * the task. The wait is a managed block, so the take off thread does not hold a pool thread
+     * while it waits on the startup tasks.
+     *
+     * @param future The task's future.
+     * @param <T> The result type.
+     * @return The task's result.
+     */
+    static <T> T await(@NonNull Future<T> future) {
+        boolean interrupted = false;
+        PrioritizedExecutor.beginBlocking();
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Airship startup task failed", cause);
+        } finally {
+            PrioritizedExecutor.endBlocking();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Logs the startup trace and stops the executor once the remaining tasks finish.
+     *
+     * @param label The trace label.
+     */
+    void finish(@NonNull String label) {
+        executor.shutdown();
+
+        long total = System.nanoTime() - startTime;
+        StringBuilder trace = new StringBuilder();
+        synchronized (timings) {
+            for (Timing timing : timings) {
+                trace.append(String.format(Locale.US, "%n  %-28s start %6.1f ms  took %6.1f ms  (%s)",
+                        timing.name, toMillis(timing.startOffset), toMillis(timing.duration), timing.thread));
+            }
+        }
+
+        Logger.debug("%s in %.1f ms:%s", label, toMillis(total), trace);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
+    private static class Timing {
+
+        private final String name;
+        private final String thread;
+        private final long startOffset;
+        private final long duration;
+
+        Timing(@NonNull String name, @NonNull String thread, long startOffset, long duration) {
+            this.name = name;
+            this.thread = thread;
+            this.startOffset = startOffset;
+            this.duration = duration;
+        }
+
+    }
+
+}
@@ -43,10 +43,16 @@ import com.urbanairship.util.UAStringUtil;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.MainThread;
@@ -134,8 +140,9 @@ public class UAirship {
     public static final String DATA_COLLECTION_ENABLED_KEY = "com.urbanairship.DATA_COLLECTION_ENABLED";
 
     private DeepLinkListener deepLinkListener;
-    private final Map<Class, AirshipComponent> componentClassMap = new HashMap<>();
-    private final List<AirshipComponent> components = new ArrayList<>();
+    private final Map<Class, AirshipComponent> componentClassMap = new ConcurrentHashMap<>();
+    private final List<AirshipComponent> components = new CopyOnWriteArrayList<>();
+    private volatile FutureTask<Void> deferredModules;
     ActionRegistry actionRegistry;
     AirshipConfigOptions airshipConfigOptions;
     Analytics analytics;
@@ -144,14 +151,14 @@ public class UAirship {
     PushProvider pushProvider;
     PushManager pushManager;
     AirshipChannel channel;
-    AirshipLocationClient locationClient;
+    volatile AirshipLocationClient locationClient;
     UrlAllowList urlAllowList;
     RemoteData remoteData;
     RemoteConfigManager remoteConfigManager;
     ChannelCapture channelCapture;
     NamedUser namedUser;
     ImageLoader imageLoader;
-    AccengageNotificationHandler accengageNotificationHandler;
+    volatile AccengageNotificationHandler accengageNotificationHandler;
     PushProviders providers;
     AirshipRuntimeConfig runtimeConfig;
     LocaleManager localeManager;
@@ -175,6 +182,11 @@ public class UAirship {
      */
     @NonNull
     public static UAirship shared() {
+        // Startup tasks run while take off holds the lock
+        if (StartupTasks.isStartupThread()) {
+            return sharedAirship;
+        }
+
         synchronized (airshipLock) {
             if (!isTakingOff && !isFlying) {
                 throw new IllegalStateException("Take off must be called before shared()");
@@ -210,6 +222,10 @@ public class UAirship {
      */
     @Nullable
     public static UAirship waitForTakeOff(long millis) {
+        if (StartupTasks.isStartupThread()) {
+            return sharedAirship;
+        }
+
         synchronized (airshipLock) {
             if (isFlying) {
                 return sharedAirship;
@@ -374,7 +390,9 @@ public class UAirship {
 
             UAirship.application = application;
 
-            AirshipExecutors.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            // Callers may block on take off from the main thread, so it runs on the user visible
+            // executor instead of the background priority pool
+            AirshipExecutors.USER_VISIBLE_EXECUTOR.execute(new Runnable() {
                 @Override
                 public void run() {
                     executeTakeOff(application, options, readyCallback);
@@ -457,6 +475,9 @@ public class UAirship {
             // Notify any blocking shared
             airshipLock.notifyAll();
         }
+
+        // Load the modules that were left out of take off, unless a caller already needed them
+        sharedAirship.awaitDeferredModules();
     }
 
     /**
@@ -694,6 +715,7 @@ public class UAirship {
      * Initializes UAirship instance.
      */
     private void init() {
+        StartupTasks startup = new StartupTasks();
 
         // Create and init the preference data store first
         this.preferenceDataStore = new PreferenceDataStore(application);
@@ -709,7 +731,7 @@ public class UAirship {
             Logger.info("Using push provider: %s", this.pushProvider);
         }
 
-        RemoteAirshipUrlConfigProvider remoteAirshipUrlConfigProvider = new RemoteAirshipUrlConfigProvider(airshipConfigOptions, preferenceDataStore);
+        final RemoteAirshipUrlConfigProvider remoteAirshipUrlConfigProvider = new RemoteAirshipUrlConfigProvider(airshipConfigOptions, preferenceDataStore);
         this.runtimeConfig = new AirshipRuntimeConfig(platform, airshipConfigOptions, remoteAirshipUrlConfigProvider);
         remoteAirshipUrlConfigProvider.addUrlConfigListener(new AirshipUrlConfig.Listener() {
             @Override
@@ -720,71 +742,167 @@ public class UAirship {
             }
         });
 
-        this.channel = new AirshipChannel(application, preferenceDataStore, runtimeConfig, localeManager);
-
-        if (channel.getId() == null && "huawei".equalsIgnoreCase(Build.MANUFACTURER)) {
-            remoteAirshipUrlConfigProvider.disableFallbackUrls();
-        }
+        // Airship components, each built once the components it depends on are built
+        Future<Void> channelTask = startup.submit("AirshipChannel", new Callable<Void>() {
+            @Override
+            public Void call() {
+                channel = new AirshipChannel(application, preferenceDataStore, runtimeConfig, localeManager);
+                if (channel.getId() == null && "huawei".equalsIgnoreCase(Build.MANUFACTURER)) {
+                    remoteAirshipUrlConfigProvider.disableFallbackUrls();
+                }
+                return null;
+            }
+        });
 
-        components.add(channel);
+        Future<Void> actionsTask = startup.submit("ActionRegistry", new Callable<Void>() {
+            @Override
+            public Void call() {
+                urlAllowList = UrlAllowList.createDefaultUrlAllowList(airshipConfigOptions);
+                actionRegistry = new ActionRegistry();
+                actionRegistry.registerDefaultActions(getApplicationContext());
+                return null;
+            }
+        });
 
-        this.urlAllowList = UrlAllowList.createDefaultUrlAllowList(airshipConfigOptions);
-        this.actionRegistry = new ActionRegistry();
-        this.actionRegistry.registerDefaultActions(getApplicationContext());
+        Future<Void> analyticsTask = startup.submit("Analytics", new Callable<Void>() {
+            @Override
+            public Void call() {
+                analytics = new Analytics(application, preferenceDataStore, runtimeConfig, channel, localeManager);
+                return null;
+            }
+        }, channelTask);
 
-        // Airship components
-        this.analytics = new Analytics(application, preferenceDataStore, runtimeConfig, channel, localeManager);
-        components.add(this.analytics);
+        Future<Void> metricsTask = startup.submit("ApplicationMetrics", new Callable<Void>() {
+            @Override
+            public Void call() {
+                applicationMetrics = new ApplicationMetrics(application, preferenceDataStore, GlobalActivityMonitor.shared(application));
+                return null;
+            }
+        });
 
-        this.applicationMetrics = new ApplicationMetrics(application, preferenceDataStore, GlobalActivityMonitor.shared(application));
-        components.add(this.applicationMetrics);
+        Future<Void> pushTask = startup.submit("PushManager", new Callable<Void>() {
+            @Override
+            public Void call() {
+                pushManager = new PushManager(application, preferenceDataStore, airshipConfigOptions, pushProvider, channel, analytics);
+                return null;
+            }
+        }, channelTask, analyticsTask);
 
-        this.pushManager = new PushManager(application, preferenceDataStore, airshipConfigOptions, pushProvider, channel, analytics);
-        components.add(this.pushManager);
+        Future<Void> namedUserTask = startup.submit("NamedUser", new Callable<Void>() {
+            @Override
+            public Void call() {
+                namedUser = new NamedUser(application, preferenceDataStore, runtimeConfig, channel);
+                return null;
+            }
+        }, channelTask);
 
-        this.namedUser = new NamedUser(application, preferenceDataStore, runtimeConfig, channel);
-        components.add(this.namedUser);
+        Future<Void> channelCaptureTask = startup.submit("ChannelCapture", new Callable<Void>() {
+            @Override
+            public Void call() {
+                channelCapture = new ChannelCapture(application, airshipConfigOptions, channel, preferenceDataStore, GlobalActivityMonitor.shared(application));
+                return null;
+            }
+        }, channelTask);
 
-        this.channelCapture = new ChannelCapture(application, airshipConfigOptions, channel, preferenceDataStore, GlobalActivityMonitor.shared(application));
-        components.add(this.channelCapture);
+        Future<Void> remoteDataTask = startup.submit("RemoteData", new Callable<Void>() {
+            @Override
+            public Void call() {
+                remoteData = new RemoteData(application, preferenceDataStore, runtimeConfig, pushManager, localeManager);
+                return null;
+            }
+        }, pushTask);
 
-        this.remoteData = new RemoteData(application, preferenceDataStore, runtimeConfig, pushManager, localeManager);
-        components.add(this.remoteData);
+        Future<Void> remoteConfigTask = startup.submit("RemoteConfigManager", new Callable<Void>() {
+            @Override
+            public Void call() {
+                remoteConfigManager = new RemoteConfigManager(application, preferenceDataStore, remoteData);
+                remoteConfigManager.addRemoteAirshipConfigListener(remoteAirshipUrlConfigProvider);
+                return null;
+            }
+        }, remoteDataTask);
 
-        this.remoteConfigManager = new RemoteConfigManager(application, preferenceDataStore, remoteData);
-        this.remoteConfigManager.addRemoteAirshipConfigListener(remoteAirshipUrlConfigProvider);
-        components.add(this.remoteConfigManager);
+        // Message Center
+        Future<Module> messageCenterTask = startup.submit("MessageCenter", new Callable<Module>() {
+            @Override
+            public Module call() {
+                return Modules.messageCenter(application, preferenceDataStore, channel, pushManager);
+            }
+        }, channelTask, pushTask);
 
-        // Debug
-        Module debugModule = Modules.debug(application, preferenceDataStore);
-        processModule(debugModule);
+        // Automation
+        Future<Module> automationTask = startup.submit("Automation", new Callable<Module>() {
+            @Override
+            public Module call() {
+                return Modules.automation(application, preferenceDataStore, runtimeConfig,
+                        channel, pushManager, analytics, remoteData, namedUser);
+            }
+        }, channelTask, pushTask, analyticsTask, remoteDataTask, namedUserTask);
 
-        // Accengage
-        AccengageModule accengageModule = Modules.accengage(application, airshipConfigOptions, preferenceDataStore, channel, pushManager, analytics);
-        processModule(accengageModule);
-        this.accengageNotificationHandler = accengageModule == null ? null : accengageModule.getAccengageNotificationHandler();
+        // Accengage and location add channel payload extenders and push listeners in init, so they
+        // load before take off finishes
+        Future<AccengageModule> accengageTask = startup.submit("Accengage", new Callable<AccengageModule>() {
+            @Override
+            public AccengageModule call() {
+                return Modules.accengage(application, airshipConfigOptions, preferenceDataStore, channel, pushManager, analytics);
+            }
+        }, channelTask, pushTask, analyticsTask);
 
-        // Message Center
-        Module messageCenterModule = Modules.messageCenter(application, preferenceDataStore, channel, pushManager);
-        processModule(messageCenterModule);
+        Future<LocationModule> locationTask = startup.submit("Location", new Callable<LocationModule>() {
+            @Override
+            public LocationModule call() {
+                return Modules.location(application, preferenceDataStore, channel, analytics);
+            }
+        }, channelTask, analyticsTask);
 
-        // Location
-        LocationModule locationModule = Modules.location(application, preferenceDataStore, channel, analytics);
-        processModule(locationModule);
-        this.locationClient = locationModule == null ? null : locationModule.getLocationClient();
+        StartupTasks.await(actionsTask);
+        StartupTasks.await(metricsTask);
+        StartupTasks.await(channelCaptureTask);
+        StartupTasks.await(remoteConfigTask);
+        Module messageCenterModule = StartupTasks.await(messageCenterTask);
+        Module automationModule = StartupTasks.await(automationTask);
+        AccengageModule accengageModule = StartupTasks.await(accengageTask);
+        LocationModule locationModule = StartupTasks.await(locationTask);
 
-        // Automation
-        Module automationModule = Modules.automation(application, preferenceDataStore, runtimeConfig,
-                channel, pushManager, analytics, remoteData, namedUser);
+        components.add(channel);
+        components.add(analytics);
+        components.add(applicationMetrics);
+        components.add(pushManager);
+        components.add(namedUser);
+        components.add(channelCapture);
+        components.add(remoteData);
+        components.add(remoteConfigManager);
+        processModule(messageCenterModule);
         processModule(automationModule);
+        processModule(accengageModule);
+        processModule(locationModule);
 
-        // Ad Id
-        Module adIdModule = Modules.adId(application, preferenceDataStore);
-        processModule(adIdModule);
+        this.accengageNotificationHandler = accengageModule == null ? null : accengageModule.getAccengageNotificationHandler();
+        this.locationClient = locationModule == null ? null : locationModule.getLocationClient();
 
-        for (AirshipComponent component : components) {
-            component.init();
-        }
+        // Init the components once everything is built, each after the components it depends on
+        Future<Void> channelInit = startup.submitInit("AirshipChannel.init", Collections.singleton(channel));
+        Future<Void> analyticsInit = startup.submitInit("Analytics.init", Collections.singleton(analytics), channelInit);
+        Future<Void> metricsInit = startup.submitInit("ApplicationMetrics.init", Collections.singleton(applicationMetrics));
+        Future<Void> pushInit = startup.submitInit("PushManager.init", Collections.singleton(pushManager), channelInit, analyticsInit);
+        Future<Void> namedUserInit = startup.submitInit("NamedUser.init", Collections.singleton(namedUser), channelInit);
+        Future<Void> channelCaptureInit = startup.submitInit("ChannelCapture.init", Collections.singleton(channelCapture), channelInit);
+        Future<Void> remoteDataInit = startup.submitInit("RemoteData.init", Collections.singleton(remoteData), pushInit);
+        Future<Void> remoteConfigInit = startup.submitInit("RemoteConfigManager.init", Collections.singleton(remoteConfigManager), remoteDataInit);
+        Future<Void> messageCenterInit = startup.submitInit("MessageCenter.init", getComponents(messageCenterModule), channelInit, pushInit);
+        Future<Void> automationInit = startup.submitInit("Automation.init", getComponents(automationModule),
+                channelInit, pushInit, analyticsInit, remoteDataInit, namedUserInit);
+        Future<Void> accengageInit = startup.submitInit("Accengage.init", getComponents(accengageModule), channelInit, pushInit, analyticsInit);
+        Future<Void> locationInit = startup.submitInit("Location.init", getComponents(locationModule), channelInit, analyticsInit);
+
+        StartupTasks.await(metricsInit);
+        StartupTasks.await(channelCaptureInit);
+        StartupTasks.await(remoteConfigInit);
+        StartupTasks.await(messageCenterInit);
+        StartupTasks.await(automationInit);
+        StartupTasks.await(accengageInit);
+        StartupTasks.await(locationInit);
+
+        startup.finish("Airship startup");
 
         // Store the version
         String currentVersion = getVersion();
@@ -803,6 +921,98 @@ public class UAirship {
             Logger.debug("Setting data collection enabled to %s", enabled);
             setDataCollectionEnabled(enabled);
         }
+
+        this.deferredModules = new FutureTask<>(new Callable<Void>() {
+            @Override
+            public Void call() {
+                initDeferredModules();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Builds and inits the modules that are not needed for take off: debug and ad ID. They are
+     * loaded right after take off, or sooner by the first caller that needs one of them. Modules
+     * that register channel payload extenders or push listeners must not be deferred.
+     */
+    private void initDeferredModules() {
+        StartupTasks startup = new StartupTasks();
+
+        // Debug
+        Future<Module> debugTask = startup.submit("Debug", new Callable<Module>() {
+            @Override
+            public Module call() {
+                return Modules.debug(application, preferenceDataStore);
+            }
+        });
+
+        // Ad Id
+        Future<Module> adIdTask = startup.submit("AdId", new Callable<Module>() {
+            @Override
+            public Module call() {
+                return Modules.adId(application, preferenceDataStore);
+            }
+        });
+
+        Module debugModule = StartupTasks.await(debugTask);
+        Module adIdModule = StartupTasks.await(adIdTask);
+
+        processModule(debugModule);
+        processModule(adIdModule);
+
+        List<Future<Void>> tasks = new ArrayList<>();
+        tasks.add(submitDeferredInit(startup, "Debug.init", debugModule));
+        tasks.add(submitDeferredInit(startup, "AdId.init", adIdModule));
+        for (Future<Void> task : tasks) {
+            StartupTasks.await(task);
+        }
+
+        // Apply any remote config that was processed before the modules were added
+        remoteConfigManager.onComponentsAdded();
+
+        startup.finish("Airship deferred startup");
+    }
+
+    @NonNull
+    private Future<Void> submitDeferredInit(@NonNull StartupTasks startup, @NonNull String name, @Nullable Module module) {
+        final Set<? extends AirshipComponent> moduleComponents = getComponents(module);
+        return startup.submit(name, new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (AirshipComponent component : moduleComponents) {
+                    component.init();
+                }
+
+                // Take off already finished
+                for (AirshipComponent component : moduleComponents) {
+                    component.onAirshipReady(UAirship.this);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Waits for the deferred modules. If they have not started loading yet, they are loaded on
+     * the calling thread. Startup tasks do not wait since they might be loading the modules.
+     */
+    private void awaitDeferredModules() {
+        FutureTask<Void> task = deferredModules;
+        if (task == null || task.isDone() || StartupTasks.isStartupThread()) {
+            return;
+        }
+
+        task.run();
+        StartupTasks.await(task);
+    }
+
+    @NonNull
+    private static Set<? extends AirshipComponent> getComponents(@Nullable Module module) {
+        if (module == null) {
+            return Collections.emptySet();
+        }
+        return module.getComponents();
     }
 
     private void processModule(@Nullable Module module) {
@@ -816,6 +1026,8 @@ public class UAirship {
      * Tears down the UAirship instance.
      */
     private void tearDown() {
+        awaitDeferredModules();
+
         for (AirshipComponent component : getComponents()) {
             component.tearDown();
         }
@@ -1002,6 +1214,13 @@ public class UAirship {
             return (T) found;
         }
 
+        // The component might be in a deferred module
+        FutureTask<Void> task = deferredModules;
+        if (task != null && !task.isDone() && !StartupTasks.isStartupThread()) {
+            awaitDeferredModules();
+            return getComponent(clazz);
+        }
+
         return null;
     }
 
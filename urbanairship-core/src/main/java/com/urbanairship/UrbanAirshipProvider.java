@@ -4,8 +4,11 @@ package com.urbanairship;
 
 import android.app.Application;
 import android.content.ContentProvider;
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentValues;
 import android.content.Context;
+import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
 import android.net.Uri;
@@ -14,7 +17,9 @@ import com.urbanairship.analytics.data.EventsStorage;
 import com.urbanairship.app.GlobalActivityMonitor;
 import com.urbanairship.util.DataManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -226,6 +231,38 @@ public final class UrbanAirshipProvider extends ContentProvider {
         return model.dataManager.update(model.table, values, selection, selectionArgs);
     }
 
+    @NonNull
+    @Override
+    public ContentProviderResult[] applyBatch(@NonNull final ArrayList<ContentProviderOperation> operations) throws OperationApplicationException {
+        if (operations.isEmpty()) {
+            return new ContentProviderResult[0];
+        }
+
+        DatabaseModel model = getDatabaseModel(operations.get(0).getUri());
+        if (model == null || getContext() == null) {
+            throw new OperationApplicationException("Unable to apply batch: database unavailable");
+        }
+
+        for (ContentProviderOperation operation : operations) {
+            if (getDatabaseModel(operation.getUri()) != model) {
+                throw new OperationApplicationException("Unable to apply batch: operations must target the same database");
+            }
+        }
+
+        try {
+            return model.dataManager.runInTransaction(new Callable<ContentProviderResult[]>() {
+                @Override
+                public ContentProviderResult[] call() throws Exception {
+                    return UrbanAirshipProvider.super.applyBatch(operations);
+                }
+            });
+        } catch (OperationApplicationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OperationApplicationException("Unable to apply batch", e);
+        }
+    }
+
     @Override
     public void shutdown() {
         if (richPushDataModel != null) {
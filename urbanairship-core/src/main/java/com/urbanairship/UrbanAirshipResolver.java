@@ -2,6 +2,8 @@
 
 package com.urbanairship;
 
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
 import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
@@ -9,6 +11,8 @@ import android.database.ContentObserver;
 import android.database.Cursor;
 import android.net.Uri;
 
+import java.util.ArrayList;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -75,6 +79,22 @@ public class UrbanAirshipResolver {
         }
     }
 
+    /**
+     * Applies the operations in a single transaction.
+     *
+     * @param operations The operations.
+     * @return The results, or {@code null} if the batch failed.
+     */
+    @Nullable
+    protected ContentProviderResult[] applyBatch(@NonNull ArrayList<ContentProviderOperation> operations) {
+        try {
+            return this.getResolver().applyBatch(UrbanAirshipProvider.getAuthorityString(context), operations);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to apply batch in UrbanAirshipProvider.");
+            return null;
+        }
+    }
+
     /**
      * Register a ContentObserver to listen for updates to the supplied URI.
      *
@@ -9,6 +9,7 @@ import android.os.Looper;
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
+import com.urbanairship.util.PrioritizedExecutor;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
@@ -43,7 +44,7 @@ public class ActionRunRequest {
     private Action action;
     private ActionValue actionValue;
     private Bundle metadata;
-    private Executor executor = AirshipExecutors.THREAD_POOL_EXECUTOR;
+    private Executor executor = AirshipExecutors.USER_VISIBLE_EXECUTOR;
     private @Action.Situation
     int situation = Action.SITUATION_MANUAL_INVOCATION;
 
@@ -200,18 +201,23 @@ public class ActionRunRequest {
             }
         };
 
+        Executor target = null;
         if (shouldRunOnMain(arguments)) {
             new Handler(Looper.getMainLooper()).post(runnable);
         } else {
+            target = executor;
             executor.execute(runnable);
         }
 
+        PrioritizedExecutor.beginBlocking(target);
         try {
             semaphore.acquire();
         } catch (InterruptedException ex) {
             Logger.error("Failed to run action with arguments %s", arguments);
             Thread.currentThread().interrupt();
             return ActionResult.newErrorResult(ex);
+        } finally {
+            PrioritizedExecutor.endBlocking(target);
         }
 
         return runnable.result;
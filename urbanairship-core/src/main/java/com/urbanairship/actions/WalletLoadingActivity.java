@@ -69,7 +69,7 @@ public class WalletLoadingActivity extends ThemedActivity {
     }
 
     private void resolveWalletUrl(@NonNull final URL url) {
-        AirshipExecutors.THREAD_POOL_EXECUTOR.submit(new Runnable() {
+        AirshipExecutors.USER_VISIBLE_EXECUTOR.submit(new Runnable() {
 
             @Override
             public void run() {
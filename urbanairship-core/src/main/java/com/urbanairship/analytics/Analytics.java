@@ -421,6 +421,14 @@ public class Analytics extends AirshipComponent {
         setConversionSendId(null);
         setConversionMetadata(null);
 
+        // Write any staged events before the app is possibly killed
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                eventManager.flushEvents();
+            }
+        });
+
         eventManager.scheduleEventUpload(0, TimeUnit.MILLISECONDS);
     }
 
@@ -5,16 +5,16 @@ package com.urbanairship.analytics.data;
 import com.urbanairship.Logger;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.http.Request;
+import com.urbanairship.http.RequestBodyWriter;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.RequestFactory;
 import com.urbanairship.http.Response;
 import com.urbanairship.http.ResponseParser;
-import com.urbanairship.json.JsonException;
-import com.urbanairship.json.JsonList;
-import com.urbanairship.json.JsonValue;
+import com.urbanairship.json.JsonWriter;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -72,22 +72,11 @@ public class EventApiClient {
                                .appendEncodedPath(WARP9_PATH)
                                .build();
 
-        List<JsonValue> eventJSON = new ArrayList<>();
-
-        for (String eventPayload : events) {
-            try {
-                eventJSON.add(JsonValue.parseString(eventPayload));
-            } catch (JsonException e) {
-                Logger.error(e, "EventApiClient - Invalid eventPayload.");
-            }
-        }
-
-        String payload = new JsonList(eventJSON).toString();
         double sentAt = System.currentTimeMillis() / 1000.0;
 
         Request request = requestFactory.createRequest()
                                         .setOperation("POST", url)
-                                        .setRequestBody(payload, "application/json")
+                                        .setRequestBody(new EventsBodyWriter(events), "application/json")
                                         .setCompressRequestBody(true)
                                         .setHeader("X-UA-Sent-At", String.format(Locale.US, "%.3f", sentAt))
                                         .addHeaders(headers);
@@ -104,4 +93,30 @@ public class EventApiClient {
         Logger.debug("Analytics event response: %s", response);
         return response;
     }
+
+    /**
+     * Writes the stored event payloads as a JSON array. The payloads are already serialized JSON
+     * so they are written as is without being parsed.
+     */
+    static class EventsBodyWriter implements RequestBodyWriter {
+
+        private final Collection<String> events;
+
+        EventsBodyWriter(@NonNull Collection<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void writeBody(@NonNull Writer writer) throws IOException {
+            JsonWriter jsonWriter = new JsonWriter(writer);
+            jsonWriter.beginArray();
+            for (String event : events) {
+                jsonWriter.rawValue(event);
+            }
+            jsonWriter.endArray();
+            jsonWriter.flush();
+        }
+
+    }
+
 }
@@ -0,0 +1,115 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import android.content.ContentValues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * In-memory staging buffer for events that have not been written to the database yet. Staged
+ * events are written in a single transaction when the buffer is drained.
+ * <p>
+ * The buffer is not thread safe. Callers are expected to hold the event lock.
+ */
+class EventBuffer {
+
+    private final ContentValues[] ring;
+    private int head;
+    private int size;
+
+    private long writtenEvents;
+    private long writeTransactions;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity The max number of events to stage before the buffer is considered full.
+     */
+    EventBuffer(int capacity) {
+        this.ring = new ContentValues[capacity];
+    }
+
+    /**
+     * Stages an event.
+     *
+     * @param values The event values.
+     * @return {@code true} if the buffer is full and should be drained, otherwise {@code false}.
+     */
+    boolean add(@NonNull ContentValues values) {
+        if (size == ring.length) {
+            // Should not happen since callers drain when full, but never drop an event
+            throw new IllegalStateException("Event buffer is full");
+        }
+
+        ring[(head + size) % ring.length] = values;
+        size++;
+        return size == ring.length;
+    }
+
+    /**
+     * Checks if the buffer is empty.
+     *
+     * @return {@code true} if the buffer is empty, otherwise {@code false}.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes and returns all the staged events, oldest first.
+     *
+     * @return The staged events.
+     */
+    @NonNull
+    List<ContentValues> drain() {
+        List<ContentValues> values = new ArrayList<>(size);
+        while (size > 0) {
+            values.add(ring[head]);
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+        }
+
+        return values;
+    }
+
+    /**
+     * Drops all the staged events.
+     */
+    void clear() {
+        drain();
+    }
+
+    /**
+     * Records a write of staged events to the database.
+     *
+     * @param eventCount The number of events written in the transaction.
+     */
+    void recordWrite(int eventCount) {
+        writtenEvents += eventCount;
+        writeTransactions++;
+    }
+
+    /**
+     * Gets the total number of events written through the buffer.
+     *
+     * @return The written event count.
+     */
+    long getWrittenEvents() {
+        return writtenEvents;
+    }
+
+    /**
+     * Gets the total number of write transactions used to write the events.
+     *
+     * @return The write transaction count.
+     */
+    long getWriteTransactions() {
+        return writeTransactions;
+    }
+
+}
@@ -1,7 +1,11 @@
 package com.urbanairship.analytics.data;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
+import com.urbanairship.AirshipLoopers;
 import com.urbanairship.Logger;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.analytics.Analytics;
@@ -14,6 +18,7 @@ import com.urbanairship.http.Response;
 import com.urbanairship.job.JobDispatcher;
 import com.urbanairship.job.JobInfo;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -64,12 +69,31 @@ public class EventManager {
      */
     private static final long MULTIPLE_BATCH_DELAY = 1000; // 1s
 
+    /**
+     * Max number of events staged in memory before they are written to the database.
+     */
+    private static final int MAX_BUFFERED_EVENTS = 20;
+
+    /**
+     * Max time in milliseconds an event is staged in memory before it is written to the database.
+     */
+    private static final long BUFFER_FLUSH_DELAY = 50; // 50ms
+
     private final PreferenceDataStore preferenceDataStore;
     private final JobDispatcher jobDispatcher;
     private final ActivityMonitor activityMonitor;
     private final EventResolver eventResolver;
     private final EventApiClient apiClient;
     private final AirshipRuntimeConfig runtimeConfig;
+    private final Handler handler;
+    private final EventBuffer eventBuffer = new EventBuffer(MAX_BUFFERED_EVENTS);
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushEvents();
+        }
+    };
 
     private final Object eventLock = new Object();
     private final Object scheduleLock = new Object();
@@ -80,7 +104,7 @@ public class EventManager {
                         @NonNull PreferenceDataStore preferenceDataStore,
                         @NonNull AirshipRuntimeConfig runtimeConfig) {
         this(preferenceDataStore, runtimeConfig, JobDispatcher.shared(context), GlobalActivityMonitor.shared(context),
-                new EventResolver(context), new EventApiClient(runtimeConfig));
+                new EventResolver(context), new EventApiClient(runtimeConfig), AirshipLoopers.getBackgroundLooper());
     }
 
     @VisibleForTesting
@@ -89,7 +113,8 @@ public class EventManager {
                  @NonNull JobDispatcher jobDispatcher,
                  @NonNull ActivityMonitor activityMonitor,
                  @NonNull EventResolver eventResolver,
-                 @NonNull EventApiClient apiClient) {
+                 @NonNull EventApiClient apiClient,
+                 @NonNull Looper looper) {
 
         this.preferenceDataStore = preferenceDataStore;
         this.runtimeConfig = runtimeConfig;
@@ -97,7 +122,7 @@ public class EventManager {
         this.activityMonitor = activityMonitor;
         this.eventResolver = eventResolver;
         this.apiClient = apiClient;
-
+        this.handler = new Handler(looper);
     }
 
     /**
@@ -145,17 +170,30 @@ public class EventManager {
 
     /**
      * Adds an event.
+     * <p>
+     * Events are staged in memory and written to the database in a single transaction once
+     * {@link #MAX_BUFFERED_EVENTS} are staged, after {@link #BUFFER_FLUSH_DELAY}, or when
+     * {@link #flushEvents()} is called. High priority events are written immediately.
      *
      * @param event The event.
      * @param sessionId The event's session ID.
      */
     @WorkerThread
     public void addEvent(@NonNull Event event, @NonNull String sessionId) {
+        ContentValues values = EventResolver.createEventValues(event, sessionId);
+
+        boolean flush;
         synchronized (eventLock) {
-            eventResolver.insertEvent(event, sessionId);
+            boolean wasEmpty = eventBuffer.isEmpty();
+            flush = eventBuffer.add(values) || event.getPriority() == Event.HIGH_PRIORITY;
 
-            // Handle database max size exceeded
-            eventResolver.trimDatabase(preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES));
+            if (wasEmpty && !flush) {
+                handler.postDelayed(flushRunnable, BUFFER_FLUSH_DELAY);
+            }
+        }
+
+        if (flush) {
+            flushEvents();
         }
 
         switch (event.getPriority()) {
@@ -188,10 +226,39 @@ public class EventManager {
     @WorkerThread
     public void deleteEvents() {
         synchronized (eventLock) {
+            handler.removeCallbacks(flushRunnable);
+            eventBuffer.clear();
             eventResolver.deleteAllEvents();
         }
     }
 
+    /**
+     * Writes any staged events to the database in a single transaction.
+     */
+    @WorkerThread
+    public void flushEvents() {
+        synchronized (eventLock) {
+            handler.removeCallbacks(flushRunnable);
+
+            if (eventBuffer.isEmpty()) {
+                return;
+            }
+
+            List<ContentValues> events = eventBuffer.drain();
+            int inserted = eventResolver.insertEvents(events);
+            if (inserted != events.size()) {
+                Logger.error("EventManager - Failed to write %s events.", events.size() - inserted);
+            }
+
+            eventBuffer.recordWrite(inserted);
+            Logger.verbose("Wrote %s events in a single transaction. Total events written: %s, total transactions: %s",
+                    inserted, eventBuffer.getWrittenEvents(), eventBuffer.getWriteTransactions());
+
+            // Handle database max size exceeded
+            eventResolver.trimDatabase(preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES));
+        }
+    }
+
     /**
      * Gets the next upload delay in milliseconds. The next upload delay is calculated by the following:
      * Max(0, (Last Send Time + MIN_BATCH_INTERVAL) - Current Time)
@@ -221,6 +288,8 @@ public class EventManager {
         int eventCount;
         Map<String, String> events;
 
+        flushEvents();
+
         synchronized (eventLock) {
             eventCount = eventResolver.getEventCount();
 
@@ -254,9 +323,11 @@ public class EventManager {
             }
 
             // Update preferences
-            preferenceDataStore.put(MAX_TOTAL_DB_SIZE_KEY, response.getResult().getMaxTotalSize());
-            preferenceDataStore.put(MAX_BATCH_SIZE_KEY, response.getResult().getMaxBatchSize());
-            preferenceDataStore.put(MIN_BATCH_INTERVAL_KEY, response.getResult().getMinBatchInterval());
+            preferenceDataStore.edit()
+                               .put(MAX_TOTAL_DB_SIZE_KEY, response.getResult().getMaxTotalSize())
+                               .put(MAX_BATCH_SIZE_KEY, response.getResult().getMaxBatchSize())
+                               .put(MIN_BATCH_INTERVAL_KEY, response.getResult().getMinBatchInterval())
+                               .apply();
 
             // If there are still events left, schedule the next send
             if (eventCount - events.size() > 0) {
@@ -11,9 +11,9 @@ import com.urbanairship.Logger;
 import com.urbanairship.UrbanAirshipProvider;
 import com.urbanairship.UrbanAirshipResolver;
 import com.urbanairship.analytics.Event;
-import com.urbanairship.util.UAStringUtil;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,9 +35,19 @@ public class EventResolver extends UrbanAirshipResolver {
     @NonNull
     public static final String ASCENDING_SORT_ORDER = EventsStorage.Events._ID + " ASC";
 
+    /**
+     * Max number of rows read per batch when trimming the database.
+     */
+    private static final int TRIM_BATCH_SIZE = 50;
+
     @NonNull
     private final Uri uri;
 
+    private final Object countLock = new Object();
+    private boolean countsLoaded = false;
+    private int eventCount;
+    private int databaseSize;
+
     public EventResolver(@NonNull Context context) {
         super(context);
         this.uri = UrbanAirshipProvider.getEventsContentUri(context);
@@ -81,7 +91,12 @@ public class EventResolver extends UrbanAirshipResolver {
      * Deletes all events.
      */
     void deleteAllEvents() {
-        delete(uri, null, null);
+        synchronized (countLock) {
+            delete(uri, null, null);
+            eventCount = 0;
+            databaseSize = 0;
+            countsLoaded = true;
+        }
     }
 
     /**
@@ -97,11 +112,24 @@ public class EventResolver extends UrbanAirshipResolver {
         }
 
         int numOfEventIds = eventIds.size();
-        String inStatement = repeat("?", numOfEventIds, ", ");
-        int deleted = delete(uri, EventsStorage.Events.COLUMN_NAME_EVENT_ID + " IN ( " + inStatement + " )",
-                eventIds.toArray(new String[numOfEventIds]));
+        String selection = EventsStorage.Events.COLUMN_NAME_EVENT_ID + " IN ( " + repeat("?", numOfEventIds, ", ") + " )";
+        String[] selectionArgs = eventIds.toArray(new String[numOfEventIds]);
+
+        synchronized (countLock) {
+            int size = countsLoaded ? querySize(selection, selectionArgs) : 0;
+            int deleted = delete(uri, selection, selectionArgs);
+
+            if (deleted > 0 && countsLoaded) {
+                if (size < 0) {
+                    countsLoaded = false;
+                } else {
+                    eventCount = Math.max(0, eventCount - deleted);
+                    databaseSize = Math.max(0, databaseSize - size);
+                }
+            }
 
-        return deleted > 0;
+            return deleted > 0;
+        }
     }
 
     private static String repeat(@NonNull String repeater, int times, @NonNull String separator) {
@@ -116,78 +144,94 @@ public class EventResolver extends UrbanAirshipResolver {
     }
 
     /**
-     * Gets the oldest session id in the
-     * database
+     * Gets the current event count in the database.
+     * <p>
+     * The count is loaded from the database the first time it is needed and then kept up to date
+     * as events are inserted and deleted.
      *
-     * @return The oldest session id if exists, null otherwise
+     * @return The current event count
      */
-    @Nullable
-    private String getOldestSessionId() {
-        String[] columns = new String[] { EventsStorage.Events.COLUMN_NAME_SESSION_ID };
-        Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, "1").build();
-
-        Cursor cursor = query(eventsUri, columns, null, null, ASCENDING_SORT_ORDER);
+    int getEventCount() {
+        synchronized (countLock) {
+            if (!loadCounts()) {
+                return -1;
+            }
 
-        if (cursor == null) {
-            Logger.error("EventsStorage - Unable to query database.");
-            return null;
+            return eventCount;
         }
+    }
 
-        String sessionId = null;
-        if (cursor.moveToFirst()) {
-            sessionId = cursor.getString(0);
-        }
-        cursor.close();
+    /**
+     * Returns the sum of the events data fields in bytes.
+     * <p>
+     * The size is loaded from the database the first time it is needed and then kept up to date
+     * as events are inserted and deleted.
+     *
+     * @return The current size of the database in bytes
+     */
+    int getDatabaseSize() {
+        synchronized (countLock) {
+            if (!loadCounts()) {
+                return -1;
+            }
 
-        return sessionId;
+            return databaseSize;
+        }
     }
 
     /**
-     * Gets the current event count in the database
+     * Loads the event count and database size if they have not been loaded yet.
      *
-     * @return The current event count
+     * @return {@code true} if the counts are loaded, otherwise {@code false}.
      */
-    int getEventCount() {
-        Integer result = null;
-        String[] columns = new String[] { "COUNT(*) as _cnt" };
-        Cursor cursor = query(uri, columns, null, null, null);
+    private boolean loadCounts() {
+        if (countsLoaded) {
+            return true;
+        }
+
+        String[] columns = new String[] {
+                "COUNT(*) as _cnt",
+                "SUM(" + EventsStorage.Events.COLUMN_NAME_EVENT_SIZE + ") as _size"
+        };
 
+        Cursor cursor = query(uri, columns, null, null, null);
         if (cursor == null) {
             Logger.error("EventsStorage - Unable to query events database.");
-            return -1;
+            return false;
         }
 
         if (cursor.moveToFirst()) {
-            result = cursor.getInt(0);
+            eventCount = cursor.getInt(0);
+            databaseSize = cursor.getInt(1);
+            countsLoaded = true;
         }
 
         cursor.close();
-
-        return result == null ? -1 : result;
+        return countsLoaded;
     }
 
     /**
-     * Returns the sum of the events data fields in bytes
+     * Returns the sum of the event sizes for the events matching the selection.
      *
-     * @return The current size of the database in bytes
+     * @param selection The selection.
+     * @param selectionArgs The selection args.
+     * @return The size in bytes, or -1 if the query failed.
      */
-    int getDatabaseSize() {
-        Integer result = null;
+    private int querySize(@NonNull String selection, @NonNull String[] selectionArgs) {
         String[] columns = new String[] { "SUM(" + EventsStorage.Events.COLUMN_NAME_EVENT_SIZE + ") as _size" };
-        Cursor cursor = query(uri, columns, null, null, null);
-
+        Cursor cursor = query(uri, columns, selection, selectionArgs, null);
         if (cursor == null) {
             Logger.error("EventsStorage - Unable to query events database.");
             return -1;
         }
 
+        int result = -1;
         if (cursor.moveToFirst()) {
             result = cursor.getInt(0);
         }
 
         cursor.close();
-
-        return result == null ? -1 : result;
+        return result;
     }
 
     /**
@@ -197,6 +241,55 @@ public class EventResolver extends UrbanAirshipResolver {
      * @param sessionId The session ID.
      */
     void insertEvent(@NonNull Event event, @NonNull String sessionId) {
+        ContentValues values = createEventValues(event, sessionId);
+
+        synchronized (countLock) {
+            if (insert(uri, values) != null && countsLoaded) {
+                eventCount++;
+                databaseSize += values.getAsInteger(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Inserts several events into the database in a single transaction.
+     *
+     * @param events The event values created with {@link #createEventValues(Event, String)}.
+     * @return The number of events inserted.
+     */
+    int insertEvents(@NonNull List<ContentValues> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        synchronized (countLock) {
+            int inserted = bulkInsert(uri, events.toArray(new ContentValues[0]));
+
+            if (countsLoaded) {
+                if (inserted == events.size()) {
+                    eventCount += inserted;
+                    for (ContentValues values : events) {
+                        databaseSize += values.getAsInteger(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE);
+                    }
+                } else if (inserted > 0) {
+                    // Unknown subset inserted, reload the counts
+                    countsLoaded = false;
+                }
+            }
+
+            return Math.max(inserted, 0);
+        }
+    }
+
+    /**
+     * Creates the database values for an event.
+     *
+     * @param event The event.
+     * @param sessionId The session ID.
+     * @return The event values.
+     */
+    @NonNull
+    static ContentValues createEventValues(@NonNull Event event, @NonNull String sessionId) {
         String eventPayload = event.createEventPayload(sessionId);
 
         ContentValues values = new ContentValues();
@@ -206,31 +299,66 @@ public class EventResolver extends UrbanAirshipResolver {
         values.put(EventsStorage.Events.COLUMN_NAME_TIME, event.getTime());
         values.put(EventsStorage.Events.COLUMN_NAME_SESSION_ID, sessionId);
         values.put(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE, eventPayload.length());
-
-        insert(uri, values);
+        return values;
     }
 
     /**
-     * Trims the database down to the specified size.
+     * Trims the database down to the specified size by deleting the oldest events. Events are
+     * read in bounded batches so the cost does not grow with the number of stored events.
      *
      * @param maxDatabaseSize The max db size in bytes.
      */
     void trimDatabase(int maxDatabaseSize) {
-        while (getDatabaseSize() > maxDatabaseSize) {
-
-            String sessionId = getOldestSessionId();
-            if (UAStringUtil.isEmpty(sessionId)) {
-                break;
+        synchronized (countLock) {
+            if (!loadCounts()) {
+                return;
             }
 
-            Logger.debug("Event database size exceeded. Deleting oldest session: %s", sessionId);
-
-            int deleted = delete(uri, EventsStorage.Events.COLUMN_NAME_SESSION_ID + " = ?", new String[] { sessionId });
-
-            if (deleted > 0) {
-                Logger.debug("Deleted %s rows with session ID %s", deleted, sessionId);
-            } else {
-                break;
+            while (databaseSize > maxDatabaseSize) {
+                int excess = databaseSize - maxDatabaseSize;
+
+                String[] columns = new String[] { EventsStorage.Events._ID, EventsStorage.Events.COLUMN_NAME_EVENT_SIZE };
+                Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, String.valueOf(TRIM_BATCH_SIZE)).build();
+                Cursor cursor = query(eventsUri, columns, null, null, ASCENDING_SORT_ORDER);
+                if (cursor == null) {
+                    Logger.error("EventsStorage - Unable to query database.");
+                    return;
+                }
+
+                long lastId = -1;
+                int rows = 0;
+                int size = 0;
+
+                cursor.moveToFirst();
+                while (!cursor.isAfterLast() && size < excess) {
+                    lastId = cursor.getLong(0);
+                    size += cursor.getInt(1);
+                    rows++;
+                    cursor.moveToNext();
+                }
+                cursor.close();
+
+                if (rows == 0) {
+                    break;
+                }
+
+                Logger.debug("Event database size exceeded. Deleting %s oldest events.", rows);
+
+                int deleted = delete(uri, EventsStorage.Events._ID + " <= ?", new String[] { String.valueOf(lastId) });
+                if (deleted <= 0) {
+                    break;
+                }
+
+                if (deleted != rows) {
+                    // Out of sync, reload the counts
+                    countsLoaded = false;
+                    if (!loadCounts()) {
+                        return;
+                    }
+                } else {
+                    eventCount = Math.max(0, eventCount - deleted);
+                    databaseSize = Math.max(0, databaseSize - size);
+                }
             }
         }
     }
@@ -27,7 +27,7 @@ public class GlobalActivityMonitor implements ActivityMonitor {
     // Brief delay, to give the app a chance to perform screen rotation cleanup
     private static final long BACKGROUND_DELAY_MS = 200;
 
-    private static GlobalActivityMonitor singleton;
+    private static volatile GlobalActivityMonitor singleton;
 
     private final Handler handler;
     private final Runnable backgroundRunnable;
@@ -126,8 +126,10 @@ public class GlobalActivityMonitor implements ActivityMonitor {
         if (singleton == null) {
             synchronized (GlobalActivityMonitor.class) {
                 if (singleton == null) {
-                    singleton = new GlobalActivityMonitor();
-                    singleton.registerListener(context);
+                    // Only publish the monitor once it is registered
+                    GlobalActivityMonitor monitor = new GlobalActivityMonitor();
+                    monitor.registerListener(context);
+                    singleton = monitor;
                 }
             }
             return singleton;
@@ -12,6 +12,7 @@ import com.urbanairship.util.ConnectionUtils;
 import com.urbanairship.util.UAStringUtil;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -39,6 +40,7 @@ import androidx.annotation.RestrictTo;
 public class Request {
 
     private static final int NETWORK_TIMEOUT_MS = 60000;
+    private static final int DRAIN_BUFFER_SIZE = 1024;
 
     private static final ResponseParser<Void> EMPTY_RESPONSE_PARSER = new ResponseParser<Void>() {
         @Override
@@ -62,6 +64,9 @@ public class Request {
     @Nullable
     protected String body;
 
+    @Nullable
+    protected RequestBodyWriter bodyWriter;
+
     @Nullable
     protected String contentType;
 
@@ -134,6 +139,23 @@ public class Request {
     @NonNull
     public Request setRequestBody(@Nullable String body, @Nullable String contentType) {
         this.body = body;
+        this.bodyWriter = null;
+        this.contentType = contentType;
+        return this;
+    }
+
+    /**
+     * Sets a request body that is streamed to the connection when the request is executed. The
+     * body is sent using chunked streaming so it is never held in memory in full.
+     *
+     * @param bodyWriter The body writer.
+     * @param contentType The string content type.
+     * @return The request.
+     */
+    @NonNull
+    public Request setRequestBody(@NonNull RequestBodyWriter bodyWriter, @Nullable String contentType) {
+        this.body = null;
+        this.bodyWriter = bodyWriter;
         this.contentType = contentType;
         return this;
     }
@@ -228,7 +250,36 @@ public class Request {
      * @return The request response.
      */
     @NonNull
-    public <T> Response<T> execute(@NonNull ResponseParser<T> parser) throws RequestException {
+    public <T> Response<T> execute(@NonNull final ResponseParser<T> parser) throws RequestException {
+        return performRequest(new ResponseReader<T>() {
+            @Override
+            public void read(@NonNull Response.Builder<T> builder, int status, @Nullable Map<String, List<String>> headers, @Nullable InputStream input) throws Exception {
+                String messageBody = readEntireStream(input);
+                builder.setResponseBody(messageBody)
+                       .setResult(parser.parseResponse(status, headers, messageBody));
+            }
+        });
+    }
+
+    /**
+     * Executes the request, parsing the response body as it is read. The response will not
+     * contain the response body.
+     *
+     * @param parser The stream parser.
+     * @return The request response.
+     */
+    @NonNull
+    public <T> Response<T> execute(@NonNull final ResponseStreamParser<T> parser) throws RequestException {
+        return performRequest(new ResponseReader<T>() {
+            @Override
+            public void read(@NonNull Response.Builder<T> builder, int status, @Nullable Map<String, List<String>> headers, @Nullable InputStream input) throws Exception {
+                builder.setResult(parser.parseResponse(status, headers, input));
+            }
+        });
+    }
+
+    @NonNull
+    private <T> Response<T> performRequest(@NonNull ResponseReader<T> reader) throws RequestException {
         if (url == null) {
             throw new RequestException("Unable to perform request: missing URL");
         }
@@ -244,11 +295,15 @@ public class Request {
             conn.setRequestMethod(requestMethod);
             conn.setConnectTimeout(NETWORK_TIMEOUT_MS);
 
-            if (body != null) {
+            if (body != null || bodyWriter != null) {
                 conn.setDoOutput(true);
                 conn.setRequestProperty("Content-Type", contentType);
             }
 
+            if (bodyWriter != null) {
+                conn.setChunkedStreamingMode(0);
+            }
+
             conn.setDoInput(true);
             conn.setUseCaches(false);
             conn.setAllowUserInteraction(false);
@@ -268,46 +323,40 @@ public class Request {
             }
 
             // Create the form content
-            if (body != null) {
-
+            if (body != null || bodyWriter != null) {
                 if (compressRequestBody) {
                     conn.setRequestProperty("Content-Encoding", "gzip");
-                    OutputStream out = conn.getOutputStream();
-                    GZIPOutputStream gos = new GZIPOutputStream(out);
-                    Writer writer = new OutputStreamWriter(gos, "UTF-8");
-                    writer.write(body);
-                    writer.close();
-                    gos.close();
-                    out.close();
-                } else {
-                    OutputStream out = conn.getOutputStream();
-                    Writer writer = new OutputStreamWriter(out, "UTF-8");
-                    writer.write(body);
-                    writer.close();
-                    out.close();
                 }
+
+                writeBody(conn.getOutputStream());
             }
 
             Response.Builder<T> responseBuilder = new Response.Builder<T>(conn.getResponseCode())
                     .setResponseHeaders(conn.getHeaderFields())
                     .setLastModified(conn.getLastModified());
 
-            String messageBody;
+            InputStream input;
             try {
-                messageBody = readEntireStream(conn.getInputStream());
+                input = conn.getInputStream();
             } catch (IOException ex) {
-                messageBody = readEntireStream(conn.getErrorStream());
+                input = conn.getErrorStream();
+            }
+
+            try {
+                reader.read(responseBuilder, conn.getResponseCode(), conn.getHeaderFields(), input);
+            } finally {
+                // Reading the body to the end and closing it returns the connection to the pool
+                drainAndClose(input);
             }
 
-            return responseBuilder.setResult(parser.parseResponse(conn.getResponseCode(), conn.getHeaderFields(), messageBody))
-                                  .setResponseBody(messageBody)
-                                  .build();
+            return responseBuilder.build();
         } catch (Exception e) {
-            throw new RequestException(String.format(Locale.ROOT, "Request failed URL: %s method: %s", url, requestMethod), e);
-        } finally {
+            // The connection may be in an unknown state, do not reuse it
             if (conn != null) {
                 conn.disconnect();
             }
+
+            throw new RequestException(String.format(Locale.ROOT, "Request failed URL: %s method: %s", url, requestMethod), e);
         }
     }
 
@@ -326,8 +375,23 @@ public class Request {
                 UAirship.shared().getLocale());
     }
 
+    private void writeBody(@NonNull OutputStream out) throws IOException {
+        OutputStream stream = compressRequestBody ? new GZIPOutputStream(out) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, "UTF-8"));
+
+        try {
+            if (bodyWriter != null) {
+                bodyWriter.writeBody(writer);
+            } else if (body != null) {
+                writer.write(body);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
     @Nullable
-    private String readEntireStream(@Nullable InputStream input) throws IOException {
+    private static String readEntireStream(@Nullable InputStream input) throws IOException {
         if (input == null) {
             return null;
         }
@@ -335,22 +399,47 @@ public class Request {
         BufferedReader br = new BufferedReader(new InputStreamReader(input));
         StringBuilder sb = new StringBuilder();
 
+        String inputLine;
+        while ((inputLine = br.readLine()) != null) {
+            sb.append(inputLine).append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Reads any remaining bytes and closes the stream.
+     *
+     * @param input The input stream.
+     */
+    private static void drainAndClose(@Nullable InputStream input) {
+        if (input == null) {
+            return;
+        }
+
         try {
-            String inputLine;
-            while ((inputLine = br.readLine()) != null) {
-                sb.append(inputLine).append("\n");
+            byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+            while (input.read(buffer) != -1) {
+                // Discard
             }
-            br.close();
+        } catch (IOException e) {
+            Logger.debug(e, "Failed to drain response body");
         } finally {
             try {
                 input.close();
-                br.close();
             } catch (Exception e) {
                 Logger.error(e, "Failed to close streams");
             }
         }
+    }
 
-        return sb.toString();
+    /**
+     * Reads the response body into the response builder.
+     *
+     * @param <T> The result type.
+     */
+    private interface ResponseReader<T> {
+        void read(@NonNull Response.Builder<T> builder, int status, @Nullable Map<String, List<String>> headers, @Nullable InputStream input) throws Exception;
     }
 
 
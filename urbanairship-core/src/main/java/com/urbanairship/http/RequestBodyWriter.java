@@ -0,0 +1,27 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Writes a request body directly to the connection's output stream.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface RequestBodyWriter {
+
+    /**
+     * Writes the body.
+     *
+     * @param writer The body writer.
+     * @throws IOException If the write fails.
+     */
+    void writeBody(@NonNull Writer writer) throws IOException;
+
+}
@@ -0,0 +1,22 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.http;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Parses a response directly from the response body stream, so the body is never buffered as a
+ * single string. The stream is closed by the request once the parser returns.
+ *
+ * @param <T> The result type.
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public interface ResponseStreamParser<T> {
+    T parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable InputStream responseBody) throws Exception;
+}
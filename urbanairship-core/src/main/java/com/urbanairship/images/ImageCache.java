@@ -1,62 +1,118 @@
 package com.urbanairship.images;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.net.http.HttpResponseCache;
+import android.os.Build;
 import android.util.LruCache;
+import android.webkit.URLUtil;
 
 import com.urbanairship.Logger;
+import com.urbanairship.util.FileUtils;
+import com.urbanairship.util.ImageUtils;
+import com.urbanairship.util.PrioritizedExecutor;
+import com.urbanairship.util.UAStringUtil;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
+/**
+ * Two tier image cache.
+ * <p>
+ * The memory tier holds decoded drawables and is sized by their decoded byte count. The disk tier
+ * holds the downsampled images keyed by URL and target size so a cold start does not need to
+ * download or downsample the original image again. Concurrent fetches for the same key are
+ * coalesced into a single fetch.
+ * <p>
+ * Unlike the {@code HttpResponseCache} it replaces, the disk tier does not revalidate entries with
+ * the server. Images are expected to be immutable per URL, so entries are only removed by the LRU
+ * trim.
+ */
 class ImageCache {
 
-    private static final String CACHE_DIR = "urbanairship-cache";
+    private static final String CACHE_DIR = "urbanairship-image-cache";
 
     /**
-     * Max amount of memory cache.
+     * Directory that was used by the previously installed {@code HttpResponseCache}.
      */
-    private static final int MAX_MEM_CACHE_SIZE = 1024 * 1024 * 10; // 10MB
+    private static final String LEGACY_HTTP_CACHE_DIR = "urbanairship-cache";
 
     /**
-     * Max file size before we cache in memory.
+     * Max amount of memory cache.
      */
-    private static final int MAX_MEM_CACHE_FILE_SIZE = 1024 * 1024; // 1MB
+    private static final int MAX_MEM_CACHE_SIZE = 1024 * 1024 * 10; // 10MB
 
     /**
      * Disk cache size.
      */
     private static final int DISK_CACHE_SIZE = 1024 * 1024 * 50; // 50MB
 
+    private static final int JPEG_QUALITY = 90;
+
     private final LruCache<String, CacheEntry> memoryCache;
+    private final int maxMemoryEntrySize;
+    private final Map<String, FutureTask<Drawable>> pendingFetches = new HashMap<>();
+    private final Object diskLock = new Object();
 
     private final Context context;
+    private final long diskCacheSize;
+    private File diskCacheDir;
 
     ImageCache(@NonNull Context context) {
+        this(context, DISK_CACHE_SIZE);
+    }
+
+    @VisibleForTesting
+    ImageCache(@NonNull Context context, long diskCacheSize) {
         this.context = context.getApplicationContext();
+        this.diskCacheSize = diskCacheSize;
 
         // Memory Cache - 1/8 the available memory. Taken from https://developer.android.com/topic/performance/graphics/cache-bitmap
         int memCacheSize = (int) Math.min(MAX_MEM_CACHE_SIZE, Runtime.getRuntime().maxMemory() / 8);
 
+        // A single image should not be able to flush most of the cache
+        this.maxMemoryEntrySize = memCacheSize / 4;
+
         this.memoryCache = new LruCache<String, CacheEntry>(memCacheSize) {
             @Override
             protected int sizeOf(String key, @NonNull CacheEntry entry) {
-                if (entry.byteCount > Integer.MAX_VALUE) {
-                    return Integer.MAX_VALUE;
-                }
-                return (int) entry.byteCount;
+                return entry.byteCount;
             }
         };
     }
 
+    /**
+     * Returns the cache key for an image.
+     *
+     * @param url The image URL.
+     * @param width The target width.
+     * @param height The target height.
+     * @return The cache key.
+     */
+    @NonNull
+    static String getCacheKey(@NonNull String url, int width, int height) {
+        return url + ",size(" + width + "x" + height + ")";
+    }
+
     @WorkerThread
-    void cacheDrawable(@NonNull String key, @NonNull Drawable drawable, long byteCount) {
-        if (byteCount <= MAX_MEM_CACHE_FILE_SIZE) {
+    void cacheDrawable(@NonNull String key, @NonNull Drawable drawable) {
+        int byteCount = getDecodedByteCount(drawable);
+        if (byteCount <= maxMemoryEntrySize) {
             memoryCache.put(key, new CacheEntry(drawable, byteCount));
         }
     }
@@ -71,31 +127,290 @@ class ImageCache {
     }
 
     /**
-     * Installs a HttpResponseCache if a cache is not already installed.
+     * Fetches a drawable scaled to the target size, checking the memory and disk tiers before
+     * downloading the image. Concurrent calls for the same image and size share a single fetch.
+     *
+     * @param url The image URL.
+     * @param width The target width.
+     * @param height The target height.
+     * @return The drawable, or {@code null} if the image failed to be fetched.
+     * @throws IOException If the fetch failed.
      */
+    @Nullable
     @WorkerThread
-    void installHttpCache() {
-        // URL Cache
-        File cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR);
-        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
-            Logger.error("Failed to create the cache.");
+    Drawable fetchDrawable(@NonNull final String url, final int width, final int height) throws IOException {
+        final String key = getCacheKey(url, width, height);
+
+        Drawable cached = getDrawable(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        FutureTask<Drawable> task;
+        boolean isOwner = false;
+
+        synchronized (pendingFetches) {
+            task = pendingFetches.get(key);
+            if (task == null) {
+                task = new FutureTask<>(new Callable<Drawable>() {
+                    @Override
+                    public Drawable call() throws IOException {
+                        Drawable drawable = fetchUncachedDrawable(key, url, width, height);
+                        if (drawable != null) {
+                            cacheDrawable(key, drawable);
+                        }
+                        return drawable;
+                    }
+                });
+                pendingFetches.put(key, task);
+                isOwner = true;
+            }
         }
 
-        if (HttpResponseCache.getInstalled() == null) {
+        if (isOwner) {
             try {
-                HttpResponseCache.install(cacheDir, DISK_CACHE_SIZE);
-            } catch (IOException e) {
-                Logger.error("Unable to install image loader cache");
+                task.run();
+            } finally {
+                synchronized (pendingFetches) {
+                    pendingFetches.remove(key);
+                }
+            }
+        }
+
+        // Only waiting on another thread's fetch blocks
+        boolean isBlocking = !task.isDone();
+        if (isBlocking) {
+            PrioritizedExecutor.beginBlocking();
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching image: " + url);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
             }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (isBlocking) {
+                PrioritizedExecutor.endBlocking();
+            }
+        }
+    }
+
+    @Nullable
+    @WorkerThread
+    private Drawable fetchUncachedDrawable(@NonNull String key, @NonNull String url, int width, int height) throws IOException {
+        // Local files do not need a disk copy
+        if (URLUtil.isFileUrl(url)) {
+            return decode(new URL(url), width, height);
         }
+
+        File diskFile = getDiskFile(key);
+        if (diskFile != null && diskFile.exists()) {
+            Drawable drawable = decode(diskFile.toURI().toURL(), width, height);
+            if (drawable != null) {
+                //noinspection ResultOfMethodCallIgnored
+                diskFile.setLastModified(System.currentTimeMillis());
+                return drawable;
+            }
+
+            // Corrupt entry
+            //noinspection ResultOfMethodCallIgnored
+            diskFile.delete();
+        }
+
+        File tempFile = File.createTempFile("ua_", ".temp", context.getCacheDir());
+        try {
+            if (!download(new URL(url), tempFile)) {
+                Logger.verbose("Failed to fetch image from: %s", url);
+                return null;
+            }
+
+            Drawable drawable = decode(tempFile.toURI().toURL(), width, height);
+            if (drawable != null && diskFile != null) {
+                writeToDisk(diskFile, drawable, tempFile);
+            }
+
+            return drawable;
+        } finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                Logger.verbose("Failed to delete temp file: %s", tempFile);
+            }
+        }
+    }
+
+    /**
+     * Downloads the image.
+     *
+     * @param url The image URL.
+     * @param file The file to download to.
+     * @return {@code true} if the image was downloaded, otherwise {@code false}.
+     * @throws IOException If the download failed.
+     */
+    @VisibleForTesting
+    @WorkerThread
+    boolean download(@NonNull URL url, @NonNull File file) throws IOException {
+        return FileUtils.downloadFile(url, file).isSuccess;
+    }
+
+    /**
+     * Decodes the image scaled to the target size.
+     *
+     * @param url The image URL, either the downloaded or the disk cache file.
+     * @param width The target width.
+     * @param height The target height.
+     * @return The drawable, or {@code null} if the image could not be decoded.
+     * @throws IOException If the image could not be read.
+     */
+    @VisibleForTesting
+    @Nullable
+    @WorkerThread
+    Drawable decode(@NonNull URL url, int width, int height) throws IOException {
+        ImageUtils.DrawableResult result = ImageUtils.fetchScaledDrawable(context, url, width, height);
+        return result == null ? null : result.drawable;
+    }
+
+    /**
+     * Writes the downsampled image to the disk tier. Bitmaps are re-encoded at the decoded size,
+     * anything else (e.g. animated images) keeps the original file.
+     *
+     * @param diskFile The disk cache file.
+     * @param drawable The decoded drawable.
+     * @param sourceFile The downloaded file.
+     */
+    private void writeToDisk(@NonNull File diskFile, @NonNull Drawable drawable, @NonNull File sourceFile) {
+        synchronized (diskLock) {
+            File partialFile = new File(diskFile.getPath() + ".partial");
+            boolean written = false;
+
+            if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() != null) {
+                Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+                Bitmap.CompressFormat format = bitmap.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+
+                FileOutputStream outputStream = null;
+                try {
+                    outputStream = new FileOutputStream(partialFile);
+                    written = bitmap.compress(format, JPEG_QUALITY, outputStream);
+                } catch (IOException e) {
+                    Logger.debug(e, "Failed to write image to the disk cache.");
+                } finally {
+                    if (outputStream != null) {
+                        try {
+                            outputStream.close();
+                        } catch (IOException e) {
+                            written = false;
+                        }
+                    }
+                }
+            } else {
+                written = sourceFile.renameTo(partialFile);
+            }
+
+            if (!written || !partialFile.renameTo(diskFile)) {
+                //noinspection ResultOfMethodCallIgnored
+                partialFile.delete();
+                return;
+            }
+
+            trimDiskCache();
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the disk tier is under its max size. Must be
+     * called with the disk lock held.
+     */
+    private void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+
+        if (size <= diskCacheSize) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long lhsModified = lhs.lastModified();
+                long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+
+        for (File file : files) {
+            if (size <= diskCacheSize) {
+                break;
+            }
+
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    @Nullable
+    private File getDiskFile(@NonNull String key) {
+        synchronized (diskLock) {
+            if (diskCacheDir == null) {
+                File cacheDir = new File(context.getCacheDir(), CACHE_DIR);
+                if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+                    Logger.error("Failed to create the image cache.");
+                    return null;
+                }
+
+                FileUtils.deleteRecursively(new File(context.getCacheDir(), LEGACY_HTTP_CACHE_DIR));
+                diskCacheDir = cacheDir;
+            }
+        }
+
+        String name = UAStringUtil.sha256(key);
+        return name == null ? null : new File(diskCacheDir, name);
+    }
+
+    /**
+     * Returns the decoded size of a drawable.
+     *
+     * @param drawable The drawable.
+     * @return The decoded size in bytes.
+     */
+    @VisibleForTesting
+    static int getDecodedByteCount(@NonNull Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+            if (bitmap != null) {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                    return bitmap.getAllocationByteCount();
+                }
+                return bitmap.getByteCount();
+            }
+        }
+
+        // Estimate ARGB_8888 for drawables that do not expose their bitmap
+        long estimate = 4L * Math.max(drawable.getIntrinsicWidth(), 1) * Math.max(drawable.getIntrinsicHeight(), 1);
+        return (int) Math.min(estimate, Integer.MAX_VALUE);
     }
 
     private static class CacheEntry {
 
-        private final long byteCount;
+        private final int byteCount;
         private final Drawable drawable;
 
-        CacheEntry(@NonNull Drawable drawable, long byteCount) {
+        CacheEntry(@NonNull Drawable drawable, int byteCount) {
             this.drawable = drawable;
             this.byteCount = byteCount;
         }
@@ -12,11 +12,9 @@ import android.widget.ImageView;
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.CancelableOperation;
 import com.urbanairship.Logger;
-import com.urbanairship.util.ImageUtils;
 
 import java.io.IOException;
 import java.lang.ref.WeakReference;
-import java.net.URL;
 import java.util.concurrent.Executor;
 
 import androidx.annotation.MainThread;
@@ -30,7 +28,7 @@ import androidx.core.content.ContextCompat;
  */
 abstract class ImageRequest {
 
-    private final Executor EXECUTOR = AirshipExecutors.THREAD_POOL_EXECUTOR;
+    private final Executor EXECUTOR = AirshipExecutors.USER_VISIBLE_EXECUTOR;
 
     /**
      * Duration of the fade in animation when loading a bitmap into the image view in milliseconds.
@@ -178,7 +176,7 @@ abstract class ImageRequest {
      */
     @NonNull
     private String getCacheKey() {
-        return imageRequestOptions.getUrl() == null ? "" : imageRequestOptions.getUrl() + ",size(" + width + "x" + height + ")";
+        return imageRequestOptions.getUrl() == null ? "" : ImageCache.getCacheKey(imageRequestOptions.getUrl(), width, height);
     }
 
     /**
@@ -191,8 +189,6 @@ abstract class ImageRequest {
     @Nullable
     @WorkerThread
     private Drawable fetchDrawableOnBackground() throws IOException {
-        imageCache.installHttpCache();
-
         if (imageViewReference.get() == null) {
             return null;
         }
@@ -201,14 +197,7 @@ abstract class ImageRequest {
             return null;
         }
 
-        ImageUtils.DrawableResult result = ImageUtils.fetchScaledDrawable(context, new URL(imageRequestOptions.getUrl()), width, height);
-
-        if (result == null) {
-            return null;
-        }
-        imageCache.cacheDrawable(getCacheKey(), result.drawable, result.bytes);
-        return result.drawable;
-
+        return imageCache.fetchDrawable(imageRequestOptions.getUrl(), width, height);
     }
 
     @MainThread
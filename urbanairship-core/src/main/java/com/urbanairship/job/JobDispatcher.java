@@ -27,7 +27,7 @@ public class JobDispatcher {
     private final Context context;
 
     @SuppressLint("StaticFieldLeak")
-    private static JobDispatcher instance;
+    private static volatile JobDispatcher instance;
 
     private final Scheduler scheduler;
     private final List<JobInfo> pendingJobInfos = new ArrayList<>();
@@ -4,6 +4,7 @@ import com.urbanairship.AirshipComponent;
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
+import com.urbanairship.util.PrioritizedExecutor;
 import com.urbanairship.util.UAStringUtil;
 
 import java.util.concurrent.Executor;
@@ -20,7 +21,7 @@ import androidx.annotation.WorkerThread;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 class JobRunnable implements Runnable {
 
-    static final Executor EXECUTOR = AirshipExecutors.newSerialExecutor();
+    static final Executor EXECUTOR = AirshipExecutors.newSerialExecutor(PrioritizedExecutor.PRIORITY_LOW);
 
     private static final long AIRSHIP_WAIT_TIME_MS = 5000; // 5 seconds.
 
@@ -3,6 +3,7 @@
 package com.urbanairship.js;
 
 import android.net.Uri;
+import android.util.LruCache;
 
 import com.urbanairship.AirshipConfigOptions;
 import com.urbanairship.Logger;
@@ -11,7 +12,9 @@ import com.urbanairship.util.UAStringUtil;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import androidx.annotation.IntDef;
@@ -55,11 +58,6 @@ public class UrlAllowList {
      */
     private static final Pattern PATH_OR_SCHEME_PATTERN = Pattern.compile("([^\\s]*)", Pattern.CASE_INSENSITIVE);
 
-    /**
-     * Regular expression characters. Used to escape any regular expression from the path and host.
-     */
-    private static final String REGEX_SPECIAL_CHARACTERS = "\\.[]{}()^$?+|*";
-
     /**
      * Interface that defines a callback that can be used to reject or allow a URL.
      */
@@ -80,6 +78,13 @@ public class UrlAllowList {
     private OnUrlAllowListCallback urlAllowListCallback;
 
     private final List<Entry> entries = new ArrayList<>();
+    private final Object lock = new Object();
+
+    /**
+     * Immutable index of the entries, rebuilt on the next check after an entry is added.
+     */
+    @Nullable
+    private volatile Snapshot snapshot;
 
     /**
      * Adds an entry to the URL allow list for URL matching. Patterns must be defined with the following
@@ -146,7 +151,7 @@ public class UrlAllowList {
      */
     public boolean addEntry(@NonNull String pattern, @Scope int scope) {
         if (pattern.equals("*")) {
-            addEntry(new UriPattern(null, null, null), scope);
+            addEntry(new Entry(null, null, false, null, scope));
             return true;
         }
 
@@ -174,42 +179,66 @@ public class UrlAllowList {
             return false;
         }
 
-        Pattern schemePattern;
+        Glob schemeGlob;
         if (UAStringUtil.isEmpty(scheme) || scheme.equals("*")) {
-            schemePattern = null;
+            schemeGlob = null;
         } else {
-            schemePattern = Pattern.compile(escapeRegEx(scheme, false));
+            schemeGlob = new Glob(scheme);
         }
 
-        Pattern hostPattern;
+        String hostSuffix;
+        boolean isWildcardHost;
         if (UAStringUtil.isEmpty(host) || host.equals("*")) {
-            hostPattern = null;
+            hostSuffix = null;
+            isWildcardHost = false;
         } else if (host.startsWith("*.")) {
-            hostPattern = Pattern.compile("(.*\\.)?" + escapeRegEx(host.substring(2), true));
+            hostSuffix = host.substring(2);
+            isWildcardHost = true;
         } else {
-            hostPattern = Pattern.compile(escapeRegEx(host, true));
+            hostSuffix = host;
+            isWildcardHost = false;
         }
 
-        Pattern pathPattern;
+        Glob pathGlob;
         if (UAStringUtil.isEmpty(path) || path.equals("/*")) {
-            pathPattern = null;
+            pathGlob = null;
         } else {
-            pathPattern = Pattern.compile(escapeRegEx(path, false));
+            pathGlob = new Glob(path);
         }
 
-        addEntry(new UriPattern(schemePattern, hostPattern, pathPattern), scope);
+        addEntry(new Entry(schemeGlob, hostSuffix, isWildcardHost, pathGlob, scope));
         return true;
     }
 
     /**
      * Adds an entry.
      *
-     * @param pattern The pattern.
-     * @param scope The scope.
+     * @param entry The entry.
+     */
+    private void addEntry(@NonNull Entry entry) {
+        synchronized (lock) {
+            entries.add(entry);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Gets the current snapshot, building it if entries were added since the last check.
+     *
+     * @return The snapshot.
      */
-    private void addEntry(@NonNull UriPattern pattern, @Scope int scope) {
-        synchronized (entries) {
-            entries.add(new Entry(pattern, scope));
+    @NonNull
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (lock) {
+            if (snapshot == null) {
+                snapshot = new Snapshot(entries);
+            }
+            return snapshot;
         }
     }
 
@@ -235,17 +264,7 @@ public class UrlAllowList {
             return false;
         }
 
-        Uri uri = Uri.parse(url);
-        int matchedScope = 0;
-
-        synchronized (entries) {
-            for (Entry entry : entries) {
-                if (entry.pattern.matches(uri)) {
-                    matchedScope |= entry.scope;
-                }
-            }
-        }
-
+        int matchedScope = getSnapshot().getMatchedScope(url);
         boolean match = ((matchedScope & scope) == scope);
 
         // if the url is allowed, allow the app to reject the url
@@ -256,32 +275,6 @@ public class UrlAllowList {
         return match;
     }
 
-    /**
-     * Helper method to escape any regular expression.
-     *
-     * @param input The input to escape.
-     * @param escapeWildCards If wild cards '*' should be turned into '.*' or escape
-     * @return The input with any regular expression escaped.
-     */
-    private String escapeRegEx(@NonNull String input, boolean escapeWildCards) {
-
-        StringBuilder escapedInput = new StringBuilder();
-
-        for (char c : input.toCharArray()) {
-            String character = String.valueOf(c);
-
-            if (!escapeWildCards && character.equals("*")) {
-                escapedInput.append(".");
-            } else if (REGEX_SPECIAL_CHARACTERS.contains(character)) {
-                escapedInput.append("\\");
-            }
-
-            escapedInput.append(character);
-        }
-
-        return escapedInput.toString();
-    }
-
     /**
      * Factory method to create the default URL allow list with values from the airship config.
      *
@@ -322,86 +315,208 @@ public class UrlAllowList {
     }
 
     /**
-     * Helper class that does the actual matching using the scheme and host patterns.
+     * Immutable index of the entries. Entries with a host are stored in a trie keyed by the host
+     * labels in reverse order, so a lookup only checks the entries that can match the URL's host.
      */
-    private static class UriPattern {
+    private static class Snapshot {
 
-        private final Pattern scheme;
-        private final Pattern host;
-        private final Pattern path;
+        /**
+         * Max number of recent URL results to cache.
+         */
+        private static final int RESULT_CACHE_SIZE = 64;
 
         /**
-         * Creates a new UriPattern.
-         *
-         * @param scheme The pattern to use for scheme matching.
-         * @param host The pattern to use for host matching.
-         * @param path THe pattern to use for path matching.
+         * URLs longer than this are not cached (e.g. data URLs).
          */
-        UriPattern(@Nullable Pattern scheme, @Nullable Pattern host, @Nullable Pattern path) {
-            this.scheme = scheme;
-            this.host = host;
-            this.path = path;
+        private static final int MAX_CACHED_URL_LENGTH = 2048;
+
+        private final List<Entry> anyHostEntries = new ArrayList<>();
+        private final HostNode root = new HostNode();
+        private final LruCache<String, Integer> results = new LruCache<>(RESULT_CACHE_SIZE);
+
+        Snapshot(@NonNull List<Entry> entries) {
+            for (Entry entry : entries) {
+                if (entry.host == null) {
+                    anyHostEntries.add(entry);
+                    continue;
+                }
+
+                HostNode node = root;
+                int end = entry.host.length();
+                while (true) {
+                    int start = entry.host.lastIndexOf('.', end - 1);
+                    node = node.getOrCreateChild(entry.host.substring(start + 1, end));
+                    if (start < 0) {
+                        break;
+                    }
+                    end = start;
+                }
+
+                if (entry.isWildcardHost) {
+                    node.wildcardEntries.add(entry);
+                } else {
+                    node.exactEntries.add(entry);
+                }
+            }
         }
 
         /**
-         * Checks if a uri matches the pattern.
+         * Gets the combined scope of all the entries that match the URL.
          *
-         * @param uri The uri to match.
-         * @return <code>true</code> if the uri matches, otherwise <code>false</code>.
+         * @param url The URL.
+         * @return The matched scope.
          */
-        boolean matches(@NonNull Uri uri) {
-            if (scheme != null && (uri.getScheme() == null || !scheme.matcher(uri.getScheme()).matches())) {
-                return false;
+        int getMatchedScope(@NonNull String url) {
+            boolean isCacheable = url.length() <= MAX_CACHED_URL_LENGTH;
+            if (isCacheable) {
+                Integer cached = results.get(url);
+                if (cached != null) {
+                    return cached;
+                }
             }
 
-            if (host != null && (uri.getHost() == null || !host.matcher(uri.getHost()).matches())) {
-                return false;
+            Uri uri = Uri.parse(url);
+            String scheme = uri.getScheme();
+            String path = uri.isOpaque() ? uri.getSchemeSpecificPart() : uri.getPath();
+
+            int matchedScope = match(anyHostEntries, scheme, path);
+
+            String host = uri.getHost();
+            if (host != null) {
+                HostNode node = root;
+                int end = host.length();
+                while (true) {
+                    int start = host.lastIndexOf('.', end - 1);
+                    node = node.children.get(host.substring(start + 1, end));
+                    if (node == null) {
+                        break;
+                    }
+
+                    // Wildcard entries match the suffix itself and any of its subdomains
+                    matchedScope |= match(node.wildcardEntries, scheme, path);
+
+                    if (start < 0) {
+                        matchedScope |= match(node.exactEntries, scheme, path);
+                        break;
+                    }
+                    end = start;
+                }
+            }
+
+            if (isCacheable) {
+                results.put(url, matchedScope);
             }
 
-            String uriPath = uri.isOpaque() ? uri.getSchemeSpecificPart() : uri.getPath();
-            return path == null || (uriPath != null && path.matcher(uriPath).matches());
+            return matchedScope;
         }
 
-        @Override
-        public boolean equals(@Nullable Object o) {
-            if (this == o) {
-                return true;
+        private static int match(@NonNull List<Entry> entries, @Nullable String scheme, @Nullable String path) {
+            int matchedScope = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (Glob.matches(entry.scheme, scheme) && Glob.matches(entry.path, path)) {
+                    matchedScope |= entry.scope;
+                }
             }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
+            return matchedScope;
+        }
+
+    }
+
+    /**
+     * Host trie node.
+     */
+    private static class HostNode {
+
+        private final Map<String, HostNode> children = new HashMap<>();
+        private final List<Entry> exactEntries = new ArrayList<>();
+        private final List<Entry> wildcardEntries = new ArrayList<>();
+
+        @NonNull
+        HostNode getOrCreateChild(@NonNull String label) {
+            HostNode child = children.get(label);
+            if (child == null) {
+                child = new HostNode();
+                children.put(label, child);
             }
+            return child;
+        }
+
+    }
+
+    /**
+     * Matches a value against a pattern where {@code *} matches 0 or more characters.
+     */
+    private static class Glob {
 
-            UriPattern that = (UriPattern) o;
+        private final String pattern;
+        private final boolean hasWildcard;
 
-            if (scheme != null ? !scheme.equals(that.scheme) : that.scheme != null) {
-                return false;
+        Glob(@NonNull String pattern) {
+            this.pattern = pattern;
+            this.hasWildcard = pattern.indexOf('*') >= 0;
+        }
+
+        /**
+         * Checks if a value matches a glob.
+         *
+         * @param glob The glob, or {@code null} to match any value.
+         * @param value The value.
+         * @return <code>true</code> if the value matches, otherwise <code>false</code>.
+         */
+        static boolean matches(@Nullable Glob glob, @Nullable String value) {
+            return glob == null || (value != null && glob.matches(value));
+        }
+
+        boolean matches(@NonNull String value) {
+            if (!hasWildcard) {
+                return pattern.equals(value);
             }
 
-            if (host != null ? !host.equals(that.host) : that.host != null) {
-                return false;
+            int patternIndex = 0;
+            int valueIndex = 0;
+            int starIndex = -1;
+            int starValueIndex = 0;
+
+            while (valueIndex < value.length()) {
+                if (patternIndex < pattern.length() && pattern.charAt(patternIndex) == '*') {
+                    starIndex = patternIndex++;
+                    starValueIndex = valueIndex;
+                } else if (patternIndex < pattern.length() && pattern.charAt(patternIndex) == value.charAt(valueIndex)) {
+                    patternIndex++;
+                    valueIndex++;
+                } else if (starIndex >= 0) {
+                    // Backtrack and let the last wildcard consume one more character
+                    patternIndex = starIndex + 1;
+                    valueIndex = ++starValueIndex;
+                } else {
+                    return false;
+                }
             }
 
-            return path != null ? path.equals(that.path) : that.path == null;
-        }
+            while (patternIndex < pattern.length() && pattern.charAt(patternIndex) == '*') {
+                patternIndex++;
+            }
 
-        @Override
-        public int hashCode() {
-            int result = scheme != null ? scheme.hashCode() : 0;
-            result = 31 * result + (host != null ? host.hashCode() : 0);
-            result = 31 * result + (path != null ? path.hashCode() : 0);
-            return result;
+            return patternIndex == pattern.length();
         }
 
     }
 
     private static class Entry {
 
+        private final Glob scheme;
+        private final String host;
+        private final boolean isWildcardHost;
+        private final Glob path;
         private final int scope;
-        private final UriPattern pattern;
 
-        private Entry(UriPattern pattern, @Scope int scope) {
+        private Entry(@Nullable Glob scheme, @Nullable String host, boolean isWildcardHost, @Nullable Glob path, @Scope int scope) {
+            this.scheme = scheme;
+            this.host = host;
+            this.isWildcardHost = isWildcardHost;
+            this.path = path;
             this.scope = scope;
-            this.pattern = pattern;
         }
 
     }
@@ -0,0 +1,200 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Compiled form of a {@link JsonPredicate} or {@link JsonMatcher}.
+ * <p>
+ * Matcher scopes and keys are resolved into a single interned path, and predicates are flattened
+ * into arrays of child evaluators. The value being evaluated is converted to a {@link JsonValue}
+ * once by the caller instead of once per matcher.
+ */
+abstract class JsonEvaluator {
+
+    private static final JsonEvaluator TRUE = new JsonEvaluator() {
+        @Override
+        boolean evaluate(@NonNull JsonValue value) {
+            return true;
+        }
+    };
+
+    /**
+     * Evaluates the value.
+     *
+     * @param value The value.
+     * @return {@code true} if the value matches, otherwise {@code false}.
+     */
+    abstract boolean evaluate(@NonNull JsonValue value);
+
+    /**
+     * Compiles a matcher.
+     *
+     * @param scope The matcher scope.
+     * @param key The matcher key.
+     * @param valueMatcher The value matcher.
+     * @param ignoreCase If the value matcher should ignore case.
+     * @return The evaluator.
+     */
+    @NonNull
+    static JsonEvaluator compileMatcher(@NonNull List<String> scope, @Nullable String key,
+                                        @NonNull ValueMatcher valueMatcher, boolean ignoreCase) {
+        List<String> path = new ArrayList<>(scope.size() + 1);
+        for (String field : scope) {
+            path.add(field == null ? null : field.intern());
+        }
+
+        if (key != null) {
+            path.add(key.intern());
+        }
+
+        return new MatcherEvaluator(path.toArray(new String[0]), valueMatcher, ignoreCase);
+    }
+
+    /**
+     * Compiles a predicate.
+     *
+     * @param type The predicate type.
+     * @param items The predicate items.
+     * @return The evaluator.
+     */
+    @NonNull
+    static JsonEvaluator compilePredicate(@NonNull @JsonPredicate.PredicateType String type,
+                                          @NonNull List<Predicate<JsonSerializable>> items) {
+        if (items.isEmpty()) {
+            return TRUE;
+        }
+
+        JsonEvaluator[] children = new JsonEvaluator[items.size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = of(items.get(i));
+        }
+
+        switch (type) {
+            case JsonPredicate.NOT_PREDICATE_TYPE:
+                return new NotEvaluator(children[0]);
+
+            case JsonPredicate.AND_PREDICATE_TYPE:
+                return children.length == 1 ? children[0] : new AndEvaluator(children);
+
+            case JsonPredicate.OR_PREDICATE_TYPE:
+            default:
+                return children.length == 1 ? children[0] : new OrEvaluator(children);
+        }
+    }
+
+    @NonNull
+    private static JsonEvaluator of(@NonNull final Predicate<JsonSerializable> predicate) {
+        if (predicate instanceof JsonPredicate) {
+            return ((JsonPredicate) predicate).getEvaluator();
+        }
+
+        if (predicate instanceof JsonMatcher) {
+            return ((JsonMatcher) predicate).getEvaluator();
+        }
+
+        return new JsonEvaluator() {
+            @Override
+            boolean evaluate(@NonNull JsonValue value) {
+                return predicate.apply(value);
+            }
+        };
+    }
+
+    private static class MatcherEvaluator extends JsonEvaluator {
+
+        private final String[] path;
+        private final ValueMatcher valueMatcher;
+        private final boolean ignoreCase;
+
+        MatcherEvaluator(@NonNull String[] path, @NonNull ValueMatcher valueMatcher, boolean ignoreCase) {
+            this.path = path;
+            this.valueMatcher = valueMatcher;
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        boolean evaluate(@NonNull JsonValue value) {
+            for (String field : path) {
+                JsonMap map = value.getMap();
+                if (map == null) {
+                    value = JsonValue.NULL;
+                    break;
+                }
+
+                value = map.opt(field);
+                if (value.isNull()) {
+                    break;
+                }
+            }
+
+            return valueMatcher.apply(value, ignoreCase);
+        }
+
+    }
+
+    private static class NotEvaluator extends JsonEvaluator {
+
+        private final JsonEvaluator child;
+
+        NotEvaluator(@NonNull JsonEvaluator child) {
+            this.child = child;
+        }
+
+        @Override
+        boolean evaluate(@NonNull JsonValue value) {
+            return !child.evaluate(value);
+        }
+
+    }
+
+    private static class AndEvaluator extends JsonEvaluator {
+
+        private final JsonEvaluator[] children;
+
+        AndEvaluator(@NonNull JsonEvaluator[] children) {
+            this.children = children;
+        }
+
+        @Override
+        boolean evaluate(@NonNull JsonValue value) {
+            for (JsonEvaluator child : children) {
+                if (!child.evaluate(value)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+    }
+
+    private static class OrEvaluator extends JsonEvaluator {
+
+        private final JsonEvaluator[] children;
+
+        OrEvaluator(@NonNull JsonEvaluator[] children) {
+            this.children = children;
+        }
+
+        @Override
+        boolean evaluate(@NonNull JsonValue value) {
+            for (JsonEvaluator child : children) {
+                if (child.evaluate(value)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
@@ -4,9 +4,6 @@ package com.urbanairship.json;
 
 import com.urbanairship.Logger;
 
-import org.json.JSONException;
-import org.json.JSONStringer;
-
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -151,30 +148,14 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
     @Override
     public String toString() {
         try {
-            JSONStringer stringer = new JSONStringer();
-            write(stringer);
-            return stringer.toString();
-        } catch (JSONException e) {
+            return JsonWriter.toJsonString(toJsonValue());
+        } catch (IllegalArgumentException e) {
             // Should never happen
             Logger.error(e, "JsonList - Failed to create JSON String.");
             return "";
         }
     }
 
-    /**
-     * Helper method that is used to write the list as a JSON String.
-     *
-     * @param stringer The JSONStringer object.
-     * @throws org.json.JSONException If the value is unable to be written as JSON.
-     */
-    void write(@NonNull JSONStringer stringer) throws JSONException {
-        stringer.array();
-        for (JsonValue actionValue : this) {
-            actionValue.write(stringer);
-        }
-        stringer.endArray();
-    }
-
     @NonNull
     @Override
     public JsonValue toJsonValue() {
@@ -4,9 +4,6 @@ package com.urbanairship.json;
 
 import com.urbanairship.Logger;
 
-import org.json.JSONException;
-import org.json.JSONStringer;
-
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -191,31 +188,14 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
     @Override
     public String toString() {
         try {
-            JSONStringer stringer = new JSONStringer();
-            write(stringer);
-            return stringer.toString();
-        } catch (JSONException e) {
+            return JsonWriter.toJsonString(toJsonValue());
+        } catch (IllegalArgumentException e) {
             // Should never happen
             Logger.error(e, "JsonMap - Failed to create JSON String.");
             return "";
         }
     }
 
-    /**
-     * Helper method that is used to write the value as a JSON String.
-     *
-     * @param stringer The JSONStringer object.
-     * @throws org.json.JSONException If the value is unable to be written as JSON.
-     */
-    void write(@NonNull JSONStringer stringer) throws JSONException {
-        stringer.object();
-        for (Map.Entry<String, JsonValue> entry : entrySet()) {
-            stringer.key(entry.getKey());
-            entry.getValue().write(stringer);
-        }
-        stringer.endObject();
-    }
-
     @NonNull
     @Override
     public Iterator<Map.Entry<String, JsonValue>> iterator() {
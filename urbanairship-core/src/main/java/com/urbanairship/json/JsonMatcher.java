@@ -33,11 +33,15 @@ public class JsonMatcher implements JsonSerializable, Predicate<JsonSerializable
     @Nullable
     private final Boolean ignoreCase;
 
+    @NonNull
+    private final JsonEvaluator evaluator;
+
     private JsonMatcher(@NonNull Builder builder) {
         this.key = builder.key;
         this.scopeList = builder.scope;
         this.value = builder.valueMatcher == null ? ValueMatcher.newIsPresentMatcher() : builder.valueMatcher;
         this.ignoreCase = builder.ignoreCase;
+        this.evaluator = JsonEvaluator.compileMatcher(scopeList, key, value, (ignoreCase != null) && ignoreCase);
     }
 
     @NonNull
@@ -55,18 +59,17 @@ public class JsonMatcher implements JsonSerializable, Predicate<JsonSerializable
     @Override
     public boolean apply(@Nullable JsonSerializable jsonSerializable) {
         JsonValue jsonValue = jsonSerializable == null ? JsonValue.NULL : jsonSerializable.toJsonValue();
-        for (String scope : scopeList) {
-            jsonValue = jsonValue.optMap().opt(scope);
-            if (jsonValue.isNull()) {
-                break;
-            }
-        }
-
-        if (key != null) {
-            jsonValue = jsonValue.optMap().opt(key);
-        }
+        return evaluator.evaluate(jsonValue);
+    }
 
-        return value.apply(jsonValue, (ignoreCase != null) && ignoreCase);
+    /**
+     * Gets the compiled matcher.
+     *
+     * @return The evaluator.
+     */
+    @NonNull
+    JsonEvaluator getEvaluator() {
+        return evaluator;
     }
 
     /**
@@ -49,10 +49,12 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
 
     private final List<Predicate<JsonSerializable>> items;
     private final String type;
+    private final JsonEvaluator evaluator;
 
     private JsonPredicate(Builder builder) {
         this.items = builder.items;
         this.type = builder.type;
+        this.evaluator = JsonEvaluator.compilePredicate(type, items);
     }
 
     /**
@@ -139,34 +141,17 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
 
     @Override
     public boolean apply(@Nullable JsonSerializable value) {
-        if (items.size() == 0) {
-            return true;
-        }
-
-        switch (type) {
-            case NOT_PREDICATE_TYPE:
-                return !items.get(0).apply(value);
-
-            case AND_PREDICATE_TYPE:
-                for (Predicate<JsonSerializable> item : items) {
-                    if (!item.apply(value)) {
-                        return false;
-                    }
-                }
-
-                return true;
-
-            case OR_PREDICATE_TYPE:
-            default:
-                for (Predicate<JsonSerializable> item : items) {
-                    if (item.apply(value)) {
-                        return true;
-                    }
-                }
-
-                return false;
-        }
+        return evaluator.evaluate(value == null ? JsonValue.NULL : value.toJsonValue());
+    }
 
+    /**
+     * Gets the compiled predicate.
+     *
+     * @return The evaluator.
+     */
+    @NonNull
+    JsonEvaluator getEvaluator() {
+        return evaluator;
     }
 
     /**
@@ -0,0 +1,796 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Pull-style JSON reader. Tokens are read from the underlying reader on demand, so a document can
+ * be consumed without ever holding it as a string, and {@link #readValue()} builds a
+ * {@link JsonValue} tree directly without an intermediate {@code org.json} object graph.
+ * <p>
+ * Parsed values match {@link JsonValue#wrap(Object)} of the {@code org.json} equivalent, including
+ * the leniency of {@code org.json.JSONTokener}: unquoted literals that are not keywords or numbers
+ * are read as strings, strings may be single quoted, {@code //}, {@code #} and block comments are
+ * skipped, and hex and octal integers are accepted. Whole numbers are integers or longs, other
+ * numbers are doubles, and null object members and array items are dropped. Any content after the
+ * first top-level value is ignored.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class JsonReader implements Closeable {
+
+    public static final int BEGIN_ARRAY = 0;
+    public static final int END_ARRAY = 1;
+    public static final int BEGIN_OBJECT = 2;
+    public static final int END_OBJECT = 3;
+    public static final int NAME = 4;
+    public static final int STRING = 5;
+    public static final int NUMBER = 6;
+    public static final int BOOLEAN = 7;
+    public static final int NULL = 8;
+    public static final int END_DOCUMENT = 9;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({ BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT })
+    public @interface Token {}
+
+    private static final int PEEKED_NONE = -1;
+    private static final int PEEKED_TRUE = 100;
+    private static final int PEEKED_FALSE = 101;
+    private static final int PEEKED_SINGLE_QUOTED = 102;
+    private static final int PEEKED_UNQUOTED = 103;
+    private static final int PEEKED_SINGLE_QUOTED_NAME = 104;
+    private static final int PEEKED_UNQUOTED_NAME = 105;
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Characters that end an unquoted literal, same as {@code org.json.JSONTokener}.
+     */
+    private static final String LITERAL_TERMINATORS = "{}[]/\\:,=;# \t\f\r\n";
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos = 0;
+    private int limit = 0;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    private int[] stack = new int[32];
+    private int stackSize = 0;
+
+    private int peeked = PEEKED_NONE;
+    private String peekedString;
+    private Number peekedNumber;
+
+    /**
+     * Default constructor.
+     *
+     * @param in The reader.
+     */
+    public JsonReader(@NonNull Reader in) {
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Peeks the next token without consuming it.
+     *
+     * @return The next token.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the JSON is malformed.
+     */
+    @Token
+    public int peek() throws IOException, JsonException {
+        int p = peeked == PEEKED_NONE ? doPeek() : peeked;
+        switch (p) {
+            case PEEKED_TRUE:
+            case PEEKED_FALSE:
+                return BOOLEAN;
+            case PEEKED_SINGLE_QUOTED:
+            case PEEKED_UNQUOTED:
+                return STRING;
+            case PEEKED_SINGLE_QUOTED_NAME:
+            case PEEKED_UNQUOTED_NAME:
+                return NAME;
+            default:
+                return p;
+        }
+    }
+
+    /**
+     * Consumes the start of an array.
+     *
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not the start of an array.
+     */
+    public void beginArray() throws IOException, JsonException {
+        expect(BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Consumes the end of an array.
+     *
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not the end of an array.
+     */
+    public void endArray() throws IOException, JsonException {
+        expect(END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Consumes the start of an object.
+     *
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not the start of an object.
+     */
+    public void beginObject() throws IOException, JsonException {
+        expect(BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the end of an object.
+     *
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not the end of an object.
+     */
+    public void endObject() throws IOException, JsonException {
+        expect(END_OBJECT);
+        stackSize--;
+    }
+
+    /**
+     * Checks if the current array or object has another element.
+     *
+     * @return {@code true} if there is another element, otherwise {@code false}.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the JSON is malformed.
+     */
+    public boolean hasNext() throws IOException, JsonException {
+        int p = peek();
+        return p != END_OBJECT && p != END_ARRAY && p != END_DOCUMENT;
+    }
+
+    /**
+     * Consumes the next object member name.
+     *
+     * @return The name.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not a name.
+     */
+    @NonNull
+    public String nextName() throws IOException, JsonException {
+        int p = peeked == PEEKED_NONE ? doPeek() : peeked;
+        peeked = PEEKED_NONE;
+
+        switch (p) {
+            case NAME:
+                return readString('"');
+            case PEEKED_SINGLE_QUOTED_NAME:
+                return readString('\'');
+            case PEEKED_UNQUOTED_NAME:
+                return takePeekedString();
+            default:
+                peeked = p;
+                throw syntaxError("Expected a name");
+        }
+    }
+
+    /**
+     * Consumes the next string value.
+     *
+     * @return The string.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not a string.
+     */
+    @NonNull
+    public String nextString() throws IOException, JsonException {
+        int p = peeked == PEEKED_NONE ? doPeek() : peeked;
+        peeked = PEEKED_NONE;
+
+        switch (p) {
+            case STRING:
+                return readString('"');
+            case PEEKED_SINGLE_QUOTED:
+                return readString('\'');
+            case PEEKED_UNQUOTED:
+                return takePeekedString();
+            default:
+                peeked = p;
+                throw syntaxError("Expected a string");
+        }
+    }
+
+    /**
+     * Consumes the next boolean value.
+     *
+     * @return The boolean.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not a boolean.
+     */
+    public boolean nextBoolean() throws IOException, JsonException {
+        int p = peeked == PEEKED_NONE ? doPeek() : peeked;
+        if (p != PEEKED_TRUE && p != PEEKED_FALSE) {
+            throw syntaxError("Expected a boolean");
+        }
+
+        peeked = PEEKED_NONE;
+        return p == PEEKED_TRUE;
+    }
+
+    /**
+     * Consumes the next null value.
+     *
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not a null.
+     */
+    public void nextNull() throws IOException, JsonException {
+        expect(NULL);
+    }
+
+    /**
+     * Consumes the next number value. Whole numbers are returned as an {@code Integer} or a
+     * {@code Long}, everything else as a {@code Double}.
+     *
+     * @return The number.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the next token is not a number.
+     */
+    @NonNull
+    public Number nextNumber() throws IOException, JsonException {
+        expect(NUMBER);
+        Number number = peekedNumber;
+        peekedNumber = null;
+        return number;
+    }
+
+    /**
+     * Skips the next value, including any nested arrays or objects.
+     *
+     * @throws IOException If the read fails.
+     * @throws JsonException If the JSON is malformed.
+     */
+    public void skipValue() throws IOException, JsonException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    nextString();
+                    break;
+                case NUMBER:
+                    nextNumber();
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                case END_DOCUMENT:
+                default:
+                    throw syntaxError("Unexpected end of input");
+            }
+        } while (depth != 0);
+    }
+
+    /**
+     * Reads the next value as a {@link JsonValue} tree.
+     *
+     * @return The value.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the JSON is malformed or contains an invalid value.
+     */
+    @NonNull
+    public JsonValue readValue() throws IOException, JsonException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                Map<String, JsonValue> map = new HashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    JsonValue value = readValue();
+                    if (value.isNull()) {
+                        map.remove(name);
+                    } else {
+                        map.put(name, value);
+                    }
+                }
+                endObject();
+                return JsonValue.wrap(new JsonMap(map));
+
+            case BEGIN_ARRAY:
+                List<JsonValue> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    JsonValue value = readValue();
+                    if (!value.isNull()) {
+                        list.add(value);
+                    }
+                }
+                endArray();
+                return JsonValue.wrap(new JsonList(list));
+
+            case STRING:
+                return JsonValue.wrap(nextString());
+
+            case NUMBER:
+                return JsonValue.wrap(nextNumber());
+
+            case BOOLEAN:
+                return JsonValue.wrap(nextBoolean());
+
+            case NULL:
+                nextNull();
+                return JsonValue.NULL;
+
+            case END_DOCUMENT:
+                throw syntaxError("End of input");
+
+            default:
+                throw syntaxError("Unexpected token");
+        }
+    }
+
+    /**
+     * Reads the next value, which must be an object, and returns a single member of it. All other
+     * members are skipped without building a tree.
+     *
+     * @param name The member name.
+     * @return The member value, or {@link JsonValue#NULL} if the object does not contain the member.
+     * @throws IOException If the read fails.
+     * @throws JsonException If the JSON is malformed or the value is not an object.
+     */
+    @NonNull
+    public JsonValue readMember(@NonNull String name) throws IOException, JsonException {
+        JsonValue result = JsonValue.NULL;
+        beginObject();
+        while (hasNext()) {
+            if (name.equals(nextName())) {
+                result = readValue();
+            } else {
+                skipValue();
+            }
+        }
+        endObject();
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = PEEKED_NONE;
+        peekedString = null;
+        peekedNumber = null;
+        stackSize = 0;
+        in.close();
+    }
+
+    private void expect(@Token int token) throws IOException, JsonException {
+        int p = peeked == PEEKED_NONE ? doPeek() : peeked;
+        if (p != token) {
+            throw syntaxError("Unexpected token");
+        }
+        peeked = PEEKED_NONE;
+    }
+
+    private int doPeek() throws IOException, JsonException {
+        int top = stack[stackSize - 1];
+        int c;
+
+        switch (top) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                break;
+
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = END_ARRAY;
+                } else if (c != ',' && c != ';') {
+                    throw syntaxError("Unterminated array");
+                }
+                break;
+
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                stack[stackSize - 1] = DANGLING_NAME;
+                if (top == NONEMPTY_OBJECT) {
+                    c = nextNonWhitespace();
+                    if (c == '}') {
+                        return peeked = END_OBJECT;
+                    } else if (c != ',' && c != ';') {
+                        throw syntaxError("Unterminated object");
+                    }
+                }
+
+                c = nextNonWhitespace();
+                switch (c) {
+                    case '"':
+                        return peeked = NAME;
+                    case '\'':
+                        return peeked = PEEKED_SINGLE_QUOTED_NAME;
+                    case '}':
+                        if (top == EMPTY_OBJECT) {
+                            return peeked = END_OBJECT;
+                        }
+                        throw syntaxError("Expected name");
+                    default:
+                        pos--;
+                        if (peekLiteral() != PEEKED_UNQUOTED) {
+                            throw syntaxError("Names must be strings");
+                        }
+                        return peeked = PEEKED_UNQUOTED_NAME;
+                }
+
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                c = nextNonWhitespace();
+                if (c == '=') {
+                    // JSONTokener also accepts "=" and "=>"
+                    if ((pos < limit || fillBuffer(1)) && buffer[pos] == '>') {
+                        pos++;
+                    }
+                } else if (c != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                break;
+
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+
+            case NONEMPTY_DOCUMENT:
+            default:
+                return peeked = END_DOCUMENT;
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case ']':
+                if (top == EMPTY_ARRAY) {
+                    return peeked = END_ARRAY;
+                }
+                // fall through, a trailing separator means null
+            case ',':
+            case ';':
+                if (top == EMPTY_ARRAY || top == NONEMPTY_ARRAY) {
+                    // A separator without a value means null
+                    pos--;
+                    return peeked = NULL;
+                }
+                throw syntaxError("Unexpected value");
+
+            case '"':
+                return peeked = STRING;
+
+            case '\'':
+                return peeked = PEEKED_SINGLE_QUOTED;
+
+            case '[':
+                return peeked = BEGIN_ARRAY;
+
+            case '{':
+                return peeked = BEGIN_OBJECT;
+
+            default:
+                pos--;
+                return peeked = peekLiteral();
+        }
+    }
+
+    /**
+     * Reads an unquoted literal the same way as {@code org.json.JSONTokener}: keywords ignore case,
+     * integers may be hex or octal, and anything that is not a keyword or a number is a string.
+     */
+    private int peekLiteral() throws IOException, JsonException {
+        builder.setLength(0);
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos];
+            if (LITERAL_TERMINATORS.indexOf(c) != -1) {
+                break;
+            }
+            builder.append(c);
+            pos++;
+        }
+
+        String literal = builder.toString().trim();
+        if (literal.length() == 0) {
+            throw syntaxError("Expected literal value");
+        }
+
+        if ("null".equalsIgnoreCase(literal)) {
+            return NULL;
+        }
+
+        if ("true".equalsIgnoreCase(literal)) {
+            return PEEKED_TRUE;
+        }
+
+        if ("false".equalsIgnoreCase(literal)) {
+            return PEEKED_FALSE;
+        }
+
+        if (literal.indexOf('.') == -1) {
+            int radix = 10;
+            String digits = literal;
+            if (digits.startsWith("0x") || digits.startsWith("0X")) {
+                digits = digits.substring(2);
+                radix = 16;
+            } else if (digits.startsWith("0") && digits.length() > 1) {
+                digits = digits.substring(1);
+                radix = 8;
+            }
+
+            try {
+                long value = Long.parseLong(digits, radix);
+                if (value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE) {
+                    peekedNumber = (int) value;
+                } else {
+                    peekedNumber = value;
+                }
+                return NUMBER;
+            } catch (NumberFormatException e) {
+                // Too large for a long, an exponent, or not a number, fall through to a double
+            }
+        }
+
+        try {
+            peekedNumber = Double.valueOf(literal);
+            return NUMBER;
+        } catch (NumberFormatException e) {
+            // Unquoted string
+        }
+
+        peekedString = literal;
+        return PEEKED_UNQUOTED;
+    }
+
+    @NonNull
+    private String takePeekedString() {
+        String result = peekedString;
+        peekedString = null;
+        return result;
+    }
+
+    /**
+     * Reads a string after its opening quote has been consumed.
+     *
+     * @param quote The quote character that ends the string.
+     */
+    @NonNull
+    private String readString(char quote) throws IOException, JsonException {
+        builder.setLength(0);
+
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == quote) {
+                    if (builder.length() == 0) {
+                        // Common case, no escapes and the whole string is in the buffer
+                        return new String(buffer, start, pos - start - 1);
+                    }
+
+                    builder.append(buffer, start, pos - start - 1);
+                    return builder.toString();
+                } else if (c == '\\') {
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscapeCharacter());
+                    start = pos;
+                }
+            }
+
+            builder.append(buffer, start, pos - start);
+            if (!fillBuffer(1)) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscapeCharacter() throws IOException, JsonException {
+        if (pos == limit && !fillBuffer(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+
+        char escaped = buffer[pos++];
+        switch (escaped) {
+            case 'u':
+                int result = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fillBuffer(1)) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid escape sequence");
+                    }
+                    result = (result << 4) + digit;
+                }
+                return (char) result;
+
+            case 't':
+                return '\t';
+
+            case 'b':
+                return '\b';
+
+            case 'n':
+                return '\n';
+
+            case 'r':
+                return '\r';
+
+            case 'f':
+                return '\f';
+
+            default:
+                // Quotes, slashes, and any other escaped character stand for themselves
+                return escaped;
+        }
+    }
+
+    /**
+     * Gets the next character that is not whitespace or part of a comment and consumes it.
+     *
+     * @return The character.
+     */
+    private int nextNonWhitespace() throws IOException, JsonException {
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos++];
+            switch (c) {
+                case ' ':
+                case '\n':
+                case '\r':
+                case '\t':
+                    continue;
+
+                case '#':
+                    skipToEndOfLine();
+                    continue;
+
+                case '/':
+                    if (pos == limit) {
+                        // Keep the '/' in the buffer so it can be pushed back by the caller
+                        pos--;
+                        boolean loaded = fillBuffer(2);
+                        pos++;
+                        if (!loaded) {
+                            return c;
+                        }
+                    }
+
+                    if (buffer[pos] == '*') {
+                        pos++;
+                        skipBlockComment();
+                        continue;
+                    } else if (buffer[pos] == '/') {
+                        pos++;
+                        skipToEndOfLine();
+                        continue;
+                    }
+                    return c;
+
+                default:
+                    return c;
+            }
+        }
+
+        throw syntaxError("End of input");
+    }
+
+    private void skipToEndOfLine() throws IOException {
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos++];
+            if (c == '\r' || c == '\n') {
+                return;
+            }
+        }
+    }
+
+    private void skipBlockComment() throws IOException, JsonException {
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos++];
+            if (c == '*') {
+                if (pos == limit) {
+                    pos--;
+                    boolean loaded = fillBuffer(2);
+                    pos++;
+                    if (!loaded) {
+                        break;
+                    }
+                }
+
+                if (buffer[pos] == '/') {
+                    pos++;
+                    return;
+                }
+            }
+        }
+
+        throw syntaxError("Unterminated comment");
+    }
+
+    /**
+     * Refills the buffer, keeping any characters that have not been consumed yet.
+     *
+     * @param minimum The minimum number of characters to have in the buffer.
+     * @return {@code true} if the buffer holds at least {@code minimum} characters, otherwise {@code false}.
+     */
+    private boolean fillBuffer(int minimum) throws IOException {
+        if (pos != limit) {
+            limit -= pos;
+            System.arraycopy(buffer, pos, buffer, 0, limit);
+        } else {
+            limit = 0;
+        }
+        pos = 0;
+
+        int count;
+        while ((count = in.read(buffer, limit, buffer.length - limit)) != -1) {
+            limit += count;
+            if (limit >= minimum) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void push(int newTop) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = newTop;
+    }
+
+    @NonNull
+    private JsonException syntaxError(@NonNull String message) {
+        return new JsonException(message + " at character " + pos);
+    }
+
+}
@@ -9,11 +9,11 @@ import com.urbanairship.Logger;
 import com.urbanairship.util.UAStringUtil;
 
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONStringer;
-import org.json.JSONTokener;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -388,11 +388,9 @@ public class JsonValue implements Parcelable, JsonSerializable {
             return JsonValue.NULL;
         }
 
-        JSONTokener tokener = new JSONTokener(jsonString);
-
         try {
-            return JsonValue.wrap(tokener.nextValue());
-        } catch (JSONException e) {
+            return new JsonReader(new StringReader(jsonString)).readValue();
+        } catch (JsonException | IOException e) {
             throw new JsonException("Unable to parse string", e);
         }
     }
@@ -447,11 +445,11 @@ public class JsonValue implements Parcelable, JsonSerializable {
 
         try {
             if (value instanceof String) {
-                return JSONObject.quote((String) value);
+                return JsonWriter.quote((String) value);
             }
 
             if (value instanceof Number) {
-                return JSONObject.numberToString((Number) value);
+                return JsonWriter.numberToString((Number) value);
             }
 
             if (value instanceof JsonMap || value instanceof JsonList) {
@@ -459,7 +457,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
             }
 
             return String.valueOf(value);
-        } catch (JSONException e) {
+        } catch (IllegalArgumentException e) {
             // Should never happen
             Logger.error(e, "JsonValue - Failed to create JSON String.");
             return "";
@@ -467,24 +465,13 @@ public class JsonValue implements Parcelable, JsonSerializable {
     }
 
     /**
-     * Helper method that is used to write the value as a JSON String.
+     * Writes the value as JSON without building the encoded string.
      *
-     * @param stringer The JSONStringer object.
-     * @throws JSONException If the value is unable to be written as JSON.
+     * @param writer The writer.
+     * @throws IOException If the write fails.
      */
-    void write(@NonNull JSONStringer stringer) throws JSONException {
-        if (isNull()) {
-            stringer.value(null);
-            return;
-        }
-
-        if (value instanceof JsonList) {
-            ((JsonList) value).write(stringer);
-        } else if (value instanceof JsonMap) {
-            ((JsonMap) value).write(stringer);
-        } else {
-            stringer.value(value);
-        }
+    void write(@NonNull Writer writer) throws IOException {
+        new JsonWriter(writer).value(this).flush();
     }
 
     /**
@@ -0,0 +1,518 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Push-style JSON writer. Values are written directly to the underlying writer as they are
+ * pushed, so large documents never need to be held in memory as a tree or a string.
+ * <p>
+ * Output matches {@code org.json.JSONStringer}: forward slashes are escaped and whole numbers
+ * stored as doubles are written without a fraction.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int NONEMPTY_OBJECT = 5;
+    private static final int EMPTY_DOCUMENT = 6;
+    private static final int NONEMPTY_DOCUMENT = 7;
+
+    private final Writer out;
+    private int[] stack = new int[32];
+    private int stackSize = 0;
+
+    /**
+     * Default constructor.
+     *
+     * @param out The writer.
+     */
+    public JsonWriter(@NonNull Writer out) {
+        this.out = out;
+        push(EMPTY_DOCUMENT);
+    }
+
+    /**
+     * Begins an array.
+     *
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        out.write('[');
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    /**
+     * Begins an object.
+     *
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        out.write('{');
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    /**
+     * Writes an object member name.
+     *
+     * @param name The name.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter name(@NonNull String name) throws IOException {
+        int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            out.write(',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+
+        replaceTop(DANGLING_NAME);
+        writeString(name);
+        out.write(':');
+        return this;
+    }
+
+    /**
+     * Writes a string value.
+     *
+     * @param value The value, or {@code null} to write a JSON null.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter value(@Nullable String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value The value.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a long value.
+     *
+     * @param value The value.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a number value.
+     *
+     * @param value The value.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     * @throws IllegalArgumentException If the value is NaN or infinite.
+     */
+    @NonNull
+    public JsonWriter value(@NonNull Number value) throws IOException {
+        beforeValue();
+        out.write(numberToString(value));
+        return this;
+    }
+
+    /**
+     * Writes a JSON null.
+     *
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    /**
+     * Writes a value that is already JSON encoded without parsing it.
+     *
+     * @param json The JSON encoded value.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter rawValue(@NonNull String json) throws IOException {
+        beforeValue();
+        out.write(json);
+        return this;
+    }
+
+    /**
+     * Writes a JSON value tree.
+     *
+     * @param value The value.
+     * @return The writer.
+     * @throws IOException If the write fails.
+     */
+    @NonNull
+    public JsonWriter value(@Nullable JsonValue value) throws IOException {
+        if (value == null || value.isNull()) {
+            return nullValue();
+        }
+
+        Object object = value.getValue();
+        if (object instanceof JsonMap) {
+            beginObject();
+            for (Map.Entry<String, JsonValue> entry : (JsonMap) object) {
+                name(entry.getKey());
+                value(entry.getValue());
+            }
+            return endObject();
+        }
+
+        if (object instanceof JsonList) {
+            beginArray();
+            for (JsonValue item : (JsonList) object) {
+                value(item);
+            }
+            return endArray();
+        }
+
+        if (object instanceof String) {
+            return value((String) object);
+        }
+
+        if (object instanceof Boolean) {
+            return value(((Boolean) object).booleanValue());
+        }
+
+        if (object instanceof Number) {
+            return value((Number) object);
+        }
+
+        return value(String.valueOf(object));
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Encodes a value to a JSON string. The value is written to an unsynchronized buffer, unlike
+     * {@link java.io.StringWriter} which locks on every write.
+     *
+     * @param value The value.
+     * @return The JSON string.
+     * @throws IllegalArgumentException If the value contains a NaN or infinite number.
+     */
+    @NonNull
+    static String toJsonString(@NonNull JsonValue value) {
+        StringBuilderWriter writer = new StringBuilderWriter();
+        try {
+            new JsonWriter(writer).value(value);
+        } catch (IOException e) {
+            // StringBuilderWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Quotes a string.
+     *
+     * @param value The string.
+     * @return The quoted and escaped string.
+     */
+    @NonNull
+    static String quote(@NonNull String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        try {
+            appendString(builder, value);
+        } catch (IOException e) {
+            // StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Encodes a number the same way as {@code org.json.JSONObject#numberToString(Number)}.
+     *
+     * @param number The number.
+     * @return The encoded number.
+     * @throws IllegalArgumentException If the number is NaN or infinite.
+     */
+    @NonNull
+    static String numberToString(@NonNull Number number) {
+        double doubleValue = number.doubleValue();
+        if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+            throw new IllegalArgumentException("Forbidden numeric value: " + number);
+        }
+
+        if (number.equals(-0.0d)) {
+            return "-0";
+        }
+
+        long longValue = number.longValue();
+        if (doubleValue == (double) longValue) {
+            return Long.toString(longValue);
+        }
+
+        return number.toString();
+    }
+
+    private void writeString(@NonNull String value) throws IOException {
+        appendString(out, value);
+    }
+
+    private static void appendString(@NonNull Appendable out, @NonNull String value) throws IOException {
+        out.append('"');
+
+        // Characters that do not need escaping are appended in runs
+        int start = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '"':
+                    replacement = "\\\"";
+                    break;
+
+                case '\\':
+                    replacement = "\\\\";
+                    break;
+
+                case '/':
+                    replacement = "\\/";
+                    break;
+
+                case '\t':
+                    replacement = "\\t";
+                    break;
+
+                case '\b':
+                    replacement = "\\b";
+                    break;
+
+                case '\n':
+                    replacement = "\\n";
+                    break;
+
+                case '\r':
+                    replacement = "\\r";
+                    break;
+
+                case '\f':
+                    replacement = "\\f";
+                    break;
+
+                default:
+                    if (c > 0x1F) {
+                        continue;
+                    }
+                    replacement = String.format(Locale.ROOT, "\\u%04x", (int) c);
+                    break;
+            }
+
+            if (start < i) {
+                out.append(value, start, i);
+            }
+            out.append(replacement);
+            start = i + 1;
+        }
+
+        if (start < value.length()) {
+            out.append(value, start, value.length());
+        }
+
+        out.append('"');
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case NONEMPTY_DOCUMENT:
+                throw new IllegalStateException("JSON must have only one top-level value.");
+
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                break;
+
+            case NONEMPTY_ARRAY:
+                out.write(',');
+                break;
+
+            case DANGLING_NAME:
+                replaceTop(NONEMPTY_OBJECT);
+                break;
+
+            default:
+                throw new IllegalStateException("Nesting problem.");
+        }
+    }
+
+    @NonNull
+    private JsonWriter close(int empty, int nonempty, char closeBracket) throws IOException {
+        int context = peek();
+        if (context != nonempty && context != empty) {
+            throw new IllegalStateException("Nesting problem.");
+        }
+
+        stackSize--;
+        out.write(closeBracket);
+        return this;
+    }
+
+    private void push(int newTop) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = newTop;
+    }
+
+    private int peek() {
+        if (stackSize == 0) {
+            throw new IllegalStateException("JsonWriter is closed.");
+        }
+        return stack[stackSize - 1];
+    }
+
+    private void replaceTop(int topOfStack) {
+        stack[stackSize - 1] = topOfStack;
+    }
+
+    /**
+     * Writer backed by an unsynchronized {@link StringBuilder}.
+     */
+    private static class StringBuilderWriter extends Writer {
+
+        private final StringBuilder builder = new StringBuilder();
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void write(@NonNull char[] buffer, int offset, int count) {
+            builder.append(buffer, offset, count);
+        }
+
+        @Override
+        public void write(@NonNull String string) {
+            builder.append(string);
+        }
+
+        @Override
+        public void write(@NonNull String string, int offset, int count) {
+            builder.append(string, offset, offset + count);
+        }
+
+        @NonNull
+        @Override
+        public Writer append(char c) {
+            builder.append(c);
+            return this;
+        }
+
+        @NonNull
+        @Override
+        public Writer append(@Nullable CharSequence sequence) {
+            builder.append(sequence);
+            return this;
+        }
+
+        @NonNull
+        @Override
+        public Writer append(@Nullable CharSequence sequence, int start, int end) {
+            builder.append(sequence, start, end);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+
+    }
+
+}
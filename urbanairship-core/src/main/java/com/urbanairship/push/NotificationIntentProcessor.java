@@ -22,6 +22,7 @@ import com.urbanairship.analytics.InteractiveNotificationEvent;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.PrioritizedExecutor;
 import com.urbanairship.util.UAStringUtil;
 
 import java.util.HashMap;
@@ -53,7 +54,7 @@ class NotificationIntentProcessor {
      * @param intent The intent.
      */
     NotificationIntentProcessor(@NonNull Context context, @NonNull Intent intent) {
-        this(UAirship.shared(), context, intent, AirshipExecutors.THREAD_POOL_EXECUTOR);
+        this(UAirship.shared(), context, intent, AirshipExecutors.USER_VISIBLE_EXECUTOR);
     }
 
     @VisibleForTesting
@@ -267,11 +268,15 @@ class NotificationIntentProcessor {
                                     });
                 }
 
+                // Actions run on the user visible executor by default
+                PrioritizedExecutor.beginBlocking(AirshipExecutors.USER_VISIBLE_EXECUTOR);
                 try {
                     countDownLatch.await();
                 } catch (InterruptedException e) {
                     Logger.error(e, "Failed to wait for actions");
                     Thread.currentThread().interrupt();
+                } finally {
+                    PrioritizedExecutor.endBlocking(AirshipExecutors.USER_VISIBLE_EXECUTOR);
                 }
 
                 completionHandler.run();
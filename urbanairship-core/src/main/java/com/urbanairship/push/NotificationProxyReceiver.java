@@ -10,6 +10,7 @@ import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Autopilot;
 import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
+import com.urbanairship.util.PrioritizedExecutor;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -47,9 +48,10 @@ public class NotificationProxyReceiver extends BroadcastReceiver {
         final PendingResult pendingResult = goAsync();
         final Future<Boolean> future = new NotificationIntentProcessor(context, intent).process();
 
-        AirshipExecutors.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+        AirshipExecutors.USER_VISIBLE_EXECUTOR.execute(new Runnable() {
             @Override
             public void run() {
+                PrioritizedExecutor.beginBlocking();
                 try {
                     Boolean result = future.get(ACTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
                     Logger.verbose("Finished processing notification intent with result %s.", result);
@@ -58,6 +60,8 @@ public class NotificationProxyReceiver extends BroadcastReceiver {
                     Thread.currentThread().interrupt();
                 } catch (TimeoutException e) {
                     Logger.error("NotificationProxyReceiver - Application took too long to process notification intent.");
+                } finally {
+                    PrioritizedExecutor.endBlocking();
                 }
                 pendingResult.finish();
             }
@@ -11,6 +11,7 @@ import android.view.WindowManager;
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Logger;
 import com.urbanairship.util.ImageUtils;
+import com.urbanairship.util.PrioritizedExecutor;
 
 import java.net.URL;
 import java.util.concurrent.Callable;
@@ -56,7 +57,7 @@ public class NotificationUtils {
         // Big images have a max height of 240dp
         final int reqHeight = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, BIG_IMAGE_HEIGHT_DP, dm);
 
-        Future<Bitmap> future = AirshipExecutors.THREAD_POOL_EXECUTOR.submit(new Callable<Bitmap>() {
+        Future<Bitmap> future = AirshipExecutors.USER_VISIBLE_EXECUTOR.submit(new Callable<Bitmap>() {
             @Nullable
             @Override
             public Bitmap call() throws Exception {
@@ -64,6 +65,7 @@ public class NotificationUtils {
             }
         });
 
+        PrioritizedExecutor.beginBlocking(AirshipExecutors.USER_VISIBLE_EXECUTOR);
         try {
             return future.get(BIG_PICTURE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         } catch (InterruptedException | ExecutionException e) {
@@ -71,6 +73,8 @@ public class NotificationUtils {
         } catch (TimeoutException e) {
             future.cancel(true);
             Logger.error("Big picture took longer than %s seconds to fetch.", BIG_PICTURE_TIMEOUT_SECONDS);
+        } finally {
+            PrioritizedExecutor.endBlocking(AirshipExecutors.USER_VISIBLE_EXECUTOR);
         }
 
         return null;
@@ -6,6 +6,7 @@ import com.urbanairship.Predicate;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -178,7 +179,9 @@ public class Observable<T> {
     }
 
     /**
-     * Maps values in an Observable stream to new values
+     * Maps values in an Observable stream to new values.
+     * <p>
+     * Consecutive map and filter operators are fused into a single observer.
      *
      * @param func The map function
      * @param <R> The type under observation of the result Observable.
@@ -186,32 +189,30 @@ public class Observable<T> {
      */
     @NonNull
     public <R> Observable<R> map(@NonNull final Function<T, R> func) {
-        return flatMap(new Function<T, Observable<R>>() {
+        return FusedObservable.<T, R>fuse(this, new Function<T, Object>() {
             @NonNull
             @Override
-            public Observable<R> apply(@NonNull T value) {
-                return just(func.apply(value));
+            public Object apply(@NonNull T value) {
+                return func.apply(value);
             }
         });
     }
 
     /**
      * Filters values out of an Observable stream that do not pass the provided predicate.
+     * <p>
+     * Consecutive map and filter operators are fused into a single observer.
      *
      * @param pred The predicate.
      * @return A filtered Observable.
      */
     @NonNull
     public Observable<T> filter(@NonNull final Predicate<T> pred) {
-        return flatMap(new Function<T, Observable<T>>() {
+        return FusedObservable.<T, T>fuse(this, new Function<T, Object>() {
             @NonNull
             @Override
-            public Observable<T> apply(@NonNull T value) {
-                if (pred.apply(value)) {
-                    return just(value);
-                } else {
-                    return empty();
-                }
+            public Object apply(@NonNull T value) {
+                return pred.apply(value) ? value : FusedObservable.FILTERED;
             }
         });
     }
@@ -223,18 +224,35 @@ public class Observable<T> {
      */
     @NonNull
     public Observable<T> distinctUntilChanged() {
-        final Holder<T> lastValue = new Holder<>();
-        return bind(new Function<T, Observable<T>>() {
+        return create(new Function<Observer<T>, Subscription>() {
             @NonNull
             @Override
-            public Observable<T> apply(@NonNull T value) {
-                if (lastValue.getValue() != null && value.equals(lastValue.getValue())) {
-                    return empty();
-                }
+            public Subscription apply(@NonNull final Observer<T> observer) {
+                return subscribe(new Observer<T>() {
+                    private T lastValue;
+
+                    @Override
+                    public void onNext(@NonNull T value) {
+                        synchronized (this) {
+                            if (lastValue != null && value.equals(lastValue)) {
+                                return;
+                            }
+                            lastValue = value;
+                        }
 
-                lastValue.setValue(value);
+                        observer.onNext(value);
+                    }
 
-                return just(value);
+                    @Override
+                    public void onCompleted() {
+                        observer.onCompleted();
+                    }
+
+                    @Override
+                    public void onError(@NonNull Exception e) {
+                        observer.onError(e);
+                    }
+                });
             }
         });
     }
@@ -369,25 +387,44 @@ public class Observable<T> {
      */
     @NonNull
     public static <T> Observable<T> merge(@NonNull final Observable<T> lh, @NonNull final Observable<T> rh) {
+        return merge(Arrays.asList(lh, rh));
+    }
+
+    /**
+     * Merges the values of a collection of Observables in the order they are received.
+     *
+     * @param observables The observables
+     * @param <T> The type under observation.
+     * @return A merged Observable
+     */
+    @NonNull
+    public static <T> Observable<T> merge(@NonNull final Collection<Observable<T>> observables) {
         return create(new Function<Observer<T>, Subscription>() {
             @NonNull
             @Override
             public Subscription apply(@NonNull final Observer<T> observer) {
+                final Object lock = new Object();
+                final int count = observables.size();
                 final AtomicInteger completed = new AtomicInteger(0);
                 final CompoundSubscription compoundSubscription = new CompoundSubscription();
 
+                if (count == 0) {
+                    observer.onCompleted();
+                    return compoundSubscription;
+                }
+
                 final Observer<T> innerObserver = new Observer<T>() {
                     @Override
                     public void onNext(@NonNull T value) {
-                        synchronized (observer) {
+                        synchronized (lock) {
                             observer.onNext(value);
                         }
                     }
 
                     @Override
                     public void onCompleted() {
-                        synchronized (observer) {
-                            if (completed.incrementAndGet() == 2) {
+                        synchronized (lock) {
+                            if (completed.incrementAndGet() == count) {
                                 observer.onCompleted();
                             }
                         }
@@ -395,37 +432,22 @@ public class Observable<T> {
 
                     @Override
                     public void onError(@NonNull Exception e) {
-                        synchronized (observer) {
+                        synchronized (lock) {
                             compoundSubscription.cancel();
                             observer.onError(e);
                         }
                     }
                 };
 
-                compoundSubscription.add(lh.subscribe(innerObserver));
-                compoundSubscription.add(rh.subscribe(innerObserver));
+                for (Observable<T> observable : observables) {
+                    compoundSubscription.add(observable.subscribe(innerObserver));
+                }
 
                 return compoundSubscription;
             }
         });
     }
 
-    /**
-     * Merges the values of a collection of Observables in the order they are received.
-     *
-     * @param observables The observables
-     * @param <T> The type under observation.
-     * @return A merged Observable
-     */
-    @NonNull
-    public static <T> Observable<T> merge(@NonNull Collection<Observable<T>> observables) {
-        Observable<T> next = empty();
-        for (Observable<T> observable : observables) {
-            next = merge(next, observable);
-        }
-        return next;
-    }
-
     /**
      * Concatenates values from two Observables, by subscribing to left-hand Observable first and
      * subscribing to the right-hand Observable once the first has completed.
@@ -664,6 +686,84 @@ public class Observable<T> {
         });
     }
 
+    /**
+     * Observable for a chain of map and filter operators. Each value passes through the fused
+     * transform in a single observer, without allocating intermediate Observables.
+     *
+     * @param <S> The source type.
+     * @param <T> The type under observation.
+     */
+    private static class FusedObservable<S, T> extends Observable<T> {
+
+        /**
+         * Returned by a transform to drop the value.
+         */
+        static final Object FILTERED = new Object();
+
+        private final Observable<S> source;
+        private final Function<S, Object> transform;
+
+        private FusedObservable(@NonNull Observable<S> source, @NonNull Function<S, Object> transform) {
+            this.source = source;
+            this.transform = transform;
+        }
+
+        /**
+         * Appends a transform to an observable, fusing it with the observable's own transform
+         * if it is already a fused observable.
+         *
+         * @param observable The observable.
+         * @param next The transform. Returns {@link #FILTERED} to drop the value.
+         * @return The fused observable.
+         */
+        @NonNull
+        @SuppressWarnings("unchecked")
+        static <T, R> Observable<R> fuse(@NonNull Observable<T> observable, @NonNull final Function<T, Object> next) {
+            if (!(observable instanceof FusedObservable)) {
+                return new FusedObservable<T, R>(observable, next);
+            }
+
+            final FusedObservable<Object, T> fused = (FusedObservable<Object, T>) observable;
+            return new FusedObservable<Object, R>(fused.source, new Function<Object, Object>() {
+                @NonNull
+                @Override
+                public Object apply(@NonNull Object value) {
+                    Object result = fused.transform.apply(value);
+                    if (result == FILTERED) {
+                        return FILTERED;
+                    }
+                    return next.apply((T) result);
+                }
+            });
+        }
+
+        @NonNull
+        @Override
+        public Subscription subscribe(@NonNull final Observer<T> observer) {
+            return source.subscribe(new Observer<S>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void onNext(@NonNull S value) {
+                    Object result = transform.apply(value);
+                    if (result != FILTERED) {
+                        observer.onNext((T) result);
+                    }
+                }
+
+                @Override
+                public void onCompleted() {
+                    observer.onCompleted();
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    observer.onError(e);
+                }
+            });
+        }
+
+    }
+
     /**
      * Generic value holder class.
      *
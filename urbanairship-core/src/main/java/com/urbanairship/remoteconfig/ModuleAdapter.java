@@ -13,6 +13,7 @@ import com.urbanairship.json.JsonMap;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import androidx.annotation.NonNull;
@@ -24,6 +25,7 @@ import androidx.annotation.Nullable;
 class ModuleAdapter {
 
     private SparseArray<Set<AirshipComponent>> componentGroupMap = null;
+    private int componentCount;
 
     /**
      * Enables/disables airship components that map to the module name.
@@ -91,8 +93,11 @@ class ModuleAdapter {
 
     @NonNull
     private Set<AirshipComponent> getComponentsByGroup(@AirshipComponentGroups.Group int group) {
-        if (componentGroupMap == null) {
-            componentGroupMap = createComponentGroupMap(UAirship.shared().getComponents());
+        // Deferred modules add their components after take off
+        List<AirshipComponent> components = UAirship.shared().getComponents();
+        if (componentGroupMap == null || componentCount != components.size()) {
+            componentGroupMap = createComponentGroupMap(components);
+            componentCount = components.size();
         }
 
         return componentGroupMap.get(group, Collections.<AirshipComponent>emptySet());
@@ -71,6 +71,7 @@ public class RemoteConfigManager extends AirshipComponent {
     private final ModuleAdapter moduleAdapter;
     private Subscription subscription;
     private RemoteAirshipConfig remoteAirshipConfig;
+    private volatile JsonMap lastConfig;
 
     /**
      * Default constructor.
@@ -115,6 +116,7 @@ public class RemoteConfigManager extends AirshipComponent {
                                      @Override
                                      public void onNext(@NonNull JsonMap config) {
                                          try {
+                                             lastConfig = config;
                                              processConfig(config);
                                          } catch (Exception e) {
                                              Logger.error(e, "Failed to process remote data");
@@ -123,12 +125,32 @@ public class RemoteConfigManager extends AirshipComponent {
                                  });
     }
 
+    /**
+     * Applies the last processed config again so components that were added after it was
+     * processed are enabled or disabled and receive their module config.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public void onComponentsAdded() {
+        JsonMap config = lastConfig;
+        if (config == null) {
+            return;
+        }
+
+        try {
+            processConfig(config);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to process remote data");
+        }
+    }
+
     /**
      * Processes the remote config.
      *
      * @param config The remote data config.
      */
-    private void processConfig(@NonNull JsonMap config) {
+    private synchronized void processConfig(@NonNull JsonMap config) {
         List<DisableInfo> disableInfos = new ArrayList<>();
         Map<String, JsonValue> moduleConfigs = new HashMap<>();
 
@@ -10,6 +10,7 @@ import android.os.HandlerThread;
 import com.urbanairship.AirshipComponent;
 import com.urbanairship.Logger;
 import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.Predicate;
 import com.urbanairship.UAirship;
 import com.urbanairship.app.ActivityMonitor;
 import com.urbanairship.app.ApplicationListener;
@@ -112,7 +113,7 @@ public class RemoteData extends AirshipComponent {
     private final RemoteDataApiClient apiClient;
 
     @VisibleForTesting
-    final Subject<Set<RemoteDataPayload>> payloadUpdates;
+    final Subject<ChangeSet> payloadUpdates;
 
     @VisibleForTesting
     final HandlerThread backgroundThread;
@@ -311,7 +312,20 @@ public class RemoteData extends AirshipComponent {
      */
     @NonNull
     public Observable<Collection<RemoteDataPayload>> payloadsForTypes(@NonNull final Collection<String> types) {
-        return Observable.concat(cachedPayloads(types), payloadUpdates)
+        Observable<Set<RemoteDataPayload>> updates = payloadUpdates.filter(new Predicate<ChangeSet>() {
+            @Override
+            public boolean apply(ChangeSet changeSet) {
+                return !Collections.disjoint(changeSet.changedTypes, types);
+            }
+        }).map(new Function<ChangeSet, Set<RemoteDataPayload>>() {
+            @NonNull
+            @Override
+            public Set<RemoteDataPayload> apply(@NonNull ChangeSet changeSet) {
+                return changeSet.payloads;
+            }
+        });
+
+        return Observable.concat(cachedPayloads(types), updates)
                          .map(new Function<Set<RemoteDataPayload>, Map<String, Collection<RemoteDataPayload>>>() {
                              @NonNull
                              @Override
@@ -443,10 +457,13 @@ public class RemoteData extends AirshipComponent {
         if (response.isSuccessful()) {
             JsonMap metadata = createMetadata(response.getResult().url);
             Set<RemoteDataPayload> remoteDataPayloads = response.getResult().payloads;
-            if (saveNewPayloads(remoteDataPayloads)) {
+            Set<String> changedTypes = dataStore.updatePayloads(remoteDataPayloads);
+            if (changedTypes != null) {
                 preferenceDataStore.put(LAST_REFRESH_METADATA, metadata);
                 preferenceDataStore.put(LAST_MODIFIED_KEY, response.getResponseHeader("Last-Modified"));
-                notifyPayloadUpdates(remoteDataPayloads);
+                if (!changedTypes.isEmpty()) {
+                    notifyPayloadUpdates(new ChangeSet(changedTypes, remoteDataPayloads));
+                }
                 onRefreshFinished();
                 return JobInfo.JOB_FINISHED;
             }
@@ -465,15 +482,11 @@ public class RemoteData extends AirshipComponent {
         preferenceDataStore.put(LAST_REFRESH_TIME_KEY, clock.currentTimeMillis());
     }
 
-    private boolean saveNewPayloads(@NonNull final Set<RemoteDataPayload> payloads) {
-        return dataStore.deletePayloads() && dataStore.savePayloads(payloads);
-    }
-
-    private void notifyPayloadUpdates(@NonNull final Set<RemoteDataPayload> payloads) {
+    private void notifyPayloadUpdates(@NonNull final ChangeSet changeSet) {
         backgroundHandler.post(new Runnable() {
             @Override
             public void run() {
-                payloadUpdates.onNext(payloads);
+                payloadUpdates.onNext(changeSet);
             }
         });
     }
@@ -485,4 +498,19 @@ public class RemoteData extends AirshipComponent {
                       .build();
     }
 
+    /**
+     * A refresh result. Only subscribers of the changed types are notified.
+     */
+    static class ChangeSet {
+
+        final Set<String> changedTypes;
+        final Set<RemoteDataPayload> payloads;
+
+        ChangeSet(@NonNull Set<String> changedTypes, @NonNull Set<RemoteDataPayload> payloads) {
+            this.changedTypes = changedTypes;
+            this.payloads = payloads;
+        }
+
+    }
+
 }
@@ -13,13 +13,15 @@ import com.urbanairship.http.Request;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.RequestFactory;
 import com.urbanairship.http.Response;
-import com.urbanairship.http.ResponseParser;
+import com.urbanairship.http.ResponseStreamParser;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonList;
-import com.urbanairship.json.JsonValue;
+import com.urbanairship.json.JsonReader;
 import com.urbanairship.push.PushProvider;
 import com.urbanairship.util.UAStringUtil;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashSet;
@@ -127,11 +129,16 @@ public class RemoteDataApiClient {
             request.setHeader("If-Modified-Since", lastModified);
         }
 
-        return request.execute(new ResponseParser<Result>() {
+        return request.execute(new ResponseStreamParser<Result>() {
             @Override
-            public Result parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable String responseBody) throws Exception {
+            public Result parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable InputStream responseBody) throws Exception {
                 if (status == 200) {
-                    JsonList payloads = JsonValue.parseString(responseBody).optMap().opt("payloads").getList();
+                    if (responseBody == null) {
+                        throw new JsonException("Response does not contain payloads");
+                    }
+
+                    JsonReader reader = new JsonReader(new InputStreamReader(responseBody, "UTF-8"));
+                    JsonList payloads = reader.readMember("payloads").getList();
                     if (payloads == null) {
                         throw new JsonException("Response does not contain payloads");
                     }
@@ -14,9 +14,13 @@ import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.DataManager;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import androidx.annotation.NonNull;
@@ -47,10 +51,13 @@ public class RemoteDataStore extends DataManager {
     // Metadata JSON-serialized data.
     private static final String COLUMN_NAME_METADATA = "metadata";
 
+    // SHA-256 hash of the data and metadata
+    private static final String COLUMN_NAME_HASH = "hash";
+
     /**
      * The database version.
      */
-    private static final int DATABASE_VERSION = 2;
+    private static final int DATABASE_VERSION = 3;
 
     /**
      * RemoteDataStore constructor.
@@ -71,7 +78,8 @@ public class RemoteDataStore extends DataManager {
                 + COLUMN_NAME_TYPE + " TEXT,"
                 + COLUMN_NAME_TIMESTAMP + " INTEGER,"
                 + COLUMN_NAME_DATA + " TEXT,"
-                + COLUMN_NAME_METADATA + " TEXT"
+                + COLUMN_NAME_METADATA + " TEXT,"
+                + COLUMN_NAME_HASH + " TEXT"
                 + ");");
     }
 
@@ -80,6 +88,10 @@ public class RemoteDataStore extends DataManager {
         switch (oldVersion) {
             case 1:
                 db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_NAME_METADATA + " TEXT;");
+                // Fall through
+            case 2:
+                // Existing rows have no hash so their types are rewritten on the next refresh
+                db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_NAME_HASH + " TEXT;");
                 break;
             default:
                 db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
@@ -115,19 +127,9 @@ public class RemoteDataStore extends DataManager {
             db.beginTransaction();
 
             for (RemoteDataPayload payload : payloads) {
-                ContentValues value = new ContentValues();
-                value.put(COLUMN_NAME_TYPE, payload.getType());
-                value.put(COLUMN_NAME_TIMESTAMP, payload.getTimestamp());
-                value.put(COLUMN_NAME_DATA, payload.getData().toString());
-                value.put(COLUMN_NAME_METADATA, payload.getMetadata().toString());
-                try {
-                    long id = db.insert(TABLE_NAME, null, value);
-                    if (id == -1) {
-                        db.endTransaction();
-                        return false;
-                    }
-                } catch (SQLException e) {
-                    Logger.error(e, "RemoteDataStore - Unable to save remote data payload.");
+                if (!insertPayload(db, payload, null)) {
+                    db.endTransaction();
+                    return false;
                 }
             }
 
@@ -141,6 +143,169 @@ public class RemoteDataStore extends DataManager {
         return true;
     }
 
+    /**
+     * Updates the stored payloads to match the given payloads. Payloads are compared per type by
+     * their timestamps and content hashes, and only the types that were added, changed, or removed
+     * are written.
+     *
+     * @param payloads The new payloads.
+     * @return The changed payload types, or {@code null} if the update failed.
+     */
+    @Nullable
+    Set<String> updatePayloads(@NonNull Set<RemoteDataPayload> payloads) {
+        Map<String, List<RemoteDataPayload>> payloadsByType = new HashMap<>();
+        Map<String, Set<String>> newSignatures = new HashMap<>();
+        Map<RemoteDataPayload, String> hashes = new HashMap<>();
+        for (RemoteDataPayload payload : payloads) {
+            List<RemoteDataPayload> typePayloads = payloadsByType.get(payload.getType());
+            if (typePayloads == null) {
+                typePayloads = new ArrayList<>();
+                payloadsByType.put(payload.getType(), typePayloads);
+                newSignatures.put(payload.getType(), new HashSet<String>());
+            }
+
+            String hash = createHash(payload);
+            hashes.put(payload, hash);
+            typePayloads.add(payload);
+            newSignatures.get(payload.getType()).add(createSignature(payload.getTimestamp(), hash));
+        }
+
+        Map<String, Set<String>> storedSignatures = getPayloadSignatures();
+        if (storedSignatures == null) {
+            return null;
+        }
+
+        Set<String> changedTypes = new HashSet<>();
+        for (Map.Entry<String, Set<String>> entry : newSignatures.entrySet()) {
+            if (!entry.getValue().equals(storedSignatures.get(entry.getKey()))) {
+                changedTypes.add(entry.getKey());
+            }
+        }
+
+        for (String type : storedSignatures.keySet()) {
+            if (!newSignatures.containsKey(type)) {
+                changedTypes.add(type);
+            }
+        }
+
+        if (changedTypes.isEmpty()) {
+            return changedTypes;
+        }
+
+        final SQLiteDatabase db = getWritableDatabase();
+        if (db == null) {
+            Logger.error("RemoteDataStore - Unable to update remote data payloads.");
+            return null;
+        }
+
+        try {
+            db.beginTransaction();
+
+            for (String type : changedTypes) {
+                db.delete(TABLE_NAME, COLUMN_NAME_TYPE + " = ?", new String[] { type });
+
+                List<RemoteDataPayload> typePayloads = payloadsByType.get(type);
+                if (typePayloads == null) {
+                    continue;
+                }
+
+                for (RemoteDataPayload payload : typePayloads) {
+                    if (!insertPayload(db, payload, hashes.get(payload))) {
+                        db.endTransaction();
+                        return null;
+                    }
+                }
+            }
+
+            db.setTransactionSuccessful();
+            db.endTransaction();
+        } catch (SQLException e) {
+            Logger.error(e, "RemoteDataStore - Unable to update remote data payloads.");
+            return null;
+        }
+
+        Logger.verbose("RemoteDataStore - Updated payload types: %s", changedTypes);
+        return changedTypes;
+    }
+
+    /**
+     * Inserts a payload.
+     *
+     * @param db The database.
+     * @param payload The payload.
+     * @param hash The payload's hash if it was already computed, otherwise {@code null}.
+     * @return {@code false} if the insert failed, otherwise {@code true}.
+     */
+    private boolean insertPayload(@NonNull SQLiteDatabase db, @NonNull RemoteDataPayload payload, @Nullable String hash) {
+        String data = payload.getData().toString();
+        String metadata = payload.getMetadata().toString();
+        if (hash == null) {
+            hash = UAStringUtil.sha256(data + metadata);
+        }
+
+        ContentValues value = new ContentValues();
+        value.put(COLUMN_NAME_TYPE, payload.getType());
+        value.put(COLUMN_NAME_TIMESTAMP, payload.getTimestamp());
+        value.put(COLUMN_NAME_DATA, data);
+        value.put(COLUMN_NAME_METADATA, metadata);
+        value.put(COLUMN_NAME_HASH, hash);
+        try {
+            return db.insert(TABLE_NAME, null, value) != -1;
+        } catch (SQLException e) {
+            Logger.error(e, "RemoteDataStore - Unable to save remote data payload.");
+            return false;
+        }
+    }
+
+    /**
+     * Gets the timestamp and hash signatures of the stored payloads by type.
+     *
+     * @return The signatures, or {@code null} if the query failed.
+     */
+    @Nullable
+    private Map<String, Set<String>> getPayloadSignatures() {
+        Cursor cursor = null;
+
+        try {
+            cursor = this.query(TABLE_NAME, new String[] { COLUMN_NAME_TYPE, COLUMN_NAME_TIMESTAMP, COLUMN_NAME_HASH },
+                    null, null, null);
+
+            if (cursor == null) {
+                return null;
+            }
+
+            Map<String, Set<String>> signatures = new HashMap<>();
+            cursor.moveToFirst();
+            while (!cursor.isAfterLast()) {
+                String type = cursor.getString(0);
+                Set<String> typeSignatures = signatures.get(type);
+                if (typeSignatures == null) {
+                    typeSignatures = new HashSet<>();
+                    signatures.put(type, typeSignatures);
+                }
+
+                typeSignatures.add(createSignature(cursor.getLong(1), cursor.getString(2)));
+                cursor.moveToNext();
+            }
+
+            return signatures;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    @Nullable
+    private static String createHash(@NonNull RemoteDataPayload payload) {
+        return UAStringUtil.sha256(payload.getData().toString() + payload.getMetadata().toString());
+    }
+
+    @NonNull
+    private static String createSignature(long timestamp, @Nullable String hash) {
+        return timestamp + ":" + hash;
+    }
+
     /**
      * Gets all payloads.
      *
@@ -1,6 +1,7 @@
 package com.urbanairship.util;
 
 import android.net.TrafficStats;
+import android.os.Process;
 
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -27,8 +28,11 @@ public class AirshipThreadFactory implements ThreadFactory {
      */
     public static final AirshipThreadFactory DEFAULT_THREAD_FACTORY = new AirshipThreadFactory("UrbanAirship");
 
+    private static final int INHERIT_THREAD_PRIORITY = Integer.MIN_VALUE;
+
     private static final AtomicInteger count = new AtomicInteger(1);
     private final String threadNamePrefix;
+    private final int threadPriority;
 
     /**
      * Default constructor.
@@ -36,7 +40,18 @@ public class AirshipThreadFactory implements ThreadFactory {
      * @param threadNamePrefix Thread name prefix. #COUNT will be appended to the name.
      */
     public AirshipThreadFactory(@NonNull String threadNamePrefix) {
+        this(threadNamePrefix, INHERIT_THREAD_PRIORITY);
+    }
+
+    /**
+     * Creates a thread factory that sets the Linux thread priority of each thread.
+     *
+     * @param threadNamePrefix Thread name prefix. #COUNT will be appended to the name.
+     * @param threadPriority The thread priority, e.g. {@link Process#THREAD_PRIORITY_BACKGROUND}.
+     */
+    public AirshipThreadFactory(@NonNull String threadNamePrefix, int threadPriority) {
         this.threadNamePrefix = threadNamePrefix;
+        this.threadPriority = threadPriority;
     }
 
     @NonNull
@@ -46,6 +61,9 @@ public class AirshipThreadFactory implements ThreadFactory {
             @Override
             public void run() {
                 TrafficStats.setThreadStatsTag(THREAD_STATS_TAG);
+                if (threadPriority != INHERIT_THREAD_PRIORITY) {
+                    Process.setThreadPriority(threadPriority);
+                }
                 if (runnable != null) {
                     runnable.run();
                 }
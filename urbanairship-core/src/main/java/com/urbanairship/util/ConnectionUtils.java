@@ -36,6 +36,7 @@ public class ConnectionUtils {
 
     private static boolean skipInstall = false;
     private static boolean isInstalled = false;
+    private static SSLSocketFactory tlsSocketFactory;
 
     /**
      * Opens a URL connection but tries to first install the network provider through Google Play
@@ -57,7 +58,7 @@ public class ConnectionUtils {
             HttpsURLConnection httpsURLConnection = (HttpsURLConnection) connection;
 
             try {
-                httpsURLConnection.setSSLSocketFactory(TlsSocketFactory.newFactory());
+                httpsURLConnection.setSSLSocketFactory(getTlsSocketFactory());
                 Logger.debug("TlsSocketFactory set for HttpsURLConnection");
             } catch (Exception e) {
                 Logger.error(e, "Failed to create TLS SSLSocketFactory.");
@@ -67,6 +68,21 @@ public class ConnectionUtils {
         return connection;
     }
 
+    /**
+     * Gets the shared TLS socket factory. Connections are only pooled and reused if they are
+     * opened with the same socket factory.
+     *
+     * @return The TLS socket factory.
+     */
+    @NonNull
+    private synchronized static SSLSocketFactory getTlsSocketFactory() throws KeyManagementException, NoSuchAlgorithmException {
+        if (tlsSocketFactory == null) {
+            tlsSocketFactory = TlsSocketFactory.newFactory();
+        }
+
+        return tlsSocketFactory;
+    }
+
     @WorkerThread
     private synchronized static boolean installProvider(@NonNull Context context) {
         if (skipInstall) {
@@ -19,6 +19,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -35,6 +36,8 @@ public abstract class DataManager {
 
     private static final String DATABASE_DIRECTORY_NAME = "com.urbanairship.databases";
 
+    private static final String[] JOURNAL_SUFFIXES = new String[] { "-journal", "-wal", "-shm" };
+
     private static final int MAX_ATTEMPTS = 3;
     private final SQLiteOpenHelper openHelper;
     private final String path;
@@ -82,6 +85,8 @@ public abstract class DataManager {
 
             }
         };
+
+        openHelper.setWriteAheadLoggingEnabled(DatabaseStorage.isWriteAheadLoggingEnabled(context));
     }
 
     /**
@@ -224,6 +229,7 @@ public abstract class DataManager {
         for (ContentValues value : values) {
             try {
                 db.replaceOrThrow(table, null, value);
+                inserted.add(value);
             } catch (Exception ex) {
                 Logger.error(ex, "Unable to insert into database");
                 db.endTransaction();
@@ -261,6 +267,31 @@ public abstract class DataManager {
         return -1;
     }
 
+    /**
+     * Runs the callable in a single database transaction. The transaction is committed if the
+     * callable returns without throwing.
+     *
+     * @param callable The callable.
+     * @param <T> The result type.
+     * @return The callable's result.
+     * @throws Exception If the database is unavailable or the callable throws.
+     */
+    public <T> T runInTransaction(@NonNull Callable<T> callable) throws Exception {
+        SQLiteDatabase db = getWritableDatabase();
+        if (db == null) {
+            throw new SQLiteException("Unable to open database");
+        }
+
+        db.beginTransaction();
+        try {
+            T result = callable.call();
+            db.setTransactionSuccessful();
+            return result;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     /**
      * Updates a row in the database
      *
@@ -364,12 +395,7 @@ public abstract class DataManager {
     }
 
     public boolean deleteDatabase(@NonNull Context context) {
-        try {
-            return context.getDatabasePath(path).delete();
-        } catch (Exception e) {
-            Logger.error(e, "Failed to delete database: " + path);
-            return false;
-        }
+        return DatabaseStorage.deleteDatabase(context.getDatabasePath(path));
     }
 
     /**
@@ -414,11 +440,13 @@ public abstract class DataManager {
                 return oldFile.getAbsolutePath();
             }
 
-            // Move the journal file if it exists
-            File journal = new File(oldFile.getAbsolutePath() + "-journal");
-            if (journal.exists()) {
-                if (!journal.renameTo(new File(target.getAbsolutePath() + "-journal"))) {
-                    Logger.error("Failed to move the journal file: " + journal);
+            // Move the journal, WAL and shared memory files if they exist
+            for (String suffix : JOURNAL_SUFFIXES) {
+                File journal = new File(oldFile.getAbsolutePath() + suffix);
+                if (journal.exists()) {
+                    if (!journal.renameTo(new File(target.getAbsolutePath() + suffix))) {
+                        Logger.error("Failed to move the journal file: " + journal);
+                    }
                 }
             }
         }
@@ -0,0 +1,62 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.util;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.urbanairship.Logger;
+
+import java.io.File;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.core.app.ActivityManagerCompat;
+
+/**
+ * Storage policy for the SDK's {@link DataManager} databases.
+ * <p>
+ * The databases use write-ahead logging so reads no longer block behind writes, matching the
+ * journal mode Room picks by default for the SDK's Room databases. Checkpointing is left to the
+ * platform's auto checkpoint.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class DatabaseStorage {
+
+    private static Boolean isWriteAheadLoggingEnabled;
+
+    /**
+     * Checks if databases should use write-ahead logging. WAL is skipped on low RAM devices, the
+     * same as Room's automatic journal mode, since every WAL connection keeps its own page cache.
+     *
+     * @param context The application context.
+     * @return {@code true} if write-ahead logging should be enabled, otherwise {@code false}.
+     */
+    public static boolean isWriteAheadLoggingEnabled(@NonNull Context context) {
+        if (isWriteAheadLoggingEnabled == null) {
+            ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            isWriteAheadLoggingEnabled = activityManager == null || !ActivityManagerCompat.isLowRamDevice(activityManager);
+        }
+
+        return isWriteAheadLoggingEnabled;
+    }
+
+    /**
+     * Deletes a database along with its journal, WAL and shared memory files.
+     *
+     * @param file The database file.
+     * @return {@code true} if the database was deleted, otherwise {@code false}.
+     */
+    public static boolean deleteDatabase(@NonNull File file) {
+        try {
+            return SQLiteDatabase.deleteDatabase(file);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to delete database: %s", file);
+            return false;
+        }
+    }
+
+}
@@ -16,6 +16,7 @@ import java.net.URLConnection;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import androidx.annotation.WorkerThread;
 
 /**
@@ -68,7 +69,15 @@ public abstract class FileUtils {
          */
         public final boolean isSuccess;
 
-        DownloadResult(boolean isSuccess, int statusCode) {
+        /**
+         * Default constructor.
+         *
+         * @param isSuccess If the file downloaded successfully or not.
+         * @param statusCode The status code.
+         * @hide
+         */
+        @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+        public DownloadResult(boolean isSuccess, int statusCode) {
             this.isSuccess = isSuccess;
             this.statusCode = statusCode;
         }
@@ -43,6 +43,9 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
     private static final Pattern EXACT_VERSION = Pattern.compile(EXACT_VERSION_PATTERN);
     private static final Pattern SUB_VERSION = Pattern.compile(SUB_VERSION_PATTERN);
 
+    private static final int VERSION_COMPONENTS = 3;
+    private static final long INVALID_COMPONENT = Long.MIN_VALUE;
+
     private final Predicate<String> predicate;
     private final String constraint;
 
@@ -138,14 +141,14 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
         }
 
         final String endToken;
-        final Version endVersion;
+        final int[] endVersion;
         final String startToken;
-        final Version startVersion;
+        final int[] startVersion;
 
         String end = matcher.groupCount() >= 7 ? matcher.group(7) : null;
         if (!UAStringUtil.isEmpty(end)) {
             endToken = end.substring(end.length() - 1);
-            endVersion = end.length() > 1 ? new Version(end.substring(0, end.length() - 1)) : null;
+            endVersion = end.length() > 1 ? parseVersion(end.substring(0, end.length() - 1)) : null;
         } else {
             endToken = null;
             endVersion = null;
@@ -154,7 +157,7 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
         final String start = matcher.groupCount() >= 1 ? matcher.group(1) : null;
         if (!UAStringUtil.isEmpty(start)) {
             startToken = start.substring(0, 1);
-            startVersion = start.length() > 1 ? new Version(start.substring(1)) : null;
+            startVersion = start.length() > 1 ? parseVersion(start.substring(1)) : null;
         } else {
             startToken = null;
             startVersion = null;
@@ -171,23 +174,19 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
         return new Predicate<String>() {
             @Override
             public boolean apply(@NonNull String object) {
-
-                Version version;
-                try {
-                    version = new Version(object);
-                } catch (NumberFormatException e) {
+                if (!isValidVersion(object)) {
                     return false;
                 }
 
                 if (endToken != null && endVersion != null) {
                     switch (endToken) {
                         case END_INCLUSIVE:
-                            if (version.compareTo(endVersion) > 0) {
+                            if (compareVersion(object, endVersion) > 0) {
                                 return false;
                             }
                             break;
                         case END_EXCLUSIVE:
-                            if (version.compareTo(endVersion) >= 0) {
+                            if (compareVersion(object, endVersion) >= 0) {
                                 return false;
                             }
                             break;
@@ -197,12 +196,12 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
                 if (startToken != null && startVersion != null) {
                     switch (startToken) {
                         case START_INCLUSIVE:
-                            if (version.compareTo(startVersion) < 0) {
+                            if (compareVersion(object, startVersion) < 0) {
                                 return false;
                             }
                             break;
                         case START_EXCLUSIVE:
-                            if (version.compareTo(startVersion) <= 0) {
+                            if (compareVersion(object, startVersion) <= 0) {
                                 return false;
                             }
                             break;
@@ -241,37 +240,120 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
     }
 
     /**
-     * Helper class to compare version strings.
+     * Parses a range bound into its major, minor, and patch components. Bounds are already
+     * validated by the range pattern.
+     *
+     * @param version The version string.
+     * @return The version components.
      */
-    private static class Version implements Comparable<Version> {
+    @NonNull
+    private static int[] parseVersion(@NonNull String version) {
+        int[] components = new int[] { 0, 0, 0 };
+        String[] parts = version.split("\\.");
+        for (int i = 0; i < VERSION_COMPONENTS && i < parts.length; i++) {
+            components[i] = Integer.parseInt(parts[i]);
+        }
 
-        final int[] versionComponent = new int[] { 0, 0, 0 };
-        final String version;
+        return components;
+    }
 
-        public Version(String version) {
-            this.version = version;
+    /**
+     * Checks if the version's major, minor, and patch components are all valid integers. Components
+     * past the patch version are ignored, and a trailing run of separators is allowed.
+     *
+     * @param version The version string.
+     * @return {@code true} if the version can be compared, otherwise {@code false}.
+     */
+    private static boolean isValidVersion(@NonNull String version) {
+        int end = version.length();
+        while (end > 0 && version.charAt(end - 1) == '.') {
+            end--;
+        }
 
-            String[] components = version.split("\\.");
-            for (int i = 0; i < 3; i++) {
-                if (components.length <= i) {
-                    break;
-                }
-                versionComponent[i] = Integer.parseInt(components[i]);
+        if (end == 0) {
+            // Only separators is 0.0.0, an empty string is invalid
+            return version.length() > 0;
+        }
+
+        int start = 0;
+        for (int i = 0; i < VERSION_COMPONENTS && start <= end; i++) {
+            int separator = version.indexOf('.', start);
+            int componentEnd = separator < 0 || separator > end ? end : separator;
+            if (parseComponent(version, start, componentEnd) == INVALID_COMPONENT) {
+                return false;
             }
+
+            start = componentEnd + 1;
         }
 
-        @Override
-        public int compareTo(@NonNull Version version) {
-            for (int i = 0; i < 3; i++) {
-                int result = this.versionComponent[i] - version.versionComponent[i];
-                if (result != 0) {
-                    return result > 0 ? 1 : -1;
-                }
+        return true;
+    }
+
+    /**
+     * Compares a valid version string to the version components without allocating.
+     *
+     * @param version The version string.
+     * @param other The version components to compare against.
+     * @return A negative number, zero, or a positive number if the version is less than, equal to, or greater than the other version.
+     */
+    private static int compareVersion(@NonNull String version, @NonNull int[] other) {
+        int end = version.length();
+        while (end > 0 && version.charAt(end - 1) == '.') {
+            end--;
+        }
+
+        int start = 0;
+        for (int i = 0; i < VERSION_COMPONENTS; i++) {
+            long component = 0;
+            if (start <= end && end > 0) {
+                int separator = version.indexOf('.', start);
+                int componentEnd = separator < 0 || separator > end ? end : separator;
+                component = parseComponent(version, start, componentEnd);
+                start = componentEnd + 1;
+            }
+
+            if (component != other[i]) {
+                return component > other[i] ? 1 : -1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Parses a version component with the same rules as {@link Integer#parseInt(String)}.
+     *
+     * @param version The version string.
+     * @param start The start index.
+     * @param end The end index.
+     * @return The component, or {@link #INVALID_COMPONENT} if it is not a valid integer.
+     */
+    private static long parseComponent(@NonNull String version, int start, int end) {
+        boolean negative = false;
+        if (start < end && (version.charAt(start) == '-' || version.charAt(start) == '+')) {
+            negative = version.charAt(start) == '-';
+            start++;
+        }
+
+        if (start >= end) {
+            return INVALID_COMPONENT;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(version.charAt(i), 10);
+            if (digit < 0) {
+                return INVALID_COMPONENT;
             }
 
-            return 0;
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return INVALID_COMPONENT;
+            }
         }
 
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? INVALID_COMPONENT : value;
     }
 
     @Override
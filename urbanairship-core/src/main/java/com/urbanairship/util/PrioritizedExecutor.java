@@ -0,0 +1,273 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.util;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Fixed size thread pool that runs queued tasks by priority, then in the order they were
+ * submitted.
+ * <p>
+ * Idle threads time out, so the pool holds no threads while there is no work. A task that blocks
+ * a pool thread waiting on other work should wrap the wait in {@link #beginBlocking(Executor)} and
+ * {@link #endBlocking(Executor)} so the pool can start a thread in its place for the duration of
+ * the wait. If the work being waited on runs on a different prioritized executor, that executor
+ * also grows by a thread so waits across pools can not deadlock either.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class PrioritizedExecutor extends ThreadPoolExecutor {
+
+    @IntDef({ PRIORITY_LOW, PRIORITY_NORMAL, PRIORITY_HIGH })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Priority {}
+
+    /**
+     * Work that can wait, e.g. uploads and database maintenance.
+     */
+    public static final int PRIORITY_LOW = -1;
+
+    /**
+     * Default priority.
+     */
+    public static final int PRIORITY_NORMAL = 0;
+
+    /**
+     * Work the user is waiting on.
+     */
+    public static final int PRIORITY_HIGH = 1;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ThreadLocal<PrioritizedExecutor> currentExecutor = new ThreadLocal<>();
+
+    private final int defaultPriority;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong startedTaskCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final Object poolSizeLock = new Object();
+
+    /**
+     * Default constructor.
+     *
+     * @param name The thread name prefix.
+     * @param poolSize The max number of threads.
+     * @param defaultPriority The priority of tasks that are submitted without one.
+     * @param threadPriority The Linux thread priority of the pool threads.
+     */
+    public PrioritizedExecutor(@NonNull String name, int poolSize, @Priority int defaultPriority, int threadPriority) {
+        super(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(),
+                new AirshipThreadFactory(name, threadPriority));
+        this.defaultPriority = defaultPriority;
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        if (command instanceof Task) {
+            super.execute(command);
+        } else {
+            execute(command, defaultPriority);
+        }
+    }
+
+    /**
+     * Executes a runnable with the given priority.
+     *
+     * @param command The runnable.
+     * @param priority The priority.
+     */
+    public void execute(@NonNull Runnable command, @Priority int priority) {
+        super.execute(new Task(command, priority, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Submits a callable with the given priority.
+     *
+     * @param callable The callable.
+     * @param priority The priority.
+     * @param <T> The result type.
+     * @return The callable's future.
+     */
+    @NonNull
+    public <T> Future<T> submit(@NonNull Callable<T> callable, @Priority int priority) {
+        RunnableFuture<T> future = newTaskFor(callable);
+        execute(future, priority);
+        return future;
+    }
+
+    /**
+     * Called before the current thread blocks waiting on other work. If the current thread belongs
+     * to a prioritized executor, the pool grows by one thread until {@link #endBlocking()} is
+     * called so the work being waited on is not stuck behind the blocked thread.
+     * <p>
+     * Only the current thread's pool grows. Use {@link #beginBlocking(Executor)} when the work
+     * being waited on was submitted to a different executor.
+     */
+    public static void beginBlocking() {
+        beginBlocking(null);
+    }
+
+    /**
+     * Called after a wait started with {@link #beginBlocking()} finishes.
+     */
+    public static void endBlocking() {
+        endBlocking(null);
+    }
+
+    /**
+     * Called before the current thread blocks waiting on work that was submitted to the target
+     * executor. If the current thread belongs to a prioritized executor, that pool grows by one
+     * thread, and if the target is a different prioritized executor it also grows by one thread,
+     * until {@link #endBlocking(Executor)} is called.
+     * <p>
+     * Targets that are not a {@code PrioritizedExecutor}, e.g. a {@link SerialExecutor}, can not
+     * be grown, so only the current thread's pool grows for them.
+     *
+     * @param target The executor running the work being waited on, or {@code null} if unknown.
+     */
+    public static void beginBlocking(@Nullable Executor target) {
+        PrioritizedExecutor executor = currentExecutor.get();
+        if (executor == null) {
+            return;
+        }
+
+        executor.adjustPoolSize(1);
+        if (target instanceof PrioritizedExecutor && target != executor) {
+            ((PrioritizedExecutor) target).adjustPoolSize(1);
+        }
+    }
+
+    /**
+     * Called after a wait started with {@link #beginBlocking(Executor)} finishes.
+     *
+     * @param target The same target that was passed to {@link #beginBlocking(Executor)}.
+     */
+    public static void endBlocking(@Nullable Executor target) {
+        PrioritizedExecutor executor = currentExecutor.get();
+        if (executor == null) {
+            return;
+        }
+
+        executor.adjustPoolSize(-1);
+        if (target instanceof PrioritizedExecutor && target != executor) {
+            ((PrioritizedExecutor) target).adjustPoolSize(-1);
+        }
+    }
+
+    private void adjustPoolSize(int delta) {
+        synchronized (poolSizeLock) {
+            // The max size can never be less than the core size
+            if (delta > 0) {
+                setMaximumPoolSize(getMaximumPoolSize() + delta);
+                setCorePoolSize(getCorePoolSize() + delta);
+            } else {
+                setCorePoolSize(getCorePoolSize() + delta);
+                setMaximumPoolSize(getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of tasks waiting for a thread.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * Gets the number of tasks that have started.
+     *
+     * @return The started task count.
+     */
+    public long getStartedTaskCount() {
+        return startedTaskCount.get();
+    }
+
+    /**
+     * Gets the average time tasks waited for a thread.
+     *
+     * @return The average wait time in milliseconds.
+     */
+    public long getAverageWaitTimeMillis() {
+        long count = startedTaskCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+    }
+
+    /**
+     * Gets the longest time a task waited for a thread.
+     *
+     * @return The max wait time in milliseconds.
+     */
+    public long getMaxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    @Override
+    protected void beforeExecute(@NonNull Thread thread, @NonNull Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        currentExecutor.set(this);
+
+        long wait = System.nanoTime() - ((Task) runnable).enqueueTime;
+        startedTaskCount.incrementAndGet();
+        totalWaitNanos.addAndGet(wait);
+
+        long max = maxWaitNanos.get();
+        while (wait > max && !maxWaitNanos.compareAndSet(max, wait)) {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    @Override
+    protected void afterExecute(@NonNull Runnable runnable, Throwable throwable) {
+        currentExecutor.remove();
+        super.afterExecute(runnable, throwable);
+    }
+
+    private static class Task implements Runnable, Comparable<Task> {
+
+        private final Runnable runnable;
+        private final int priority;
+        private final long sequence;
+        private final long enqueueTime = System.nanoTime();
+
+        Task(@NonNull Runnable runnable, int priority, long sequence) {
+            this.runnable = runnable;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+
+        @Override
+        public int compareTo(@NonNull Task other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+
+    }
+
+}
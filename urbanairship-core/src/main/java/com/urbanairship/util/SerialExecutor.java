@@ -9,23 +9,69 @@ import androidx.annotation.RestrictTo;
 
 /**
  * Executor that executes {@link Runnable} serially on another executor.
+ * <p>
+ * Runnables are drained in batches on a single thread of the backing executor. The thread is
+ * given back between batches so a busy serial executor does not starve the rest of the pool, and
+ * no thread is held while the queue is empty.
  *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class SerialExecutor implements Executor {
 
+    private static final int MAX_BATCH_SIZE = 8;
+
     private final Executor executor;
+    private final int priority;
     private final ArrayDeque<Runnable> runnables = new ArrayDeque<>();
     private boolean isExecuting = false;
 
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            boolean isIdle = false;
+            try {
+                for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+                    Runnable next;
+                    synchronized (runnables) {
+                        next = runnables.pollFirst();
+                        if (next == null) {
+                            isExecuting = false;
+                            isIdle = true;
+                            return;
+                        }
+                    }
+
+                    next.run();
+                }
+            } finally {
+                // Hand the rest of the queue to a new task, also if a runnable threw
+                if (!isIdle) {
+                    dispatch();
+                }
+            }
+        }
+    };
+
     /**
      * Default constructor.
      *
      * @param executor The executor that performs the runnables.
      */
     public SerialExecutor(@NonNull Executor executor) {
+        this(executor, PrioritizedExecutor.PRIORITY_NORMAL);
+    }
+
+    /**
+     * Creates a serial executor that runs at the given priority if the backing executor is a
+     * {@link PrioritizedExecutor}.
+     *
+     * @param executor The executor that performs the runnables.
+     * @param priority The priority.
+     */
+    public SerialExecutor(@NonNull Executor executor, @PrioritizedExecutor.Priority int priority) {
         this.executor = executor;
+        this.priority = priority;
     }
 
     @Override
@@ -34,33 +80,26 @@ public class SerialExecutor implements Executor {
             return;
         }
 
-        Runnable wrapped = new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    runnable.run();
-                } finally {
-                    next();
-                }
-            }
-        };
-
         synchronized (runnables) {
-            runnables.offer(wrapped);
+            runnables.offer(runnable);
             if (!isExecuting) {
-                next();
+                isExecuting = true;
+                dispatch();
             }
         }
     }
 
-    private void next() {
+    private void dispatch() {
         synchronized (runnables) {
-            Runnable next = runnables.pollFirst();
-            if (next != null) {
-                isExecuting = true;
-                executor.execute(next);
-            } else {
+            if (runnables.isEmpty()) {
                 isExecuting = false;
+                return;
+            }
+
+            if (executor instanceof PrioritizedExecutor) {
+                ((PrioritizedExecutor) executor).execute(drain, priority);
+            } else {
+                executor.execute(drain);
             }
         }
     }
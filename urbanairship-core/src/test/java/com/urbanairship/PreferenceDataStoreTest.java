@@ -2,7 +2,9 @@
 
 package com.urbanairship;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.net.Uri;
 
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonSerializable;
@@ -12,14 +14,20 @@ import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PreferenceDataStoreTest extends BaseTestCase {
@@ -104,6 +112,29 @@ public class PreferenceDataStoreTest extends BaseTestCase {
         assertTrue(testPrefs.getJsonValue("value").isNull());
     }
 
+    /**
+     * Test typed values are parsed once and updated when the value changes.
+     */
+    @Test
+    public void testCachedTypedValues() {
+        testPrefs.put("value", JsonValue.wrap("first"));
+        JsonValue first = testPrefs.getJsonValue("value");
+        assertSame(first, testPrefs.getJsonValue("value"));
+
+        testPrefs.put("value", 100);
+        assertEquals(100, testPrefs.getInt("value", -1));
+        assertEquals(100, testPrefs.getLong("value", -1));
+        assertEquals(JsonValue.wrap(100), testPrefs.getJsonValue("value"));
+
+        testPrefs.put("value", "not a number");
+        assertEquals(-1, testPrefs.getInt("value", -1));
+        assertEquals(-1, testPrefs.getLong("value", -1));
+
+        testPrefs.put("value", 200L);
+        assertEquals(200, testPrefs.getInt("value", -1));
+        assertEquals(200, testPrefs.getLong("value", -1));
+    }
+
     /**
      * Test saving json serializable values.
      */
@@ -148,4 +179,154 @@ public class PreferenceDataStoreTest extends BaseTestCase {
         assertTrue(testPrefs.getJsonValue("value").isNull());
     }
 
+    /**
+     * Test a failed sync write keeps the pending journal write.
+     */
+    @Test
+    public void testPutSyncFailedKeepsJournal() {
+        final List<Runnable> scheduled = new ArrayList<>();
+        final boolean[] failInserts = new boolean[] { false };
+
+        PreferenceDataStore store = new PreferenceDataStore(context, new UrbanAirshipResolver(context) {
+            @Override
+            protected Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+                return failInserts[0] ? null : super.insert(uri, values);
+            }
+        });
+        store.executor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                scheduled.add(runnable);
+            }
+        };
+
+        store.put("key", "queued");
+
+        failInserts[0] = true;
+        assertFalse(store.putSync("key", "sync"));
+        assertEquals("queued", store.getString("key", null));
+
+        // The queued value is still written
+        for (Runnable runnable : scheduled) {
+            runnable.run();
+        }
+
+        PreferenceDataStore fromDatabase = new PreferenceDataStore(context);
+        fromDatabase.init();
+        assertEquals("queued", fromDatabase.getString("key", null));
+    }
+
+    /**
+     * Test a successful sync write replaces the pending journal write.
+     */
+    @Test
+    public void testPutSyncReplacesJournal() {
+        final List<Runnable> scheduled = new ArrayList<>();
+        testPrefs.executor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                scheduled.add(runnable);
+            }
+        };
+
+        testPrefs.put("key", "queued");
+        assertTrue(testPrefs.putSync("key", "sync"));
+
+        for (Runnable runnable : scheduled) {
+            runnable.run();
+        }
+
+        PreferenceDataStore fromDatabase = new PreferenceDataStore(context);
+        fromDatabase.init();
+        assertEquals("sync", fromDatabase.getString("key", null));
+    }
+
+    /**
+     * Test a write from another store notifies the listeners once for the changed key only.
+     */
+    @Test
+    public void testObserverNotifiesChangedKey() {
+        Executor directExecutor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+        };
+
+        testPrefs.executor = directExecutor;
+        testPrefs.init();
+        testPrefs.putSync("changed", "first");
+        testPrefs.putSync("other", "value");
+
+        PreferenceDataStore observed = new PreferenceDataStore(context);
+        observed.executor = directExecutor;
+        observed.init();
+        assertEquals("first", observed.getString("changed", null));
+
+        final List<String> writerChanges = new ArrayList<>();
+        testPrefs.addListener(new PreferenceDataStore.PreferenceChangeListener() {
+            @Override
+            public void onPreferenceChange(@NonNull String key) {
+                writerChanges.add(key);
+            }
+        });
+
+        final List<String> observedChanges = new ArrayList<>();
+        observed.addListener(new PreferenceDataStore.PreferenceChangeListener() {
+            @Override
+            public void onPreferenceChange(@NonNull String key) {
+                observedChanges.add(key);
+            }
+        });
+
+        testPrefs.putSync("changed", "second");
+
+        // The writer does not get its own notification back
+        assertEquals(Collections.singletonList("changed"), writerChanges);
+
+        // The other store only syncs the changed key
+        assertEquals(Collections.singletonList("changed"), observedChanges);
+        assertEquals("second", observed.getString("changed", null));
+        assertEquals("value", observed.getString("other", null));
+
+        observed.tearDown();
+        testPrefs.tearDown();
+    }
+
+    /**
+     * Test applying an edit updates the values and writes them to the database.
+     */
+    @Test
+    public void testEdit() {
+        testPrefs.executor = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                runnable.run();
+            }
+        };
+
+        testPrefs.put("removed", "value");
+
+        testPrefs.edit()
+                 .put("string", "oh hi")
+                 .put("long", 100L)
+                 .put("boolean", true)
+                 .remove("removed")
+                 .apply();
+
+        assertEquals("oh hi", testPrefs.getString("string", null));
+        assertEquals(100, testPrefs.getLong("long", -1));
+        assertTrue(testPrefs.getBoolean("boolean", false));
+        assertFalse(testPrefs.isSet("removed"));
+
+        // Verify the values were written
+        PreferenceDataStore fromDatabase = new PreferenceDataStore(context);
+        fromDatabase.init();
+
+        assertEquals("oh hi", fromDatabase.getString("string", null));
+        assertEquals(100, fromDatabase.getLong("long", -1));
+        assertTrue(fromDatabase.getBoolean("boolean", false));
+        assertFalse(fromDatabase.isSet("removed"));
+    }
+
 }
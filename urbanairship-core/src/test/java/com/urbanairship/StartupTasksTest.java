@@ -0,0 +1,126 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class StartupTasksTest extends BaseTestCase {
+
+    private StartupTasks startupTasks;
+
+    @Before
+    public void setup() {
+        startupTasks = new StartupTasks();
+    }
+
+    @After
+    public void tearDown() {
+        startupTasks.finish("Test startup");
+    }
+
+    /**
+     * Test tasks run after their dependencies.
+     */
+    @Test
+    public void testDependencyOrder() {
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch independentFinished = new CountDownLatch(1);
+        final AtomicBoolean ranInParallel = new AtomicBoolean();
+
+        // The first task only finishes once the independent task has run next to it
+        Future<Void> first = startupTasks.submit("first", new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                ranInParallel.set(independentFinished.await(5, TimeUnit.SECONDS));
+                order.add("first");
+                return null;
+            }
+        });
+
+        Future<Void> independent = startupTasks.submit("independent", new Callable<Void>() {
+            @Override
+            public Void call() {
+                order.add("independent");
+                independentFinished.countDown();
+                return null;
+            }
+        });
+
+        Future<Void> second = startupTasks.submit("second", record(order, "second"), first);
+        Future<Void> third = startupTasks.submit("third", record(order, "third"), first, second);
+
+        StartupTasks.await(third);
+        StartupTasks.await(independent);
+
+        assertTrue(ranInParallel.get());
+        assertEquals(Arrays.asList("independent", "first", "second", "third"), order);
+    }
+
+    /**
+     * Test failures are rethrown by await and fail dependent tasks.
+     */
+    @Test
+    public void testFailure() {
+        Future<Void> failing = startupTasks.submit("failing", new Callable<Void>() {
+            @Override
+            public Void call() {
+                throw new IllegalArgumentException("failed");
+            }
+        });
+
+        Future<Void> dependent = startupTasks.submit("dependent", record(new ArrayList<String>(), "dependent"), failing);
+
+        for (Future<Void> future : Arrays.asList(failing, dependent)) {
+            try {
+                StartupTasks.await(future);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertEquals("failed", expected.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Test the startup thread flag is only set while a task runs.
+     */
+    @Test
+    public void testIsStartupThread() {
+        Future<Boolean> future = startupTasks.submit("check", new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return StartupTasks.isStartupThread();
+            }
+        });
+
+        assertTrue(StartupTasks.await(future));
+        assertFalse(StartupTasks.isStartupThread());
+    }
+
+    private static Callable<Void> record(final List<String> order, final String name) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                order.add(name);
+                return null;
+            }
+        };
+    }
+
+}
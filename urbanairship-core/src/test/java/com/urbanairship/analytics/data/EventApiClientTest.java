@@ -67,6 +67,21 @@ public class EventApiClientTest extends BaseTestCase {
         assertEquals("http://example.com/warp9/", testRequest.getUrl().toString());
         assertEquals(0, response.getLastModifiedTime());
         assertNull(response.getResponseHeaders());
+        assertEquals("[{\"some\":\"json\"}]", testRequest.getRequestBody());
+    }
+
+    /**
+     * Test the stored event payloads are written as is into a JSON array.
+     */
+    @Test
+    public void testRequestBodyMultipleEvents() throws RequestException {
+        testRequest.responseBody = "";
+        testRequest.responseStatus = 200;
+
+        events.add("{ \"other\": [1, 2] }");
+
+        client.sendEvents(events, Collections.<String, String>emptyMap());
+        assertEquals("[{\"some\":\"json\"},{ \"other\": [1, 2] }]", testRequest.getRequestBody());
     }
 
     /**
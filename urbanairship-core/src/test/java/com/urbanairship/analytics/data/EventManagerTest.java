@@ -1,5 +1,8 @@
 package com.urbanairship.analytics.data;
 
+import android.content.ContentValues;
+import android.os.Looper;
+
 import com.urbanairship.BaseTestCase;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.TestAirshipRuntimeConfig;
@@ -17,16 +20,20 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 import org.mockito.internal.verification.Times;
+import org.robolectric.Shadows;
 
 import java.net.HttpURLConnection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.urbanairship.analytics.data.EventManager.MIN_BATCH_INTERVAL_KEY;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -56,7 +63,7 @@ public class EventManagerTest extends BaseTestCase {
         dataStore = TestApplication.getApplication().preferenceDataStore;
 
         eventManager = new EventManager(dataStore, testAirshipRuntimeConfig, mockDispatcher,
-                mockActivityMonitor, mockEventResolver, mockClient);
+                mockActivityMonitor, mockEventResolver, mockClient, Looper.getMainLooper());
     }
 
     /**
@@ -64,11 +71,18 @@ public class EventManagerTest extends BaseTestCase {
      */
     @Test
     public void testAddEventAfterNextSendTime() {
-        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        final CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
         eventManager.addEvent(customEvent, "session");
 
-        // Verify we add an event.
-        verify(mockEventResolver, new Times(1)).insertEvent(customEvent, "session");
+        // Verify the event is staged and written after the flush delay
+        verify(mockEventResolver, never()).insertEvents(anyList());
+        Shadows.shadowOf(Looper.getMainLooper()).runToEndOfTasks();
+        verify(mockEventResolver, new Times(1)).insertEvents(argThat(new ArgumentMatcher<List<ContentValues>>() {
+            @Override
+            public boolean matches(List<ContentValues> argument) {
+                return argument.size() == 1 && customEvent.getEventId().equals(argument.get(0).getAsString(EventsStorage.Events.COLUMN_NAME_EVENT_ID));
+            }
+        }));
 
         // Check it schedules an upload
         verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
@@ -248,4 +262,49 @@ public class EventManagerTest extends BaseTestCase {
         verify(mockEventResolver).deleteAllEvents();
     }
 
+    /**
+     * Test staged events are written in a single transaction once the buffer is full.
+     */
+    @Test
+    public void testBufferFullWritesEvents() {
+        for (int i = 0; i < 19; i++) {
+            eventManager.addEvent(CustomEvent.newBuilder("event name").build(), "session");
+        }
+
+        verify(mockEventResolver, never()).insertEvents(anyList());
+
+        eventManager.addEvent(CustomEvent.newBuilder("event name").build(), "session");
+
+        verify(mockEventResolver).insertEvents(argThat(new ArgumentMatcher<List<ContentValues>>() {
+            @Override
+            public boolean matches(List<ContentValues> argument) {
+                return argument.size() == 20;
+            }
+        }));
+    }
+
+    /**
+     * Test staged events are written before uploading.
+     */
+    @Test
+    public void testUploadWritesStagedEvents() {
+        eventManager.addEvent(CustomEvent.newBuilder("event name").build(), "session");
+        verify(mockEventResolver, never()).insertEvents(anyList());
+
+        eventManager.uploadEvents(Collections.<String, String>emptyMap());
+        verify(mockEventResolver).insertEvents(anyList());
+    }
+
+    /**
+     * Test delete all drops staged events.
+     */
+    @Test
+    public void testDeleteAllDropsStagedEvents() {
+        eventManager.addEvent(CustomEvent.newBuilder("event name").build(), "session");
+        eventManager.deleteEvents();
+        eventManager.flushEvents();
+
+        verify(mockEventResolver, never()).insertEvents(anyList());
+    }
+
 }
@@ -68,6 +68,30 @@ public class EventResolverTest extends BaseTestCase {
         assertEquals(0, eventResolver.getEventCount());
     }
 
+    /**
+     * Test trimming the database deletes the oldest events across several batches.
+     */
+    @Test
+    public void testTrimDatabaseMultipleBatches() {
+        int eventSize = new TestEvent("id-000").createEventPayload("session id").length();
+
+        for (int i = 0; i < 120; i++) {
+            eventResolver.insertEvent(new TestEvent(String.format("id-%03d", i)), "session id");
+        }
+
+        assertEquals(120, eventResolver.getEventCount());
+
+        eventResolver.trimDatabase(eventSize * 10);
+        assertEquals(10, eventResolver.getEventCount());
+        assertEquals(eventSize * 10, eventResolver.getDatabaseSize());
+
+        // Only the newest events should remain
+        Map<String, String> eventData = eventResolver.getEvents(10);
+        assertTrue(eventData.containsKey("id-110"));
+        assertTrue(eventData.containsKey("id-119"));
+        assertFalse(eventData.containsKey("id-109"));
+    }
+
     /**
      * Test trimming the database when the oldest session ID is null does not throw
      * an exception.
@@ -98,6 +122,7 @@ public class EventResolverTest extends BaseTestCase {
         assertTrue(eventResolver.deleteEvents(new HashSet<>(Arrays.asList("id-1", "id-2", "id-4"))));
 
         assertEquals(1, eventResolver.getEventCount());
+        assertEquals(new TestEvent("id-3").createEventPayload("session-id").length(), eventResolver.getDatabaseSize());
         assertTrue(eventResolver.getEvents(1).containsKey("id-3"));
     }
 
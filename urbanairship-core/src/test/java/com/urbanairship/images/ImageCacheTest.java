@@ -0,0 +1,249 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.TestApplication;
+import com.urbanairship.util.FileUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class ImageCacheTest extends BaseTestCase {
+
+    private static final String IMAGE_URL = "https://example.com/image.png";
+    private static final String OTHER_IMAGE_URL = "https://example.com/other.png";
+
+    private ImageCache imageCache;
+    private File diskCacheDir;
+
+    @Before
+    public void setup() {
+        Context context = TestApplication.getApplication();
+        imageCache = new ImageCache(context);
+
+        diskCacheDir = new File(context.getCacheDir(), "urbanairship-image-cache");
+        FileUtils.deleteRecursively(diskCacheDir);
+    }
+
+    /**
+     * Test the memory tier is sized by the decoded bitmap size.
+     */
+    @Test
+    public void testDecodedByteCount() {
+        Bitmap bitmap = Bitmap.createBitmap(100, 50, Bitmap.Config.ARGB_8888);
+        Drawable drawable = new BitmapDrawable(TestApplication.getApplication().getResources(), bitmap);
+
+        assertEquals(100 * 50 * 4, ImageCache.getDecodedByteCount(drawable));
+    }
+
+    /**
+     * Test small decoded images are cached in memory.
+     */
+    @Test
+    public void testCacheDrawable() {
+        Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        Drawable drawable = new BitmapDrawable(TestApplication.getApplication().getResources(), bitmap);
+
+        String key = ImageCache.getCacheKey("https://example.com/image.png", 10, 10);
+        imageCache.cacheDrawable(key, drawable);
+
+        assertSame(drawable, imageCache.getDrawable(key));
+        assertNull(imageCache.getDrawable(ImageCache.getCacheKey("https://example.com/image.png", 20, 20)));
+    }
+
+    /**
+     * Test images that decode larger than the max entry size are not cached in memory.
+     */
+    @Test
+    public void testLargeDecodedImageNotCached() {
+        Bitmap bitmap = Bitmap.createBitmap(2000, 2000, Bitmap.Config.ARGB_8888);
+        Drawable drawable = new BitmapDrawable(TestApplication.getApplication().getResources(), bitmap);
+
+        String key = ImageCache.getCacheKey("https://example.com/large.jpg", 2000, 2000);
+        imageCache.cacheDrawable(key, drawable);
+
+        assertNull(imageCache.getDrawable(key));
+    }
+
+    /**
+     * Test fetched images are written to the disk tier and read back without downloading.
+     */
+    @Test
+    public void testDiskTier() throws IOException {
+        TestImageCache cache = new TestImageCache(1024 * 1024);
+        assertNotNull(cache.fetchDrawable(IMAGE_URL, 10, 10));
+        assertEquals(1, cache.downloadCount.get());
+
+        File[] files = diskCacheDir.listFiles();
+        assertEquals(1, files.length);
+
+        // A new cache starts with an empty memory tier
+        TestImageCache restored = new TestImageCache(1024 * 1024);
+        assertNotNull(restored.fetchDrawable(IMAGE_URL, 10, 10));
+        assertEquals(0, restored.downloadCount.get());
+        assertEquals(Collections.singletonList(files[0].toURI().toURL()), restored.decodedUrls);
+
+        // A different size is a different entry
+        assertNotNull(restored.fetchDrawable(IMAGE_URL, 20, 20));
+        assertEquals(1, restored.downloadCount.get());
+        assertEquals(2, diskCacheDir.listFiles().length);
+    }
+
+    /**
+     * Test the least recently used files are evicted once the disk tier is over its max size.
+     */
+    @Test
+    public void testDiskTierEviction() throws IOException {
+        // Drawables that are not bitmaps keep the downloaded file
+        TestImageCache cache = new TestImageCache(150);
+        cache.drawable = new ColorDrawable(Color.RED);
+
+        cache.fetchDrawable(IMAGE_URL, 10, 10);
+        File oldest = diskCacheDir.listFiles()[0];
+        assertEquals(100, oldest.length());
+        assertTrue(oldest.setLastModified(System.currentTimeMillis() - 60000));
+
+        cache.fetchDrawable(OTHER_IMAGE_URL, 10, 10);
+
+        File[] files = diskCacheDir.listFiles();
+        assertEquals(1, files.length);
+        assertFalse(oldest.exists());
+
+        // The evicted image is downloaded again
+        TestImageCache restored = new TestImageCache(150);
+        restored.drawable = new ColorDrawable(Color.RED);
+        restored.fetchDrawable(OTHER_IMAGE_URL, 10, 10);
+        assertEquals(0, restored.downloadCount.get());
+        restored.fetchDrawable(IMAGE_URL, 10, 10);
+        assertEquals(1, restored.downloadCount.get());
+    }
+
+    /**
+     * Test concurrent fetches for the same image share a single download and decode.
+     */
+    @Test
+    public void testConcurrentFetchesCoalesced() throws Exception {
+        final TestImageCache cache = new TestImageCache(1024 * 1024);
+        cache.downloadStarted = new CountDownLatch(1);
+        cache.finishDownload = new CountDownLatch(1);
+        cache.memoryLookups = new CountDownLatch(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Drawable> fetch = new Callable<Drawable>() {
+                @Override
+                public Drawable call() throws IOException {
+                    return cache.fetchDrawable(IMAGE_URL, 10, 10);
+                }
+            };
+
+            Future<Drawable> first = executor.submit(fetch);
+            assertTrue(cache.downloadStarted.await(5, TimeUnit.SECONDS));
+
+            // The second fetch misses the memory tier while the first download is still blocked
+            Future<Drawable> second = executor.submit(fetch);
+            assertTrue(cache.memoryLookups.await(5, TimeUnit.SECONDS));
+            assertEquals(1, cache.downloadCount.get());
+            cache.finishDownload.countDown();
+
+            Drawable drawable = first.get(5, TimeUnit.SECONDS);
+            assertNotNull(drawable);
+            assertSame(drawable, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, cache.downloadCount.get());
+        assertEquals(1, cache.decodedUrls.size());
+    }
+
+    /**
+     * Image cache that downloads a fixed image without the network.
+     */
+    private static class TestImageCache extends ImageCache {
+
+        private final AtomicInteger downloadCount = new AtomicInteger();
+        private final List<URL> decodedUrls = Collections.synchronizedList(new ArrayList<URL>());
+        private Drawable drawable;
+        private CountDownLatch downloadStarted;
+        private CountDownLatch finishDownload;
+        private CountDownLatch memoryLookups;
+
+        TestImageCache(long diskCacheSize) {
+            super(TestApplication.getApplication(), diskCacheSize);
+            Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+            this.drawable = new BitmapDrawable(TestApplication.getApplication().getResources(), bitmap);
+        }
+
+        @Nullable
+        @Override
+        Drawable getDrawable(@NonNull String key) {
+            Drawable drawable = super.getDrawable(key);
+            if (memoryLookups != null) {
+                memoryLookups.countDown();
+            }
+            return drawable;
+        }
+
+        @Override
+        boolean download(@NonNull URL url, @NonNull File file) throws IOException {
+            downloadCount.incrementAndGet();
+
+            if (downloadStarted != null) {
+                downloadStarted.countDown();
+                try {
+                    finishDownload.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            FileOutputStream outputStream = new FileOutputStream(file);
+            outputStream.write(new byte[100]);
+            outputStream.close();
+            return true;
+        }
+
+        @Nullable
+        @Override
+        Drawable decode(@NonNull URL url, int width, int height) {
+            decodedUrls.add(url);
+            return drawable;
+        }
+
+    }
+
+}
@@ -449,6 +449,49 @@ public class UrlAllowListTest extends BaseTestCase {
         assertTrue(urlAllowList.isAllowed("sms:8675309"));
     }
 
+    /**
+     * Test entries added after a URL was checked are applied to the next check.
+     */
+    @Test
+    public void testAddEntryAfterCheck() {
+        urlAllowList.addEntry("https://*.urbanairship.com", UrlAllowList.SCOPE_OPEN_URL);
+
+        assertFalse(urlAllowList.isAllowed("https://dl.urbanairship.com/path", UrlAllowList.SCOPE_ALL));
+        assertTrue(urlAllowList.isAllowed("https://dl.urbanairship.com/path", UrlAllowList.SCOPE_OPEN_URL));
+
+        urlAllowList.addEntry("https://dl.urbanairship.com/*", UrlAllowList.SCOPE_JAVASCRIPT_INTERFACE);
+
+        assertTrue(urlAllowList.isAllowed("https://dl.urbanairship.com/path", UrlAllowList.SCOPE_ALL));
+        assertFalse(urlAllowList.isAllowed("https://other.urbanairship.com/path", UrlAllowList.SCOPE_ALL));
+    }
+
+    /**
+     * Test exact and wildcard hosts that share labels.
+     */
+    @Test
+    public void testOverlappingHosts() {
+        for (int i = 0; i < 100; i++) {
+            urlAllowList.addEntry("https://cdn" + i + ".example.com/assets/*.png");
+        }
+        urlAllowList.addEntry("https://*.store.example.com");
+        urlAllowList.addEntry("https://example.com/exact");
+
+        // Accept
+        assertTrue(urlAllowList.isAllowed("https://cdn42.example.com/assets/hero.png"));
+        assertTrue(urlAllowList.isAllowed("https://cdn99.example.com/assets/a/b.png"));
+        assertTrue(urlAllowList.isAllowed("https://store.example.com/cart"));
+        assertTrue(urlAllowList.isAllowed("https://eu.store.example.com/cart"));
+        assertTrue(urlAllowList.isAllowed("https://example.com/exact"));
+
+        // Reject
+        assertFalse(urlAllowList.isAllowed("https://cdn100.example.com/assets/hero.png"));
+        assertFalse(urlAllowList.isAllowed("https://cdn42.example.com/assets/hero.jpg"));
+        assertFalse(urlAllowList.isAllowed("https://a.cdn42.example.com/assets/hero.png"));
+        assertFalse(urlAllowList.isAllowed("https://example.com/other"));
+        assertFalse(urlAllowList.isAllowed("https://www.example.com/exact"));
+        assertFalse(urlAllowList.isAllowed("https://mystore.example.com"));
+    }
+
     private class TestUrlAllowListCallback implements UrlAllowList.OnUrlAllowListCallback {
 
         public String matchingURLToAccept;
@@ -11,6 +11,8 @@ import org.junit.Test;
 
 import java.util.Arrays;
 
+import androidx.annotation.NonNull;
+
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
@@ -114,6 +116,31 @@ public class JsonPredicateTest extends BaseTestCase {
         assertFalse(predicate.apply(catJson));
     }
 
+    @Test
+    public void testValueConvertedOnce() {
+        JsonPredicate predicate = JsonPredicate.newBuilder()
+                                               .setPredicateType(JsonPredicate.AND_PREDICATE_TYPE)
+                                               .addMatcher(legMatcher)
+                                               .addMatcher(nameMatcher)
+                                               .addPredicate(JsonPredicate.newBuilder()
+                                                                          .addMatcher(sleepMatcher)
+                                                                          .build())
+                                               .build();
+
+        final int[] conversions = new int[1];
+        JsonSerializable serializable = new JsonSerializable() {
+            @NonNull
+            @Override
+            public JsonValue toJsonValue() {
+                conversions[0]++;
+                return catJson.toJsonValue();
+            }
+        };
+
+        assertTrue(predicate.apply(serializable));
+        assertEquals(1, conversions[0]);
+    }
+
     @Test
     public void testAndOr() {
         JsonPredicate or = JsonPredicate.newBuilder()
@@ -0,0 +1,175 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.BaseTestCase;
+
+import org.json.JSONTokener;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class JsonReaderTest extends BaseTestCase {
+
+    /**
+     * Test reading a value tree matches wrapping the org.json equivalent.
+     */
+    @Test
+    public void testReadValueMatchesOrgJson() throws Exception {
+        String json = "{\"string\":\"v\\u00e9\\n\\/\",\"int\":1,\"long\":" + Long.MAX_VALUE + ",\"double\":1.5,"
+                + "\"exp\":1e3,\"bool\":TRUE,\"null\":null,\"list\":[1,null,\"two\",{}],\"map\":{\"nested\":[[]]}}";
+
+        JsonValue expected = JsonValue.wrap(new JSONTokener(json).nextValue());
+        assertEquals(expected, read(json));
+    }
+
+    /**
+     * Test lenient input is read the same as org.json.
+     */
+    @Test
+    public void testLenientMatchesOrgJson() throws Exception {
+        String json = "# comment\n{unquoted: 'single', \"hex\": 0x1F /* block */, octal=>010, \"a\"=08; // line\n"
+                + "\"list\":[1,,'two',], \"literal\": abc-def}";
+
+        JsonValue expected = JsonValue.wrap(new JSONTokener(json).nextValue());
+        assertEquals(expected, read(json));
+    }
+
+    /**
+     * Test unquoted literals that are not keywords or numbers are read as strings.
+     */
+    @Test
+    public void testUnquotedString() throws Exception {
+        assertEquals(JsonValue.wrap("non-JsonMap"), read("non-JsonMap"));
+        assertEquals(JsonValue.wrap("non-JsonMap"), JsonValue.parseString("non-JsonMap"));
+
+        JsonReader reader = new JsonReader(new StringReader("{key: value}"));
+        reader.beginObject();
+        assertEquals(JsonReader.NAME, reader.peek());
+        assertEquals("key", reader.nextName());
+        assertEquals(JsonReader.STRING, reader.peek());
+        assertEquals("value", reader.nextString());
+        reader.endObject();
+    }
+
+    /**
+     * Test line, hash, and block comments are skipped.
+     */
+    @Test
+    public void testComments() throws Exception {
+        String json = "// line\n[1, /* block\n comment */ 2 # hash\n, 3]";
+        assertEquals(JsonValue.parseString("[1,2,3]"), read(json));
+
+        // Comment spanning the read buffer
+        StringBuilder builder = new StringBuilder("[/*");
+        for (int i = 0; i < 3000; i++) {
+            builder.append('*');
+        }
+        builder.append("*/true]");
+        assertEquals(JsonValue.parseString("[true]"), read(builder.toString()));
+    }
+
+    /**
+     * Test single quoted strings and names.
+     */
+    @Test
+    public void testSingleQuotes() throws Exception {
+        assertEquals(JsonValue.wrap("it's \"quoted\""), read("'it\\'s \"quoted\"'"));
+
+        JsonValue value = read("{'name': 'value'}");
+        assertEquals("value", value.optMap().opt("name").getString());
+    }
+
+    /**
+     * Test hex and octal integers.
+     */
+    @Test
+    public void testHexAndOctal() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("[0x1F, 0X10, 010, 08, 0]"));
+        reader.beginArray();
+        assertEquals(31, reader.nextNumber());
+        assertEquals(16, reader.nextNumber());
+        assertEquals(8, reader.nextNumber());
+        // Not valid octal, org.json reads it as a double
+        assertEquals(8.0d, reader.nextNumber());
+        assertEquals(0, reader.nextNumber());
+        reader.endArray();
+    }
+
+    /**
+     * Test whole numbers are read as integers or longs.
+     */
+    @Test
+    public void testNextNumber() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("[1, -2147483649, 1.0, 12345678901234567890]"));
+        reader.beginArray();
+        assertEquals(1, reader.nextNumber());
+        assertEquals(-2147483649L, reader.nextNumber());
+        assertEquals(1.0d, reader.nextNumber());
+        assertEquals(12345678901234567890d, reader.nextNumber());
+        reader.endArray();
+        assertEquals(JsonReader.END_DOCUMENT, reader.peek());
+    }
+
+    /**
+     * Test reading a single member skips the rest of the object.
+     */
+    @Test
+    public void testReadMember() throws Exception {
+        String json = "{\"skip\":{\"a\":[1,2,{\"b\":\"]\"}]},\"payloads\":[{\"type\":\"foo\"}],\"after\":true}";
+        JsonReader reader = new JsonReader(new StringReader(json));
+
+        JsonValue expected = JsonValue.parseString("[{\"type\":\"foo\"}]");
+        assertEquals(expected, reader.readMember("payloads"));
+        assertEquals(JsonReader.END_DOCUMENT, reader.peek());
+    }
+
+    /**
+     * Test reading a missing member returns NULL.
+     */
+    @Test
+    public void testReadMissingMember() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("{\"other\":1}"));
+        assertTrue(reader.readMember("payloads").isNull());
+    }
+
+    /**
+     * Test strings longer than the read buffer.
+     */
+    @Test
+    public void testLongString() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+
+        JsonValue value = read("[\"" + builder + "\"]");
+        assertEquals(builder.toString(), value.optList().get(0).getString());
+    }
+
+    /**
+     * Test malformed JSON throws a JsonException.
+     */
+    @Test
+    public void testMalformed() throws IOException {
+        String[] invalid = { "{", "{\"a\" 1}", "\"unterminated", "[1 2]", "{1:2}", "/* unterminated", "{\"a\":1,}" };
+        for (String json : invalid) {
+            try {
+                read(json);
+                fail("Expected exception for " + json);
+            } catch (JsonException expected) {
+                // expected
+            }
+        }
+    }
+
+    private static JsonValue read(String json) throws IOException, JsonException {
+        return new JsonReader(new StringReader(json)).readValue();
+    }
+
+}
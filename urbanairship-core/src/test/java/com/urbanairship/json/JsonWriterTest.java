@@ -0,0 +1,103 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.BaseTestCase;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static junit.framework.Assert.assertEquals;
+
+public class JsonWriterTest extends BaseTestCase {
+
+    /**
+     * Test strings are escaped the same as org.json.
+     */
+    @Test
+    public void testStringEscaping() throws IOException {
+        String value = "quote\" backslash\\ slash/ tab\t newline\n control\u0001 unicodeé";
+
+        StringWriter writer = new StringWriter();
+        new JsonWriter(writer).value(value);
+
+        assertEquals(JSONObject.quote(value), writer.toString());
+    }
+
+    /**
+     * Test escaped characters at the start, middle and end of a string.
+     */
+    @Test
+    public void testQuote() {
+        String[] values = { "", "plain", "\"start", "end\"", "a/b/c", "\u0000\u001f", "mixed\tend\n" };
+        for (String value : values) {
+            assertEquals(JSONObject.quote(value), JsonWriter.quote(value));
+        }
+    }
+
+    /**
+     * Test encoding a value to a string matches writing it to a writer.
+     */
+    @Test
+    public void testToJsonString() throws IOException, JsonException {
+        JsonValue value = JsonValue.parseString("{\"list\":[1,\"two/2\",true,{\"nested\":\"tab\\t\"}]}");
+
+        StringWriter writer = new StringWriter();
+        new JsonWriter(writer).value(value);
+
+        assertEquals(writer.toString(), JsonWriter.toJsonString(value));
+        assertEquals(writer.toString(), value.optMap().toString());
+    }
+
+    /**
+     * Test numbers are written the same as org.json.
+     */
+    @Test
+    public void testNumbers() throws JSONException {
+        Number[] numbers = { 1, -1, Long.MAX_VALUE, 1.5d, 2.0d, -0.0d, 1.25f, 1e21d };
+        for (Number number : numbers) {
+            assertEquals(JSONObject.numberToString(number), JsonWriter.numberToString(number));
+        }
+    }
+
+    /**
+     * Test writing a value tree.
+     */
+    @Test
+    public void testWriteValue() throws IOException, JsonException {
+        JsonValue value = JsonValue.parseString("{\"list\":[1,\"two\",true,{\"nested\":1.5}]}");
+
+        StringWriter writer = new StringWriter();
+        new JsonWriter(writer).value(value);
+
+        assertEquals(value.toString(), writer.toString());
+        assertEquals(value, JsonValue.parseString(writer.toString()));
+    }
+
+    /**
+     * Test writing raw values into an array.
+     */
+    @Test
+    public void testRawValues() throws IOException {
+        StringWriter writer = new StringWriter();
+        new JsonWriter(writer).beginArray()
+                              .rawValue("{\"a\":1}")
+                              .rawValue("[]")
+                              .endArray();
+
+        assertEquals("[{\"a\":1},[]]", writer.toString());
+    }
+
+    /**
+     * Test writing an object member without a name fails.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testValueWithoutName() throws IOException {
+        new JsonWriter(new StringWriter()).beginObject().value("nope");
+    }
+
+}
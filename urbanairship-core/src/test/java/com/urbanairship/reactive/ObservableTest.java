@@ -179,6 +179,72 @@ public class ObservableTest extends BaseTestCase {
         validateObservable(filtered, expectedInts, 3, 1, 0);
     }
 
+    @Test
+    public void testFusedMapAndFilter() throws Exception {
+        Observable<Integer> obs = Observable.from(Arrays.asList(1, 2, 3, 4, 5, 6));
+
+        Observable<String> chained = obs.filter(new Predicate<Integer>() {
+            @Override
+            public boolean apply(Integer value) {
+                return value % 2 == 0;
+            }
+        }).map(new Function<Integer, Integer>() {
+            @NonNull
+            @Override
+            public Integer apply(@NonNull Integer value) {
+                return value * 10;
+            }
+        }).filter(new Predicate<Integer>() {
+            @Override
+            public boolean apply(Integer value) {
+                return value > 20;
+            }
+        }).map(new Function<Integer, String>() {
+            @NonNull
+            @Override
+            public String apply(@NonNull Integer value) {
+                return value.toString();
+            }
+        });
+
+        validateObservable(chained, Arrays.asList("40", "60"), 2, 1, 0);
+
+        // Resubscribing replays the chain
+        initializeValues();
+        validateObservable(chained, Arrays.asList("40", "60"), 2, 1, 0);
+    }
+
+    @Test
+    public void testDistinctUntilChanged() throws Exception {
+        Observable<Integer> obs = Observable.from(Arrays.asList(1, 1, 2, 2, 1, 3, 3)).distinctUntilChanged();
+        validateObservable(obs, Arrays.asList(1, 2, 1, 3), 4, 1, 0);
+
+        // Each subscription tracks its own last value
+        initializeValues();
+        validateObservable(obs, Arrays.asList(1, 2, 1, 3), 4, 1, 0);
+    }
+
+    @Test
+    public void testMergeCollection() throws Exception {
+        Subject<Integer> first = Subject.create();
+        Subject<Integer> second = Subject.create();
+        Subject<Integer> third = Subject.create();
+
+        Observable<Integer> merged = Observable.merge(Arrays.<Observable<Integer>>asList(first, second, third));
+        subscribeObservable(merged);
+
+        first.onNext(1);
+        third.onNext(3);
+        second.onNext(2);
+
+        first.onCompleted();
+        second.onCompleted();
+        performAsserts(null, null, Arrays.asList(1, 3, 2), 3, 0, 0);
+
+        third.onCompleted();
+        performAsserts(null, null, Arrays.asList(1, 3, 2), 3, 1, 0);
+    }
+
     @Test
     public void testObserveOnMyLooper() throws Exception {
         Observable<Integer> three = Observable.just(3);
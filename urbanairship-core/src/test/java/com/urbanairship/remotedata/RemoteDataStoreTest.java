@@ -81,4 +81,40 @@ public class RemoteDataStoreTest extends BaseTestCase {
         Assert.assertTrue(dataStore.getPayloads(Arrays.asList("type", "otherType")).size() == 0);
     }
 
+    /**
+     * Test updating payloads only changes the types that changed.
+     */
+    @Test
+    public void testUpdatePayloads() {
+        Assert.assertEquals(asSet("type", "otherType"), dataStore.updatePayloads(payloads));
+
+        // Same payloads
+        Assert.assertTrue(dataStore.updatePayloads(payloads).isEmpty());
+        Assert.assertEquals(payloads, dataStore.getPayloads());
+
+        // Update a single type
+        RemoteDataPayload updated = RemoteDataPayload.newBuilder()
+                                                     .setType("type")
+                                                     .setTimeStamp(123)
+                                                     .setData(JsonMap.newBuilder()
+                                                                     .put("foo", "updated")
+                                                                     .build())
+                                                     .build();
+
+        Set<RemoteDataPayload> otherPayloads = dataStore.getPayloads(Arrays.asList("otherType"));
+        Set<RemoteDataPayload> newPayloads = new HashSet<>(otherPayloads);
+        newPayloads.add(updated);
+
+        Assert.assertEquals(asSet("type"), dataStore.updatePayloads(newPayloads));
+        Assert.assertEquals(newPayloads, dataStore.getPayloads());
+
+        // Remove a type
+        Assert.assertEquals(asSet("type"), dataStore.updatePayloads(otherPayloads));
+        Assert.assertEquals(otherPayloads, dataStore.getPayloads());
+    }
+
+    private static Set<String> asSet(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
 }
@@ -265,4 +265,18 @@ public class IvyVersionMatcherTest extends BaseTestCase {
         assertFalse(matcher.apply("999.999.999"));
     }
 
+    @Test
+    public void testVersionRangeInvalidVersions() {
+        IvyVersionMatcher matcher = IvyVersionMatcher.newMatcher("[1.0, 2.0]");
+        assertFalse(matcher.apply(""));
+        assertFalse(matcher.apply("a.b"));
+        assertFalse(matcher.apply("1..2"));
+        assertFalse(matcher.apply("1.2a"));
+        assertFalse(matcher.apply("1.99999999999"));
+
+        assertTrue(matcher.apply("1.5."));
+        assertTrue(matcher.apply("1.5.0.beta"));
+        assertTrue(matcher.apply("+1.5"));
+    }
+
 }
@@ -0,0 +1,203 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.util;
+
+import com.urbanairship.BaseTestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrioritizedExecutorTest extends BaseTestCase {
+
+    private PrioritizedExecutor executor;
+
+    @Before
+    public void setup() {
+        executor = new PrioritizedExecutor("test", 1, PrioritizedExecutor.PRIORITY_NORMAL, 0);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Test queued tasks run by priority, then in submission order.
+     */
+    @Test
+    public void testPriorityOrder() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(5);
+        final List<String> actual = Collections.synchronizedList(new ArrayList<String>());
+
+        // Occupy the only thread so the rest queue up
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        executor.execute(new Recorder("low", actual, finished), PrioritizedExecutor.PRIORITY_LOW);
+        executor.execute(new Recorder("normal 1", actual, finished));
+        executor.execute(new Recorder("high 1", actual, finished), PrioritizedExecutor.PRIORITY_HIGH);
+        executor.execute(new Recorder("normal 2", actual, finished));
+        executor.execute(new Recorder("high 2", actual, finished), PrioritizedExecutor.PRIORITY_HIGH);
+
+        assertEquals(5, executor.getQueueDepth());
+
+        blocker.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("high 1", "high 2", "normal 1", "normal 2", "low"), actual);
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(6, executor.getStartedTaskCount());
+    }
+
+    /**
+     * Test blocking on a task queued behind the current one does not deadlock the pool.
+     */
+    @Test
+    public void testManagedBlocking() throws Exception {
+        Future<Boolean> result = executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                Future<Boolean> nested = executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return true;
+                    }
+                }, PrioritizedExecutor.PRIORITY_HIGH);
+
+                PrioritizedExecutor.beginBlocking();
+                try {
+                    return nested.get(5, TimeUnit.SECONDS);
+                } finally {
+                    PrioritizedExecutor.endBlocking();
+                }
+            }
+        }, PrioritizedExecutor.PRIORITY_NORMAL);
+
+        assertTrue(result.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executor.getMaximumPoolSize());
+        assertEquals(1, executor.getCorePoolSize());
+    }
+
+    /**
+     * Test blocking on a task queued on another executor grows that executor too.
+     */
+    @Test
+    public void testManagedBlockingOnOtherExecutor() throws Exception {
+        final PrioritizedExecutor other = new PrioritizedExecutor("other", 1, PrioritizedExecutor.PRIORITY_NORMAL, 0);
+        final CountDownLatch nestedFinished = new CountDownLatch(1);
+
+        try {
+            // Occupy the other executor's only thread until the nested task runs
+            other.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        nestedFinished.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            Future<Boolean> result = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Future<Boolean> nested = other.submit(new Callable<Boolean>() {
+                        @Override
+                        public Boolean call() {
+                            nestedFinished.countDown();
+                            return true;
+                        }
+                    }, PrioritizedExecutor.PRIORITY_NORMAL);
+
+                    PrioritizedExecutor.beginBlocking(other);
+                    try {
+                        return nested.get(2, TimeUnit.SECONDS);
+                    } finally {
+                        PrioritizedExecutor.endBlocking(other);
+                    }
+                }
+            }, PrioritizedExecutor.PRIORITY_NORMAL);
+
+            assertTrue(result.get(10, TimeUnit.SECONDS));
+            assertEquals(1, other.getMaximumPoolSize());
+            assertEquals(1, other.getCorePoolSize());
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
+    /**
+     * Test wait time metrics.
+     */
+    @Test
+    public void testWaitTimeMetrics() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        Future<?> queued = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+
+        Thread.sleep(50);
+        blocker.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+
+        assertTrue(executor.getMaxWaitTimeMillis() >= 50);
+        assertTrue(executor.getAverageWaitTimeMillis() >= 25);
+    }
+
+    private static class Recorder implements Runnable {
+
+        private final String name;
+        private final List<String> results;
+        private final CountDownLatch latch;
+
+        Recorder(String name, List<String> results, CountDownLatch latch) {
+            this.name = name;
+            this.results = results;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            results.add(name);
+            latch.countDown();
+        }
+
+    }
+
+}
@@ -29,9 +29,12 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 
@@ -68,10 +71,16 @@ public class Inbox {
     private final List<InboxListener> listeners = new CopyOnWriteArrayList<>();
 
     private final Set<String> deletedMessageIds = new HashSet<>();
-    private final Map<String, Message> unreadMessages = new HashMap<>();
-    private final Map<String, Message> readMessages = new HashMap<>();
+    private final Map<String, Message> messages = new HashMap<>();
+    private final NavigableSet<Message> unreadMessages = new TreeSet<>(MESSAGE_COMPARATOR);
+    private final NavigableSet<Message> readMessages = new TreeSet<>(MESSAGE_COMPARATOR);
     private final Map<String, Message> messageUrlMap = new HashMap<>();
 
+    // Sorted snapshots, rebuilt lazily after the inbox changes
+    private List<Message> messagesSnapshot;
+    private List<Message> unreadMessagesSnapshot;
+    private List<Message> readMessagesSnapshot;
+
     private final MessageCenterResolver messageCenterResolver;
     private final User user;
     private final Executor executor;
@@ -319,7 +328,7 @@ public class Inbox {
      */
     public int getCount() {
         synchronized (inboxLock) {
-            return unreadMessages.size() + readMessages.size();
+            return messages.size();
         }
     }
 
@@ -331,10 +340,7 @@ public class Inbox {
     @NonNull
     public Set<String> getMessageIds() {
         synchronized (inboxLock) {
-            Set<String> messageIds = new HashSet<>(getCount());
-            messageIds.addAll(readMessages.keySet());
-            messageIds.addAll(unreadMessages.keySet());
-            return messageIds;
+            return new HashSet<>(messages.keySet());
         }
     }
 
@@ -364,17 +370,17 @@ public class Inbox {
      * Filters a collection of messages according to the supplied predicate
      *
      * @param messages The messages to filter
-     * @param predicate The predicate. If null, the collection will be returned as-is.
+     * @param predicate The predicate. If null, a copy of the collection will be returned.
      * @return A filtered collection of messages
      */
     @NonNull
-    private Collection<Message> filterMessages(@NonNull Collection<Message> messages, @Nullable Predicate<Message> predicate) {
-        List<Message> filteredMessages = new ArrayList<>();
-
+    private List<Message> filterMessages(@NonNull List<Message> messages, @Nullable Predicate<Message> predicate) {
         if (predicate == null) {
-            return messages;
+            return new ArrayList<>(messages);
         }
 
+        List<Message> filteredMessages = new ArrayList<>();
+
         for (Message message : messages) {
             if (predicate.apply(message)) {
                 filteredMessages.add(message);
@@ -394,11 +400,10 @@ public class Inbox {
     @NonNull
     public List<Message> getMessages(@Nullable Predicate<Message> predicate) {
         synchronized (inboxLock) {
-            List<Message> messages = new ArrayList<>();
-            messages.addAll(filterMessages(unreadMessages.values(), predicate));
-            messages.addAll(filterMessages(readMessages.values(), predicate));
-            Collections.sort(messages, MESSAGE_COMPARATOR);
-            return messages;
+            if (messagesSnapshot == null) {
+                messagesSnapshot = Collections.unmodifiableList(merge(unreadMessages, readMessages));
+            }
+            return filterMessages(messagesSnapshot, predicate);
         }
     }
 
@@ -422,9 +427,10 @@ public class Inbox {
     @NonNull
     public List<Message> getUnreadMessages(@Nullable Predicate<Message> predicate) {
         synchronized (inboxLock) {
-            List<Message> messages = new ArrayList<>(filterMessages(unreadMessages.values(), predicate));
-            Collections.sort(messages, MESSAGE_COMPARATOR);
-            return messages;
+            if (unreadMessagesSnapshot == null) {
+                unreadMessagesSnapshot = Collections.unmodifiableList(new ArrayList<>(unreadMessages));
+            }
+            return filterMessages(unreadMessagesSnapshot, predicate);
         }
     }
 
@@ -448,9 +454,10 @@ public class Inbox {
     @NonNull
     public List<Message> getReadMessages(@Nullable Predicate<Message> predicate) {
         synchronized (inboxLock) {
-            List<Message> messages = new ArrayList<>(filterMessages(readMessages.values(), predicate));
-            Collections.sort(messages, MESSAGE_COMPARATOR);
-            return messages;
+            if (readMessagesSnapshot == null) {
+                readMessagesSnapshot = Collections.unmodifiableList(new ArrayList<>(readMessages));
+            }
+            return filterMessages(readMessagesSnapshot, predicate);
         }
     }
 
@@ -477,10 +484,7 @@ public class Inbox {
         }
 
         synchronized (inboxLock) {
-            if (unreadMessages.containsKey(messageId)) {
-                return unreadMessages.get(messageId);
-            }
-            return readMessages.get(messageId);
+            return messages.get(messageId);
         }
     }
 
@@ -519,12 +523,12 @@ public class Inbox {
         synchronized (inboxLock) {
             for (String messageId : messageIds) {
 
-                Message message = unreadMessages.get(messageId);
+                Message message = messages.get(messageId);
 
-                if (message != null) {
+                if (message != null && unreadMessages.remove(message)) {
                     message.unreadClient = false;
-                    unreadMessages.remove(messageId);
-                    readMessages.put(messageId, message);
+                    readMessages.add(message);
+                    invalidateSnapshots();
                 }
             }
 
@@ -548,12 +552,12 @@ public class Inbox {
         synchronized (inboxLock) {
             for (String messageId : messageIds) {
 
-                Message message = readMessages.get(messageId);
+                Message message = messages.get(messageId);
 
-                if (message != null) {
+                if (message != null && readMessages.remove(message)) {
                     message.unreadClient = true;
-                    readMessages.remove(messageId);
-                    unreadMessages.put(messageId, message);
+                    unreadMessages.add(message);
+                    invalidateSnapshots();
                 }
             }
         }
@@ -580,11 +584,10 @@ public class Inbox {
         synchronized (inboxLock) {
             for (String messageId : messageIds) {
 
-                Message message = getMessage(messageId);
+                Message message = messages.get(messageId);
                 if (message != null) {
                     message.deleted = true;
-                    unreadMessages.remove(messageId);
-                    readMessages.remove(messageId);
+                    removeMessage(message);
                     deletedMessageIds.add(messageId);
                 }
             }
@@ -605,53 +608,80 @@ public class Inbox {
         // Sync the messages
         synchronized (inboxLock) {
 
-            // Save the unreadMessageIds
-            Set<String> previousUnreadMessageIds = new HashSet<>(unreadMessages.keySet());
-            Set<String> previousReadMessageIds = new HashSet<>(readMessages.keySet());
-            Set<String> previousDeletedMessageIds = new HashSet<>(deletedMessageIds);
+            // Save the current messages to keep any mark reads that are still in process
+            Map<String, Message> previousMessages = new HashMap<>(messages);
 
             // Clear the current messages
+            messages.clear();
             unreadMessages.clear();
             readMessages.clear();
             messageUrlMap.clear();
+            invalidateSnapshots();
 
             // Process the new messages
             for (Message message : messageList) {
+                addMessage(message, previousMessages.get(message.getMessageId()));
+            }
+        }
 
-                // Deleted
-                if (message.isDeleted() || previousDeletedMessageIds.contains(message.getMessageId())) {
-                    deletedMessageIds.add(message.getMessageId());
-                    continue;
+        if (notify) {
+            notifyInboxUpdated();
+        }
+    }
+
+    /**
+     * Refreshes only the changed inbox messages from the DB.
+     *
+     * @param updatedMessageIds The IDs of messages that were inserted or updated.
+     * @param removedMessageIds The IDs of messages that were removed.
+     * @param notify {@code true} to notify listeners, otherwise {@code false}.
+     */
+    void refresh(@NonNull Set<String> updatedMessageIds, @NonNull Set<String> removedMessageIds, boolean notify) {
+        Collection<Message> messageList = updatedMessageIds.isEmpty()
+                ? Collections.<Message>emptyList()
+                : messageCenterResolver.getMessages(updatedMessageIds);
+
+        synchronized (inboxLock) {
+            for (String messageId : removedMessageIds) {
+                Message message = messages.get(messageId);
+                if (message != null) {
+                    removeMessage(message);
                 }
+            }
 
-                // Expired
-                if (message.isExpired()) {
-                    deletedMessageIds.add(message.getMessageId());
-                    continue;
+            for (Message message : messageList) {
+                Message previous = messages.get(message.getMessageId());
+                if (previous != null) {
+                    removeMessage(previous);
                 }
 
-                // Populate message url map
-                messageUrlMap.put(message.getMessageBodyUrl(), message);
+                addMessage(message, previous);
+            }
 
-                // Unread - check the previousUnreadMessageIds if any mark reads are still in process
-                if (previousUnreadMessageIds.contains(message.getMessageId())) {
-                    message.unreadClient = true;
-                    unreadMessages.put(message.getMessageId(), message);
-                    continue;
+            // Drop any messages that expired since the last refresh
+            List<Message> expiredMessages = null;
+            for (Message message : messages.values()) {
+                if (message.isExpired()) {
+                    if (expiredMessages == null) {
+                        expiredMessages = new ArrayList<>();
+                    }
+                    expiredMessages.add(message);
                 }
+            }
 
-                // Read - check the previousUnreadMessageIds if any mark reads are still in process
-                if (previousReadMessageIds.contains(message.getMessageId())) {
-                    message.unreadClient = false;
-                    readMessages.put(message.getMessageId(), message);
-                    continue;
+            if (expiredMessages != null) {
+                for (Message message : expiredMessages) {
+                    removeMessage(message);
+                    deletedMessageIds.add(message.getMessageId());
                 }
+            }
 
-                // Otherwise fallback to the current state
-                if (message.unreadClient) {
-                    unreadMessages.put(message.getMessageId(), message);
-                } else {
-                    readMessages.put(message.getMessageId(), message);
+            // Drop the URLs of any messages no longer in the inbox
+            Iterator<Message> iterator = messageUrlMap.values().iterator();
+            while (iterator.hasNext()) {
+                Message message = iterator.next();
+                if (messages.get(message.getMessageId()) != message) {
+                    iterator.remove();
                 }
             }
         }
@@ -661,6 +691,87 @@ public class Inbox {
         }
     }
 
+    /**
+     * Adds a message to the inbox. Must be called with the inbox lock held.
+     *
+     * @param message The message.
+     * @param previous The previous instance of the message, used to keep the client read state
+     * while mark reads are still in process.
+     */
+    private void addMessage(@NonNull Message message, @Nullable Message previous) {
+        String messageId = message.getMessageId();
+
+        // Deleted or expired
+        if (message.isDeleted() || deletedMessageIds.contains(messageId) || message.isExpired()) {
+            deletedMessageIds.add(messageId);
+            return;
+        }
+
+        if (previous != null) {
+            message.unreadClient = previous.unreadClient;
+        }
+
+        messages.put(messageId, message);
+        messageUrlMap.put(message.getMessageBodyUrl(), message);
+
+        if (message.unreadClient) {
+            unreadMessages.add(message);
+        } else {
+            readMessages.add(message);
+        }
+
+        invalidateSnapshots();
+    }
+
+    /**
+     * Removes a message from the inbox. Must be called with the inbox lock held.
+     * <p>
+     * The message URL mapping is kept until the next refresh so a message that is being displayed
+     * can still be looked up after it is deleted.
+     *
+     * @param message The message.
+     */
+    private void removeMessage(@NonNull Message message) {
+        messages.remove(message.getMessageId());
+        unreadMessages.remove(message);
+        readMessages.remove(message);
+        invalidateSnapshots();
+    }
+
+    private void invalidateSnapshots() {
+        messagesSnapshot = null;
+        unreadMessagesSnapshot = null;
+        readMessagesSnapshot = null;
+    }
+
+    /**
+     * Merges two sorted sets into a single sorted list.
+     *
+     * @param first The first set.
+     * @param second The second set.
+     * @return The merged list.
+     */
+    @NonNull
+    private static List<Message> merge(@NonNull NavigableSet<Message> first, @NonNull NavigableSet<Message> second) {
+        List<Message> merged = new ArrayList<>(first.size() + second.size());
+        Iterator<Message> firstIterator = first.iterator();
+        Iterator<Message> secondIterator = second.iterator();
+        Message a = firstIterator.hasNext() ? firstIterator.next() : null;
+        Message b = secondIterator.hasNext() ? secondIterator.next() : null;
+
+        while (a != null || b != null) {
+            if (b == null || (a != null && MESSAGE_COMPARATOR.compare(a, b) <= 0)) {
+                merged.add(a);
+                a = firstIterator.hasNext() ? firstIterator.next() : null;
+            } else {
+                merged.add(b);
+                b = secondIterator.hasNext() ? secondIterator.next() : null;
+            }
+        }
+
+        return merged;
+    }
+
     /**
      * Notifies all of the registered listeners that the
      * inbox updated.
@@ -11,13 +11,17 @@ import com.urbanairship.http.RequestException;
 import com.urbanairship.http.RequestFactory;
 import com.urbanairship.http.Response;
 import com.urbanairship.http.ResponseParser;
+import com.urbanairship.http.ResponseStreamParser;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonList;
 import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonReader;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.UAHttpStatusUtil;
 import com.urbanairship.util.UAStringUtil;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
@@ -67,13 +71,17 @@ public class InboxApiClient {
                              .setHeader("Accept", "application/vnd.urbanairship+json; version=3;")
                              .setHeader(CHANNEL_ID_HEADER, channelId)
                              .setIfModifiedSince(lastMessageRefreshTime)
-                             .execute(new ResponseParser<JsonList>() {
+                             .execute(new ResponseStreamParser<JsonList>() {
                                  @Override
-                                 public JsonList parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable String responseBody) throws Exception {
+                                 public JsonList parseResponse(int status, @Nullable Map<String, List<String>> headers, @Nullable InputStream responseBody) throws Exception {
                                      if (!UAHttpStatusUtil.inSuccessRange(status)) {
                                          return null;
                                      }
-                                     JsonList messageJson = JsonValue.parseString(responseBody).optMap().opt("messages").getList();
+                                     if (responseBody == null) {
+                                         throw new JsonException("Invalid response, missing messages.");
+                                     }
+                                     JsonReader reader = new JsonReader(new InputStreamReader(responseBody, "UTF-8"));
+                                     JsonList messageJson = reader.readMember("messages").getList();
                                      if (messageJson == null) {
                                          throw new JsonException("Invalid response, missing messages.");
                                      }
@@ -121,8 +121,10 @@ class InboxJobHandler {
             Logger.debug("User has not been created, canceling messages update");
             inbox.onUpdateMessagesFinished(false);
         } else {
-            boolean success = this.updateMessages();
-            inbox.refresh(true);
+            Set<String> updatedMessageIds = new HashSet<>();
+            Set<String> removedMessageIds = new HashSet<>();
+            boolean success = this.updateMessages(updatedMessageIds, removedMessageIds);
+            inbox.refresh(updatedMessageIds, removedMessageIds, true);
             inbox.onUpdateMessagesFinished(success);
             this.syncReadMessageState();
             this.syncDeletedMessageState();
@@ -165,9 +167,11 @@ class InboxJobHandler {
     /**
      * Update the inbox messages.
      *
+     * @param updatedMessageIds Set that will be populated with the inserted or updated message IDs.
+     * @param removedMessageIds Set that will be populated with the removed message IDs.
      * @return <code>true</code> if messages were updated, otherwise <code>false</code>.
      */
-    private boolean updateMessages() {
+    private boolean updateMessages(@NonNull Set<String> updatedMessageIds, @NonNull Set<String> removedMessageIds) {
         Logger.info("Refreshing inbox messages.");
 
         String channelId = channel.getId();
@@ -187,7 +191,7 @@ class InboxJobHandler {
             if (response.isSuccessful()) {
                 JsonList result = response.getResult();
                 Logger.info("InboxJobHandler - Received %s inbox messages.", response.getResult().size());
-                updateInbox(response.getResult());
+                updateInbox(response.getResult(), updatedMessageIds, removedMessageIds);
                 dataStore.put(LAST_MESSAGE_REFRESH_TIME, response.getLastModifiedTime());
                 return true;
             }
@@ -211,8 +215,10 @@ class InboxJobHandler {
      * Update the Rich Push Inbox.
      *
      * @param serverMessages The messages from the server.
+     * @param updatedMessageIds Set that will be populated with the inserted or updated message IDs.
+     * @param removedMessageIds Set that will be populated with the removed message IDs.
      */
-    private void updateInbox(JsonList serverMessages) {
+    private void updateInbox(JsonList serverMessages, Set<String> updatedMessageIds, Set<String> removedMessageIds) {
         List<JsonValue> messagesToInsert = new ArrayList<>();
         HashSet<String> serverMessageIds = new HashSet<>();
 
@@ -230,6 +236,13 @@ class InboxJobHandler {
 
             serverMessageIds.add(messageId);
 
+            // Skip messages the inbox already has with the same payload
+            Message existing = inbox.getMessage(messageId);
+            if (existing != null && message.equals(existing.getRawMessageJson())) {
+                continue;
+            }
+
+            updatedMessageIds.add(messageId);
             if (resolver.updateMessage(messageId, message) != 1) {
                 messagesToInsert.add(message);
             }
@@ -243,6 +256,7 @@ class InboxJobHandler {
         Set<String> deletedMessageIds = resolver.getMessageIds();
         deletedMessageIds.removeAll(serverMessageIds);
         resolver.deleteMessages(deletedMessageIds);
+        removedMessageIds.addAll(deletedMessageIds);
     }
 
     /**
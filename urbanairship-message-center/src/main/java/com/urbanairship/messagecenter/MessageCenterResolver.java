@@ -59,6 +59,20 @@ class MessageCenterResolver extends UrbanAirshipResolver {
         return getMessagesFromCursor(cursor);
     }
 
+    /**
+     * Gets the {@link Message} instances with the given IDs from the database.
+     *
+     * @param messageIds The message IDs.
+     * @return A collection of {@link Message}.
+     */
+    @NonNull
+    Collection<Message> getMessages(@NonNull Collection<String> messageIds) {
+        Cursor cursor = this.query(this.uri, null,
+                MessageCenterDataManager.MessageTable.COLUMN_NAME_MESSAGE_ID + " IN ( " + UAStringUtil.repeat("?", messageIds.size(), ", ") + " )",
+                messageIds.toArray(new String[0]), null);
+        return getMessagesFromCursor(cursor);
+    }
+
     /**
      * Gets all the {@link Message} IDs in the database.
      *
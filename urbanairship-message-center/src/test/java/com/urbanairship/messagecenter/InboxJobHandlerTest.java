@@ -24,6 +24,7 @@ import org.mockito.Mockito;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -174,7 +175,7 @@ public class InboxJobHandlerTest {
         assertEquals(600L, dataStore.getLong(InboxJobHandler.LAST_MESSAGE_REFRESH_TIME, 0));
 
         // Verify we updated the inbox
-        verify(inbox).refresh(true);
+        verify(inbox).refresh(Collections.<String>emptySet(), Collections.<String>emptySet(), true);
     }
 
     /**
@@ -220,7 +221,7 @@ public class InboxJobHandlerTest {
         assertEquals(600L, dataStore.getLong(InboxJobHandler.LAST_MESSAGE_REFRESH_TIME, 0));
 
         // Verify we updated the inbox
-        verify(inbox).refresh(true);
+        verify(inbox).refresh(Collections.singleton("some_mesg_id"), Collections.<String>emptySet(), true);
     }
 
     /**
@@ -256,7 +257,7 @@ public class InboxJobHandlerTest {
         assertEquals(300L, dataStore.getLong(InboxJobHandler.LAST_MESSAGE_REFRESH_TIME, 0));
 
         // Verify we updated the inbox
-        verify(inbox).refresh(true);
+        verify(inbox).refresh(Collections.<String>emptySet(), Collections.<String>emptySet(), true);
     }
 
     @Test
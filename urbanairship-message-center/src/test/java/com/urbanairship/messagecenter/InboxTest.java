@@ -24,6 +24,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -35,6 +36,7 @@ import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -200,6 +202,22 @@ public class InboxTest {
      * Test mark messages are marked deleted in the database
      * and the inbox.
      */
+    /**
+     * Test the message lists are copies that callers can modify.
+     */
+    @Test
+    public void testGetMessagesReturnsCopies() {
+        List<Message> messages = inbox.getMessages();
+        assertEquals(10, messages.size());
+
+        messages.clear();
+        inbox.getUnreadMessages().clear();
+        inbox.getReadMessages().clear();
+
+        assertEquals(10, inbox.getMessages().size());
+        assertEquals(10, inbox.getUnreadMessages().size());
+    }
+
     @Test
     public void testMarkMessagesDeleted() throws JSONException, InterruptedException {
         assertEquals(10, inbox.getCount());
@@ -477,6 +495,68 @@ public class InboxTest {
         }
     }
 
+    /**
+     * Test messages stay sorted as they move between read and unread.
+     */
+    @Test
+    public void testGetMessagesSorted() {
+        HashSet<String> messageIds = new HashSet<>();
+        messageIds.add("2_message_id");
+        messageIds.add("5_message_id");
+        inbox.markMessagesRead(messageIds);
+
+        assertSorted(inbox.getMessages());
+        assertSorted(inbox.getReadMessages());
+        assertSorted(inbox.getUnreadMessages());
+        assertEquals(10, inbox.getMessages().size());
+    }
+
+    /**
+     * Test refreshing only the changed messages.
+     */
+    @Test
+    public void testRefreshChangedMessages() {
+        MessageCenterResolver resolver = new MessageCenterResolver(ApplicationProvider.getApplicationContext());
+        MessageCenterTestUtils.insertMessage("20_message_id");
+        resolver.deleteMessages(Collections.singleton("1_message_id"));
+
+        List<Message> previousMessages = inbox.getMessages();
+
+        inbox.refresh(Collections.singleton("20_message_id"), Collections.singleton("1_message_id"), false);
+
+        assertEquals(10, inbox.getCount());
+        assertNull(inbox.getMessage("1_message_id"));
+        assertNotNull(inbox.getMessage("20_message_id"));
+        assertEquals(inbox.getMessage("20_message_id"), inbox.getMessageByUrl(inbox.getMessage("20_message_id").getMessageBodyUrl()));
+        assertSorted(inbox.getMessages());
+
+        // Previous snapshots are unaffected
+        assertNotNull(createIdToMessageMap(previousMessages).get("1_message_id"));
+    }
+
+    /**
+     * Test refreshing a changed message keeps the client read state.
+     */
+    @Test
+    public void testRefreshChangedMessageKeepsReadState() {
+        inbox.markMessagesRead(Collections.singleton("3_message_id"));
+
+        // Revert the DB state as if the mark read is still in process
+        new MessageCenterResolver(ApplicationProvider.getApplicationContext()).markMessagesUnread(Collections.singleton("3_message_id"));
+
+        inbox.refresh(Collections.singleton("3_message_id"), Collections.<String>emptySet(), false);
+
+        assertTrue(inbox.getMessage("3_message_id").isRead());
+        assertEquals(1, inbox.getReadCount());
+        assertEquals(9, inbox.getUnreadCount());
+    }
+
+    private static void assertSorted(List<Message> messages) {
+        for (int i = 1; i < messages.size(); i++) {
+            assertTrue(new Inbox.SentAtRichPushMessageComparator().compare(messages.get(i - 1), messages.get(i)) < 0);
+        }
+    }
+
     /**
      * Helper method to convert a list of rich push messages
      * to a map of message ids to messages
@@ -6,8 +6,13 @@ import com.urbanairship.http.Request;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
 import com.urbanairship.http.ResponseParser;
+import com.urbanairship.http.ResponseStreamParser;
 import com.urbanairship.util.Checks;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +52,23 @@ public class TestRequest extends Request {
         }
     }
 
+    @NonNull
+    @Override
+    public <T> Response<T> execute(@NonNull ResponseStreamParser<T> parser) throws RequestException {
+        try {
+            Checks.checkNotNull(url, "missing url");
+            Checks.checkNotNull(requestMethod, "missing request method");
+            InputStream input = responseBody == null ? null : new ByteArrayInputStream(responseBody.getBytes("UTF-8"));
+            return new Response.Builder<T>(responseStatus)
+                    .setLastModified(responseLastModifiedTime)
+                    .setResponseHeaders(responseHeaders)
+                    .setResult(parser.parseResponse(responseStatus, responseHeaders, input))
+                    .build();
+        } catch (Exception e) {
+            throw new RequestException("parse error", e);
+        }
+    }
+
     /**
      * Gets the Airship User Agent used for any Airship requests.
      *
@@ -62,6 +84,16 @@ public class TestRequest extends Request {
      * @return The request body.
      */
     public String getRequestBody() {
+        if (bodyWriter != null) {
+            StringWriter writer = new StringWriter();
+            try {
+                bodyWriter.writeBody(writer);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return writer.toString();
+        }
+
         return body;
     }
 